@@ -0,0 +1,188 @@
+/**
+ * BenchmarkComparison.java
+ */
+
+package uk.co.bluettduncanj.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * BenchmarkComparison compares two sets of JMH results written in CSV form (<code>-rf csv -rff FILE</code>), e.g. those
+ * of the previous release and those of the current build, and prints how much each benchmark has changed by.
+ *
+ * A benchmark has regressed if its score has got worse (lower throughput, or higher average time) by more than the
+ * threshold, and by more than the errors of both scores together, so that noise alone is not reported. The exit status
+ * is 1 if any benchmark has regressed, so that a build can be failed on it, and 2 if the arguments are wrong.
+ *
+ * Usage: <code>java -cp benchmarks.jar uk.co.bluettduncanj.benchmark.BenchmarkComparison BASELINE.csv CURRENT.csv
+ * [THRESHOLD_PERCENT]</code>
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public final class BenchmarkComparison {
+
+  /** The default threshold of a regression, in percent */
+  private static final double DEFAULT_THRESHOLD = 10.0;
+
+  private BenchmarkComparison() {
+    super();
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2 || args.length > 3) {
+      System.err.println("Usage: BenchmarkComparison BASELINE.csv CURRENT.csv [THRESHOLD_PERCENT]");
+      System.exit(2);
+    }
+    double threshold = (args.length == 3) ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+    Map<String, Result> baseline = read(args[0]);
+    Map<String, Result> current = read(args[1]);
+
+    int noOfRegressions = 0;
+    for (Map.Entry<String, Result> entry : current.entrySet()) {
+      Result after = entry.getValue();
+      Result before = baseline.get(entry.getKey());
+      if (before == null) {
+        System.out.printf(Locale.ROOT, "%-100s %14.3f %s  (new)%n", entry.getKey(), after.score, after.unit);
+        continue;
+      }
+      double change = 100.0 * (after.score - before.score) / before.score;
+
+      // For throughput, higher is better; for times, lower is better
+      double worsening = after.isThroughput() ? -change : change;
+      boolean isRegression = worsening > threshold
+          && Math.abs(after.score - before.score) > before.error + after.error;
+      if (isRegression) {
+        noOfRegressions++;
+      }
+      System.out.printf(Locale.ROOT, "%-100s %14.3f -> %14.3f %s  %+7.1f%%%s%n", entry.getKey(), before.score,
+          after.score, after.unit, change, isRegression ? "  REGRESSION" : "");
+    }
+    for (String key : baseline.keySet()) {
+      if (!current.containsKey(key)) {
+        System.out.printf(Locale.ROOT, "%-100s  (removed)%n", key);
+      }
+    }
+
+    System.out.printf(Locale.ROOT, "%d regression(s) of more than %.1f%%%n", noOfRegressions, threshold);
+    System.exit(noOfRegressions == 0 ? 0 : 1);
+  }
+
+  /**
+   * Reads a JMH result file in CSV form.
+   *
+   * @param path: The path of the result file.
+   *
+   * @return the result of each benchmark, keyed by its name, mode and parameters, in file order.
+   *
+   * @throws IOException if the result file cannot be read, or is not in the expected form.
+   */
+  static Map<String, Result> read(String path) throws IOException {
+    Map<String, Result> results = new LinkedHashMap<String, Result>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(path), "UTF-8"));
+    try {
+      String line = reader.readLine();
+      if (line == null) {
+        throw new IOException(path + " is empty.");
+      }
+      List<String> header = parseLine(line);
+      int benchmarkIndex = header.indexOf("Benchmark");
+      int modeIndex = header.indexOf("Mode");
+      int scoreIndex = header.indexOf("Score");
+      int errorIndex = header.indexOf("Score Error (99.9%)");
+      int unitIndex = header.indexOf("Unit");
+      if (benchmarkIndex < 0 || modeIndex < 0 || scoreIndex < 0 || unitIndex < 0) {
+        throw new IOException(path + " is not a JMH result file in CSV form.");
+      }
+
+      while ((line = reader.readLine()) != null) {
+        if (line.trim().isEmpty()) {
+          continue;
+        }
+        List<String> fields = parseLine(line);
+        StringBuilder key = new StringBuilder(fields.get(benchmarkIndex)).append(' ').append(fields.get(modeIndex));
+        for (int i = 0; i < header.size() && i < fields.size(); i++) {
+          if (header.get(i).startsWith("Param: ")) {
+            key.append(' ').append(header.get(i).substring("Param: ".length())).append('=').append(fields.get(i));
+          }
+        }
+        Result result = new Result();
+        result.mode = fields.get(modeIndex);
+        result.score = parseNumber(fields.get(scoreIndex));
+        result.error = (errorIndex < 0) ? 0.0 : parseNumber(fields.get(errorIndex));
+        result.unit = fields.get(unitIndex);
+        results.put(key.toString(), result);
+      }
+    }
+    finally {
+      reader.close();
+    }
+    return results;
+  }
+
+  /**
+   * Private helper method for read(String) that splits one line of CSV into its fields, removing any quotes.
+   */
+  private static List<String> parseLine(String line) {
+    List<String> fields = new ArrayList<String>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        }
+        else {
+          quoted = !quoted;
+        }
+      }
+      else if (c == ',' && !quoted) {
+        fields.add(field.toString());
+        field.setLength(0);
+      }
+      else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  /**
+   * Private helper method for read(String) that parses a score, which is NaN if JMH could not work it out.
+   */
+  private static double parseNumber(String s) {
+    s = s.trim();
+    return (s.isEmpty() || s.equals("NaN")) ? 0.0 : Double.parseDouble(s);
+  }
+
+  /**
+   * The result of one benchmark.
+   */
+  static final class Result {
+
+    String mode;
+
+    double score;
+
+    double error;
+
+    String unit;
+
+    boolean isThroughput() {
+      return this.mode.equals("thrpt");
+    }
+
+  }
+
+}
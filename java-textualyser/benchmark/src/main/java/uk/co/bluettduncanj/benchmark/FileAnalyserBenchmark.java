@@ -0,0 +1,119 @@
+/**
+ * FileAnalyserBenchmark.java
+ */
+
+package uk.co.bluettduncanj.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * FileAnalyserBenchmark measures FileAnalyser.process() from end to end, i.e. reading, decoding, parsing and analysing
+ * a text file on disk, for each analysis mode, text file size, alphabet and combination of options.
+ *
+ * The text files are generated once (see TextCorpus) into the directory given by the system property
+ * "textualyser.benchmark.dir", or the temporary directory by default, and are reused by later runs. Larger sizes than
+ * the defaults, up to "1GB", can be given on the command line, e.g. <code>-p size=1GB</code>; DEFAULT_MODE stores the
+ * whole text file in memory, so it needs a correspondingly large heap (<code>-jvmArgsAppend -Xmx8g</code>).
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class FileAnalyserBenchmark {
+
+  /** The size of the text file, e.g. "1KB", "1MB", "1GB" (see TextCorpus.parseSize(String)) */
+  @Param({ "1KB", "1MB", "64MB" })
+  public String size;
+
+  /** The alphabet of the text file */
+  @Param({ "ASCII", "LATIN1", "CJK" })
+  public TextCorpus.Alphabet alphabet;
+
+  /** The analysis mode */
+  @Param({ "DEFAULT_MODE", "STREAMING_MODE", "PARALLEL_MODE" })
+  public AnalysisMode mode;
+
+  /**
+   * The categories of statistics to analyse: "all", or one of "avgLens", "frequencies" and "textOCs" on its own, or
+   * "none" for parsing alone.
+   */
+  @Param({ "all", "avgLens", "frequencies", "textOCs", "none" })
+  public String options;
+
+  private File file;
+
+  private boolean[] optionValues;
+
+  private String[] patterns;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    File dir = new File(System.getProperty("textualyser.benchmark.dir", System.getProperty("java.io.tmpdir")));
+    this.file = TextCorpus.write(dir, this.alphabet, TextCorpus.parseSize(this.size));
+    this.optionValues = parseOptions(this.options);
+    this.patterns = TextCorpus.getPatterns(this.alphabet);
+  }
+
+  @Benchmark
+  public Statistics process() throws IOException {
+    FileAnalyser fileAnalyser = new FileAnalyser();
+    fileAnalyser.setAnalysisMode(this.mode);
+    fileAnalyser.setCharset(TextCorpus.CHARSET);
+    fileAnalyser.setOptions(this.optionValues, this.patterns);
+    fileAnalyser.setFilePath(this.file.getAbsolutePath());
+    fileAnalyser.process();
+    return fileAnalyser.getStatistics();
+  }
+
+  /**
+   * Parses a combination of options (see the options parameter) into the options of FileAnalyser.setOptions(boolean[],
+   * String[]).
+   *
+   * @param options: The combination of options.
+   *
+   * @return the options.
+   *
+   * @throws IllegalArgumentException if the combination is not known.
+   */
+  static boolean[] parseOptions(String options) throws IllegalArgumentException {
+    switch (options) {
+      case "all":
+        return new boolean[] { true, true, true };
+      case "avgLens":
+        return new boolean[] { true, false, false };
+      case "frequencies":
+        return new boolean[] { false, true, false };
+      case "textOCs":
+        return new boolean[] { false, false, true };
+      case "none":
+        return new boolean[] { false, false, false };
+      default:
+        throw new IllegalArgumentException("Unknown combination of options: " + options);
+    }
+  }
+
+}
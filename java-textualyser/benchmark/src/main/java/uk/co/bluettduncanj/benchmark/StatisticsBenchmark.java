@@ -0,0 +1,126 @@
+/**
+ * StatisticsBenchmark.java
+ */
+
+package uk.co.bluettduncanj.benchmark;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.co.bluettduncanj.controller.TextScanner;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * StatisticsBenchmark measures the calculations that DEFAULT_MODE makes from the stored characters, words and
+ * sentences of a text file, each on its own, and the merging of the Statistics of two chunks (as PARALLEL_MODE and
+ * CorpusAnalyser do).
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StatisticsBenchmark {
+
+  /** The size of the text in chars */
+  @Param({ "1KB", "1MB", "16MB" })
+  public String size;
+
+  /** The alphabet of the text */
+  @Param({ "ASCII", "LATIN1", "CJK" })
+  public TextCorpus.Alphabet alphabet;
+
+  private char[] characters;
+
+  private List<String> words;
+
+  private List<String> sentences;
+
+  private int noOfLineTerminators;
+
+  private char[][] patterns;
+
+  private Statistics half;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    char[] text = TextCorpus.generate(this.alphabet, (int) TextCorpus.parseSize(this.size));
+    TextScanner scanner = new TextScanner();
+    scanner.scan(new CharArrayReader(text));
+    this.characters = scanner.getCharacters();
+    this.words = scanner.getWords();
+    this.sentences = scanner.getSentences();
+    this.noOfLineTerminators = scanner.getNoOfLineTerminators();
+
+    String[] patterns = TextCorpus.getPatterns(this.alphabet);
+    this.patterns = new char[patterns.length][];
+    for (int i = 0; i < patterns.length; i++) {
+      this.patterns[i] = patterns[i].toCharArray();
+    }
+
+    this.half = new Statistics();
+    this.half.startAvgLens();
+    this.half.startFrequencies();
+    this.half.startTextOCs(this.patterns);
+    new TextScanner(this.half, false).scan(new CharArrayReader(text, 0, text.length / 2));
+  }
+
+  @Benchmark
+  public Statistics avgLens() {
+    Statistics stats = new Statistics();
+    stats.calcAvgSentenceLen(this.sentences);
+    stats.calcAvgWordLen(this.words);
+    stats.calcNoOfSuffixes(this.words);
+    return stats;
+  }
+
+  @Benchmark
+  public Statistics frequencies() {
+    Statistics stats = new Statistics();
+    stats.calcCharFreq(this.characters);
+    stats.calcNoOfEnglishANs(this.characters);
+    stats.calcNoOfNonANs(this.characters);
+    stats.calcNoOfWhitespaces(this.characters, this.noOfLineTerminators);
+    stats.calcNoOfIntlChars(this.characters);
+    return stats;
+  }
+
+  @Benchmark
+  public Statistics textOCs() {
+    Statistics stats = new Statistics();
+    stats.calcNoOfTextOCs(this.characters, this.patterns);
+    return stats;
+  }
+
+  @Benchmark
+  public Statistics textOC() {
+    Statistics stats = new Statistics();
+    stats.calcNoOfTextOCs(this.characters, this.patterns[0]);
+    return stats;
+  }
+
+  @Benchmark
+  public Statistics merge() {
+    return Statistics.combine(this.half, this.half);
+  }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * StringMatcherBenchmark.java
+ */
+
+package uk.co.bluettduncanj.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.co.bluettduncanj.controller.AhoCorasickStringMatcher;
+import uk.co.bluettduncanj.controller.BoyerMooreStringMatcher;
+import uk.co.bluettduncanj.controller.StreamingStringMatcher;
+
+
+/**
+ * StringMatcherBenchmark measures the string matchers behind the 'Text Occurrences' statistic on text that is already
+ * in memory: BoyerMooreStringMatcher counting the matches of one pattern, and AhoCorasickStringMatcher and
+ * StreamingStringMatcher counting every match of all the patterns.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StringMatcherBenchmark {
+
+  /** The number of chars fed to the StreamingStringMatcher at a time, as TextScanner does */
+  private static final int SEGMENT_SIZE = 8192;
+
+  /** The size of the text in chars */
+  @Param({ "1KB", "1MB", "16MB" })
+  public String size;
+
+  /** The alphabet of the text */
+  @Param({ "ASCII", "LATIN1", "CJK" })
+  public TextCorpus.Alphabet alphabet;
+
+  private char[] text;
+
+  private BoyerMooreStringMatcher boyerMoore;
+
+  private AhoCorasickStringMatcher ahoCorasick;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.text = TextCorpus.generate(this.alphabet, (int) TextCorpus.parseSize(this.size));
+    String[] patterns = TextCorpus.getPatterns(this.alphabet);
+    char[][] chars = new char[patterns.length][];
+    for (int i = 0; i < patterns.length; i++) {
+      chars[i] = patterns[i].toCharArray();
+    }
+    this.boyerMoore = new BoyerMooreStringMatcher(chars[0]);
+    this.ahoCorasick = new AhoCorasickStringMatcher(chars);
+  }
+
+  @Benchmark
+  public int boyerMoore() {
+    return this.boyerMoore.search(this.text);
+  }
+
+  @Benchmark
+  public long[] ahoCorasick() {
+    return this.ahoCorasick.search(this.text);
+  }
+
+  @Benchmark
+  public long[] streaming() {
+    StreamingStringMatcher matcher = new StreamingStringMatcher(this.ahoCorasick);
+    for (int offset = 0; offset < this.text.length; offset += SEGMENT_SIZE) {
+      matcher.feed(this.text, offset, Math.min(SEGMENT_SIZE, this.text.length - offset));
+    }
+    return matcher.getCounts();
+  }
+
+}
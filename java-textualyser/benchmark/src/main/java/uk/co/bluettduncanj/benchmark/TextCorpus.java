@@ -0,0 +1,229 @@
+/**
+ * TextCorpus.java
+ */
+
+package uk.co.bluettduncanj.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Random;
+
+
+/**
+ * TextCorpus generates the text that the benchmarks analyse. The text is made of sentences of words drawn from one of a
+ * few alphabets (see Alphabet), separated by spaces, punctuation and line terminators, so that every parser and
+ * statistic of Java Textualyser has something to do.
+ *
+ * The text is generated from a fixed seed, so that the same size and alphabet always give exactly the same text, and
+ * results from different runs (and different releases) can be compared with each other.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public final class TextCorpus {
+
+  /** The seed of the generator, fixed so that every run sees the same text */
+  private static final long SEED = 0x5EED_7E47L;
+
+  /** The charset that text files are written in */
+  public static final Charset CHARSET = Charset.forName("UTF-8");
+
+  /**
+   * The alphabets that words are drawn from.
+   */
+  public enum Alphabet {
+
+    /** English letters and digits only */
+    ASCII("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"),
+
+    /** English letters mixed with accented Latin-1 letters, which take two bytes each in UTF-8 */
+    LATIN1("abcdefghijklmnopqrstuvwxyz\u00e0\u00e1\u00e2\u00e4\u00e7\u00e8\u00e9\u00ea\u00eb\u00ee\u00ef\u00f1\u00f4\u00f6"
+        + "\u00f9\u00fa\u00fb\u00fc\u00df\u00c9"),
+
+    /** Common CJK ideographs and kana, which take three bytes each in UTF-8 */
+    CJK("\u306e\u306b\u306f\u3092\u305f\u304c\u3067\u3066\u3068\u3057\u308c\u3055\u3042\u308b\u3044\u3046\u4eba\u5927"
+        + "\u5e74\u4e2d\u65e5\u672c\u56fd\u4e0a\u5b66\u751f\u6642\u4f1a\u6587\u5b57\u5b50\u6c34");
+
+    /** The letters of the alphabet */
+    private final char[] letters;
+
+    private Alphabet(String letters) {
+      this.letters = letters.toCharArray();
+    }
+
+  }
+
+  /** The words used as 'Text Occurrences' patterns by the benchmarks, for each alphabet */
+  private static final String[][] PATTERNS = {
+    { "the", "and", "ing" },
+    { "\u00e9t\u00e9", "\u00e7a", "ent" },
+    { "\u65e5\u672c", "\u5b66\u751f", "\u306e" }
+  };
+
+  private TextCorpus() {
+    super();
+  }
+
+  /**
+   * Parses a size such as "1KB", "64MB" or "1GB" (or a plain number of bytes). Units are powers of 1024.
+   *
+   * @param size: The size.
+   *
+   * @return the size in bytes.
+   *
+   * @throws IllegalArgumentException if the size cannot be parsed.
+   */
+  public static long parseSize(String size) throws IllegalArgumentException {
+    String s = size.trim().toUpperCase(Locale.ROOT);
+    long unit = 1;
+    if (s.endsWith("KB")) {
+      unit = 1024L;
+    }
+    else if (s.endsWith("MB")) {
+      unit = 1024L * 1024;
+    }
+    else if (s.endsWith("GB")) {
+      unit = 1024L * 1024 * 1024;
+    }
+    if (unit != 1) {
+      s = s.substring(0, s.length() - 2).trim();
+    }
+    try {
+      return Long.parseLong(s) * unit;
+    }
+    catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid size: " + size);
+    }
+  }
+
+  /**
+   * @param alphabet: The alphabet.
+   *
+   * @return words of the alphabet that occur often enough in its text to be used as 'Text Occurrences' patterns.
+   */
+  public static String[] getPatterns(Alphabet alphabet) {
+    return PATTERNS[alphabet.ordinal()].clone();
+  }
+
+  /**
+   * Generates text of about the given number of chars.
+   *
+   * @param alphabet: The alphabet to draw words from.
+   * @param noOfChars: The number of chars to generate.
+   *
+   * @return the text.
+   */
+  public static char[] generate(Alphabet alphabet, int noOfChars) {
+    StringBuilder text = new StringBuilder(noOfChars + 64);
+    Generator generator = new Generator(alphabet);
+    while (text.length() < noOfChars) {
+      generator.appendSentence(text);
+    }
+    text.setLength(noOfChars);
+    char[] chars = new char[noOfChars];
+    text.getChars(0, noOfChars, chars, 0);
+    return chars;
+  }
+
+  /**
+   * Writes a text file of at least the given size in bytes, encoded as UTF-8. The text file is only written if it does
+   * not already exist with the right contents, so that large text files are not regenerated for every benchmark.
+   *
+   * @param dir: The directory to write the text file into.
+   * @param alphabet: The alphabet to draw words from.
+   * @param size: The size of the text file in bytes.
+   *
+   * @return the text file.
+   *
+   * @throws IOException if the text file cannot be written.
+   */
+  public static File write(File dir, Alphabet alphabet, long size) throws IOException {
+    File file = new File(dir, "textualyser-" + alphabet.name().toLowerCase(Locale.ROOT) + "-" + size + ".txt");
+    File done = new File(dir, file.getName() + ".done");
+    if (file.isFile() && done.isFile()) {
+      return file;
+    }
+
+    Generator generator = new Generator(alphabet);
+    StringBuilder sentence = new StringBuilder(256);
+    long written = 0;
+    Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), CHARSET), 1 << 16);
+    try {
+      while (written < size) {
+        sentence.setLength(0);
+        generator.appendSentence(sentence);
+        writer.append(sentence);
+        written += utf8Length(sentence);
+      }
+    }
+    finally {
+      writer.close();
+    }
+    if (!done.createNewFile() && !done.isFile()) {
+      throw new IOException("Could not create " + done);
+    }
+    return file;
+  }
+
+  /**
+   * Private helper method for write(File, Alphabet, long) that counts the UTF-8 bytes of a run of chars without encoding
+   * them. Every alphabet lies in the Basic Multilingual Plane, so surrogates need not be handled.
+   */
+  private static long utf8Length(CharSequence s) {
+    long length = 0;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      length += (c < 0x80) ? 1 : (c < 0x800) ? 2 : 3;
+    }
+    return length;
+  }
+
+  /**
+   * Generator of sentences from one alphabet. The lengths of words and sentences, and the punctuation and line
+   * terminators between them, are drawn at random (from the fixed seed) to look roughly like prose.
+   */
+  private static final class Generator {
+
+    private static final String[] TERMINATORS = { ". ", "! ", "? ", ".\n", ".\r\n" };
+
+    private final Alphabet alphabet;
+
+    private final String[] patterns;
+
+    private final Random random = new Random(SEED);
+
+    Generator(Alphabet alphabet) {
+      this.alphabet = alphabet;
+      this.patterns = PATTERNS[alphabet.ordinal()];
+    }
+
+    void appendSentence(StringBuilder text) {
+      int noOfWords = 3 + this.random.nextInt(15);
+      for (int w = 0; w < noOfWords; w++) {
+        if (w > 0) {
+          text.append(this.random.nextInt(10) == 0 ? ", " : " ");
+        }
+        if (this.random.nextInt(8) == 0) {
+          text.append(this.patterns[this.random.nextInt(this.patterns.length)]);
+          continue;
+        }
+        int wordLength = 1 + this.random.nextInt(9);
+        for (int i = 0; i < wordLength; i++) {
+          char[] letters = this.alphabet.letters;
+          text.append(letters[this.random.nextInt(letters.length)]);
+        }
+        if (this.random.nextInt(20) == 0) {
+          text.append("ing");
+        }
+      }
+      text.append(TERMINATORS[this.random.nextInt(TERMINATORS.length)]);
+    }
+
+  }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * TextScannerBenchmark.java
+ */
+
+package uk.co.bluettduncanj.benchmark;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.co.bluettduncanj.controller.StreamingStringMatcher;
+import uk.co.bluettduncanj.controller.TextScanner;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * TextScannerBenchmark measures the tokenizers of TextScanner on text that is already in memory, so that reading and
+ * decoding the text file are left out: once storing every character, word and sentence (as DEFAULT_MODE does), once
+ * passing them straight to a Statistics object (as STREAMING_MODE does), and once also feeding a StreamingStringMatcher.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TextScannerBenchmark {
+
+  /** The size of the text in chars */
+  @Param({ "1KB", "1MB", "16MB" })
+  public String size;
+
+  /** The alphabet of the text */
+  @Param({ "ASCII", "LATIN1", "CJK" })
+  public TextCorpus.Alphabet alphabet;
+
+  private char[] text;
+
+  private char[][] patterns;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.text = TextCorpus.generate(this.alphabet, (int) TextCorpus.parseSize(this.size));
+    String[] patterns = TextCorpus.getPatterns(this.alphabet);
+    this.patterns = new char[patterns.length][];
+    for (int i = 0; i < patterns.length; i++) {
+      this.patterns[i] = patterns[i].toCharArray();
+    }
+  }
+
+  @Benchmark
+  public TextScanner storing() throws IOException {
+    TextScanner scanner = new TextScanner();
+    scanner.scan(new CharArrayReader(this.text));
+    return scanner;
+  }
+
+  @Benchmark
+  public Statistics streaming() throws IOException {
+    Statistics stats = new Statistics();
+    stats.startAvgLens();
+    stats.startFrequencies();
+    new TextScanner(stats, false).scan(new CharArrayReader(this.text));
+    return stats;
+  }
+
+  @Benchmark
+  public Statistics streamingWithTextOCs() throws IOException {
+    Statistics stats = new Statistics();
+    stats.startAvgLens();
+    stats.startFrequencies();
+    stats.startTextOCs(this.patterns);
+    StreamingStringMatcher matcher = new StreamingStringMatcher(this.patterns);
+    new TextScanner(stats, matcher).scan(new CharArrayReader(this.text));
+    stats.addTextOCs(matcher.getCounts());
+    return stats;
+  }
+
+}
@@ -6,6 +6,9 @@ package uk.co.bluettduncanj;
 
 import java.awt.EventQueue;
 
+import javax.management.JMException;
+
+import uk.co.bluettduncanj.controller.AnalysisMetricsRecorder;
 import uk.co.bluettduncanj.view.GUI;
 
 
@@ -17,9 +20,15 @@ public class Application {
   // TODO: Implement java-textualyser from scratch as a new version, using TODOs littered throughout this project's source code files.
   
   /**
-   * Launch the application.
+   * Launch the application, publishing the metrics of every analysis through JMX (see AnalysisMetricsRecorder).
    */
   public static void main(String[] args) {
+    try {
+      AnalysisMetricsRecorder.getDefault().register(AnalysisMetricsRecorder.OBJECT_NAME);
+    }
+    catch (JMException e) {
+      e.printStackTrace();
+    }
     EventQueue.invokeLater(new Runnable() {
 
       @Override
@@ -0,0 +1,708 @@
+/**
+ * CommandLineApplication.java
+ */
+
+package uk.co.bluettduncanj;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import javax.management.JMException;
+
+import uk.co.bluettduncanj.controller.AnalysisMetricsRecorder;
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.CorpusAnalyser;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.ResultCache;
+import uk.co.bluettduncanj.controller.StatisticsFileWriter;
+import uk.co.bluettduncanj.model.CorpusStatistics;
+import uk.co.bluettduncanj.model.DistinctCounter;
+import uk.co.bluettduncanj.model.IStatistic;
+import uk.co.bluettduncanj.model.Statistics;
+import uk.co.bluettduncanj.model.TopWords;
+
+
+/**
+ * CommandLineApplication is a headless front-end to FileAnalyser, for analysing text files from scripts, cron jobs and
+ * pipelines without a display.
+ *
+ * Each argument is a text file, a directory (every file beneath which is analysed concurrently by a CorpusAnalyser, and
+ * written out in path order) or "-" for standard input. The statistics of each text file are written to standard output,
+ * either as the same report that the GUI saves to its log files, or with --tsv as one tab-separated row per text file
+ * under a header row. With --total, the statistics of every text file merged together are written out last. With
+ * --binary, the raw counts of each text file are also written to a file of binary records (see StatisticsFileWriter),
+ * from which they can be aggregated later without parsing any reports. Errors are written to standard error, and any
+ * text file that cannot be analysed is skipped.
+ *
+ * This class deliberately refers to nothing in uk.co.bluettduncanj.view, so that no AWT or Swing classes are loaded.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class CommandLineApplication {
+
+  /** Exit status when every text file was analysed */
+  public static final int EXIT_OK = 0;
+
+  /** Exit status when at least one text file could not be analysed */
+  public static final int EXIT_FAILED = 1;
+
+  /** Exit status when the arguments are invalid */
+  public static final int EXIT_USAGE = 2;
+
+  /** The name that stands for standard input */
+  private static final String STDIN = "-";
+
+  /** The name under which the statistics of every text file merged together are written */
+  private static final String TOTAL = "(total)";
+
+  /** The usage message */
+  private static final String USAGE =
+      "Usage: java uk.co.bluettduncanj.CommandLineApplication [options] <file|directory|->...\n" +
+      "Options:\n" +
+      "  -a, --average-lengths   Analyse the 'Average Lengths' statistics\n" +
+      "  -f, --frequencies       Analyse the 'Frequencies' statistics\n" +
+      "  -p, --pattern PATTERN   Count the 'Text Occurrences' of PATTERN (may be given more than once)\n" +
+      "  -w, --top-words N       List the N most frequent words with the 'Frequencies' statistics\n" +
+      "      --exact-top-words   Count every distinct word exactly when listing the most frequent words\n" +
+      "  -d, --distinct          Estimate the numbers of distinct words and sentences with the 'Frequencies'\n" +
+      "                          statistics\n" +
+      "      --distinct-precision P\n" +
+      "                          Estimate them with 2^P registers, from 4 to 18 (default: 14); implies -d\n" +
+      "  -m, --mode MODE         Analyse in 'default', 'streaming' or 'parallel' mode (default: streaming)\n" +
+      "  -c, --charset CHARSET   Decode text files with CHARSET (default: the platform's default charset)\n" +
+      "  -j, --jobs N            Analyse up to N text files of a directory at once (default: one per processor)\n" +
+      "      --cache DIR         Reuse the statistics of text files analysed before, stored in DIR\n" +
+      "      --index DIR         Count word and phrase patterns from word indexes of the text files, stored in DIR\n" +
+      "      --substring-index DIR\n" +
+      "                          Count every pattern from substring indexes of the text files, stored in DIR\n" +
+      "      --plug-ins          Also calculate every plug-in statistic on the class path (see IStatistic)\n" +
+      "      --tsv               Write one tab-separated row per text file instead of a report\n" +
+      "      --total             Also write the statistics of every text file merged together\n" +
+      "      --binary FILE       Also write the raw counts of each text file to FILE as binary records, for\n" +
+      "                          aggregating later (see StatisticsRecord)\n" +
+      "  -h, --help              Show this message\n" +
+      "If none of -a, -f and -p are given, both -a and -f are assumed. A '-' reads standard input.";
+
+  /** The header row of the tab-separated output, which is followed by one column per pattern */
+  private static final String[] TSV_HEADER = {
+    "file", "sentences", "total_sentence_length", "average_sentence_length", "words", "total_word_length",
+    "average_word_length", "characters", "english_alphanumerics", "non_alphanumerics", "whitespaces",
+    "international_characters", "suffixes"
+  };
+
+  /** The options that determine which categories of statistics are analysed (see FileAnalyser.setOptions) */
+  private final boolean[] options;
+
+  /** The text patterns for the 'Text Occurrences' statistic */
+  private final List<String> patterns;
+
+  /** The mode to analyse the text files in */
+  private AnalysisMode mode;
+
+  /** The charset to decode the text files with */
+  private Charset charset;
+
+  /** The number of most frequent words to list, or 0 to not list them */
+  private int noOfTopWords;
+
+  /** Whether to count every distinct word exactly when listing the most frequent words */
+  private boolean exactTopWords;
+
+  /** The precision of the estimated numbers of distinct words and sentences, or 0 to not estimate them */
+  private int distinctPrecision;
+
+  /** Whether to write tab-separated rows rather than reports */
+  private boolean tsv;
+
+  /** Whether to write the statistics of every text file merged together */
+  private boolean total;
+
+  /** The file to write binary records of the statistics of each text file to, or null to not write them */
+  private File binaryFile;
+
+  /** The number of text files of a directory to analyse at once */
+  private int jobs;
+
+  /** The directory of the cache of results to look text files up in, or null to not cache results */
+  private File cacheDirectory;
+
+  /** The cache of results to look text files up in, or null; it is created by run(String[]) once analysis starts */
+  private ResultCache cache;
+
+  /** The directory to store the word indexes of text files in, or null to not index them */
+  private File indexDirectory;
+
+  /** The directory to store the substring indexes of text files in, or null to not use them */
+  private File substringIndexDirectory;
+
+  /** The plug-in statistics to calculate along with the chosen statistics */
+  private IStatistic[] plugIns;
+
+  /** The text files, directories and "-"s to analyse */
+  private final List<String> inputs;
+
+  /** Standard input */
+  private final InputStream in;
+
+  /** Standard output */
+  private final PrintStream out;
+
+  /** Standard error */
+  private final PrintStream err;
+
+  /**
+   * Constructor.
+   *
+   * @param in: The stream to read "-" from.
+   * @param out: The stream to write statistics to.
+   * @param err: The stream to write errors to.
+   */
+  public CommandLineApplication(InputStream in, PrintStream out, PrintStream err) {
+    super();
+    this.options = new boolean[3];
+    this.patterns = new ArrayList<String>();
+    this.mode = AnalysisMode.STREAMING_MODE;
+    this.charset = Charset.defaultCharset();
+    this.noOfTopWords = 0;
+    this.exactTopWords = false;
+    this.distinctPrecision = 0;
+    this.tsv = false;
+    this.total = false;
+    this.binaryFile = null;
+    this.jobs = Runtime.getRuntime().availableProcessors();
+    this.cacheDirectory = null;
+    this.cache = null;
+    this.indexDirectory = null;
+    this.substringIndexDirectory = null;
+    this.plugIns = new IStatistic[0];
+    this.inputs = new ArrayList<String>();
+    this.in = in;
+    this.out = out;
+    this.err = err;
+  }
+
+  /**
+   * Launch the application without a GUI, publishing the metrics of every analysis through JMX (see 
+   * AnalysisMetricsRecorder).
+   */
+  public static void main(String[] args) {
+    try {
+      AnalysisMetricsRecorder.getDefault().register(AnalysisMetricsRecorder.OBJECT_NAME);
+    }
+    catch (JMException e) {
+      e.printStackTrace();
+    }
+    int status = new CommandLineApplication(System.in, System.out, System.err).run(args);
+    System.out.flush();
+    System.exit(status);
+  }
+
+  /**
+   * Parses the command line arguments, then analyses every input and writes out its statistics.
+   *
+   * @param args: The command line arguments.
+   *
+   * @return the exit status: EXIT_OK, EXIT_FAILED or EXIT_USAGE.
+   */
+  public int run(String[] args) {
+    try {
+      if (!this.parseArguments(args)) {
+        this.out.println(USAGE);
+        return EXIT_OK;
+      }
+    }
+    catch (IllegalArgumentException e) {
+      this.err.println("textualyser: " + e.getMessage());
+      this.err.println(USAGE);
+      return EXIT_USAGE;
+    }
+
+    if (this.cacheDirectory != null) {
+      try {
+        this.cache = new ResultCache(ResultCache.DEFAULT_MAX_ENTRIES, this.cacheDirectory);
+      }
+      catch (IllegalArgumentException e) {
+        this.err.println("textualyser: " + this.cacheDirectory + ": " + e.getMessage());
+        return EXIT_FAILED;
+      }
+    }
+
+    StatisticsFileWriter binary = null;
+    if (this.binaryFile != null) {
+      try {
+        binary = new StatisticsFileWriter(this.binaryFile, false);
+      }
+      catch (IOException e) {
+        this.err.println("textualyser: " + this.binaryFile + ": " + e.getMessage());
+        return EXIT_FAILED;
+      }
+    }
+
+    if (this.tsv) {
+      this.writeTSVHeader();
+    }
+    boolean failed = false;
+    boolean withHeadings = this.inputs.size() > 1 || this.total;
+    Statistics total = new Statistics();
+    try {
+      for (String input : this.inputs) {
+        if (input.equals(STDIN) || !new File(input).isDirectory()) {
+          Statistics stats = this.analyse(input);
+          if (stats == null) {
+            failed = true;
+            continue;
+          }
+          this.write(input, stats, withHeadings);
+          binary = this.writeBinary(binary, stats);
+          total.merge(stats);
+        }
+        else {
+          CorpusStatistics corpus = this.analyseCorpus(input);
+          if (corpus == null || !corpus.getFailures().isEmpty()) {
+            failed = true;
+          }
+          if (corpus != null) {
+            for (Map.Entry<String, Statistics> file : corpus.getFiles().entrySet()) {
+              this.write(file.getKey(), file.getValue(), true);
+              binary = this.writeBinary(binary, file.getValue());
+            }
+            total.merge(corpus.getTotal());
+          }
+        }
+      }
+    }
+    finally {
+      binary = this.closeBinary(binary);
+    }
+    if (this.total) {
+      this.write(TOTAL, total, true);
+    }
+    return (failed || (this.binaryFile != null && binary == null)) ? EXIT_FAILED : EXIT_OK;
+  }
+
+  /**
+   * Private helper method for run(String[]) that reads the options and inputs from the command line arguments.
+   *
+   * @param args: The command line arguments.
+   *
+   * @return false if the usage message was asked for, otherwise true.
+   *
+   * @throws IllegalArgumentException if the arguments are invalid.
+   */
+  private boolean parseArguments(String[] args) throws IllegalArgumentException {
+    boolean endOfOptions = false;
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (endOfOptions || arg.equals(STDIN) || !arg.startsWith("-")) {
+        this.inputs.add(arg);
+      }
+      else if (arg.equals("--")) {
+        endOfOptions = true;
+      }
+      else if (arg.equals("-h") || arg.equals("--help")) {
+        return false;
+      }
+      else if (arg.equals("-a") || arg.equals("--average-lengths")) {
+        this.options[0] = true;
+      }
+      else if (arg.equals("-f") || arg.equals("--frequencies")) {
+        this.options[1] = true;
+      }
+      else if (arg.equals("-p") || arg.equals("--pattern")) {
+        this.options[2] = true;
+        this.patterns.add(CommandLineApplication.value(args, ++i, arg));
+      }
+      else if (arg.equals("-m") || arg.equals("--mode")) {
+        String mode = CommandLineApplication.value(args, ++i, arg);
+        if (mode.equals("default")) {
+          this.mode = AnalysisMode.DEFAULT_MODE;
+        }
+        else if (mode.equals("streaming")) {
+          this.mode = AnalysisMode.STREAMING_MODE;
+        }
+        else if (mode.equals("parallel")) {
+          this.mode = AnalysisMode.PARALLEL_MODE;
+        }
+        else {
+          throw new IllegalArgumentException("Unknown mode '" + mode + "'.");
+        }
+      }
+      else if (arg.equals("-w") || arg.equals("--top-words")) {
+        String noOfTopWords = CommandLineApplication.value(args, ++i, arg);
+        try {
+          this.noOfTopWords = Integer.parseInt(noOfTopWords);
+        }
+        catch (NumberFormatException e) {
+          this.noOfTopWords = 0;
+        }
+        if (this.noOfTopWords <= 0) {
+          throw new IllegalArgumentException("The number of most frequent words must be a positive whole number.");
+        }
+      }
+      else if (arg.equals("--exact-top-words")) {
+        this.exactTopWords = true;
+      }
+      else if (arg.equals("-d") || arg.equals("--distinct")) {
+        if (this.distinctPrecision == 0) {
+          this.distinctPrecision = DistinctCounter.DEFAULT_PRECISION;
+        }
+      }
+      else if (arg.equals("--distinct-precision")) {
+        String precision = CommandLineApplication.value(args, ++i, arg);
+        try {
+          this.distinctPrecision = Integer.parseInt(precision);
+        }
+        catch (NumberFormatException e) {
+          this.distinctPrecision = 0;
+        }
+        if (this.distinctPrecision < DistinctCounter.MIN_PRECISION ||
+            this.distinctPrecision > DistinctCounter.MAX_PRECISION) {
+          throw new IllegalArgumentException("The precision must be a whole number from " +
+              DistinctCounter.MIN_PRECISION + " to " + DistinctCounter.MAX_PRECISION + ".");
+        }
+      }
+      else if (arg.equals("-c") || arg.equals("--charset")) {
+        String charset = CommandLineApplication.value(args, ++i, arg);
+        try {
+          this.charset = Charset.forName(charset);
+        }
+        catch (RuntimeException e) {
+          throw new IllegalArgumentException("Unknown charset '" + charset + "'.");
+        }
+      }
+      else if (arg.equals("-j") || arg.equals("--jobs")) {
+        String jobs = CommandLineApplication.value(args, ++i, arg);
+        try {
+          this.jobs = Integer.parseInt(jobs);
+        }
+        catch (NumberFormatException e) {
+          this.jobs = 0;
+        }
+        if (this.jobs <= 0) {
+          throw new IllegalArgumentException("The number of jobs must be a positive whole number.");
+        }
+      }
+      else if (arg.equals("--cache")) {
+        this.cacheDirectory = new File(CommandLineApplication.value(args, ++i, arg));
+      }
+      else if (arg.equals("--index")) {
+        this.indexDirectory = new File(CommandLineApplication.value(args, ++i, arg));
+      }
+      else if (arg.equals("--substring-index")) {
+        this.substringIndexDirectory = new File(CommandLineApplication.value(args, ++i, arg));
+      }
+      else if (arg.equals("--plug-ins")) {
+        this.plugIns = CommandLineApplication.loadPlugIns();
+      }
+      else if (arg.equals("--tsv")) {
+        this.tsv = true;
+      }
+      else if (arg.equals("--total")) {
+        this.total = true;
+      }
+      else if (arg.equals("--binary")) {
+        this.binaryFile = new File(CommandLineApplication.value(args, ++i, arg));
+      }
+      else {
+        throw new IllegalArgumentException("Unknown option '" + arg + "'.");
+      }
+    }
+
+    if (this.inputs.isEmpty()) {
+      throw new IllegalArgumentException("No text files given.");
+    }
+    if (!this.options[0] && !this.options[1] && !this.options[2]) {
+      this.options[0] = true;
+      this.options[1] = true;
+    }
+    return true;
+  }
+
+  /**
+   * Private helper method for parseArguments(String[]) that reads the value of an option.
+   *
+   * @param args: The command line arguments.
+   * @param index: The index of the value.
+   * @param option: The option the value belongs to.
+   *
+   * @return the value.
+   *
+   * @throws IllegalArgumentException if there is no value.
+   */
+  private static String value(String[] args, int index, String option) throws IllegalArgumentException {
+    if (index >= args.length) {
+      throw new IllegalArgumentException("Option '" + option + "' needs a value.");
+    }
+    return args[index];
+  }
+
+  /**
+   * Private helper method for parseArguments(String[]) that loads every plug-in statistic listed in a
+   * META-INF/services/uk.co.bluettduncanj.model.IStatistic file on the class path (see java.util.ServiceLoader).
+   *
+   * @return the plug-in statistics.
+   *
+   * @throws IllegalArgumentException if a plug-in statistic cannot be loaded.
+   */
+  private static IStatistic[] loadPlugIns() throws IllegalArgumentException {
+    List<IStatistic> plugIns = new ArrayList<IStatistic>();
+    try {
+      for (IStatistic plugIn : ServiceLoader.load(IStatistic.class)) {
+        plugIns.add(plugIn);
+      }
+    }
+    catch (ServiceConfigurationError e) {
+      throw new IllegalArgumentException("A plug-in statistic cannot be loaded: " + e.getMessage());
+    }
+    return plugIns.toArray(new IStatistic[plugIns.size()]);
+  }
+
+  /**
+   * Private helper method for run(String[]) that analyses one text file, writing any error to standard error.
+   *
+   * @param file: The path of the text file, or "-" for standard input.
+   *
+   * @return the statistics of the text file, or null if it could not be analysed.
+   */
+  private Statistics analyse(String file) {
+    FileAnalyser fileAnalyser = new FileAnalyser();
+    fileAnalyser.setAnalysisMode(this.mode);
+    fileAnalyser.setCharset(this.charset);
+    fileAnalyser.setOptions(this.options, this.getPatterns());
+    fileAnalyser.setResultCache(this.cache);
+    fileAnalyser.setTopWords(this.noOfTopWords, this.getTopWordsCapacity());
+    fileAnalyser.setDistinctCounts(this.distinctPrecision);
+    try {
+      fileAnalyser.setWordIndexDirectory(this.indexDirectory);
+      fileAnalyser.setSubstringIndexDirectory(this.substringIndexDirectory);
+      fileAnalyser.setPlugIns(this.plugIns);
+      if (file.equals(STDIN)) {
+        Reader reader = new InputStreamReader(this.in, this.charset);
+        fileAnalyser.process(reader);
+      }
+      else {
+        fileAnalyser.setFilePath(file);
+        fileAnalyser.process();
+      }
+    }
+    catch (IOException e) {
+      this.err.println("textualyser: " + file + ": " + e.getMessage());
+      return null;
+    }
+    catch (IllegalArgumentException e) {
+      this.err.println("textualyser: " + file + ": " + e.getMessage());
+      return null;
+    }
+    return fileAnalyser.getStatistics();
+  }
+
+  /**
+   * Private helper method for run(String[]) that analyses every text file beneath a directory concurrently, writing
+   * any errors to standard error.
+   *
+   * @param directory: The path of the directory.
+   *
+   * @return the statistics of the text files, or null if the directory could not be analysed at all.
+   */
+  private CorpusStatistics analyseCorpus(String directory) {
+    CorpusAnalyser corpusAnalyser = new CorpusAnalyser(this.options, this.getPatterns());
+    corpusAnalyser.setAnalysisMode(this.mode);
+    corpusAnalyser.setCharset(this.charset);
+    corpusAnalyser.setParallelism(this.jobs);
+    corpusAnalyser.setResultCache(this.cache);
+    corpusAnalyser.setTopWords(this.noOfTopWords, this.getTopWordsCapacity());
+    corpusAnalyser.setDistinctCounts(this.distinctPrecision);
+    corpusAnalyser.setWordIndexDirectory(this.indexDirectory);
+    corpusAnalyser.setSubstringIndexDirectory(this.substringIndexDirectory);
+    CorpusStatistics corpus;
+    try {
+      corpusAnalyser.setPlugIns(this.plugIns);
+      corpus = corpusAnalyser.analyse(Paths.get(directory));
+    }
+    catch (IOException e) {
+      this.err.println("textualyser: " + directory + ": " + e.getMessage());
+      return null;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.err.println("textualyser: " + directory + ": Interrupted.");
+      return null;
+    }
+    catch (IllegalArgumentException e) {
+      this.err.println("textualyser: " + directory + ": " + e.getMessage());
+      return null;
+    }
+    for (Map.Entry<String, IOException> failure : corpus.getFailures().entrySet()) {
+      this.err.println("textualyser: " + failure.getKey() + ": " + failure.getValue().getMessage());
+    }
+    return corpus;
+  }
+
+  /**
+   * Private helper method for run(String[]) that writes the raw counts of one text file to the binary file, writing any
+   * error to standard error. Once an error has happened, nothing more is written to the binary file.
+   *
+   * @param binary: The writer of the binary file, or null if none is being written or an error has happened.
+   * @param stats: The statistics of the text file.
+   *
+   * @return the writer, or null if an error has happened.
+   */
+  private StatisticsFileWriter writeBinary(StatisticsFileWriter binary, Statistics stats) {
+    if (binary != null) {
+      try {
+        binary.write(stats);
+      }
+      catch (IOException e) {
+        this.err.println("textualyser: " + this.binaryFile + ": " + e.getMessage());
+        this.closeBinary(binary);
+        return null;
+      }
+    }
+    return binary;
+  }
+
+  /**
+   * Private helper method for run(String[]) that closes the binary file, writing any error to standard error.
+   *
+   * @param binary: The writer of the binary file, or null if none is being written or an error has happened.
+   *
+   * @return the writer, or null if an error has happened.
+   */
+  private StatisticsFileWriter closeBinary(StatisticsFileWriter binary) {
+    if (binary != null) {
+      try {
+        binary.close();
+      }
+      catch (IOException e) {
+        this.err.println("textualyser: " + this.binaryFile + ": " + e.getMessage());
+        return null;
+      }
+    }
+    return binary;
+  }
+
+  /**
+   * Private helper method for run(String[]) that writes out the statistics of one text file.
+   *
+   * @param file: The path of the text file.
+   * @param stats: The statistics of the text file.
+   * @param withHeading: Whether to write the path of the text file above its report.
+   */
+  private void write(String file, Statistics stats, boolean withHeading) {
+    if (this.tsv) {
+      this.writeTSVRow(file, stats);
+    }
+    else {
+      if (withHeading) {
+        this.out.println("==> " + file + " <==");
+      }
+      try {
+        stats.writeTo(this.out);
+      }
+      catch (IOException e) {
+        
+        // A PrintStream never throws an IOException; it sets its error flag instead
+        throw new AssertionError(e);
+      }
+      this.out.println();
+    }
+  }
+
+  /**
+   * @return the number of words to count at once when listing the most frequent words.
+   */
+  private int getTopWordsCapacity() {
+    if (this.noOfTopWords == 0) {
+      return 0;
+    }
+    return this.exactTopWords ? TopWords.EXACT : new TopWords(this.noOfTopWords).getCapacity();
+  }
+
+  /**
+   * @return the text patterns as an array, or null if there are none.
+   */
+  private String[] getPatterns() {
+    return this.patterns.isEmpty() ? null : this.patterns.toArray(new String[this.patterns.size()]);
+  }
+
+  /**
+   * Private helper method for run(String[]) that writes the header row of the tab-separated output.
+   */
+  private void writeTSVHeader() {
+    StringBuilder row = new StringBuilder();
+    for (String column : TSV_HEADER) {
+      row.append(column).append('\t');
+    }
+    for (String pattern : this.patterns) {
+      row.append(CommandLineApplication.escape("occurrences:" + pattern)).append('\t');
+    }
+    row.setLength(row.length() - 1);
+    this.out.println(row);
+  }
+
+  /**
+   * Private helper method for write(String, Statistics, boolean) that writes the statistics of a text file as a 
+   * tab-separated row. Statistics that were not analysed are left empty.
+   *
+   * @param file: The path of the text file.
+   * @param stats: The statistics of the text file.
+   */
+  private void writeTSVRow(String file, Statistics stats) {
+    StringBuilder row = new StringBuilder(CommandLineApplication.escape(file));
+    appendField(row, stats.getNoOfSentences());
+    appendField(row, stats.getNoOfSentences() >= 0 ? stats.getTotalSentenceLen() : -1);
+    appendField(row, stats.getNoOfSentences() > 0 ? stats.getAvgSentenceLen() : -1);
+    appendField(row, stats.getNoOfWords());
+    appendField(row, stats.getNoOfWords() >= 0 ? stats.getTotalWordLen() : -1);
+    appendField(row, stats.getNoOfWords() > 0 ? stats.getAvgWordLen() : -1);
+    appendField(row, (stats.getCharFreq() == null) ? -1 : stats.getCharFreq().getTotal());
+    appendField(row, stats.getNoOfEnglishANs());
+    appendField(row, stats.getNoOfNonANs());
+    appendField(row, stats.getNoOfWhitespaces());
+    appendField(row, stats.getNoOfIntlChars());
+    appendField(row, stats.getNoOfSuffixes());
+    for (int i = 0; i < this.patterns.size(); i++) {
+      appendField(row, stats.getNoOfTextOCs(i));
+    }
+    this.out.println(row);
+  }
+
+  /**
+   * Appends a whole-number field to a tab-separated row, leaving it empty if it is negative (i.e. not analysed).
+   */
+  private static void appendField(StringBuilder row, long value) {
+    row.append('\t');
+    if (value >= 0) row.append(value);
+  }
+
+  /**
+   * Appends a decimal field to a tab-separated row, leaving it empty if it is negative (i.e. not analysed).
+   */
+  private static void appendField(StringBuilder row, double value) {
+    row.append('\t');
+    if (value >= 0) row.append(value);
+  }
+
+  /**
+   * Escapes the backslashes, tabs and line terminators in a field of a tab-separated row.
+   *
+   * @param field: The field to escape.
+   *
+   * @return the escaped field.
+   */
+  private static String escape(String field) {
+    return field.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+  }
+
+}
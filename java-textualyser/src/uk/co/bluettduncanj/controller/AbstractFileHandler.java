@@ -5,6 +5,11 @@
 package uk.co.bluettduncanj.controller;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
 
 
 /**
@@ -19,12 +24,19 @@ import java.io.File;
  */
 public abstract class AbstractFileHandler {
   
+  /** Files of at least this many bytes are read through memory-mapped windows (see MappedFileReader) */
+  public static final long MAPPING_THRESHOLD = 1024 * 1024;
+  
   /** The file to be handled */
   private File file;
   
+  /** The charset used to decode the file when it is read */
+  private Charset charset;
+  
   /** Default super constructor for subclasses of AbstractFileHandler */
   public AbstractFileHandler() {
     super();
+    this.charset = Charset.defaultCharset();
   }
   
   /**
@@ -75,6 +87,47 @@ public abstract class AbstractFileHandler {
     return this.file.getParent();
   }
   
+  /**
+   * Super setter of the charset used to decode the file when it is read. The default is the platform's default charset.
+   * 
+   * @param charset: The charset to set.
+   * 
+   * @throws NullPointerException if the argument is <code>null</code>.
+   */
+  public void setCharset(Charset charset) throws NullPointerException {
+    if (charset == null) {
+      throw new NullPointerException("The charset cannot be null.");
+    }
+    this.charset = charset;
+  }
+  
+  /**
+   * Super getter of the charset used to decode the file when it is read.
+   * 
+   * @return the charset associated with this AbstractFileHandler.
+   */
+  public Charset getCharset() {
+    return this.charset;
+  }
+  
+  /**
+   * Opens a Reader over the contents of the file, decoded with the charset from getCharset(). 
+   * 
+   * Files of at least MAPPING_THRESHOLD bytes are read through a MappedFileReader. Smaller files, for which mapping 
+   * would cost more than it saves, are streamed instead. It is the responsibility of the caller to close the Reader.
+   * 
+   * @return a new Reader over the contents of the file.
+   * 
+   * @throws NullPointerException if no file path has been set.
+   * @throws IOException if the file cannot be opened.
+   */
+  protected Reader openReader() throws NullPointerException, IOException {
+    if (this.file.length() >= MAPPING_THRESHOLD) {
+      return new MappedFileReader(this.file, this.charset);
+    }
+    return new InputStreamReader(new FileInputStream(this.file), this.charset);
+  }
+  
   /**
    * Checks whether a file path has been set for the current AbstractFileHandler.
    * 
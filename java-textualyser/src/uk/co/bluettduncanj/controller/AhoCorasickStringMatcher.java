@@ -0,0 +1,392 @@
+/**
+ * AhoCorasickStringMatcher.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.util.Arrays;
+
+
+/**
+ * This is an implementation of the Aho-Corasick string-search algorithm, which counts the matches of a whole set of
+ * patterns in a text with a single pass over the text.
+ *
+ * The patterns are built into a trie (a tree of states, where each state stands for a prefix of one or more patterns),
+ * with a failure link from each state to the state of its longest proper suffix that is also in the trie. The edges of
+ * the trie are held in one open-addressing hash table of primitive keys, so that no objects are created per state or per
+ * edge, whatever characters the patterns contain.
+ *
+ * Rather than reporting each match as it is found, search(char[]) only counts how many times each state is reached,
+ * and adds the counts up along the failure links afterwards. Like BoyerMooreStringMatcher, overlapping matches are all
+ * counted, e.g. "aa" is found 3 times in "aaaa".
+ *
+ * A matcher is not changed by searching, so one matcher can be shared by several threads. To search a text that arrives
+ * a segment at a time, see StreamingStringMatcher.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class AhoCorasickStringMatcher {
+
+  /** Marker for an empty slot of the edge hash table */
+  private static final long NO_KEY = -1L;
+
+  /** The initial capacity of the edge hash table (must be a power of two) */
+  private static final int INITIAL_EDGE_CAPACITY = 64;
+
+  /** Store the patterns as character arrays */
+  private final char[][] patterns;
+
+  /** The keys of the edge hash table, each made up of a state number and a char */
+  private long[] edgeKeys;
+
+  /** The states that the edges of the edge hash table lead to */
+  private int[] edgeTargets;
+
+  /** The number of edges in the edge hash table */
+  private int noOfEdges;
+
+  /** The number of states in the trie, where state 0 is the root (the empty prefix) */
+  private int noOfStates;
+
+  /** The failure link of each state */
+  private int[] failure;
+
+  /** The depth of each state in the trie, i.e. the length of the prefix it stands for */
+  private int[] depth;
+
+  /** The states in breadth-first order, so that every state comes after the state its failure link leads to */
+  private int[] order;
+
+  /** The state reached at the end of each pattern */
+  private int[] terminal;
+
+  /** The nearest state along the failure links of each state (including itself) that is the end of a pattern, or -1 */
+  private int[] dictionaryLink;
+
+  /** The indexes of the patterns that end at each state, or null if none do */
+  private int[][] endingPatterns;
+
+  /**
+   * Algorithm constructor, where the patterns are provided as character arrays.
+   *
+   * @param patterns: The patterns as character arrays. Patterns may be repeated, and are counted separately.
+   */
+  public AhoCorasickStringMatcher(char[][] patterns) {
+    super();
+    this.patterns = new char[patterns.length][];
+    for (int p = 0; p < patterns.length; p++) {
+      this.patterns[p] = Arrays.copyOf(patterns[p], patterns[p].length);
+    }
+    this.buildTrie();
+    this.buildFailureLinks();
+  }
+
+  /**
+   * Private helper method for the constructor that adds every pattern to the trie.
+   */
+  private void buildTrie() {
+    int maxStates = 1;
+    for (char[] pattern : this.patterns) {
+      maxStates += pattern.length;
+    }
+    this.edgeKeys = new long[INITIAL_EDGE_CAPACITY];
+    Arrays.fill(this.edgeKeys, NO_KEY);
+    this.edgeTargets = new int[INITIAL_EDGE_CAPACITY];
+    this.noOfEdges = 0;
+    this.noOfStates = 1;
+    this.depth = new int[maxStates];
+    this.terminal = new int[this.patterns.length];
+
+    for (int p = 0; p < this.patterns.length; p++) {
+      int state = 0;
+      for (char c : this.patterns[p]) {
+        int next = this.edge(state, c);
+        if (next == -1) {
+          next = this.noOfStates++;
+          this.depth[next] = this.depth[state] + 1;
+          this.putEdge(state, c, next);
+        }
+        state = next;
+      }
+      this.terminal[p] = state;
+    }
+
+    this.endingPatterns = new int[this.noOfStates][];
+    for (int p = 0; p < this.patterns.length; p++) {
+      int state = this.terminal[p];
+      int[] ending = this.endingPatterns[state];
+      ending = (ending == null) ? new int[1] : Arrays.copyOf(ending, ending.length + 1);
+      ending[ending.length - 1] = p;
+      this.endingPatterns[state] = ending;
+    }
+  }
+
+  /**
+   * Private helper method for the constructor that works out the failure and dictionary links of every state, by
+   * walking the trie in breadth-first order.
+   */
+  private void buildFailureLinks() {
+
+    // Gather the children of each state from the edge hash table, so the trie can be walked
+    int[] childCount = new int[this.noOfStates + 1];
+    for (int i = 0; i < this.edgeKeys.length; i++) {
+      if (this.edgeKeys[i] != NO_KEY) {
+        childCount[(int) (this.edgeKeys[i] >>> 16) + 1]++;
+      }
+    }
+    for (int s = 0; s < this.noOfStates; s++) {
+      childCount[s + 1] += childCount[s];
+    }
+    int[] childStart = Arrays.copyOf(childCount, childCount.length);
+    char[] childChars = new char[this.noOfEdges];
+    int[] childStates = new int[this.noOfEdges];
+    for (int i = 0; i < this.edgeKeys.length; i++) {
+      if (this.edgeKeys[i] != NO_KEY) {
+        int parent = (int) (this.edgeKeys[i] >>> 16);
+        int slot = childStart[parent]++;
+        childChars[slot] = (char) this.edgeKeys[i];
+        childStates[slot] = this.edgeTargets[i];
+      }
+    }
+
+    this.failure = new int[this.noOfStates];
+    this.dictionaryLink = new int[this.noOfStates];
+    this.order = new int[this.noOfStates];
+    this.dictionaryLink[0] = (this.endingPatterns[0] != null) ? 0 : -1;
+    int head = 0;
+    int tail = 0;
+    this.order[tail++] = 0;
+    while (head < tail) {
+      int parent = this.order[head++];
+      for (int i = childCount[parent]; i < childCount[parent + 1]; i++) {
+        char c = childChars[i];
+        int child = childStates[i];
+
+        // The failure link of a child is found by following the failure links of its parent until c can be read
+        int fail = 0;
+        if (parent != 0) {
+          fail = this.failure[parent];
+          while (fail != 0 && this.edge(fail, c) == -1) {
+            fail = this.failure[fail];
+          }
+          int next = this.edge(fail, c);
+          fail = (next == -1) ? 0 : next;
+        }
+        this.failure[child] = fail;
+        this.dictionaryLink[child] = (this.endingPatterns[child] != null) ? child : this.dictionaryLink[fail];
+        this.order[tail++] = child;
+      }
+    }
+  }
+
+  /**
+   * Looks up an edge of the trie.
+   *
+   * @param state: The state the edge leads from.
+   * @param c: The char of the edge.
+   *
+   * @return the state the edge leads to, or -1 if there is no such edge.
+   */
+  private int edge(int state, char c) {
+    long key = ((long) state << 16) | c;
+    int mask = this.edgeKeys.length - 1;
+    int slot = AhoCorasickStringMatcher.hash(key) & mask;
+    while (this.edgeKeys[slot] != NO_KEY) {
+      if (this.edgeKeys[slot] == key) {
+        return this.edgeTargets[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Adds an edge to the trie, growing the edge hash table if it is more than half full.
+   *
+   * @param state: The state the edge leads from.
+   * @param c: The char of the edge.
+   * @param target: The state the edge leads to.
+   */
+  private void putEdge(int state, char c, int target) {
+    if ((this.noOfEdges + 1) * 2 > this.edgeKeys.length) {
+      long[] oldKeys = this.edgeKeys;
+      int[] oldTargets = this.edgeTargets;
+      this.edgeKeys = new long[oldKeys.length * 2];
+      Arrays.fill(this.edgeKeys, NO_KEY);
+      this.edgeTargets = new int[oldKeys.length * 2];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != NO_KEY) {
+          this.insertEdge(oldKeys[i], oldTargets[i]);
+        }
+      }
+    }
+    this.insertEdge(((long) state << 16) | c, target);
+    this.noOfEdges++;
+  }
+
+  /**
+   * Private helper method for putEdge(int, char, int) that puts a key into the first free slot of the edge hash table.
+   *
+   * @param key: The key of the edge.
+   * @param target: The state the edge leads to.
+   */
+  private void insertEdge(long key, int target) {
+    int mask = this.edgeKeys.length - 1;
+    int slot = AhoCorasickStringMatcher.hash(key) & mask;
+    while (this.edgeKeys[slot] != NO_KEY) {
+      slot = (slot + 1) & mask;
+    }
+    this.edgeKeys[slot] = key;
+    this.edgeTargets[slot] = target;
+  }
+
+  /**
+   * Mixes the bits of an edge key, so that keys which only differ in their state spread evenly over the table.
+   *
+   * @param key: The key to hash.
+   *
+   * @return the hash of the key.
+   */
+  private static int hash(long key) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+  }
+
+  /**
+   * Moves the automaton on by one char of the text.
+   *
+   * @param state: The current state.
+   * @param c: The next char of the text.
+   *
+   * @return the new state.
+   */
+  int step(int state, char c) {
+    while (true) {
+      int next = this.edge(state, c);
+      if (next != -1) {
+        return next;
+      }
+      if (state == 0) {
+        return 0;
+      }
+      state = this.failure[state];
+    }
+  }
+
+  /**
+   * Aho-Corasick string-search algorithm - Return the number of matches of each pattern in the text.
+   *
+   * @param text: The text body to search through.
+   *
+   * @return the number of matches of each pattern, in the same order as the patterns were passed in at construction time.
+   */
+  public long[] search(char[] text) {
+    return this.search(text, 0, text.length);
+  }
+
+  /**
+   * Aho-Corasick string-search algorithm - Return the number of matches of each pattern in a section of the text.
+   *
+   * @param text: The text body to search through.
+   * @param offset: The index of the first char to search.
+   * @param length: The number of chars to search.
+   *
+   * @return the number of matches of each pattern, in the same order as the patterns were passed in at construction time.
+   */
+  public long[] search(char[] text, int offset, int length) {
+
+    // Count how many times each state is reached
+    long[] visits = new long[this.noOfStates];
+    int state = 0;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      state = this.step(state, text[i]);
+      visits[state]++;
+    }
+
+    return this.countMatches(visits, length);
+  }
+
+  /**
+   * Turns the number of times each state was reached during a search into the number of matches of each pattern.
+   *
+   * @param visits: The number of times each state was reached, which is added up along the failure links in place.
+   * @param length: The number of chars searched.
+   *
+   * @return the number of matches of each pattern, in the same order as the patterns were passed in at construction time.
+   */
+  long[] countMatches(long[] visits, long length) {
+
+    // Every time a state is reached, so is every state along its failure links. Add the counts up from the deepest
+    // states to the shallowest.
+    for (int i = this.noOfStates - 1; i > 0; i--) {
+      int s = this.order[i];
+      visits[this.failure[s]] += visits[s];
+    }
+
+    long[] counts = new long[this.patterns.length];
+    for (int p = 0; p < this.patterns.length; p++) {
+
+      // The root is only 'reached' by empty patterns, which match at every position (as in BoyerMooreStringMatcher)
+      counts[p] = (this.terminal[p] == 0) ? length + 1 : visits[this.terminal[p]];
+    }
+    return counts;
+  }
+
+  /**
+   * Counts only the matches of each pattern in the text that span a given join, i.e. that start before the join and end
+   * after it. This is used to count the matches that span the join between two chunks of a text, which neither chunk
+   * can find on its own.
+   *
+   * @param text: The text body to search through.
+   * @param join: The index of the first char after the join.
+   *
+   * @return the number of matches of each pattern that span the join.
+   */
+  public long[] searchAcross(char[] text, int join) {
+    long[] counts = new long[this.patterns.length];
+    int state = 0;
+    for (int i = 0; i < text.length; i++) {
+      state = this.step(state, text[i]);
+      if (i < join) {
+        continue;
+      }
+
+      // Walk the patterns that end here, from the longest to the shortest, while they still start before the join
+      for (int s = this.dictionaryLink[state]; s > 0; s = this.dictionaryLink[this.failure[s]]) {
+        if (i - this.depth[s] + 1 >= join) {
+          break;
+        }
+        for (int p : this.endingPatterns[s]) {
+          counts[p]++;
+        }
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * @return the length of the longest pattern.
+   */
+  public int getMaxPatternLength() {
+    int max = 0;
+    for (char[] pattern : this.patterns) {
+      max = Math.max(max, pattern.length);
+    }
+    return max;
+  }
+
+  /**
+   * @return the number of patterns.
+   */
+  public int getNoOfPatterns() {
+    return this.patterns.length;
+  }
+
+  /**
+   * @return the number of states in the trie, including the root.
+   */
+  public int getNoOfStates() {
+    return this.noOfStates;
+  }
+
+}
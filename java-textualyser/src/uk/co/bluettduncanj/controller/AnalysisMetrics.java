@@ -0,0 +1,165 @@
+/**
+ * AnalysisMetrics.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+
+/**
+ * AnalysisMetrics is an immutable snapshot of how long one or more calls to FileAnalyser.process() took, phase by phase
+ * (see AnalysisPhase), and of how much they processed, so that it can be seen which phase a slow analysis spent its
+ * time in. The metrics of the last call are returned by FileAnalyser.getMetrics(), and those of every call added 
+ * together by AnalysisMetricsRecorder, which publishes them through JMX.
+ * 
+ * Amounts that could not be measured are -1: characters and words are only counted when FileAnalyser reads the text
+ * itself (i.e. not in PARALLEL_MODE or INCREMENTAL_MODE), and allocated memory only where the JVM can measure it for a
+ * thread. Allocation by other threads, e.g. those of a ParallelTextScanner, is not included, so it is an estimate.
+ * When metrics are combined, an amount is only -1 if it could not be measured for any of them.
+ * 
+ * @author Jonathan Bluett-Duncan
+ */
+public final class AnalysisMetrics {
+
+  /** The metrics of no calls at all, in which no amounts are known, so that combining them with others changes nothing */
+  public static final AnalysisMetrics NONE = new AnalysisMetrics(0, new long[AnalysisPhase.values().length], -1, -1, -1, 
+      -1);
+
+  /** The number of calls to process() */
+  private final long noOfRuns;
+
+  /** The time spent in each phase in nanoseconds, indexed by AnalysisPhase.ordinal() */
+  private final long[] phaseNanos;
+
+  /** The number of bytes of text files read, or -1 */
+  private final long bytesProcessed;
+
+  /** The number of characters read, or -1 */
+  private final long charsProcessed;
+
+  /** The number of words parsed, or -1 */
+  private final long tokensProcessed;
+
+  /** The number of bytes allocated, or -1 */
+  private final long allocatedBytes;
+
+  /**
+   * Constructor.
+   * 
+   * @param noOfRuns: The number of calls to process().
+   * @param phaseNanos: The time spent in each phase in nanoseconds, indexed by AnalysisPhase.ordinal(). It is copied.
+   * @param bytesProcessed: The number of bytes of text files read, or -1 if it is not known.
+   * @param charsProcessed: The number of characters read, or -1 if it is not known.
+   * @param tokensProcessed: The number of words parsed, or -1 if it is not known.
+   * @param allocatedBytes: The number of bytes allocated, or -1 if it is not known.
+   */
+  AnalysisMetrics(long noOfRuns, long[] phaseNanos, long bytesProcessed, long charsProcessed, long tokensProcessed, 
+      long allocatedBytes) {
+    super();
+    this.noOfRuns = noOfRuns;
+    this.phaseNanos = phaseNanos.clone();
+    this.bytesProcessed = bytesProcessed;
+    this.charsProcessed = charsProcessed;
+    this.tokensProcessed = tokensProcessed;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  /**
+   * Adds the metrics of two sets of calls together into a new AnalysisMetrics object.
+   * 
+   * @param first: The first metrics.
+   * @param second: The second metrics.
+   * 
+   * @return the combined metrics.
+   */
+  public static AnalysisMetrics combine(AnalysisMetrics first, AnalysisMetrics second) {
+    long[] phaseNanos = new long[first.phaseNanos.length];
+    for (int i = 0; i < phaseNanos.length; i++) {
+      phaseNanos[i] = first.phaseNanos[i] + second.phaseNanos[i];
+    }
+    return new AnalysisMetrics(first.noOfRuns + second.noOfRuns, phaseNanos, 
+        AnalysisMetrics.addAmounts(first.bytesProcessed, second.bytesProcessed),
+        AnalysisMetrics.addAmounts(first.charsProcessed, second.charsProcessed),
+        AnalysisMetrics.addAmounts(first.tokensProcessed, second.tokensProcessed),
+        AnalysisMetrics.addAmounts(first.allocatedBytes, second.allocatedBytes));
+  }
+
+  /**
+   * Private helper method for combine(AnalysisMetrics, AnalysisMetrics) that adds two amounts together, where an amount
+   * of -1 means that it is not known.
+   * 
+   * @param a: The first amount.
+   * @param b: The second amount.
+   * 
+   * @return the sum of the amounts that are known, or -1 if neither is.
+   */
+  private static long addAmounts(long a, long b) {
+    if (a == -1) return b;
+    if (b == -1) return a;
+    return a + b;
+  }
+
+  /**
+   * @return the number of calls to process() that these metrics cover.
+   */
+  public long getNoOfRuns() {
+    return this.noOfRuns;
+  }
+
+  /**
+   * @param phase: The phase.
+   * 
+   * @return the time spent in the phase, in nanoseconds.
+   */
+  public long getNanos(AnalysisPhase phase) {
+    return this.phaseNanos[phase.ordinal()];
+  }
+
+  /**
+   * @return the time spent in every phase, in nanoseconds.
+   */
+  public long getTotalNanos() {
+    long total = 0;
+    for (long nanos : this.phaseNanos) total += nanos;
+    return total;
+  }
+
+  /**
+   * @return the number of bytes of text files read, or -1 if it is not known.
+   */
+  public long getBytesProcessed() {
+    return this.bytesProcessed;
+  }
+
+  /**
+   * @return the number of characters read, or -1 if it is not known.
+   */
+  public long getCharsProcessed() {
+    return this.charsProcessed;
+  }
+
+  /**
+   * @return the number of words parsed, or -1 if it is not known.
+   */
+  public long getTokensProcessed() {
+    return this.tokensProcessed;
+  }
+
+  /**
+   * @return the number of words parsed per second of the time spent in every phase, or -1 if it is not known.
+   */
+  public double getTokensPerSecond() {
+    long totalNanos = this.getTotalNanos();
+    if (this.tokensProcessed == -1 || totalNanos == 0) {
+      return -1.0;
+    }
+    return this.tokensProcessed * 1e9 / totalNanos;
+  }
+
+  /**
+   * @return the estimated number of bytes allocated, or -1 if it is not known.
+   */
+  public long getAllocatedBytes() {
+    return this.allocatedBytes;
+  }
+
+}
@@ -0,0 +1,184 @@
+/**
+ * AnalysisMetricsRecorder.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+
+/**
+ * AnalysisMetricsRecorder adds together the metrics of every call to FileAnalyser.process() that is recorded with it 
+ * (see AnalysisMetrics), and publishes them as a JMX MXBean (see IAnalysisMetricsMXBean) once register(String) has been 
+ * called, so that the time an application spends analysing text files, and the phases it spends it in, can be watched
+ * while it runs.
+ * 
+ * Every FileAnalyser records its metrics with the default recorder (see getDefault()) unless it is given another one.
+ * Metrics can be recorded and read from any number of threads at once.
+ * 
+ * @author Jonathan Bluett-Duncan
+ */
+public class AnalysisMetricsRecorder implements IAnalysisMetricsMXBean {
+
+  /** The name under which the default recorder is usually registered */
+  public static final String OBJECT_NAME = "uk.co.bluettduncanj:type=AnalysisMetrics";
+
+  /** The recorder that every FileAnalyser records its metrics with by default */
+  private static final AnalysisMetricsRecorder DEFAULT = new AnalysisMetricsRecorder();
+
+  /** The metrics of every call recorded since the last reset */
+  private AnalysisMetrics total;
+
+  /**
+   * Default constructor. Creates a recorder with no metrics recorded.
+   */
+  public AnalysisMetricsRecorder() {
+    super();
+    this.total = AnalysisMetrics.NONE;
+  }
+
+  /**
+   * @return the recorder that every FileAnalyser records its metrics with by default.
+   */
+  public static AnalysisMetricsRecorder getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Adds the metrics of one or more calls to process() to those recorded.
+   * 
+   * @param metrics: The metrics to add.
+   */
+  public synchronized void record(AnalysisMetrics metrics) {
+    this.total = AnalysisMetrics.combine(this.total, metrics);
+  }
+
+  /**
+   * @return a snapshot of the metrics of every call recorded since the last reset.
+   */
+  public synchronized AnalysisMetrics getMetrics() {
+    return this.total;
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#reset()
+   */
+  @Override
+  public synchronized void reset() {
+    this.total = AnalysisMetrics.NONE;
+  }
+
+  /**
+   * Registers this recorder with the platform MBean server, so that its metrics can be read through JMX.
+   * 
+   * @param name: The JMX object name to register it under, e.g. OBJECT_NAME.
+   * 
+   * @throws JMException if the name is invalid, or an MBean is already registered under it.
+   */
+  public void register(String name) throws JMException {
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(name));
+  }
+
+  /**
+   * Unregisters this recorder from the platform MBean server.
+   * 
+   * @param name: The JMX object name it was registered under.
+   * 
+   * @throws JMException if the name is invalid, or nothing is registered under it.
+   */
+  public void unregister(String name) throws JMException {
+    ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(name));
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getNoOfRuns()
+   */
+  @Override
+  public long getNoOfRuns() {
+    return this.getMetrics().getNoOfRuns();
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getReadingNanos()
+   */
+  @Override
+  public long getReadingNanos() {
+    return this.getMetrics().getNanos(AnalysisPhase.READING);
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getScanningNanos()
+   */
+  @Override
+  public long getScanningNanos() {
+    return this.getMetrics().getNanos(AnalysisPhase.SCANNING);
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getStatisticsNanos()
+   */
+  @Override
+  public long getStatisticsNanos() {
+    return this.getMetrics().getNanos(AnalysisPhase.STATISTICS);
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getPatternMatchingNanos()
+   */
+  @Override
+  public long getPatternMatchingNanos() {
+    return this.getMetrics().getNanos(AnalysisPhase.PATTERN_MATCHING);
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getTotalNanos()
+   */
+  @Override
+  public long getTotalNanos() {
+    return this.getMetrics().getTotalNanos();
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getBytesProcessed()
+   */
+  @Override
+  public long getBytesProcessed() {
+    return this.getMetrics().getBytesProcessed();
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getCharsProcessed()
+   */
+  @Override
+  public long getCharsProcessed() {
+    return this.getMetrics().getCharsProcessed();
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getTokensProcessed()
+   */
+  @Override
+  public long getTokensProcessed() {
+    return this.getMetrics().getTokensProcessed();
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getTokensPerSecond()
+   */
+  @Override
+  public double getTokensPerSecond() {
+    return this.getMetrics().getTokensPerSecond();
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.controller.IAnalysisMetricsMXBean#getAllocatedBytes()
+   */
+  @Override
+  public long getAllocatedBytes() {
+    return this.getMetrics().getAllocatedBytes();
+  }
+
+}
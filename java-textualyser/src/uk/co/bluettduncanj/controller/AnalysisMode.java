@@ -0,0 +1,23 @@
+/**
+ * AnalysisMode.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+
+/**
+ * This enum class represents the different ways in which FileAnalyser can analyse a text file.
+ * 
+ * DEFAULT_MODE stores all characters, words and sentences of the text file before calculating statistics from them.
+ * STREAMING_MODE passes them straight to the Statistics object as they are parsed, so that memory use does not grow with
+ * the size of the text file.
+ * PARALLEL_MODE splits the text file into chunks that are scanned at the same time on different threads, and otherwise
+ * behaves like STREAMING_MODE.
+ * INCREMENTAL_MODE is for text files that only grow at their end, such as log files. It behaves like STREAMING_MODE the
+ * first time a text file is analysed, and after that only analyses the bytes appended since (see IncrementalTextScanner).
+ * 
+ * @author Jonathan Bluett-Duncan
+ */
+public enum AnalysisMode {
+  DEFAULT_MODE, STREAMING_MODE, PARALLEL_MODE, INCREMENTAL_MODE
+}
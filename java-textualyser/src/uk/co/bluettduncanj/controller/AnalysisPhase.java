@@ -0,0 +1,26 @@
+/**
+ * AnalysisPhase.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+
+/**
+ * This enum class represents the phases of a call to FileAnalyser.process(), whose times are recorded separately (see 
+ * AnalysisMetrics).
+ * 
+ * READING is the time spent reading the text file and decoding it into characters, and looking it up in the result 
+ * cache, if one is used.
+ * SCANNING is the time spent splitting the characters into words and sentences. In STREAMING_MODE it also includes 
+ * every statistic, as they are all calculated as the text file is scanned; in PARALLEL_MODE and INCREMENTAL_MODE, where
+ * the text file is read by the scanner itself, it includes reading as well.
+ * STATISTICS is the time spent calculating the 'Average Lengths' and 'Frequencies' statistics (including the character
+ * frequencies) and any plug-in statistics from the stored contents of the text file, in DEFAULT_MODE.
+ * PATTERN_MATCHING is the time spent counting 'Text Occurrences' with a string matcher in DEFAULT_MODE, or from the 
+ * word or substring index of the text file (including loading or building it).
+ * 
+ * @author Jonathan Bluett-Duncan
+ */
+public enum AnalysisPhase {
+  READING, SCANNING, STATISTICS, PATTERN_MATCHING
+}
@@ -0,0 +1,93 @@
+/**
+ * AnalysisPlan.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+
+/**
+ * AnalysisPlan is a component class of FileAnalyser that works out, from the categories of statistics that have been
+ * chosen, which of the three parsers of TextScanner need to run and what needs to be kept, so that statistics that have
+ * not been chosen cost nothing to leave out:
+ * <ul>
+ *   <li>Words are only parsed for the 'Average Lengths' and 'Frequencies' statistics (the latter for the number of
+ *   suffixes), the most frequent words and the number of distinct words.</li>
+ *   <li>Sentences are only parsed for the 'Average Lengths' statistics and the number of distinct sentences.</li>
+ *   <li>Characters are only counted for the 'Frequencies' statistics, and only kept (when they are stored at all) for
+ *   the 'Frequencies' and 'Text Occurrences' statistics.</li>
+ * </ul>
+ * Line terminators are always counted, as it costs next to nothing to do so. If no statistics are chosen at all, the
+ * text file does not need to be scanned (see isScanning()).
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public final class AnalysisPlan {
+
+  /** The plan that runs every parser and keeps everything, for when the statistics to be calculated are not known */
+  public static final AnalysisPlan ALL = new AnalysisPlan(true, true, true, true, true);
+
+  /** Whether the word parser runs */
+  private final boolean isParsingWords;
+
+  /** Whether the sentence parser runs */
+  private final boolean isParsingSentences;
+
+  /** Whether characters are counted into the 'Frequencies' statistics */
+  private final boolean isCountingCharacters;
+
+  /** Whether characters are kept, if they are being stored */
+  private final boolean isKeepingCharacters;
+
+  /**
+   * Constructor.
+   *
+   * @param avgLens: Whether the 'Average Lengths' statistics are calculated.
+   * @param frequencies: Whether the 'Frequencies' statistics are calculated.
+   * @param textOCs: Whether the 'Text Occurrences' statistic is calculated by scanning the text file.
+   * @param topWords: Whether the most frequent words are found.
+   * @param distinctCounts: Whether the numbers of distinct words and sentences are estimated.
+   */
+  public AnalysisPlan(boolean avgLens, boolean frequencies, boolean textOCs, boolean topWords, boolean distinctCounts) {
+    super();
+    this.isParsingWords = avgLens || frequencies || topWords || distinctCounts;
+    this.isParsingSentences = avgLens || distinctCounts;
+    this.isCountingCharacters = frequencies;
+    this.isKeepingCharacters = frequencies || textOCs;
+  }
+
+  /**
+   * @return true if the word parser runs, otherwise false.
+   */
+  public boolean isParsingWords() {
+    return this.isParsingWords;
+  }
+
+  /**
+   * @return true if the sentence parser runs, otherwise false.
+   */
+  public boolean isParsingSentences() {
+    return this.isParsingSentences;
+  }
+
+  /**
+   * @return true if characters are counted into the 'Frequencies' statistics, otherwise false.
+   */
+  public boolean isCountingCharacters() {
+    return this.isCountingCharacters;
+  }
+
+  /**
+   * @return true if characters are kept (if they are being stored at all), otherwise false.
+   */
+  public boolean isKeepingCharacters() {
+    return this.isKeepingCharacters;
+  }
+
+  /**
+   * @return true if the text file needs to be scanned at all, otherwise false.
+   */
+  public boolean isScanning() {
+    return this.isParsingWords || this.isParsingSentences || this.isKeepingCharacters;
+  }
+
+}
@@ -7,25 +7,54 @@ package uk.co.bluettduncanj.controller;
 
 /**
  * This is a variation of the BoyerMoore class found at algs4.cs.princeton.edu/53substring/BoyerMoore.java.html.
- * This implementation only uses the Bad Character rule to enhance searching speeds.
+ * This implementation uses both the Bad Character rule and the Good Suffix rule to enhance searching speeds.
+ * 
+ * The bad character table covers the whole char range. Chars below the alphabet size R are looked up in a flat array
+ * of size R, and all other chars in a two-level table, where a page of 256 chars is only allocated if the pattern
+ * contains one of them. This keeps construction cheap whatever characters the pattern and the text contain.
+ * 
+ * Overlapping matches are all counted, e.g. "aa" is found 3 times in "aaaa".
  * 
  * @author Jonathan Bluett-Duncan
  */
 public class BoyerMooreStringMatcher {
   
-  // TODO: Improve the running speed of this algorithm by implementing other optimisations.
+  /** The default alphabet size, which covers the ISO-8859-1 (Latin-1) chars */
+  public static final int DEFAULT_ALPHABET_SIZE = 256;
+  
+  /** The number of chars in a page of the two-level bad character table */
+  private static final int PAGE_SIZE = 256;
+  
+  /** The number of bits to shift a char by to find its page in the two-level bad character table */
+  private static final int PAGE_SHIFT = 8;
 
-  /** The bad-character skip array table */
+  /** The bad-character skip array table for chars below the alphabet size */
   private int[] badCharTable;
   
+  /** The bad-character skip table for chars at or above the alphabet size, indexed by page, or null if not needed */
+  private int[][] badCharPages;
+  
+  /** The good-suffix skip array table, indexed by the position in the pattern of a mismatch */
+  private int[] goodSuffixTable;
+  
   /** Store the pattern as a character array */
   private char[] pattern;
 
+  /**
+   * Algorithm constructor, where the pattern is provided as a character array, and the default alphabet size is used.
+   * 
+   * @param pattern: The pattern as a character array.
+   */
+  public BoyerMooreStringMatcher(char[] pattern) {
+    this(pattern, DEFAULT_ALPHABET_SIZE);
+  }
+
   /**
    * Algorithm constructor, where the pattern is provided as a character array.
    * 
    * @param pattern: The pattern as a character array.
-   * @param R: The alphabet size. If you're unsure of your alphabet size, use 256.
+   * @param R: The alphabet size, i.e. the number of chars that have a flat bad character table. Chars at or above R are
+   *           still matched properly, but take slightly longer to look up. If you're unsure of your alphabet size, use 256.
    */
   public BoyerMooreStringMatcher(char[] pattern, int R) {
     super();
@@ -50,9 +79,111 @@ public class BoyerMooreStringMatcher {
     for (int c = 0; c < R; c++) {
       badCharTable[c] = -1;
     }
+    badCharPages = null;
     for (int j = 0; j < pattern.length; j++) {
-      badCharTable[pattern[j]] = j;
+      char c = pattern[j];
+      if (c < R) {
+        badCharTable[c] = j;
+      }
+      else {
+        if (badCharPages == null) {
+          badCharPages = new int[(Character.MAX_VALUE + 1) / PAGE_SIZE][];
+        }
+        int[] page = badCharPages[c >>> PAGE_SHIFT];
+        if (page == null) {
+          page = new int[PAGE_SIZE];
+          for (int i = 0; i < PAGE_SIZE; i++) {
+            page[i] = -1;
+          }
+          badCharPages[c >>> PAGE_SHIFT] = page;
+        }
+        page[c & (PAGE_SIZE - 1)] = j;
+      }
+    }
+    
+    goodSuffixTable = buildGoodSuffixTable(this.pattern);
+  }
+
+  /**
+   * Builds the good-suffix skip table of a pattern.
+   * 
+   * For a mismatch at position j of the pattern, after the chars from j+1 onwards have matched, the table holds the
+   * smallest shift that lines up the matched suffix with another occurrence of it in the pattern (that is not preceded
+   * by the same mismatched char), or failing that, with the longest prefix of the pattern that is also a suffix of it.
+   * The entry for position 0 is also the shift to use after a full match, which is the period of the pattern.
+   * 
+   * See Charras and Lecroq, 'Handbook of Exact String Matching Algorithms', for the derivation.
+   * 
+   * @param pattern: The pattern as a character array.
+   * 
+   * @return the good-suffix skip table.
+   */
+  private static int[] buildGoodSuffixTable(char[] pattern) {
+    int M = pattern.length;
+    int[] table = new int[M];
+    if (M == 0) {
+      return table;
+    }
+    
+    // suffixes[i] is the length of the longest substring ending at i that is also a suffix of the pattern
+    int[] suffixes = new int[M];
+    suffixes[M-1] = M;
+    int f = 0;
+    int g = M-1;
+    for (int i = M-2; i >= 0; i--) {
+      if (i > g && suffixes[i + M-1 - f] < i - g) {
+        suffixes[i] = suffixes[i + M-1 - f];
+      }
+      else {
+        if (i < g) {
+          g = i;
+        }
+        f = i;
+        while (g >= 0 && pattern[g] == pattern[g + M-1 - f]) {
+          g--;
+        }
+        suffixes[i] = f - g;
+      }
+    }
+    
+    // Shifts that line up the matched suffix with a prefix of the pattern
+    for (int j = 0; j < M; j++) {
+      table[j] = M;
+    }
+    int j = 0;
+    for (int i = M-1; i >= 0; i--) {
+      if (suffixes[i] == i + 1) {
+        for (; j < M-1 - i; j++) {
+          if (table[j] == M) {
+            table[j] = M-1 - i;
+          }
+        }
+      }
     }
+    
+    // Shifts that line up the matched suffix with another occurrence of it in the pattern
+    for (int i = 0; i <= M-2; i++) {
+      table[M-1 - suffixes[i]] = M-1 - i;
+    }
+    return table;
+  }
+  
+  /**
+   * Looks up the bad character skip table.
+   * 
+   * @param c: The char to look up.
+   * 
+   * @return the position of the last occurrence of c in the pattern, or -1 if c does not appear in it.
+   */
+  private int lastOccurrence(char c) {
+    if (c < badCharTable.length) {
+      return badCharTable[c];
+    }
+    if (badCharPages == null) {
+      return -1;
+    }
+    int[] page = badCharPages[c >>> PAGE_SHIFT];
+    return (page == null) ? -1 : page[c & (PAGE_SIZE - 1)];
   }
 
   /**
@@ -68,20 +199,26 @@ public class BoyerMooreStringMatcher {
     int matchesFound = 0;
     int M = pattern.length;
     int N = text.length;
+    
+    // An empty pattern matches at every position
+    if (M == 0) {
+      return N + 1;
+    }
+    
     int skip;
     for (int i = 0; i <= N - M; i += skip) {
       skip = 0;
       for (int j = M-1; j >= 0; j--) {
         if (pattern[j] != text[i+j]) {        
-          // Bad character rule skip
-          skip = Math.max(1, j - badCharTable[text[i+j]]);
+          // Take whichever of the bad character rule skip and good suffix rule skip is bigger
+          skip = Math.max(goodSuffixTable[j], j - lastOccurrence(text[i+j]));
           break;
         }
       }
       if (skip == 0) { 
-        // Match found!
+        // Match found! Skip to the next position where the pattern could overlap with itself
         matchesFound++;
-        i++;
+        skip = goodSuffixTable[0];
       }
     }
       
@@ -0,0 +1,577 @@
+/**
+ * ChunkSummary.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import uk.co.bluettduncanj.model.CharClasses;
+import uk.co.bluettduncanj.model.DistinctCounter;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * ChunkSummary is a component class of ParallelTextScanner that holds the results of scanning one chunk (or a run of
+ * neighbouring chunks) of a text file, in a form that can be joined onto the summary of the next chunk.
+ *
+ * A chunk cannot tell whether its first characters finish a word or sentence that was started in the previous chunk,
+ * nor whether its last characters are finished in the next one. Therefore, everything before the first word boundary
+ * and the first full stop of a chunk, and everything after the last ones, is kept aside as a 'fragment' (of which only
+ * the length, for words the last few characters, and for sentences the hash, are needed). The words and sentences in between are complete, and
+ * are passed straight into the chunk's own Statistics object. When two summaries are joined, the fragments either side
+ * of the join are stitched together into whole words and sentences.
+ *
+ * If the Statistics object needs the text of each word (see Statistics.needsWordText()), the whole text of each word
+ * fragment is kept as well, so that the stitched-together words can be counted.
+ *
+ * Similarly, for the 'Text Occurrences' statistic, the first and last (longest pattern length - 1) characters of each
+ * chunk are kept aside, so that occurrences of the patterns which span a join can be counted.
+ *
+ * The end-of-file rules of TextScanner (e.g. that the final character of the text file is never added onto a word) are
+ * applied by finish(Statistics) once every summary has been joined.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+class ChunkSummary {
+
+  /** The number of characters at the end of a word fragment that are kept, to check for suffixes */
+  private static final int WORD_TAIL_SIZE = 4;
+
+  /** The statistics of the complete words, sentences and characters of the chunk */
+  private final Statistics stats;
+
+  /** Whether the whole text of each word is kept, because the Statistics object needs it */
+  private final boolean keepsWordText;
+
+  /** The matcher of the patterns searched for by the 'Text Occurrences' statistic, or null if it is not being calculated */
+  private final AhoCorasickStringMatcher matcher;
+
+  /** The number of characters kept aside at each end of the chunk, which is one less than the longest pattern */
+  private final int textEdgeLen;
+
+  /** Counts the matches of the patterns in the chunk while it is being scanned, if matcher is not null */
+  private StreamingStringMatcher textMatcher;
+
+  /** The last characters of the chunk while it is being scanned, in a ring of textEdgeLen characters */
+  private char[] textTailRing;
+
+  /** The total number of characters of the chunk that have been added to the ring */
+  private long textTailCount;
+
+  /** Whether there is any word boundary (whitespace or punctuation mark) in the chunk */
+  private boolean hasWordBoundary;
+
+  /** The length of the word fragment before the first word boundary (or of the whole chunk if there isn't one) */
+  private long wordPrefixLen;
+
+  /** The last characters of the word fragment before the first word boundary */
+  private String wordPrefixTail;
+
+  /** The text of the word fragment before the first word boundary, or null if word text is not kept */
+  private String wordPrefixText;
+
+  /** The length of the word fragment after the last word boundary */
+  private long wordSuffixLen;
+
+  /** The last characters of the word fragment after the last word boundary */
+  private String wordSuffixTail;
+
+  /** The text of the word fragment after the last word boundary, or null if word text is not kept */
+  private String wordSuffixText;
+
+  /** The length of the run of word characters currently being scanned */
+  private long currentWordLen;
+
+  /** The last characters of the run of word characters currently being scanned */
+  private StringBuilder currentWordTail;
+
+  /** The text of the run of word characters currently being scanned, or null if word text is not kept */
+  private StringBuilder currentWordText;
+
+  /** Whether there is any full stop in the chunk */
+  private boolean hasFullStop;
+
+  /** The number of characters up to and including the first full stop (or in the whole chunk if there isn't one) */
+  private long sentencePrefixLen;
+
+  /** The number of whitespaces at the very start of the chunk */
+  private long sentenceLeadingWhitespaces;
+
+  /** The hash of the characters up to and including the first full stop (see DistinctCounter.extendHash(long, char)) */
+  private long sentencePrefixHash;
+
+  /** The hash of the characters up to and including the first full stop, after the whitespaces at the very start */
+  private long sentencePrefixTrimmedHash;
+
+  /** The length of the sentence still open after the last full stop, or -1 if there isn't one */
+  private long openSentenceLen;
+
+  /** The hash of the sentence still open after the last full stop */
+  private long openSentenceHash;
+
+  /** The number of line terminators in the chunk */
+  private int noOfLineTerminators;
+
+  /** Whether any characters follow the last line terminator of the chunk */
+  private boolean lineHasChars;
+
+  /** The number of occurrences of each pattern in the chunk */
+  private long[] noOfTextOCs;
+
+  /** The first (longest pattern length - 1) characters of the chunk, excluding line terminators */
+  private String textHead;
+
+  /** The last (longest pattern length - 1) characters of the chunk, excluding line terminators */
+  private String textTail;
+
+  /**
+   * Constructor.
+   *
+   * @param stats: An empty Statistics object, prepared with the same startAvgLens() and startFrequencies() calls as the
+   *               Statistics object that the whole text file is analysed into.
+   * @param matcher: The matcher of the non-empty patterns searched for by the 'Text Occurrences' statistic, or null if it
+   *                 is not being calculated.
+   */
+  ChunkSummary(Statistics stats, AhoCorasickStringMatcher matcher) {
+    super();
+    this.stats = stats;
+    this.keepsWordText = stats.needsWordText();
+    this.matcher = matcher;
+    this.textEdgeLen = (matcher == null) ? 0 : matcher.getMaxPatternLength() - 1;
+    this.textMatcher = (matcher == null) ? null : new StreamingStringMatcher(matcher);
+    this.textTailRing = (matcher == null) ? null : new char[this.textEdgeLen];
+    this.textTailCount = 0;
+    this.hasWordBoundary = false;
+    this.wordPrefixLen = 0;
+    this.wordPrefixTail = "";
+    this.wordPrefixText = this.keepsWordText ? "" : null;
+    this.wordSuffixLen = 0;
+    this.wordSuffixTail = "";
+    this.wordSuffixText = this.keepsWordText ? "" : null;
+    this.currentWordLen = 0;
+    this.currentWordTail = new StringBuilder(WORD_TAIL_SIZE + 1);
+    this.currentWordText = this.keepsWordText ? new StringBuilder() : null;
+    this.hasFullStop = false;
+    this.sentencePrefixLen = 0;
+    this.sentenceLeadingWhitespaces = 0;
+    this.sentencePrefixHash = DistinctCounter.EMPTY_HASH;
+    this.sentencePrefixTrimmedHash = DistinctCounter.EMPTY_HASH;
+    this.openSentenceLen = -1;
+    this.openSentenceHash = DistinctCounter.EMPTY_HASH;
+    this.noOfLineTerminators = 0;
+    this.lineHasChars = false;
+    this.noOfTextOCs = null;
+    this.textHead = "";
+    this.textTail = "";
+  }
+
+  /**
+   * Takes the next character of the chunk, excluding line terminators, as read by the character parser of TextScanner.
+   *
+   * @param c: The character.
+   */
+  void acceptChar(char c) {
+    this.stats.addChar(c);
+    if (this.textMatcher != null) {
+      this.textMatcher.feed(c);
+      if (this.textEdgeLen > 0) {
+        if (this.textTailCount < this.textEdgeLen) {
+          this.textHead += c;
+        }
+        this.textTailRing[(int) (this.textTailCount % this.textEdgeLen)] = c;
+      }
+      this.textTailCount++;
+    }
+  }
+
+  /**
+   * Takes one line terminator of the chunk, as counted by the character parser of TextScanner.
+   */
+  void acceptLineTerminator() {
+    this.stats.addLineTerminator();
+    this.noOfLineTerminators++;
+  }
+
+  /**
+   * Takes the next character of the chunk, as seen by the word parser of TextScanner.
+   *
+   * @param c: The character.
+   */
+  void acceptWordChar(char c) {
+    if ((CharClasses.of(c) & (CharClasses.WHITESPACE | CharClasses.PUNCTUATION)) == 0) {
+      this.currentWordLen++;
+      this.currentWordTail.append(c);
+      if (this.currentWordTail.length() > WORD_TAIL_SIZE) {
+        this.currentWordTail.deleteCharAt(0);
+      }
+      if (this.currentWordText != null) {
+        this.currentWordText.append(c);
+      }
+      return;
+    }
+
+    // The current run of word characters is either the fragment before the first word boundary, or a complete word
+    if (!this.hasWordBoundary) {
+      this.hasWordBoundary = true;
+      this.wordPrefixLen = this.currentWordLen;
+      this.wordPrefixTail = this.currentWordTail.toString();
+      this.wordPrefixText = ChunkSummary.toString(this.currentWordText);
+    }
+    else if (this.currentWordLen > 0) {
+      this.addWord(this.currentWordLen, this.currentWordTail, this.currentWordText);
+    }
+    this.currentWordLen = 0;
+    this.currentWordTail.setLength(0);
+    if (this.currentWordText != null) {
+      this.currentWordText.setLength(0);
+    }
+  }
+
+  /**
+   * Takes the next character of the chunk, as seen by the sentence parser of TextScanner.
+   *
+   * @param c: The character.
+   */
+  void acceptSentenceChar(char c) {
+    if (!this.hasFullStop) {
+      if (this.sentencePrefixLen == this.sentenceLeadingWhitespaces && CharClasses.isWhitespace(c)) {
+        this.sentenceLeadingWhitespaces++;
+      }
+      else {
+        this.sentencePrefixTrimmedHash = DistinctCounter.extendHash(this.sentencePrefixTrimmedHash, c);
+      }
+      this.sentencePrefixHash = DistinctCounter.extendHash(this.sentencePrefixHash, c);
+      this.sentencePrefixLen++;
+      if (c == '.') {
+        this.hasFullStop = true;
+      }
+      return;
+    }
+
+    // After the first full stop, sentences are parsed just as TextScanner does
+    if (this.openSentenceLen == -1) {
+      if (!CharClasses.isWhitespace(c) && c != '.') {
+        this.openSentenceLen = 1;
+        this.openSentenceHash = DistinctCounter.extendHash(DistinctCounter.EMPTY_HASH, c);
+      }
+    }
+    else {
+      this.openSentenceLen++;
+      this.openSentenceHash = DistinctCounter.extendHash(this.openSentenceHash, c);
+      if (c == '.') {
+        this.stats.addSentence(this.openSentenceLen, this.openSentenceHash);
+        this.openSentenceLen = -1;
+      }
+    }
+  }
+
+  /**
+   * Completes the summary once the whole chunk has been scanned.
+   *
+   * @param lineHasChars: Whether any characters follow the last line terminator of the chunk.
+   */
+  void complete(boolean lineHasChars) {
+    this.lineHasChars = lineHasChars;
+    if (this.hasWordBoundary) {
+      this.wordSuffixLen = this.currentWordLen;
+      this.wordSuffixTail = this.currentWordTail.toString();
+      this.wordSuffixText = ChunkSummary.toString(this.currentWordText);
+    }
+    else {
+      this.wordPrefixLen = this.currentWordLen;
+      this.wordPrefixTail = this.currentWordTail.toString();
+      this.wordPrefixText = ChunkSummary.toString(this.currentWordText);
+    }
+    this.currentWordTail = null;
+    this.currentWordText = null;
+
+    if (this.textMatcher != null) {
+      this.noOfTextOCs = this.textMatcher.getCounts();
+      StringBuilder tail = new StringBuilder(this.textEdgeLen);
+      for (long i = Math.max(0, this.textTailCount - this.textEdgeLen); i < this.textTailCount; i++) {
+        tail.append(this.textTailRing[(int) (i % this.textEdgeLen)]);
+      }
+      this.textTail = tail.toString();
+      this.textMatcher = null;
+      this.textTailRing = null;
+    }
+  }
+
+  /**
+   * Joins the summary of the chunk that directly follows this one onto this summary, so that this summary covers both
+   * chunks.
+   *
+   * @param next: The summary of the following chunk.
+   */
+  void append(ChunkSummary next) {
+    this.stats.merge(next.stats);
+    this.appendWords(next);
+    this.appendSentences(next);
+    this.appendLines(next);
+    if (this.matcher != null) {
+      this.appendTextOCs(next);
+    }
+  }
+
+  /**
+   * Private helper method for append(ChunkSummary) that stitches together the word fragments either side of the join.
+   *
+   * @param next: The summary of the following chunk.
+   */
+  private void appendWords(ChunkSummary next) {
+    if (!this.hasWordBoundary) {
+
+      // This whole summary is one word fragment, which carries on into the next chunk
+      this.wordPrefixTail = ChunkSummary.joinTails(this.wordPrefixTail, next.wordPrefixTail, WORD_TAIL_SIZE);
+      this.wordPrefixText = ChunkSummary.joinTexts(this.wordPrefixText, next.wordPrefixText);
+      this.wordPrefixLen += next.wordPrefixLen;
+      this.hasWordBoundary = next.hasWordBoundary;
+      this.wordSuffixLen = next.wordSuffixLen;
+      this.wordSuffixTail = next.wordSuffixTail;
+      this.wordSuffixText = next.wordSuffixText;
+    }
+    else if (!next.hasWordBoundary) {
+
+      // The next chunk is one word fragment, which carries on the last word fragment of this summary
+      this.wordSuffixTail = ChunkSummary.joinTails(this.wordSuffixTail, next.wordPrefixTail, WORD_TAIL_SIZE);
+      this.wordSuffixText = ChunkSummary.joinTexts(this.wordSuffixText, next.wordPrefixText);
+      this.wordSuffixLen += next.wordPrefixLen;
+    }
+    else {
+
+      // The word fragments either side of the join make up a complete word
+      long length = this.wordSuffixLen + next.wordPrefixLen;
+      if (length > 0) {
+        String tail = ChunkSummary.joinTails(this.wordSuffixTail, next.wordPrefixTail, WORD_TAIL_SIZE);
+        this.addWord(length, tail, ChunkSummary.joinTexts(this.wordSuffixText, next.wordPrefixText));
+      }
+      this.wordSuffixLen = next.wordSuffixLen;
+      this.wordSuffixTail = next.wordSuffixTail;
+      this.wordSuffixText = next.wordSuffixText;
+    }
+  }
+
+  /**
+   * Private helper method for append(ChunkSummary) that stitches together the sentence fragments either side of the join.
+   *
+   * @param next: The summary of the following chunk.
+   */
+  private void appendSentences(ChunkSummary next) {
+    if (!this.hasFullStop) {
+
+      // This whole summary is one sentence fragment, which carries on into the next chunk
+      if (this.sentenceLeadingWhitespaces == this.sentencePrefixLen) {
+        this.sentenceLeadingWhitespaces += next.sentenceLeadingWhitespaces;
+        this.sentencePrefixTrimmedHash = next.sentencePrefixTrimmedHash;
+      }
+      else {
+        this.sentencePrefixTrimmedHash = DistinctCounter.joinHashes(this.sentencePrefixTrimmedHash,
+            next.sentencePrefixHash, next.sentencePrefixLen);
+      }
+      this.sentencePrefixHash = DistinctCounter.joinHashes(this.sentencePrefixHash, next.sentencePrefixHash,
+          next.sentencePrefixLen);
+      this.sentencePrefixLen += next.sentencePrefixLen;
+      this.hasFullStop = next.hasFullStop;
+      this.openSentenceLen = next.openSentenceLen;
+      this.openSentenceHash = next.openSentenceHash;
+      return;
+    }
+
+    // Carry on the sentence left open by this summary (if any) through the start of the next chunk
+    long length;
+    long hash = DistinctCounter.EMPTY_HASH;
+    if (this.openSentenceLen != -1) {
+      length = this.openSentenceLen + next.sentencePrefixLen;
+      hash = DistinctCounter.joinHashes(this.openSentenceHash, next.sentencePrefixHash, next.sentencePrefixLen);
+    }
+    else if (next.hasFullStop && next.sentenceLeadingWhitespaces == next.sentencePrefixLen - 1) {
+
+      // Only whitespaces come before the next chunk's first full stop, so no sentence is started
+      length = -1;
+    }
+    else if (next.sentenceLeadingWhitespaces == next.sentencePrefixLen) {
+      length = -1;
+    }
+    else {
+      length = next.sentencePrefixLen - next.sentenceLeadingWhitespaces;
+      hash = next.sentencePrefixTrimmedHash;
+    }
+
+    if (next.hasFullStop) {
+      if (length != -1) {
+        this.stats.addSentence(length, hash);
+      }
+      this.openSentenceLen = next.openSentenceLen;
+      this.openSentenceHash = next.openSentenceHash;
+    }
+    else {
+      this.openSentenceLen = length;
+      this.openSentenceHash = hash;
+    }
+  }
+
+  /**
+   * Private helper method for append(ChunkSummary) that joins the line terminator counts.
+   *
+   * @param next: The summary of the following chunk.
+   */
+  private void appendLines(ChunkSummary next) {
+    if (next.noOfLineTerminators > 0) {
+      this.lineHasChars = next.lineHasChars;
+    }
+    else {
+      this.lineHasChars = this.lineHasChars || next.lineHasChars;
+    }
+    this.noOfLineTerminators += next.noOfLineTerminators;
+  }
+
+  /**
+   * Private helper method for append(ChunkSummary) that counts the occurrences of the patterns which span the join.
+   *
+   * @param next: The summary of the following chunk.
+   */
+  private void appendTextOCs(ChunkSummary next) {
+    String join = this.textTail + next.textHead;
+    long[] spanning = this.matcher.searchAcross(join.toCharArray(), this.textTail.length());
+    for (int i = 0; i < this.noOfTextOCs.length; i++) {
+      this.noOfTextOCs[i] += next.noOfTextOCs[i] + spanning[i];
+    }
+
+    if (this.textHead.length() < this.textEdgeLen) {
+      String head = this.textHead + next.textHead;
+      this.textHead = head.substring(0, Math.min(this.textEdgeLen, head.length()));
+    }
+    this.textTail = ChunkSummary.joinTails(this.textTail, next.textTail, this.textEdgeLen);
+  }
+
+  /**
+   * Completes the statistics of the whole text file, once every chunk has been appended onto this summary. The word,
+   * sentence and line fragments left at the start and end of the text file are finished as TextScanner would at the end
+   * of the file.
+   *
+   * @param target: The Statistics object to add the statistics of the whole text file to.
+   */
+  void finish(Statistics target) {
+
+    // The text file starts with a complete word, unless the whole file is one word fragment
+    long openWordLen = this.wordPrefixLen;
+    String openWordTail = this.wordPrefixTail;
+    String openWordText = this.wordPrefixText;
+    if (this.hasWordBoundary) {
+      if (this.wordPrefixLen > 0) {
+        this.addWord(this.wordPrefixLen, this.wordPrefixTail, this.wordPrefixText);
+      }
+      openWordLen = this.wordSuffixLen;
+      openWordTail = this.wordSuffixTail;
+      openWordText = this.wordSuffixText;
+    }
+
+    // The final character of the text file is never added onto a word, unless it is the only character of the word
+    if (openWordLen == 1) {
+      this.addWord(1, "", openWordText);
+    }
+    else if (openWordLen > 1) {
+      this.addWord(openWordLen - 1, openWordTail.substring(0, openWordTail.length() - 1),
+          (openWordText == null) ? null : openWordText.substring(0, openWordText.length() - 1));
+    }
+
+    // The text file starts with a complete sentence, unless it is one sentence fragment; either way, a sentence still
+    // open at the end of the file is saved as it is
+    long openSentenceLen = this.openSentenceLen;
+    long openSentenceHash = this.openSentenceHash;
+    if (!this.hasFullStop) {
+      openSentenceLen = this.sentencePrefixLen - this.sentenceLeadingWhitespaces;
+      openSentenceHash = this.sentencePrefixTrimmedHash;
+    }
+    else if (this.sentenceLeadingWhitespaces < this.sentencePrefixLen - 1) {
+      this.stats.addSentence(this.sentencePrefixLen - this.sentenceLeadingWhitespaces, this.sentencePrefixTrimmedHash);
+    }
+    if (openSentenceLen > 0) {
+      this.stats.addSentence(openSentenceLen, openSentenceHash);
+    }
+
+    // The last line of the text file counts as a line, even without a line terminator
+    if (this.lineHasChars) {
+      this.stats.addLineTerminator();
+      this.noOfLineTerminators++;
+    }
+
+    target.merge(this.stats);
+    if (this.matcher != null) {
+      target.addTextOCs(this.noOfTextOCs);
+    }
+  }
+
+  /**
+   * @return the number of line terminators in the chunks summarised.
+   */
+  int getNoOfLineTerminators() {
+    return this.noOfLineTerminators;
+  }
+
+  /**
+   * Private helper method that passes one complete word into the chunk's Statistics object, along with its text if it is
+   * kept.
+   *
+   * @param length: The length of the word.
+   * @param tail: The last characters of the word.
+   * @param text: The text of the word, or null if word text is not kept.
+   */
+  private void addWord(long length, CharSequence tail, CharSequence text) {
+    if (text != null) {
+      this.stats.addWord(text, ChunkSummary.hasSuffix(tail));
+    }
+    else {
+      this.stats.addWord(length, ChunkSummary.hasSuffix(tail));
+    }
+  }
+
+  /**
+   * Private helper method that joins the texts of two neighbouring word fragments.
+   *
+   * @param first: The text of the first fragment, or null if word text is not kept.
+   * @param second: The text of the second fragment, or null if word text is not kept.
+   *
+   * @return both texts joined together, or null if word text is not kept.
+   */
+  private static String joinTexts(String first, String second) {
+    return (first == null) ? null : first + second;
+  }
+
+  /**
+   * Private helper method that copies the text of the run of word characters currently being scanned.
+   *
+   * @param text: The text, or null if word text is not kept.
+   *
+   * @return the text as a String, or null if word text is not kept.
+   */
+  private static String toString(StringBuilder text) {
+    return (text == null) ? null : text.toString();
+  }
+
+  /**
+   * Private helper method that joins the last characters of two neighbouring fragments.
+   *
+   * @param first: The last characters of the first fragment.
+   * @param second: The last characters of the second fragment.
+   * @param size: The maximum number of characters to keep.
+   *
+   * @return the last (up to size) characters of both fragments joined together.
+   */
+  private static String joinTails(String first, String second, int size) {
+    String joined = first + second;
+    return (joined.length() > size) ? joined.substring(joined.length() - size) : joined;
+  }
+
+  /**
+   * Private helper method that checks the end of a word for one of the suffixes 'ed', 'ing' and 'ly'.
+   *
+   * @param tail: The last characters of the word.
+   *
+   * @return true if the word ends with one of the suffixes, otherwise false.
+   */
+  private static boolean hasSuffix(CharSequence tail) {
+    String s = tail.toString();
+    return s.endsWith("ed") || s.endsWith("ing") || s.endsWith("ly");
+  }
+
+}
@@ -0,0 +1,404 @@
+/**
+ * CorpusAnalyser.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import uk.co.bluettduncanj.model.CorpusStatistics;
+import uk.co.bluettduncanj.model.IStatistic;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * CorpusAnalyser analyses every text file beneath a directory concurrently, giving the Statistics of each text file and
+ * of the corpus as a whole (see CorpusStatistics).
+ *
+ * Work on each text file is split in two. Reading the text file is done on a thread of its own, which is a cheap virtual
+ * thread when the Java runtime has them (Java 21 and later), so that many reads can wait on the disk at once. Parsing
+ * and analysing the text file is done by a FileAnalyser on a pool with a bounded number of threads (one for each
+ * available processor by default), so that the CPU work is not oversubscribed. Only a bounded number of text files are
+ * in flight at once, so the memory used does not grow with the size of the corpus.
+ *
+ * Small text files are read into memory in one go and analysed from there. Text files of at least
+ * AbstractFileHandler.MAPPING_THRESHOLD bytes are instead left to the FileAnalyser, which maps them into memory. If a
+ * ResultCache is set, every text file is left to the FileAnalyser, so that a cached text file is not read at all.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class CorpusAnalyser {
+
+  /** The number of text files that may be in flight for each thread of the analysis pool */
+  private static final int FILES_IN_FLIGHT_PER_THREAD = 4;
+
+  /** Set of true/false options that determine what categories of statistics will be analysed (see FileAnalyser) */
+  private final boolean[] options;
+
+  /** The text patterns for the 'Text Occurrences' statistic, or null */
+  private final String[] patterns;
+
+  /** The way in which each text file is analysed */
+  private AnalysisMode mode;
+
+  /** The charset used to decode the text files */
+  private Charset charset;
+
+  /** The number of threads in the analysis pool */
+  private int parallelism;
+
+  /** The cache of results to look text files up in before analysing them, or null */
+  private ResultCache cache;
+
+  /** The number of most frequent words found, or 0 if they are not found */
+  private int noOfTopWords;
+
+  /** The number of words counted at once when finding the most frequent words */
+  private int topWordsCapacity;
+
+  /** The precision of the estimated numbers of distinct words and sentences, or 0 if they are not estimated */
+  private int distinctPrecision;
+
+  /** The directory that the word indexes of text files are saved in, or null if text files are not indexed */
+  private File indexDirectory;
+
+  /** The directory that the substring indexes of text files are saved in, or null if they are not used */
+  private File substringIndexDirectory;
+
+  /** The plug-in statistics calculated along with the chosen statistics */
+  private IStatistic[] plugIns;
+
+  /**
+   * Constructor.
+   *
+   * @param options: The three-element size boolean array of options that determines which categories of statistics are
+   *                 analysed, as for FileAnalyser.setOptions(boolean[], String[]).
+   * @param args: The text patterns for the 'Text Occurrences' statistic, as for FileAnalyser.setOptions(boolean[],
+   *              String[]).
+   *
+   * @throws IllegalArgumentException if the options or patterns are invalid (see FileAnalyser.setOptions(boolean[],
+   * String[])).
+   */
+  public CorpusAnalyser(boolean[] options, String[] args) throws IllegalArgumentException {
+    super();
+    FileAnalyser.checkOptions(options, args);
+    this.options = options.clone();
+    this.patterns = (args == null) ? null : args.clone();
+    this.mode = AnalysisMode.STREAMING_MODE;
+    this.charset = Charset.defaultCharset();
+    this.parallelism = Runtime.getRuntime().availableProcessors();
+    this.cache = null;
+    this.noOfTopWords = 0;
+    this.topWordsCapacity = 0;
+    this.distinctPrecision = 0;
+    this.indexDirectory = null;
+    this.substringIndexDirectory = null;
+    this.plugIns = new IStatistic[0];
+  }
+
+  /**
+   * Setter of the way in which each text file is analysed. The default is AnalysisMode.STREAMING_MODE.
+   *
+   * @param mode: The analysis mode to set.
+   *
+   * @throws NullPointerException if the argument is <code>null</code>.
+   */
+  public void setAnalysisMode(AnalysisMode mode) throws NullPointerException {
+    if (mode == null) {
+      throw new NullPointerException("The analysis mode cannot be null.");
+    }
+    this.mode = mode;
+  }
+
+  /**
+   * Setter of the charset used to decode the text files. The default is the platform's default charset.
+   *
+   * @param charset: The charset to set.
+   *
+   * @throws NullPointerException if the argument is <code>null</code>.
+   */
+  public void setCharset(Charset charset) throws NullPointerException {
+    if (charset == null) {
+      throw new NullPointerException("The charset cannot be null.");
+    }
+    this.charset = charset;
+  }
+
+  /**
+   * Setter of the number of threads that parse and analyse text files at once. The default is the number of available
+   * processors.
+   *
+   * @param parallelism: The number of threads.
+   *
+   * @throws IllegalArgumentException if the argument is not positive.
+   */
+  public void setParallelism(int parallelism) throws IllegalArgumentException {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("The parallelism must be positive.");
+    }
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Setter of the cache of results that each text file is looked up in before it is analysed (see
+   * FileAnalyser.setResultCache(ResultCache)). The default is no cache.
+   *
+   * @param cache: The cache to set, or null to always analyse the text files.
+   */
+  public void setResultCache(ResultCache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Setter of the number of most frequent words found in each text file and in the whole corpus (see
+   * FileAnalyser.setTopWords(int, int)). The default is not to find them.
+   *
+   * @param noOfWords: The number of most frequent words to find, or 0 to not find them.
+   * @param capacity: The number of words to count at once, or TopWords.EXACT to count every distinct word exactly.
+   *
+   * @throws IllegalArgumentException if noOfWords is negative, or capacity is less than noOfWords.
+   */
+  public void setTopWords(int noOfWords, int capacity) throws IllegalArgumentException {
+    FileAnalyser.checkTopWords(noOfWords, capacity);
+    this.noOfTopWords = noOfWords;
+    this.topWordsCapacity = capacity;
+  }
+
+  /**
+   * Setter of the precision of the estimated numbers of distinct words and sentences in each text file and in the whole
+   * corpus (see FileAnalyser.setDistinctCounts(int)). The default is not to estimate them.
+   *
+   * @param precision: The precision, or 0 to not estimate the numbers of distinct words and sentences.
+   *
+   * @throws IllegalArgumentException if precision is neither 0 nor in range.
+   */
+  public void setDistinctCounts(int precision) throws IllegalArgumentException {
+    FileAnalyser.checkDistinctCounts(precision);
+    this.distinctPrecision = precision;
+  }
+
+  /**
+   * Setter of the directory that the word indexes of text files are saved in (see
+   * FileAnalyser.setWordIndexDirectory(File)). The default is not to index text files.
+   *
+   * @param directory: The directory to set, which is created by analyse(Path) if it does not exist, or null to not
+   *                   index text files.
+   */
+  public void setWordIndexDirectory(File directory) {
+    this.indexDirectory = directory;
+  }
+
+  /**
+   * Setter of the directory that the substring indexes of text files are saved in (see
+   * FileAnalyser.setSubstringIndexDirectory(File)). The default is not to use substring indexes.
+   *
+   * @param directory: The directory to set, which is created by analyse(Path) if it does not exist, or null to not use
+   *                   them.
+   */
+  public void setSubstringIndexDirectory(File directory) {
+    this.substringIndexDirectory = directory;
+  }
+
+  /**
+   * Setter of the plug-in statistics that are calculated for each text file along with the chosen statistics, and merged
+   * into those of the corpus (see FileAnalyser.setPlugIns(IStatistic[])). As text files are analysed on several threads, 
+   * IStatistic.newInstance() must be safe to call from any of them. By default there are none.
+   *
+   * @param plugIns: The plug-in statistics, each with a different name, or an empty array for none.
+   *
+   * @throws NullPointerException if plugIns or any of its elements is null.
+   * @throws IllegalArgumentException if two of the plug-in statistics have the same name.
+   */
+  public void setPlugIns(IStatistic[] plugIns) throws NullPointerException, IllegalArgumentException {
+    FileAnalyser.checkPlugIns(plugIns);
+    this.plugIns = plugIns.clone();
+  }
+
+  /**
+   * Analyses every regular file beneath a directory (or a single text file).
+   *
+   * A text file or directory that cannot be read does not stop the rest of the corpus from being analysed; it is
+   * recorded in CorpusStatistics.getFailures() instead.
+   *
+   * @param root: The directory (or single text file) to analyse.
+   *
+   * @return the Statistics of each text file and of the whole corpus.
+   *
+   * @throws IOException if the directory cannot be walked at all.
+   * @throws InterruptedException if the current thread is interrupted while waiting for the text files to be analysed.
+   * @throws IllegalArgumentException if the word or substring index directory cannot be created.
+   */
+  public CorpusStatistics analyse(Path root) throws IOException, InterruptedException, IllegalArgumentException {
+    FileAnalyser.checkIndexDirectory(this.indexDirectory);
+    FileAnalyser.checkIndexDirectory(this.substringIndexDirectory);
+    final Map<String, Statistics> files = new ConcurrentHashMap<String, Statistics>();
+    final Map<String, IOException> failures = new ConcurrentHashMap<String, IOException>();
+    final int maxInFlight = this.parallelism * FILES_IN_FLIGHT_PER_THREAD;
+    final Semaphore inFlight = new Semaphore(maxInFlight);
+    final ExecutorService readers = CorpusAnalyser.newReaderExecutor();
+    final ExecutorService analysers = Executors.newFixedThreadPool(this.parallelism);
+
+    try {
+      Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+          if (attrs.isRegularFile()) {
+            inFlight.acquireUninterruptibly();
+            CorpusAnalyser.this.submit(file, attrs.size(), readers, analysers, inFlight, files, failures);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+          failures.put(file.toString(), e);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+          if (e != null) {
+            failures.put(dir.toString(), e);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+      });
+
+      // Every text file has been analysed once every permit has been handed back
+      inFlight.acquire(maxInFlight);
+    }
+    finally {
+      readers.shutdownNow();
+      analysers.shutdownNow();
+      readers.awaitTermination(1, TimeUnit.MINUTES);
+      analysers.awaitTermination(1, TimeUnit.MINUTES);
+    }
+    return new CorpusStatistics(files, failures);
+  }
+
+  /**
+   * Private helper method for analyse(Path) that reads one text file on the reader executor, and then analyses it on
+   * the analyser pool. One permit of inFlight is handed back once the text file is done with, whatever happens.
+   *
+   * @param file: The text file.
+   * @param size: The size of the text file in bytes.
+   * @param readers: The executor to read the text file on.
+   * @param analysers: The pool to analyse the text file on.
+   * @param inFlight: The permits for text files in flight.
+   * @param files: The map to put the Statistics of the text file into.
+   * @param failures: The map to put any error into.
+   */
+  private void submit(final Path file, final long size, ExecutorService readers, final ExecutorService analysers,
+      final Semaphore inFlight, final Map<String, Statistics> files, final Map<String, IOException> failures) {
+    readers.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        boolean handedOver = false;
+        try {
+          boolean readNow = CorpusAnalyser.this.cache == null && CorpusAnalyser.this.indexDirectory == null &&
+              CorpusAnalyser.this.substringIndexDirectory == null && size < AbstractFileHandler.MAPPING_THRESHOLD;
+          final byte[] bytes = readNow ? Files.readAllBytes(file) : null;
+          analysers.execute(new Runnable() {
+
+            @Override
+            public void run() {
+              try {
+                files.put(file.toString(), CorpusAnalyser.this.analyseFile(file, bytes));
+              }
+              catch (IOException e) {
+                failures.put(file.toString(), e);
+              }
+              catch (RuntimeException e) {
+                failures.put(file.toString(), new IOException(e));
+              }
+              finally {
+                inFlight.release();
+              }
+            }
+
+          });
+          handedOver = true;
+        }
+        catch (IOException e) {
+          failures.put(file.toString(), e);
+        }
+        catch (RuntimeException e) {
+          failures.put(file.toString(), new IOException(e));
+        }
+        finally {
+          if (!handedOver) {
+            inFlight.release();
+          }
+        }
+      }
+
+    });
+  }
+
+  /**
+   * Private helper method for submit(...) that analyses one text file with its own FileAnalyser.
+   *
+   * @param file: The text file.
+   * @param bytes: The contents of the text file, or null to let the FileAnalyser read it.
+   *
+   * @return the Statistics of the text file.
+   *
+   * @throws IOException if the text file cannot be read.
+   */
+  private Statistics analyseFile(Path file, byte[] bytes) throws IOException {
+    FileAnalyser fileAnalyser = new FileAnalyser();
+    fileAnalyser.setAnalysisMode(this.mode);
+    fileAnalyser.setCharset(this.charset);
+    fileAnalyser.setOptions(this.options, this.patterns);
+    fileAnalyser.setResultCache(this.cache);
+    fileAnalyser.setTopWords(this.noOfTopWords, this.topWordsCapacity);
+    fileAnalyser.setDistinctCounts(this.distinctPrecision);
+    fileAnalyser.setWordIndexDirectory(this.indexDirectory);
+    fileAnalyser.setSubstringIndexDirectory(this.substringIndexDirectory);
+    fileAnalyser.setPlugIns(this.plugIns);
+    if (bytes != null) {
+      fileAnalyser.process(new InputStreamReader(new ByteArrayInputStream(bytes), this.charset));
+    }
+    else {
+      fileAnalyser.setFilePath(file.toString());
+      fileAnalyser.process();
+    }
+    return fileAnalyser.getStatistics();
+  }
+
+  /**
+   * Private helper method for analyse(Path) that creates the executor that text files are read on. This is a
+   * virtual-thread-per-task executor if the Java runtime has one, and otherwise a pool of platform threads.
+   *
+   * @return the executor.
+   */
+  private static ExecutorService newReaderExecutor() {
+    try {
+
+      // Looked up by reflection, so that this class still compiles and runs on runtimes older than Java 21
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+    catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+}
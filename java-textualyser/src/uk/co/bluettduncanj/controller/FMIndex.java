@@ -0,0 +1,544 @@
+/**
+ * FMIndex.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+
+/**
+ * FMIndex is a component class of FileAnalyser that counts the occurrences of any pattern in a fixed text, in time
+ * proportional to the length of the pattern rather than to the length of the text, using an FM-index (Ferragina and
+ * Manzini, 2000).
+ *
+ * The index is built once from the suffix array of the text, which is sorted by prefix doubling (Manber and Myers,
+ * 1993) and then thrown away. What is kept is the Burrows-Wheeler transform of the text, held in a wavelet matrix
+ * (Claude and Navarro, 2012) so that the number of times any character appears in a prefix of it can be found in
+ * O(log(number of distinct characters)) time. A pattern is then counted by 'backward search', one character at a time
+ * from its end. The index takes about (log2(number of distinct characters) + 1) bits per character of the text, plus
+ * the distinct characters themselves.
+ *
+ * Occurrences are counted in the same way as BoyerMooreStringMatcher and AhoCorasickStringMatcher count them, i.e.
+ * overlapping occurrences are all counted, and an empty pattern matches at every position, including the end.
+ *
+ * An FMIndex is Serializable. The index of a text file can be saved in a directory of its own (see
+ * open(File, Charset, File)), from which it is loaded rather than built again while the size and last-modified time of
+ * the text file are unchanged. Like ResultCache, a saved index is only an aid to speed: one that cannot be read or
+ * written is built again, rather than treated as an error.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class FMIndex implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The extension of saved indexes */
+  private static final String INDEX_EXTENSION = ".fmi";
+
+  /** How long before indexing a text file must have been last modified for its index to be saved, in milliseconds */
+  private static final long MTIME_GRANULARITY = 2000;
+
+  /** The number of characters of a text file to read at a time */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** The number of 64-bit words of a bit vector between stored ranks, as a power of two */
+  private static final int WORDS_PER_BLOCK_SHIFT = 2;
+
+  /** The distinct characters of the text, in order; the character symbols[s - 1] has the symbol s */
+  private final char[] symbols;
+
+  /** The number of characters of the text (plus its end marker) less than each symbol */
+  private final int[] lessThan;
+
+  /** The length of the text, plus one for its end marker, which has the symbol 0 */
+  private final int length;
+
+  /** The bits of the wavelet matrix, one bit vector per level from the most significant bit of the symbols down */
+  private final long[][] bits;
+
+  /** The number of set bits before each block of each level's bit vector */
+  private final int[][] blockRanks;
+
+  /** The number of clear bits at each level */
+  private final int[] zeros;
+
+  /** The text file the index is of, as an absolute path, or null if it was built from characters */
+  private File file;
+
+  /** The name of the charset the text file was decoded with, or null */
+  private String charsetName;
+
+  /** The size of the text file when it was indexed */
+  private long size;
+
+  /** The last-modified time of the text file when it was indexed */
+  private long lastModified;
+
+  /** Whether nothing could have changed the text file during indexing without changing its last-modified time */
+  private transient boolean isStable;
+
+  /**
+   * Constructor, which builds the index of some characters.
+   *
+   * @param text: The characters to index.
+   * @param length: The number of characters of text to index, from its start.
+   *
+   * @throws IllegalArgumentException if length is negative, greater than text.length, or too great to be indexed.
+   */
+  public FMIndex(char[] text, int length) throws IllegalArgumentException {
+    super();
+    if (length < 0 || length > text.length) {
+      throw new IllegalArgumentException("The length is out of range.");
+    }
+    if (length == Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The text is too long to be indexed.");
+    }
+    this.length = length + 1;
+
+    // Number the distinct characters from 1 upwards, in order, leaving 0 for the end marker
+    boolean[] isPresent = new boolean[Character.MAX_VALUE + 1];
+    int noOfSymbols = 0;
+    for (int i = 0; i < length; i++) {
+      if (!isPresent[text[i]]) {
+        isPresent[text[i]] = true;
+        noOfSymbols++;
+      }
+    }
+    this.symbols = new char[noOfSymbols];
+    int[] symbolOf = new int[Character.MAX_VALUE + 1];
+    for (int c = 0, s = 0; c <= Character.MAX_VALUE; c++) {
+      if (isPresent[c]) {
+        this.symbols[s++] = (char) c;
+        symbolOf[c] = s;
+      }
+    }
+    int[] symbolText = new int[this.length];
+    for (int i = 0; i < length; i++) {
+      symbolText[i] = symbolOf[text[i]];
+    }
+    symbolOf = null;
+
+    this.lessThan = new int[noOfSymbols + 2];
+    for (int s : symbolText) {
+      this.lessThan[s + 1]++;
+    }
+    for (int s = 1; s < this.lessThan.length; s++) {
+      this.lessThan[s] += this.lessThan[s - 1];
+    }
+
+    // The Burrows-Wheeler transform is the character before each suffix, in suffix order
+    int[] suffixArray = FMIndex.sortSuffixes(symbolText, noOfSymbols + 1);
+    int[] bwt = new int[this.length];
+    for (int i = 0; i < this.length; i++) {
+      bwt[i] = symbolText[(suffixArray[i] == 0) ? this.length - 1 : suffixArray[i] - 1];
+    }
+    suffixArray = null;
+
+    int noOfLevels = Math.max(1, 32 - Integer.numberOfLeadingZeros(noOfSymbols));
+    this.bits = new long[noOfLevels][];
+    this.blockRanks = new int[noOfLevels][];
+    this.zeros = new int[noOfLevels];
+    this.buildWaveletMatrix(bwt, symbolText);
+  }
+
+  /**
+   * Loads the index of a text file from a directory, or if it has not been saved there, or the text file has changed
+   * since, builds it and saves it there.
+   *
+   * @param file: The text file.
+   * @param charset: The charset to decode the text file with.
+   * @param directory: The directory of saved indexes, which must exist.
+   *
+   * @return the index.
+   *
+   * @throws IOException if the text file cannot be read, or is too long to be indexed.
+   */
+  public static FMIndex open(File file, Charset charset, File directory) throws IOException {
+    File absoluteFile = file.getAbsoluteFile();
+    File indexFile = FMIndex.getIndexFile(absoluteFile, charset, directory);
+    FMIndex index = FMIndex.read(indexFile);
+    if (index != null && index.isFor(absoluteFile, charset)) {
+      return index;
+    }
+    index = FMIndex.build(absoluteFile, charset);
+    if (index.isStable && index.isFor(absoluteFile, charset)) {
+      index.write(indexFile);
+    }
+    return index;
+  }
+
+  /**
+   * Builds the index of a text file, over the same characters as the 'Text Occurrences' statistic is counted over, i.e.
+   * the text file without its line terminators. The index is not saved.
+   *
+   * @param file: The text file.
+   * @param charset: The charset to decode the text file with.
+   *
+   * @return the index.
+   *
+   * @throws IOException if the text file cannot be read, or is too long to be indexed.
+   */
+  public static FMIndex build(File file, Charset charset) throws IOException {
+    File absoluteFile = file.getAbsoluteFile();
+    long startTime = System.currentTimeMillis();
+    long size = absoluteFile.length();
+    long lastModified = absoluteFile.lastModified();
+
+    char[] text = new char[(int) Math.max(16, Math.min(size, Integer.MAX_VALUE - 8))];
+    int length = 0;
+    Reader reader = new InputStreamReader(new FileInputStream(absoluteFile), charset);
+    try {
+      char[] buffer = new char[BUFFER_SIZE];
+      int n;
+      while ((n = reader.read(buffer)) != -1) {
+        for (int i = 0; i < n; i++) {
+          char c = buffer[i];
+          if (c == '\n' || c == '\r') {
+            continue;
+          }
+          if (length == text.length) {
+            if (length >= Integer.MAX_VALUE - 8) {
+              throw new IOException("The text file is too long to be indexed.");
+            }
+            text = Arrays.copyOf(text, (int) Math.min(Integer.MAX_VALUE - 8, 2L * length));
+          }
+          text[length++] = c;
+        }
+      }
+    }
+    finally {
+      reader.close();
+    }
+
+    FMIndex index = new FMIndex(text, length);
+    index.file = absoluteFile;
+    index.charsetName = charset.name();
+    index.size = size;
+    index.lastModified = lastModified;
+
+    // Only trust the index if nothing could have changed the text file without changing its last-modified time
+    index.isStable = lastModified != 0 && lastModified < startTime - MTIME_GRANULARITY;
+    return index;
+  }
+
+  /**
+   * Counts the occurrences of a pattern in the text.
+   *
+   * @param pattern: The pattern.
+   *
+   * @return the number of occurrences of the pattern.
+   */
+  public long count(CharSequence pattern) {
+    int start = 0;
+    int end = this.length;
+    for (int i = pattern.length() - 1; i >= 0 && start < end; i--) {
+      int s = Arrays.binarySearch(this.symbols, pattern.charAt(i)) + 1;
+      if (s <= 0) {
+        return 0;
+      }
+      start = this.lessThan[s] + this.rank(s, start);
+      end = this.lessThan[s] + this.rank(s, end);
+    }
+    return end - start;
+  }
+
+  /**
+   * Counts the occurrences of each of a set of patterns in the text.
+   *
+   * @param patterns: The patterns.
+   *
+   * @return the number of occurrences of each pattern, in the same order as the patterns.
+   */
+  public long[] count(char[][] patterns) {
+    long[] counts = new long[patterns.length];
+    for (int i = 0; i < patterns.length; i++) {
+      counts[i] = this.count(new String(patterns[i]));
+    }
+    return counts;
+  }
+
+  /**
+   * Checks whether this index is of a given text file, as it is now.
+   *
+   * @param file: The text file.
+   * @param charset: The charset to decode the text file with.
+   *
+   * @return true if this index is of the text file, decoded with the charset, and the size and last-modified time of
+   * the text file are unchanged since it was indexed, otherwise false.
+   */
+  public boolean isFor(File file, Charset charset) {
+    File absoluteFile = file.getAbsoluteFile();
+    return this.file != null && this.file.equals(absoluteFile) && this.charsetName.equals(charset.name()) &&
+        absoluteFile.length() == this.size && absoluteFile.lastModified() == this.lastModified;
+  }
+
+  /**
+   * @return the number of characters indexed.
+   */
+  public int getLength() {
+    return this.length - 1;
+  }
+
+  /**
+   * Private helper method for count(CharSequence) that finds the number of times a symbol appears in the
+   * Burrows-Wheeler transform before a position, by walking down the wavelet matrix.
+   *
+   * @param symbol: The symbol.
+   * @param position: The position.
+   *
+   * @return the number of times the symbol appears before the position.
+   */
+  private int rank(int symbol, int position) {
+    int start = 0;
+    int end = position;
+    for (int level = 0; level < this.bits.length; level++) {
+      if (((symbol >>> (this.bits.length - 1 - level)) & 1) == 0) {
+        start -= this.rank1(level, start);
+        end -= this.rank1(level, end);
+      }
+      else {
+        start = this.zeros[level] + this.rank1(level, start);
+        end = this.zeros[level] + this.rank1(level, end);
+      }
+    }
+    return end - start;
+  }
+
+  /**
+   * Private helper method for rank(int, int) that finds the number of set bits of a level before a position.
+   */
+  private int rank1(int level, int position) {
+    long[] bits = this.bits[level];
+    int word = position >>> 6;
+    int rank = this.blockRanks[level][word >>> WORDS_PER_BLOCK_SHIFT];
+    for (int w = (word >>> WORDS_PER_BLOCK_SHIFT) << WORDS_PER_BLOCK_SHIFT; w < word; w++) {
+      rank += Long.bitCount(bits[w]);
+    }
+    if ((position & 63) != 0) {
+      rank += Long.bitCount(bits[word] & ((1L << position) - 1));
+    }
+    return rank;
+  }
+
+  /**
+   * Private helper method for the constructor that builds the wavelet matrix of the Burrows-Wheeler transform. At each
+   * level, one bit of each symbol is stored, and the symbols are then stably partitioned by that bit for the next
+   * level.
+   *
+   * @param symbols: The Burrows-Wheeler transform, which is overwritten.
+   * @param scratch: An array at least as long, which is overwritten.
+   */
+  private void buildWaveletMatrix(int[] symbols, int[] scratch) {
+    int n = this.length;
+    int noOfWords = (n >>> 6) + 1;
+    for (int level = 0; level < this.bits.length; level++) {
+      int shift = this.bits.length - 1 - level;
+      long[] bits = new long[noOfWords];
+      int noOfZeros = 0;
+      for (int i = 0; i < n; i++) {
+        if (((symbols[i] >>> shift) & 1) == 0) {
+          noOfZeros++;
+        }
+        else {
+          bits[i >>> 6] |= 1L << i;
+        }
+      }
+      int[] blockRanks = new int[(noOfWords >>> WORDS_PER_BLOCK_SHIFT) + 1];
+      int rank = 0;
+      for (int w = 0; w < noOfWords; w++) {
+        if ((w & ((1 << WORDS_PER_BLOCK_SHIFT) - 1)) == 0) {
+          blockRanks[w >>> WORDS_PER_BLOCK_SHIFT] = rank;
+        }
+        rank += Long.bitCount(bits[w]);
+      }
+      this.bits[level] = bits;
+      this.blockRanks[level] = blockRanks;
+      this.zeros[level] = noOfZeros;
+
+      int zero = 0;
+      int one = noOfZeros;
+      for (int i = 0; i < n; i++) {
+        if (((symbols[i] >>> shift) & 1) == 0) {
+          scratch[zero++] = symbols[i];
+        }
+        else {
+          scratch[one++] = symbols[i];
+        }
+      }
+      int[] swap = symbols;
+      symbols = scratch;
+      scratch = swap;
+    }
+  }
+
+  /**
+   * Private helper method for the constructor that sorts the suffixes of a text by prefix doubling: the suffixes are
+   * sorted by their first character, and then repeatedly by their first 2k characters, as pairs of the ranks of their
+   * first k characters and of the k characters after, with two counting sorts. This stops as soon as every suffix has
+   * a rank of its own.
+   *
+   * @param text: The symbols of the text, ending with a symbol 0 that appears nowhere else.
+   * @param noOfSymbols: The number of distinct symbols, including 0.
+   *
+   * @return the starting position of each suffix, in sorted order.
+   */
+  private static int[] sortSuffixes(int[] text, int noOfSymbols) {
+    int n = text.length;
+    int[] suffixes = new int[n];
+    int[] rank = text.clone();
+    int[] scratch = new int[n];
+    int[] counts = new int[Math.max(noOfSymbols, n) + 1];
+
+    for (int i = 0; i < n; i++) {
+      counts[rank[i] + 1]++;
+    }
+    for (int r = 1; r <= noOfSymbols; r++) {
+      counts[r] += counts[r - 1];
+    }
+    for (int i = 0; i < n; i++) {
+      suffixes[counts[rank[i]]++] = i;
+    }
+    int noOfRanks = noOfSymbols;
+
+    for (int k = 1; k < n; k <<= 1) {
+
+      // Order by the rank of the k characters after: suffixes with none come first, then the rest in sorted order
+      int p = 0;
+      for (int i = n - k; i < n; i++) {
+        scratch[p++] = i;
+      }
+      for (int i = 0; i < n; i++) {
+        if (suffixes[i] >= k) {
+          scratch[p++] = suffixes[i] - k;
+        }
+      }
+
+      // Then stably by the rank of the first k characters
+      Arrays.fill(counts, 0, noOfRanks + 1, 0);
+      for (int i = 0; i < n; i++) {
+        counts[rank[i] + 1]++;
+      }
+      for (int r = 1; r <= noOfRanks; r++) {
+        counts[r] += counts[r - 1];
+      }
+      for (int i = 0; i < n; i++) {
+        suffixes[counts[rank[scratch[i]]]++] = scratch[i];
+      }
+
+      // Rank the suffixes by their first 2k characters
+      scratch[suffixes[0]] = 0;
+      noOfRanks = 1;
+      for (int i = 1; i < n; i++) {
+        int previous = suffixes[i - 1];
+        int current = suffixes[i];
+        boolean isSame = rank[previous] == rank[current] &&
+            ((previous + k < n) ? rank[previous + k] : -1) == ((current + k < n) ? rank[current + k] : -1);
+        scratch[current] = isSame ? noOfRanks - 1 : noOfRanks++;
+      }
+      int[] swap = rank;
+      rank = scratch;
+      scratch = swap;
+      if (noOfRanks == n) {
+        break;
+      }
+    }
+    return suffixes;
+  }
+
+  /**
+   * Private helper method that finds the file in which the index of a text file is saved.
+   *
+   * @param file: The text file, as an absolute path.
+   * @param charset: The charset the text file is decoded with.
+   * @param directory: The directory of saved indexes.
+   *
+   * @return the file.
+   */
+  private static File getIndexFile(File file, Charset charset, File directory) {
+    MessageDigest digest = ResultCache.newDigest();
+    ResultCache.update(digest, file.getPath());
+    ResultCache.update(digest, charset.name());
+    return new File(directory, ResultCache.toHex(digest.digest()) + INDEX_EXTENSION);
+  }
+
+  /**
+   * Private helper method for open(File, Charset, File) that loads a saved index. A file that cannot be read, e.g.
+   * because it was saved by an older version of the program, is deleted.
+   *
+   * @param indexFile: The file the index is saved in.
+   *
+   * @return the index, or null if it is not saved or cannot be read.
+   */
+  private static FMIndex read(File indexFile) {
+    if (!indexFile.isFile()) {
+      return null;
+    }
+    try {
+      ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+      try {
+        Object stored = in.readObject();
+        if (stored instanceof FMIndex) {
+          return (FMIndex) stored;
+        }
+      }
+      finally {
+        in.close();
+      }
+    }
+    catch (IOException | ClassNotFoundException | RuntimeException e) {
+      // Deleted below
+    }
+    indexFile.delete();
+    return null;
+  }
+
+  /**
+   * Private helper method for open(File, Charset, File) that saves this index. It is written to a temporary file first,
+   * which then replaces the file, so that a reader never sees a half-written index. An index that cannot be saved is
+   * only kept in memory.
+   *
+   * @param indexFile: The file to save the index in.
+   */
+  private void write(File indexFile) {
+    File temp = null;
+    try {
+      temp = File.createTempFile("index", ".tmp", indexFile.getParentFile());
+      ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+      try {
+        out.writeObject(this);
+      }
+      finally {
+        out.close();
+      }
+      try {
+        Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (IOException e) {
+        Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    catch (IOException e) {
+      if (temp != null) {
+        temp.delete();
+      }
+    }
+  }
+
+}
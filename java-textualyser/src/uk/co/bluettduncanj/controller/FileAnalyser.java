@@ -4,18 +4,23 @@
 
 package uk.co.bluettduncanj.controller;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.FilterReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Pattern;
-
-import javax.swing.JOptionPane;
+import java.util.Set;
 
+import uk.co.bluettduncanj.model.DistinctCounter;
+import uk.co.bluettduncanj.model.IStatistic;
 import uk.co.bluettduncanj.model.Statistics;
+import uk.co.bluettduncanj.model.TopWords;
 
 
 /**
@@ -25,16 +30,13 @@ import uk.co.bluettduncanj.model.Statistics;
  * It takes data obtained from the GUI to find and analyse a text file specified by the user, to search for 
  * various simple patterns (the results of which are known as statistics).
  * 
+ * Every call to process() records how long each of its phases took and how much it processed (see AnalysisMetrics),
+ * which is returned by getMetrics() and added to an AnalysisMetricsRecorder, through which it is published with JMX.
+ * 
  * @author Jonathan Bluett-Duncan
  */
 public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
   
-  // TODO: Move a good deal of the state here, e.g. characters, sentences, words, noOfLineTerminators, pattern, 
-  // punctuationCompiled etc, into its own model e.g. FileReader. Move relevant methods e.g. parseChars()/readFile() to 
-  // FileReader. Change tests accordingly.
-  //
-  // TODO: Verify the given file name in FileReader. Change tests accordingly.
-  //
   // TODO: Consider re-naming this class to Parser or Analyser. Therefore change the interface name accordingly.
   //
   // TODO: Consider re-naming LogFileHandler to LogFileWriter. In GUI, give the user the option to choose a file location
@@ -43,15 +45,6 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
   // TODO: Change parseChars() to readFile(), think about re-implementing it without noOfLineTerminators, 
   // improve code implementation and presentation if possible, and finally change relevant test accordingly (i.e., for a 
   // Windows text file, interpret \r\n as two characters rather than one).
-  //
-  // TODO: In parse(), parallelise the calls to the parseWords() and parseSentences() operations using separate Threads.
-  //
-  // TODO: Re-implement parseWords() and parseSentences() operations to not read from file again.
-  //
-  // TODO: Re-implement parseWords() and parseSentences() so they don't store words and sentences, and instead calculate and pass
-  // statistics straight to the Statistics object.
-  //
-  // TODO: Consider implementing char[] characters as an Inverted Index (see Information Retrieval notes).
   
   /** List of sentences parsed from the text file */
   private List<String> sentences;
@@ -74,18 +67,64 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
    */
   private boolean[] options;
   
-  /** Contains a text pattern that will be used by Statistics.calcNoOfTextOCs */
-  private String pattern;
+  /** Determines whether the text file is analysed in the default way or as a stream (see AnalysisMode) */
+  private AnalysisMode mode;
+  
+  /** Contains the text patterns that will be used by Statistics.calcNoOfTextOCs */
+  private String[] patterns;
 
   /** A counter for the number of line terminators in the text file, that will be used by Statistics.calcNoOfWhitespaces */
   private int noOfLineTerminators;
   
-  /** A compiled regular expression designed to match 'punctuation' marks */
-  private static final Pattern punctuationCompiled = Pattern.compile("[!?/:;,.]");
+  /** The cache of results to look text files up in before analysing them, or null */
+  private ResultCache cache;
+  
+  /** The number of most frequent words found as part of the 'Frequencies' statistics, or 0 if they are not found */
+  private int noOfTopWords;
+  
+  /** The number of words counted at once when finding the most frequent words (see TopWords) */
+  private int topWordsCapacity;
+  
+  /** 
+   * The precision of the estimated numbers of distinct words and sentences found as part of the 'Frequencies' 
+   * statistics, or 0 if they are not estimated 
+   */
+  private int distinctPrecision;
   
-  /** A common error message used to inform the user when a file related IO error has occurred */
-  private static final String FileIOErrorMessage = 
-      "There was an unexpected problem reading the file! This program will most likely crash or respond in an unusual way.";
+  /** The scanner that remembers how far the text file has been analysed in AnalysisMode.INCREMENTAL_MODE, or null */
+  private IncrementalTextScanner incremental;
+  
+  /** The directory that the word indexes of text files are saved in, or null if text files are not indexed */
+  private File indexDirectory;
+  
+  /** The word index of the text file last analysed with one, or null */
+  private WordIndex index;
+  
+  /** The directory that the substring indexes of text files are saved in, or null if they are not used */
+  private File substringIndexDirectory;
+  
+  /** The substring index of the text file last analysed with one, or null */
+  private FMIndex substringIndex;
+  
+  /** The text patterns that are counted by scanning the text file, i.e. those that the word index cannot count */
+  private String[] scannedPatterns;
+  
+  /** The plug-in statistics calculated along with the chosen statistics, of which each analysis uses an empty copy */
+  private IStatistic[] plugIns;
+  
+  /** The metrics of the last call to process() or process(Reader) */
+  private AnalysisMetrics metrics;
+  
+  /** The recorder that the metrics of every call are added to, or null if they are not recorded */
+  private AnalysisMetricsRecorder metricsRecorder;
+  
+  /** The time spent so far in each phase of the current call, in nanoseconds, indexed by AnalysisPhase.ordinal() */
+  private final long[] phaseNanos;
+  
+  /** The numbers of bytes, characters and words processed so far by the current call, each -1 if not known */
+  private long bytesProcessed;
+  private long charsProcessed;
+  private long tokensProcessed;
   
   /**
    * Public default constructor. Initialises state.
@@ -97,8 +136,314 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
     this.characters = null;
     this.log = null;
     this.options = null;
-    this.pattern = null;
+    this.mode = AnalysisMode.DEFAULT_MODE;
+    this.patterns = null;
     this.noOfLineTerminators = 0;
+    this.cache = null;
+    this.noOfTopWords = 0;
+    this.topWordsCapacity = 0;
+    this.distinctPrecision = 0;
+    this.incremental = null;
+    this.indexDirectory = null;
+    this.index = null;
+    this.substringIndexDirectory = null;
+    this.substringIndex = null;
+    this.scannedPatterns = null;
+    this.plugIns = new IStatistic[0];
+    this.metrics = AnalysisMetrics.NONE;
+    this.metricsRecorder = AnalysisMetricsRecorder.getDefault();
+    this.phaseNanos = new long[AnalysisPhase.values().length];
+  }
+  
+  /**
+   * Setter of the way in which the text file will be analysed by process().
+   * 
+   * In AnalysisMode.STREAMING_MODE, characters, words and sentences are not stored, and the 'Text Occurrences' statistic
+   * is counted as the text file is read (see StreamingStringMatcher). This keeps memory use flat whatever the size of the
+   * text file.
+   * 
+   * In AnalysisMode.PARALLEL_MODE, nothing is stored and the text file is scanned in chunks on several threads (see
+   * ParallelTextScanner). If the charset of the text file cannot be split into chunks, or if any text pattern is empty, 
+   * the text file is analysed as in AnalysisMode.STREAMING_MODE instead.
+   * 
+   * In AnalysisMode.INCREMENTAL_MODE, nothing is stored, and the point reached in the text file is remembered, so that 
+   * the next call to process() for the same text file, charset and options only analyses the bytes appended to the text
+   * file since (see IncrementalTextScanner). If the text file has become shorter or has otherwise changed, it is 
+   * analysed again from the start.
+   * 
+   * @param mode: The analysis mode to set.
+   * 
+   * @throws NullPointerException if the argument is <code>null</code>.
+   */
+  public void setAnalysisMode(AnalysisMode mode) throws NullPointerException {
+    if (mode == null) {
+      throw new NullPointerException("The analysis mode cannot be null.");
+    }
+    this.mode = mode;
+  }
+  
+  /**
+   * @return the way in which the text file will be analysed by process().
+   */
+  public AnalysisMode getAnalysisMode() {
+    return this.mode;
+  }
+  
+  /**
+   * Setter of the cache of results used by process(). If a cache is set, the text file is first looked up in it, and
+   * if the same contents have already been analysed with the same charset, options and text patterns, the stored
+   * statistics are used without parsing the text file again. Otherwise the statistics are stored in the cache once the 
+   * text file has been analysed. The characters, words and sentences of a text file are not cached, so they are not 
+   * available (see datStructPrint()) after a cached result is used.
+   * 
+   * @param cache: The cache to set, or null to always analyse the text file.
+   */
+  public void setResultCache(ResultCache cache) {
+    this.cache = cache;
+  }
+  
+  /**
+   * Getter of the cache of results used by process().
+   * 
+   * @return the cache, or null if none is set.
+   */
+  public ResultCache getResultCache() {
+    return this.cache;
+  }
+  
+  /**
+   * Setter of the number of most frequent words found as part of the 'Frequencies' statistics (see TopWords). By 
+   * default, they are not found.
+   * 
+   * The words are counted in a fixed amount of memory, so the counts of a text file with more distinct words than the
+   * capacity may be approximate; each approximate count is shown with how far it may be out.
+   * 
+   * @param noOfWords: The number of most frequent words to find, or 0 to not find them.
+   * @param capacity: The number of words to count at once, which is at least noOfWords, or TopWords.EXACT to count every
+   *                  distinct word exactly.
+   * 
+   * @throws IllegalArgumentException if noOfWords is negative, or capacity is less than noOfWords.
+   */
+  public void setTopWords(int noOfWords, int capacity) throws IllegalArgumentException {
+    FileAnalyser.checkTopWords(noOfWords, capacity);
+    this.noOfTopWords = noOfWords;
+    this.topWordsCapacity = capacity;
+  }
+  
+  /**
+   * Checks the arguments of setTopWords(int, int), so that other classes (e.g. CorpusAnalyser) check them in exactly the
+   * same way.
+   * 
+   * @param noOfWords: The number of most frequent words to find, or 0 to not find them.
+   * @param capacity: The number of words to count at once.
+   * 
+   * @throws IllegalArgumentException if noOfWords is negative, or capacity is less than noOfWords.
+   */
+  static void checkTopWords(int noOfWords, int capacity) throws IllegalArgumentException {
+    if (noOfWords < 0) {
+      throw new IllegalArgumentException("The number of most frequent words cannot be negative.");
+    }
+    if (capacity < noOfWords) {
+      throw new IllegalArgumentException("The capacity cannot be less than the number of most frequent words.");
+    }
+  }
+  
+  /**
+   * Setter of the number of most frequent words found as part of the 'Frequencies' statistics, with the default 
+   * capacity of TopWords(int).
+   * 
+   * @param noOfWords: The number of most frequent words to find, or 0 to not find them.
+   * 
+   * @throws IllegalArgumentException if noOfWords is negative.
+   */
+  public void setTopWords(int noOfWords) throws IllegalArgumentException {
+    this.setTopWords(noOfWords, (noOfWords == 0) ? 0 : new TopWords(noOfWords).getCapacity());
+  }
+  
+  /**
+   * @return the number of most frequent words found as part of the 'Frequencies' statistics, or 0 if they are not found.
+   */
+  public int getNoOfTopWords() {
+    return this.noOfTopWords;
+  }
+  
+  /**
+   * Setter of the precision of the estimated numbers of distinct words and of distinct sentences found as part of the
+   * 'Frequencies' statistics (see DistinctCounter). By default, they are not estimated.
+   * 
+   * The estimates take 2^precision bytes each, whatever the size of the text file, and have a standard error of about
+   * 1.04 / sqrt(2^precision), e.g. 0.81% for DistinctCounter.DEFAULT_PRECISION.
+   * 
+   * @param precision: The precision, from DistinctCounter.MIN_PRECISION to DistinctCounter.MAX_PRECISION, or 0 to not
+   *                   estimate the numbers of distinct words and sentences.
+   * 
+   * @throws IllegalArgumentException if precision is neither 0 nor in range.
+   */
+  public void setDistinctCounts(int precision) throws IllegalArgumentException {
+    FileAnalyser.checkDistinctCounts(precision);
+    this.distinctPrecision = precision;
+  }
+  
+  /**
+   * Checks the argument of setDistinctCounts(int), so that other classes check it in exactly the same way.
+   * 
+   * @param precision: The precision, or 0 to not estimate the numbers of distinct words and sentences.
+   * 
+   * @throws IllegalArgumentException if precision is neither 0 nor in range.
+   */
+  static void checkDistinctCounts(int precision) throws IllegalArgumentException {
+    if (precision != 0 && (precision < DistinctCounter.MIN_PRECISION || precision > DistinctCounter.MAX_PRECISION)) {
+      throw new IllegalArgumentException("The precision must be from " + DistinctCounter.MIN_PRECISION + " to " + 
+          DistinctCounter.MAX_PRECISION + ".");
+    }
+  }
+  
+  /**
+   * @return the precision of the estimated numbers of distinct words and sentences, or 0 if they are not estimated.
+   */
+  public int getDistinctPrecision() {
+    return this.distinctPrecision;
+  }
+  
+  /**
+   * Setter of the plug-in statistics that are calculated along with the chosen statistics (see IStatistic), in the same
+   * pass over the text file. Each call to process() calculates them with empty copies made by IStatistic.newInstance(),
+   * whatever the options, and their results are shown after the built-in statistics. By default there are none.
+   * 
+   * @param plugIns: The plug-in statistics, each with a different name, or an empty array for none.
+   * 
+   * @throws NullPointerException if plugIns or any of its elements is null.
+   * @throws IllegalArgumentException if two of the plug-in statistics have the same name.
+   */
+  public void setPlugIns(IStatistic[] plugIns) throws NullPointerException, IllegalArgumentException {
+    FileAnalyser.checkPlugIns(plugIns);
+    this.plugIns = plugIns.clone();
+    this.incremental = null;
+  }
+  
+  /**
+   * Checks the argument of setPlugIns(IStatistic[]), so that other classes check it in exactly the same way.
+   * 
+   * @param plugIns: The plug-in statistics.
+   * 
+   * @throws NullPointerException if plugIns or any of its elements is null.
+   * @throws IllegalArgumentException if two of the plug-in statistics have the same name.
+   */
+  static void checkPlugIns(IStatistic[] plugIns) throws NullPointerException, IllegalArgumentException {
+    if (plugIns == null) {
+      throw new NullPointerException("The plug-in statistics array cannot be null.");
+    }
+    Set<String> names = new HashSet<String>();
+    for (IStatistic plugIn : plugIns) {
+      if (plugIn == null) {
+        throw new NullPointerException("The plug-in statistic cannot be null.");
+      }
+      if (!names.add(plugIn.getName())) {
+        throw new IllegalArgumentException("Two plug-in statistics are called " + plugIn.getName() + ".");
+      }
+    }
+  }
+  
+  /**
+   * @return the plug-in statistics that are calculated along with the chosen statistics.
+   */
+  public IStatistic[] getPlugIns() {
+    return this.plugIns.clone();
+  }
+  
+  /**
+   * Setter of the recorder that the metrics of every call to process() are added to. The default is 
+   * AnalysisMetricsRecorder.getDefault().
+   * 
+   * @param recorder: The recorder, or <code>null</code> to not record the metrics anywhere but getMetrics().
+   */
+  public void setMetricsRecorder(AnalysisMetricsRecorder recorder) {
+    this.metricsRecorder = recorder;
+  }
+  
+  /**
+   * @return the recorder that the metrics of every call to process() are added to, or null if there is none.
+   */
+  public AnalysisMetricsRecorder getMetricsRecorder() {
+    return this.metricsRecorder;
+  }
+  
+  /**
+   * A public API method that returns the metrics of the last call to process() or process(Reader), whether or not it 
+   * succeeded.
+   * 
+   * @return the metrics, or AnalysisMetrics.NONE if neither has been called.
+   */
+  public AnalysisMetrics getMetrics() {
+    return this.metrics;
+  }
+  
+  /**
+   * Setter of the directory that word indexes of text files are saved in (see WordIndex). If a directory is set, the 
+   * 'Text Occurrences' of every text pattern that starts and ends with a word character are counted from the word index
+   * of the text file, which is built and saved the first time the text file is analysed, and only built again once the 
+   * text file has changed. The other text patterns are counted by scanning the text file as usual, and if there are 
+   * none, and no other statistics are chosen, the text file is not scanned at all. 
+   * 
+   * Word indexes are not used in AnalysisMode.INCREMENTAL_MODE, since a text file that keeps growing would have to be
+   * indexed again every time.
+   * 
+   * @param directory: The directory to set, which is created if it does not exist, or null to not index text files.
+   * 
+   * @throws IllegalArgumentException if the directory cannot be created.
+   */
+  public void setWordIndexDirectory(File directory) throws IllegalArgumentException {
+    FileAnalyser.checkIndexDirectory(directory);
+    this.indexDirectory = directory;
+  }
+  
+  /**
+   * @return the directory that word indexes of text files are saved in, or null if text files are not indexed.
+   */
+  public File getWordIndexDirectory() {
+    return this.indexDirectory;
+  }
+  
+  /**
+   * Setter of the directory that substring indexes of text files are saved in (see FMIndex). If a directory is set, the
+   * 'Text Occurrences' of every text pattern, whether or not it is made of whole words, are counted from the substring 
+   * index of the text file, in time proportional to the length of the text pattern. The substring index is built and 
+   * saved the first time the text file is analysed, and only built again once the text file has changed. As with word 
+   * indexes, the text file is not scanned at all if no other statistics are chosen, and substring indexes are not used 
+   * in AnalysisMode.INCREMENTAL_MODE. If a word index directory is set too (see setWordIndexDirectory(File)), it is 
+   * not used.
+   * 
+   * A substring index takes several times as much memory as the text file while it is built, so it is best suited to
+   * large text files that do not change and are analysed many times.
+   * 
+   * @param directory: The directory to set, which is created if it does not exist, or null to not use substring indexes.
+   * 
+   * @throws IllegalArgumentException if the directory cannot be created.
+   */
+  public void setSubstringIndexDirectory(File directory) throws IllegalArgumentException {
+    FileAnalyser.checkIndexDirectory(directory);
+    this.substringIndexDirectory = directory;
+  }
+  
+  /**
+   * Checks a directory of word or substring indexes, creating it if it does not exist, so that other classes (e.g. 
+   * CorpusAnalyser) check it in exactly the same way just before they use it.
+   * 
+   * @param directory: The directory, or null if indexes are not used.
+   * 
+   * @throws IllegalArgumentException if the directory cannot be created.
+   */
+  static void checkIndexDirectory(File directory) throws IllegalArgumentException {
+    if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalArgumentException("The index directory " + directory + " cannot be created.");
+    }
+  }
+  
+  /**
+   * @return the directory that substring indexes of text files are saved in, or null if they are not used.
+   */
+  public File getSubstringIndexDirectory() {
+    return this.substringIndexDirectory;
   }
   
   /**
@@ -107,25 +452,48 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
    * <p>For this implementation of the IFileAnalyser interface, it is required that the first index [0] of args is a String 
    * that either contains a text pattern or is null. If the third index [2] of options is equal to true, this text pattern 
    * will be used to find the number of times it appears in the text file set by setFileName(String) and 
-   * setFileDirectory(String).</p>
+   * setFileDirectory(String). Any further indexes of args are further text patterns, which are all counted separately
+   * in the same pass over the text file.</p>
    * 
    * <p>It is also required that options is a boolean array with exactly three (3) indexes. 
    * The first index [0] should be an option that determines whether the category of statistics called
    * 'Average Lengths' will be calculated. The second index [1] should be an option that determines whether the category
    * of statistics called 'Frequencies' will be calculated. The third index [2] should be an option that determines whether
-   * the number of times that the String pattern (args[0]) appears in the text file will be calculated. The category 
+   * the number of times that each String pattern (args[0], args[1], ...) appears in the text file will be calculated. The category 
    * shorthand name of this statistic is 'Text Occurrences'.</p>
    * 
    * @param options: The three-element size boolean array of options that determines custom analysis output.
-   * @param args: String arguments that should contain a text pattern in its first index.
+   * @param args: String arguments that should contain a text pattern in its first index, and optionally more text
+   *              patterns in the rest of its indexes.
    * 
    * @throws IllegalArgumentException if options is not exactly 3 indices long (options.length != 3), or 
    * if options[2] (the option determining whether 'Text Occurrences' will be calculated) == true 
-   * && args[0] (the pattern argument) == null.
+   * && args[0] (the pattern argument), or any other pattern argument, == null.
    *
    * @see uk.co.bluettduncanj.controller.IFileAnalyser#setOptions(boolean[], java.lang.Object)
    */
   public void setOptions(boolean[] options, String[] args) throws IllegalArgumentException {
+    FileAnalyser.checkOptions(options, args);
+    this.options = options;
+    
+    if (options[2] == true) {
+      
+      // Extract the patterns
+      this.patterns = args.clone();
+    }
+    this.scannedPatterns = this.patterns;
+  }
+  
+  /**
+   * Checks the arguments of setOptions(boolean[], String[]), so that other classes (e.g. CorpusAnalyser) check them in
+   * exactly the same way.
+   * 
+   * @param options: The three-element size boolean array of options.
+   * @param args: The text patterns for the 'Text Occurrences' statistic.
+   * 
+   * @throws IllegalArgumentException if the options or patterns are invalid, as for setOptions(boolean[], String[]).
+   */
+  static void checkOptions(boolean[] options, String[] args) throws IllegalArgumentException {
     if (options.length != 3) {
       throw new IllegalArgumentException("The number of options is invalid.");
     }
@@ -134,17 +502,14 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
       if (args == null) {
         throw new IllegalArgumentException("The option to analyse 'Text Occurrences' is true, but the String arguments array is null.");
       }
-      if (args[0] == null) {
-        throw new IllegalArgumentException("The option to analyse 'Text Occurrences' is true, but the given text pattern is null.");
+      if (args.length == 0) {
+        throw new IllegalArgumentException("The option to analyse 'Text Occurrences' is true, but no text pattern is given.");
+      }
+      for (String arg : args) {
+        if (arg == null) {
+          throw new IllegalArgumentException("The option to analyse 'Text Occurrences' is true, but the given text pattern is null.");
+        }
       }
-    }
-    
-    this.options = options;
-    
-    if (options[2] == true) {
-      
-      // Extract the pattern
-      this.pattern = args[0];
     }
   }
   
@@ -154,25 +519,255 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
    * 
    * @throws NullPointerException if the file path is not set.
    * @throws FileNotFoundException if the file does not exist or cannot be read.
+   * @throws FileReadException if the file was opened but could not be read to the end.
    *
    * @see uk.co.bluettduncanj.controller.IFileAnalyser#process()
    */
   @Override
-  public void process() throws NullPointerException, FileNotFoundException {
+  public void process() throws NullPointerException, FileNotFoundException, FileReadException {
+    long allocatedBefore = this.startMetrics();
+    try {
+      this.processFile();
+    }
+    finally {
+      this.finishMetrics(allocatedBefore);
+    }
+  }
+  
+  /**
+   * Private helper method for process() that does the actual work of it.
+   * 
+   * @throws NullPointerException if the file path is not set.
+   * @throws FileNotFoundException if the file does not exist or cannot be read.
+   * @throws FileReadException if the file was opened but could not be read to the end.
+   */
+  private void processFile() throws NullPointerException, FileNotFoundException, FileReadException {
     this.stats.reset();
+    this.startPlugIns();
+    ResultCache.Key key = null;
+    if (this.cache != null) {
+      long start = System.nanoTime();
+      key = this.getCacheKey();
+      Statistics cached = this.cache.get(key);
+      this.addNanos(AnalysisPhase.READING, start);
+      if (cached != null) {
+        this.stats.merge(cached);
+        this.characters = null;
+        this.words = null;
+        this.sentences = null;
+        return;
+      }
+    }
+    long start = System.nanoTime();
+    long[] indexedCounts = this.countIndexedTextOCs();
+    this.addNanos(AnalysisPhase.PATTERN_MATCHING, start);
     this.parse();
     this.analyse();
+    if (indexedCounts != null) {
+      this.addIndexedTextOCs(indexedCounts);
+    }
+    if (key != null) {
+      this.cache.put(key, this.stats);
+    }
+  }
+  
+  /**
+   * A public API method that parses, analyses and generates statistics for text read from a Reader (e.g. standard 
+   * input), rather than from the file set by setFilePath(String). The reader is read to the end, but is not closed.
+   * 
+   * As a Reader cannot be split into chunks, AnalysisMode.PARALLEL_MODE behaves like AnalysisMode.STREAMING_MODE here.
+   * 
+   * @param reader: The source of the text to analyse.
+   * 
+   * @throws NullPointerException if the argument is <code>null</code>.
+   * @throws IOException if the reader cannot be read from.
+   */
+  public void process(Reader reader) throws NullPointerException, IOException {
+    if (reader == null) {
+      throw new NullPointerException("The reader cannot be null.");
+    }
+    long allocatedBefore = this.startMetrics();
+    try {
+      this.stats.reset();
+      this.startPlugIns();
+      this.scannedPatterns = this.patterns;
+      this.bytesProcessed = -1;
+      this.scan(reader);
+      this.analyse();
+    }
+    finally {
+      this.finishMetrics(allocatedBefore);
+    }
+  }
+  
+  /**
+   * Private helper method for process() and process(Reader) that clears the metrics of the current call.
+   * 
+   * @return the number of bytes allocated by the current thread so far, or -1 if it cannot be measured.
+   */
+  private long startMetrics() {
+    Arrays.fill(this.phaseNanos, 0);
+    this.bytesProcessed = 0;
+    this.charsProcessed = 0;
+    this.tokensProcessed = 0;
+    return FileAnalyser.getAllocatedBytes();
+  }
+  
+  /**
+   * Private helper method for process() and process(Reader) that stores the metrics of the current call, and adds them
+   * to this.metricsRecorder.
+   * 
+   * @param allocatedBefore: The number of bytes allocated by the current thread when the call started, or -1.
+   */
+  private void finishMetrics(long allocatedBefore) {
+    long allocatedAfter = FileAnalyser.getAllocatedBytes();
+    long allocated = (allocatedBefore == -1 || allocatedAfter == -1) ? -1 : allocatedAfter - allocatedBefore;
+    this.metrics = new AnalysisMetrics(1, this.phaseNanos, this.bytesProcessed, this.charsProcessed, 
+        this.tokensProcessed, allocated);
+    if (this.metricsRecorder != null) {
+      this.metricsRecorder.record(this.metrics);
+    }
+  }
+  
+  /**
+   * Private helper method that adds the time since a phase started to the time spent in it by the current call.
+   * 
+   * @param phase: The phase.
+   * @param start: The value of System.nanoTime() when the phase started.
+   */
+  private void addNanos(AnalysisPhase phase, long start) {
+    this.phaseNanos[phase.ordinal()] += System.nanoTime() - start;
+  }
+  
+  /**
+   * Private helper method for startMetrics() and finishMetrics(long) that measures how many bytes the current thread
+   * has allocated, on JVMs that can measure it.
+   * 
+   * @return the number of bytes allocated by the current thread so far, or -1 if it cannot be measured.
+   */
+  private static long getAllocatedBytes() {
+    try {
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      if (threads instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean hotSpotThreads = (com.sun.management.ThreadMXBean) threads;
+        if (hotSpotThreads.isThreadAllocatedMemorySupported() && hotSpotThreads.isThreadAllocatedMemoryEnabled()) {
+          return hotSpotThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+      }
+    }
+    catch (LinkageError e) {
+      
+      // The JVM has no com.sun.management package
+    }
+    return -1;
+  }
+
+  /**
+   * Private helper method for process() and process(Reader) that starts an empty copy of each plug-in statistic in 
+   * this.stats.
+   */
+  private void startPlugIns() {
+    for (IStatistic plugIn : this.plugIns) {
+      this.stats.startPlugIn(plugIn.newInstance());
+    }
   }
 
   /**
    * This method parses the contents of the text file whose file path is stored in this class as filePath.
    * 
    * The contents will be parsed into appropriate sentences, words and characters for later use by a call to analyse().
+   * Only the parsers that the chosen statistics need are run (see AnalysisPlan), and if every chosen statistic has 
+   * already been counted from the word index, the text file is not parsed at all.
    * 
    * @throws NullPointerException if the file path is not set.
    * @throws FileNotFoundException if the file does not exist or cannot be read.
+   * @throws FileReadException if the file was opened but could not be read to the end.
    */
-  private void parse() throws NullPointerException, FileNotFoundException {
+  private void parse() throws NullPointerException, FileNotFoundException, FileReadException {
+    this.checkFile();
+    if (this.getPlan().isScanning()) {
+      this.scan();
+    }
+    else {
+      this.characters = null;
+      this.words = null;
+      this.sentences = null;
+      this.noOfLineTerminators = 0;
+    }
+  }
+  
+  /**
+   * Private helper method for process() that counts the 'Text Occurrences' of the text patterns that the substring or
+   * word index of the text file can count (see setSubstringIndexDirectory(File) and setWordIndexDirectory(File)), 
+   * loading or building the index first if needed. The other text patterns are left in this.scannedPatterns, to be 
+   * counted by scanning the text file.
+   * 
+   * @return the number of occurrences of each text pattern, or -1 for each text pattern that is left to be scanned for,
+   * or null if the word index is not used.
+   * 
+   * @throws NullPointerException if the file path is not set.
+   * @throws FileNotFoundException if the file does not exist or cannot be read.
+   * @throws FileReadException if the file was opened but could not be read to the end.
+   */
+  private long[] countIndexedTextOCs() throws NullPointerException, FileNotFoundException, FileReadException {
+    this.scannedPatterns = this.patterns;
+    boolean isUsingSubstringIndex = this.substringIndexDirectory != null;
+    if (options[2] != true || (this.indexDirectory == null && !isUsingSubstringIndex) || 
+        this.mode == AnalysisMode.INCREMENTAL_MODE) {
+      return null;
+    }
+    this.checkFile();
+    File file = new File(this.getFilePath());
+    try {
+      if (isUsingSubstringIndex) {
+        if (this.substringIndex == null || !this.substringIndex.isFor(file, this.getCharset())) {
+          this.substringIndex = FMIndex.open(file, this.getCharset(), this.substringIndexDirectory);
+        }
+      }
+      else if (this.index == null || !this.index.isFor(file, this.getCharset())) {
+        this.index = WordIndex.open(file, this.getCharset(), this.indexDirectory);
+      }
+    }
+    catch (IOException e) {
+      throw new FileReadException(this.getFilePath(), e);
+    }
+    
+    long[] counts = new long[this.patterns.length];
+    List<String> scannedPatterns = new ArrayList<String>();
+    for (int i = 0; i < this.patterns.length; i++) {
+      counts[i] = isUsingSubstringIndex ? this.substringIndex.count(this.patterns[i]) : 
+          this.index.count(this.patterns[i]);
+      if (counts[i] == -1) {
+        scannedPatterns.add(this.patterns[i]);
+      }
+    }
+    this.scannedPatterns = scannedPatterns.toArray(new String[scannedPatterns.size()]);
+    return counts;
+  }
+  
+  /**
+   * Private helper method for process() that combines the 'Text Occurrences' counted from the word index with those 
+   * counted by scanning the text file, in the order the text patterns were given in.
+   * 
+   * @param indexedCounts: The counts from countIndexedTextOCs(), which are replaced where -1 by the scanned counts.
+   */
+  private void addIndexedTextOCs(long[] indexedCounts) {
+    for (int i = 0, j = 0; i < indexedCounts.length; i++) {
+      if (indexedCounts[i] == -1) {
+        indexedCounts[i] = this.stats.getNoOfTextOCs(j++);
+      }
+    }
+    this.stats.startTextOCs(this.getPatternChars(this.patterns));
+    this.stats.addTextOCs(indexedCounts);
+  }
+  
+  /**
+   * Private helper method for parse() and getCacheKey() that checks that the text file can be read.
+   * 
+   * @throws NullPointerException if the file path is not set.
+   * @throws FileNotFoundException if the file does not exist or cannot be read.
+   */
+  private void checkFile() throws NullPointerException, FileNotFoundException {
     if (!this.isFilePathSet()) {
       throw new NullPointerException("File path is not set.");
     }
@@ -184,307 +779,265 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
     if (!this.fileReadable()) {
       throw new FileNotFoundException("File cannot be read.");
     }
-    
-    this.parseChars();
-    this.parseWords();
-    this.parseSentences();
+  }
+  
+  /**
+   * Private helper method for process() that works out the key under which the statistics of the text file are stored
+   * in this.cache.
+   * 
+   * @return the key.
+   * 
+   * @throws NullPointerException if the file path is not set.
+   * @throws FileNotFoundException if the file does not exist or cannot be read.
+   * @throws FileReadException if the file was opened but could not be read to the end.
+   */
+  private ResultCache.Key getCacheKey() throws NullPointerException, FileNotFoundException, FileReadException {
+    this.checkFile();
+    try {
+      List<String> settings = new ArrayList<String>();
+      if (this.isFindingTopWords()) settings.add("topWords=" + this.noOfTopWords + "/" + this.topWordsCapacity);
+      if (this.isFindingDistinctCounts()) settings.add("distinct=" + this.distinctPrecision);
+      for (IStatistic plugIn : this.plugIns) settings.add("plugIn=" + plugIn.getName());
+      return this.cache.getKey(new File(this.getFilePath()), this.getCharset(), this.options, this.patterns, 
+          settings.toArray(new String[settings.size()]));
+    }
+    catch (IOException e) {
+      throw new FileReadException(this.getFilePath(), e);
+    }
   }
 
   /**
-   * Private helper method for parse() that parses the contents of the text file at 'fileDir/fileName' into sentences, 
-   * and stores it in this.sentences.
+   * Private helper method for parse() that reads the text file once, using a TextScanner to parse its contents into
+   * characters, words and sentences at the same time. The results are stored in this.characters, this.words and 
+   * this.sentences.
+   * 
+   * In AnalysisMode.STREAMING_MODE, the TextScanner passes the characters, words and sentences straight to this.stats 
+   * instead, and feeds the characters to a StreamingStringMatcher if the 'Text Occurrences' statistic is calculated.
+   * 
+   * @throws FileReadException if the text file cannot be read.
    */
-  private void parseSentences() {
-    
-    // Reset the sentences data structure
-    this.sentences = new ArrayList<String>();
+  private void scan() throws FileReadException {
+    if (this.mode == AnalysisMode.INCREMENTAL_MODE) {
+      this.scanIncrementally();
+      return;
+    }
+    if (this.mode == AnalysisMode.PARALLEL_MODE && ParallelTextScanner.canSplit(this.getCharset()) &&
+        !(this.isScanningTextOCs() && this.hasEmptyPattern())) {
+      this.scanInParallel();
+      return;
+    }
     
-    // Get a fresh batch of character text from the text file.
-    // This allows us to properly deal with line terminator characters (which are considered whitespace).
-    // This time, read in each character at a time, rather than line-after-line.
-    // Use a list of Characters for easy adding.
-    List<Character> charsList = new ArrayList<Character>();
-    BufferedReader reader;
-    int value = 0;
+    Reader reader = null;
     try {
-      reader = new BufferedReader(new FileReader(this.getFilePath()));
-      
-      // A flag that listens for '\r' carriage returns to allow Windows line terminators (LT) '\r\n' to be recognised
-      boolean possibleWindowsLT = false;
-      while ((value = reader.read()) != -1) {
-        char c = (char) value;
-        
-        // For some inexplicable reason, unexpected behaviour occurs when a line terminator-related character is added to
-        // the list of characters and gets analysed by the parser algorithm below this TRY-CATCH block.
-        // Therefore, we replace line terminators with spaces, which appear to solve the problem.
-        // 
-        // If the previous char was a carriage return '\r', and the current char is a line feed '\n', add ONE
-        // space to represent these two line terminators (because "\r\n" is a SINGLE Windows line terminator).
-        if (possibleWindowsLT == true && c == '\n') {
-          charsList.add(' ');
-          possibleWindowsLT = false;
-        }
-        else if (possibleWindowsLT == true && c == '\r') {
-          
-          // Then both the previous and current chars are old Mac OS X-style line terminators. 
-          // 'Add' them both as spaces to the chars list.
-          charsList.add(' ');
-          charsList.add(' ');
-          possibleWindowsLT = false;
+      this.bytesProcessed = new File(this.getFilePath()).length();
+      reader = this.openReader();
+      this.scan(reader);
+    }
+    catch (IOException e) {
+      throw new FileReadException(this.getFilePath(), e);
+    }
+    finally {
+      if (reader != null) {
+        try {
+          reader.close();
         }
-        else if (possibleWindowsLT == true && c != '\n') {
-          
-          // Then it turns out the previous carriage return was not part of a Windows line terminator.
-          // The previous char was in fact an old Mac OS X way of line terminating, so 'add' it to the characters list as a space
-          // before adding the current character, which we've determined is NOT a line terminator.
-          charsList.add(' ');
-          charsList.add(c);
-          possibleWindowsLT = false;
+        catch (IOException e) {
+          e.printStackTrace();
         }
-        else if (c == '\n') 
-          charsList.add(' ');
-        else if (c == '\r') // Listen for a Windows line terminator string
-          possibleWindowsLT = true;
-        else charsList.add(c);
       }
     }
-    catch (IOException e) {
-      e.printStackTrace();
-      JOptionPane.showMessageDialog(null, FileAnalyser.FileIOErrorMessage, "File I/O Error", JOptionPane.ERROR_MESSAGE);
+  }
+  
+  /**
+   * Private helper method for scan() and process(Reader) that reads text from a reader once with a TextScanner, and 
+   * stores its results as described for scan(). Whatever was read before any IOException is kept.
+   * 
+   * @param reader: The source of the text to scan.
+   * 
+   * @throws IOException if the reader cannot be read from.
+   */
+  private void scan(Reader reader) throws IOException {
+    TextScanner scanner;
+    StreamingStringMatcher matcher = null;
+    if (this.mode != AnalysisMode.DEFAULT_MODE) {
+      if (options[0] == true) this.stats.startAvgLens();
+      if (options[1] == true) this.stats.startFrequencies();
+      if (this.isFindingTopWords()) this.stats.startTopWords(this.noOfTopWords, this.topWordsCapacity);
+      if (this.isFindingDistinctCounts()) this.stats.startDistinctCounts(this.distinctPrecision);
+      if (this.isScanningTextOCs()) {
+        matcher = new StreamingStringMatcher(this.getPatternChars(this.scannedPatterns));
+        scanner = new TextScanner(this.stats, matcher);
+      }
+      else {
+        scanner = new TextScanner(this.stats, false);
+      }
     }
-    
-    // Now convert the temporary character list to an array for easy manipulation
-    char[] chars = this.toCharArray(charsList);
-    
-    // Start parser algorithm
-    
-    // We can only parse sentences if we have characters to begin with
-    if (chars.length > 0) {
-      
-      // Keep track of a counter through all of the parsed characters
-      int charIndex = 0;
-      
-      // Reference to current sentence being constructed
-      String currentSentence = null;
-      
-      // Use an enum class called SentenceParseState to simulate various states in the parser algorithm.
-      //
-      // Initialise to the state for listening for the start of a new sentence.
-      SentenceParseState state = SentenceParseState.LISTEN_FOR_NEW_SENTENCE;
+    else {
+      scanner = new TextScanner();
+    }
+    scanner.setPlan(this.getPlan());
+    TimedReader timedReader = new TimedReader(reader);
+    long start = System.nanoTime();
+    try {
+      scanner.scan(timedReader);
+    }
+    finally {
+      this.addNanos(AnalysisPhase.SCANNING, start + timedReader.nanos);
+      this.charsProcessed += timedReader.noOfChars;
+      this.tokensProcessed += scanner.getNoOfWords();
+      if (matcher != null) {
+        this.stats.startTextOCs(this.getPatternChars(this.scannedPatterns));
+        this.stats.addTextOCs(matcher.getCounts());
+      }
       
-      // Look through each character
-      while (charIndex < chars.length) {
-        
-        // Create an easy-to-use reference to the current character
-        char c = chars[charIndex];
-        
-        // Make decisions based on the current state
-        switch (state) {
-          case LISTEN_FOR_NEW_SENTENCE:
-             
-            // If the current char is neither a whitespace nor a full stop, then make it the start of the next sentence and
-            // change the state so we start reading and adding more characters to it.
-            if (!Statistics.isWhitespace(c) && c != '.') {
-              currentSentence = Character.toString(c);
-              state = SentenceParseState.READ_AND_STORE_CHARS;
-            }
- 
-            // If we are at the final character out of all characters parsed from the text file
-            // (i.e. we've reached the end of the WHILE loop), 
-            // then we need to add the current sentence as it is to the sentences list.
-            if (charIndex == chars.length - 1 && currentSentence != null) {
-              this.sentences.add(currentSentence);
-            }
-            
-          break;
-          case READ_AND_STORE_CHARS:
-          
-            // Add the current char onto the current sentence
-            currentSentence += Character.toString(c);
-            
-            // If the current char is a full stop, or if we are at the final character (i.e. end of WHILE loop), then
-            // our current sentence is complete. Therefore, we need to save it to the sentences list.
-            if (c == '.' || charIndex == chars.length - 1) {
-              this.sentences.add(currentSentence);
-              currentSentence = null;
-            }
-
-            // If the current char is a full stop but we still have characters left to look through, change the state to 
-            // start listening for the start of another sentence. 
-            if (c == '.' && charIndex < chars.length - 1) {
-              state = SentenceParseState.LISTEN_FOR_NEW_SENTENCE;
-            }
-            
-          break;
-        } 
-        
-        // Increment the counter to the next character
-        charIndex++;
+      this.characters = scanner.getCharacters();
+      this.words = scanner.getWords();
+      this.sentences = scanner.getSentences();
+      this.noOfLineTerminators = scanner.getNoOfLineTerminators();
+    }
+  }
+  
+  /**
+   * Private helper method for scan() that checks whether any of the text patterns is empty, as an empty pattern matches
+   * at every position of the text file, which cannot be counted chunk by chunk.
+   * 
+   * @return true if any of the text patterns is empty, otherwise false.
+   */
+  private boolean hasEmptyPattern() {
+    for (String pattern : this.scannedPatterns) {
+      if (pattern.isEmpty()) {
+        return true;
       }
     }
+    return false;
   }
   
   /**
-   * Private helper method for parse() that parses the contents of the text file at 'fileDir/fileName' into words,
-   * and stores it in this.words.
+   * Private helper method for scan() that scans the text file in chunks on several threads with a ParallelTextScanner,
+   * which calculates every chosen statistic (including 'Text Occurrences') straight into this.stats.
+   * 
+   * Approximate counts of the most frequent words depend on the order in which words are counted, so unless they are
+   * counted exactly they are found in one more sequential pass over the text file (see scanTopWords()), to give the same
+   * results as the other analysis modes.
+   * 
+   * @throws FileReadException if the text file cannot be read.
    */
-  private void parseWords() {
-    
-    // Reset the contents of the words data structure
-    this.words = new ArrayList<String>();
-     
-    // Get a fresh batch of character text from the text file.
-    // This allows us to properly deal with line terminator characters (which are considered whitespace).
-    // This time, read in each character at a time, rather than line-after-line.
-    // Use a list of Characters temporarily for easy adding.
-    List<Character> charsList = new ArrayList<Character>();
-    BufferedReader reader;
-    int value = 0;
+  private void scanInParallel() throws FileReadException {
+    char[][] patternChars = this.isScanningTextOCs() ? this.getPatternChars(this.scannedPatterns) : null;
+    if (options[0] == true) this.stats.startAvgLens();
+    if (options[1] == true) this.stats.startFrequencies();
+    if (patternChars != null) this.stats.startTextOCs(patternChars);
+    ParallelTextScanner scanner = new ParallelTextScanner(options[0], options[1], patternChars);
+    boolean topWordsInChunks = this.topWordsCapacity == TopWords.EXACT;
+    if (this.isFindingTopWords() && topWordsInChunks) {
+      this.stats.startTopWords(this.noOfTopWords, this.topWordsCapacity);
+      scanner.setTopWords(this.noOfTopWords, this.topWordsCapacity);
+    }
+    if (this.isFindingDistinctCounts()) {
+      this.stats.startDistinctCounts(this.distinctPrecision);
+      scanner.setDistinctCounts(this.distinctPrecision);
+    }
+    scanner.setPlugIns(this.plugIns);
+    this.characters = null;
+    this.words = null;
+    this.sentences = null;
+    File file = new File(this.getFilePath());
+    this.bytesProcessed = file.length();
+    this.charsProcessed = -1;
+    this.tokensProcessed = -1;
+    long start = System.nanoTime();
     try {
-      reader = new BufferedReader(new FileReader(this.getFilePath()));
-      while ((value = reader.read()) != -1) {
-        char c = (char) value;
-        
-        // For some inexplicable reason, unexpected behaviour occurs when a line terminator-related character is added to
-        // the list of characters and gets analysed by the parser algorithm below this TRY-CATCH block.
-        // Therefore, we replace line terminators with spaces, which appear to solve the problem.
-        if (c == '\n' || c == '\r') {
-          charsList.add(' ');
-        }
-        else {
-          charsList.add(c);
-        }
+      scanner.scan(file, this.getCharset(), this.stats);
+    }
+    catch (IOException e) {
+      throw new FileReadException(this.getFilePath(), e);
+    }
+    finally {
+      this.addNanos(AnalysisPhase.SCANNING, start);
+    }
+    this.noOfLineTerminators = scanner.getNoOfLineTerminators();
+    if (this.isFindingTopWords() && !topWordsInChunks) {
+      start = System.nanoTime();
+      try {
+        this.scanTopWords();
+      }
+      finally {
+        this.addNanos(AnalysisPhase.SCANNING, start);
       }
     }
+  }
+  
+  /**
+   * Private helper method for scanInParallel() that finds the most frequent words of the text file in one sequential
+   * pass, counting words in the same order as a single TextScanner, and adds them to this.stats.
+   * 
+   * @throws FileReadException if the text file cannot be read.
+   */
+  private void scanTopWords() throws FileReadException {
+    Statistics topWords = new Statistics();
+    topWords.startTopWords(this.noOfTopWords, this.topWordsCapacity);
+    TextScanner scanner = new TextScanner(topWords, false);
+    scanner.setPlan(new AnalysisPlan(false, false, false, true, false));
+    Reader reader = null;
+    try {
+      reader = this.openReader();
+      scanner.scan(reader);
+    }
     catch (IOException e) {
-      e.printStackTrace();
-      JOptionPane.showMessageDialog(null, FileAnalyser.FileIOErrorMessage, "File I/O Error", JOptionPane.ERROR_MESSAGE);
+      throw new FileReadException(this.getFilePath(), e);
     }
-    
-    // Now convert the temporary character list to an array for easy manipulation
-    char[] chars = toCharArray(charsList);
-    
-    // Start parser algorithm.
-    
-    // We can only parse words if we have characters to begin with
-    if (chars.length > 0) {
-      
-      // Keep track of a counter through all of the parsed characters
-      int charIndex = 0;
-      
-      // Reference to current word being constructed
-      String currentWord = null; 
-      
-      // Use an enum class called WordParseState to simulate various states in the parser algorithm.
-      // 
-      // Initialise to the state of listening for the start of a new word.
-      WordParseState state = WordParseState.LISTEN_FOR_NEW_WORD;
-      
-      // Look through each character
-      while (charIndex < chars.length) {
-        
-        // Create easy-to-use references to the current character
-        char c = chars[charIndex];
-        String cString = Character.toString(c);
-        
-        // Make decisions based on the current state
-        switch (state) {
-          case LISTEN_FOR_NEW_WORD:
-            
-            // If the current char is neither a whitespace nor a punctuation mark, make it the start of the next word and
-            // change the state so that we start reading and adding more characters to it.
-            if (!Statistics.isWhitespace(c) && !FileAnalyser.punctuationCompiled.matcher(cString).matches()) {
-              currentWord = cString;
-              state = WordParseState.READ_AND_STORE_CHARS;
-            }
-
-            // If we are at the final character out of all characters parsed from the text file
-            // (i.e. we've reached the end of the WHILE loop), 
-            // then we need to add the current word as it is to the words list.
-            if (charIndex == chars.length - 1 && currentWord != null) {
-              this.words.add(currentWord);
-            }
-            
-          break;
-          case READ_AND_STORE_CHARS:
-            
-            // Add the current char onto the current word.
-            
-            // If the current char is a whitespace or punctuation character, or if we are at the final character 
-            // (i.e. end of WHILE loop), then our current word is complete. 
-            // Therefore, we need to save it to the words list.
-            if ((Statistics.isWhitespace(c) || FileAnalyser.punctuationCompiled.matcher(cString).matches()) || 
-                charIndex == chars.length - 1) {
-              this.words.add(currentWord);
-              currentWord = null;
-            }
-            else {
-              
-              // If the current char is NOT a whitespace or punctuation mark, then it is part of the current word.
-              // Therefore add the current char onto the current word.
-              currentWord += cString;
-            }
-            
-            // If the current char is a whitespace or punctuation char, but we still have characters left to look through, 
-            // then change the state to start listening for the start of another word. 
-            if ((Statistics.isWhitespace(c) || FileAnalyser.punctuationCompiled.matcher(cString).matches())
-                && charIndex < chars.length - 1) {
-              state = WordParseState.LISTEN_FOR_NEW_WORD;
-            }
-            
-          break;
+    finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        }
+        catch (IOException e) {
+          e.printStackTrace();
         }
-        
-        // Increment the counter to the next character.
-        charIndex++;
       }
     }
+    this.stats.merge(topWords);
   }
 
   /**
-   * Private helper method for parse() that parses the contents of the text file at 'fileDir/fileName' into characters, and
-   * stores it in this.characters.
+   * Private helper method for scan() that analyses the part of the text file appended since the last call to process()
+   * with an IncrementalTextScanner, which calculates every chosen statistic of the whole text file straight into 
+   * this.stats. A new IncrementalTextScanner is used if the text file, charset or options have changed.
+   * 
+   * @throws FileReadException if the text file cannot be read.
    */
-  private void parseChars() {
-    
-    // Initialise the line terminator counter
-    this.noOfLineTerminators = 0;
-    
-    // TODO: Change tokens to a StringBuilder to add characters. Since List<Character> are inefficient structures, 
-    // this will make the process less resource-intensive. And most importantly, it will be easy then to convert it to a char[], 
-    // using an operation like tokens.toString().toCharArray();
-    
-    // TODO: Change the operation below by making tokens a StringBuilder, and then converting it to a String to
-    // store in this.characters, where this.characters is re-implemented as a String object.
-    // This will make everything more code-friendly and efficient, since List<Character> structures are inefficient
-    // and potential performance differences between Strings and char[]s of Unicode characters should not matter.
-    
-    // Use a List<Character> for easy adding of char elements
-    List<Character> tokens = new ArrayList<Character>();
-    BufferedReader reader;
-    
-    // Attempt to read the file
+  private void scanIncrementally() throws FileReadException {
+    File file = new File(this.getFilePath());
+    char[][] patternChars = this.isScanningTextOCs() ? this.getPatternChars(this.scannedPatterns) : null;
+    int noOfTopWords = this.isFindingTopWords() ? this.noOfTopWords : 0;
+    int distinctPrecision = this.isFindingDistinctCounts() ? this.distinctPrecision : 0;
+    if (this.incremental == null || !this.incremental.scans(file, this.getCharset(), options[0], options[1], 
+        patternChars, noOfTopWords, this.topWordsCapacity, distinctPrecision)) {
+      this.incremental = new IncrementalTextScanner(file, this.getCharset(), options[0], options[1], patternChars, 
+          noOfTopWords, this.topWordsCapacity, distinctPrecision);
+      this.incremental.setPlugIns(this.plugIns);
+    }
+    this.characters = null;
+    this.words = null;
+    this.sentences = null;
+    long offset = this.incremental.getOffset();
+    this.charsProcessed = -1;
+    this.tokensProcessed = -1;
+    long start = System.nanoTime();
     try {
-      reader = new BufferedReader(new FileReader(this.getFilePath()));
-      String line;
-      
-      // Add the character contents of each line to the character tokens
-      while ((line = reader.readLine()) != null) {
-        for (char c : line.toCharArray()) tokens.add(c);
-        
-        // Note: I want line terminators to count as whitespaces. Therefore I keep a counter that counts the number of lines,
-        // and therefore the number of line terminators, which will be stored in a class field for later use
-        // by Statistics.calcNoOfWhitespaces(char[], int).
-        this.noOfLineTerminators++;
-      }  
+      this.incremental.scan(this.stats);
     }
     catch (IOException e) {
-      e.printStackTrace();
-      JOptionPane.showMessageDialog(null, FileAnalyser.FileIOErrorMessage, "File I/O Error", JOptionPane.ERROR_MESSAGE);
+      throw new FileReadException(this.getFilePath(), e);
     }
-    
-    // Convert the List<Character> of tokens to a char array to be stored for later use
-    this.characters = this.toCharArray(tokens);
+    finally {
+      this.addNanos(AnalysisPhase.SCANNING, start);
+      
+      // If the text file was analysed again from the start, the offset went back to 0 first
+      long newOffset = this.incremental.getOffset();
+      this.bytesProcessed = (newOffset >= offset) ? newOffset - offset : newOffset;
+    }
+    this.noOfLineTerminators = this.incremental.getNoOfLineTerminators();
   }
 
   /**
@@ -495,44 +1048,106 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
    */
   private void analyse() {
     
-    // Choose whether to analyse 'Average Lengths' statistics or not (see Javadoc for setOptions(...))
-    if (options[0] == true) {
-      this.stats.calcAvgSentenceLen(this.sentences);
-      this.stats.calcAvgWordLen(this.words);
+    // In streaming and parallel modes, every statistic was calculated while the text file was parsed
+    if (this.mode != AnalysisMode.DEFAULT_MODE) {
+      return;
     }
     
-    // Choose whether to analyse 'Frequencies' statistics or not (see Javadoc for setOptions(...))
-    if (options[1] == true) {
-      this.stats.calcCharFreq(this.characters);
-      this.stats.calcNoOfEnglishANs(this.characters);
-      this.stats.calcNoOfNonANs(this.characters);
-      this.stats.calcNoOfWhitespaces(this.characters, this.noOfLineTerminators);
-      this.stats.calcNoOfIntlChars(this.characters);
-      this.stats.calcNoOfSuffixes(this.words);
-    }
+    // Choose whether to analyse 'Average Lengths' and 'Frequencies' statistics or not (see Javadoc for setOptions(...)),
+    // then calculate them along with the plug-in statistics in one loop over each of the characters, words and sentences
+    if (options[0] == true) this.stats.startAvgLens();
+    if (options[1] == true) this.stats.startFrequencies();
+    if (this.isFindingTopWords()) this.stats.startTopWords(this.noOfTopWords, this.topWordsCapacity);
+    if (this.isFindingDistinctCounts()) this.stats.startDistinctCounts(this.distinctPrecision);
+    long start = System.nanoTime();
+    this.stats.calcStarted(this.characters, this.noOfLineTerminators, this.words, this.sentences);
+    this.addNanos(AnalysisPhase.STATISTICS, start);
     
     // Choose whether to analyse the 'Text Occurrences' statistic or not (see Javadoc for setOptions(...))
-    if (options[2] == true) this.stats.calcNoOfTextOCs(this.characters, this.pattern.toCharArray());
+    if (this.isScanningTextOCs()) {
+      start = System.nanoTime();
+      this.stats.calcNoOfTextOCs(this.characters, this.getPatternChars(this.scannedPatterns));
+      this.addNanos(AnalysisPhase.PATTERN_MATCHING, start);
+    }
+  }
+  
+  /**
+   * Private helper method that works out which parsers the chosen statistics need, and what they need to keep. Plug-in
+   * statistics may need anything, so every parser runs if there are any.
+   * 
+   * @return the plan for the chosen statistics.
+   */
+  private AnalysisPlan getPlan() {
+    if (this.plugIns.length > 0) {
+      return AnalysisPlan.ALL;
+    }
+    return new AnalysisPlan(options[0], options[1], this.isScanningTextOCs(), this.isFindingTopWords(), 
+        this.isFindingDistinctCounts());
+  }
+  
+  /**
+   * Private helper method that checks whether the most frequent words are found, which they are only as part of the
+   * 'Frequencies' statistics.
+   * 
+   * @return true if the most frequent words are found, otherwise false.
+   */
+  private boolean isFindingTopWords() {
+    return options[1] == true && this.noOfTopWords > 0;
+  }
+  
+  /**
+   * Private helper method that checks whether the numbers of distinct words and sentences are estimated, which they are
+   * only as part of the 'Frequencies' statistics.
+   * 
+   * @return true if the numbers of distinct words and sentences are estimated, otherwise false.
+   */
+  private boolean isFindingDistinctCounts() {
+    return options[1] == true && this.distinctPrecision > 0;
+  }
+  
+  /**
+   * Private helper method that checks whether any text patterns are counted by scanning the text file, which they are 
+   * unless the 'Text Occurrences' statistic is not calculated, or every text pattern was counted from the word index.
+   * 
+   * @return true if any text patterns are counted by scanning the text file, otherwise false.
+   */
+  private boolean isScanningTextOCs() {
+    return options[2] == true && this.scannedPatterns.length > 0;
+  }
+  
+  /**
+   * Private helper method that converts text patterns into character arrays.
+   * 
+   * @param patterns: The text patterns.
+   * 
+   * @return the text patterns as character arrays.
+   */
+  private char[][] getPatternChars(String[] patterns) {
+    char[][] patternChars = new char[patterns.length][];
+    for (int i = 0; i < patterns.length; i++) {
+      patternChars[i] = patterns[i].toCharArray();
+    }
+    return patternChars;
   }
 
   /**
    * A public API method that takes statistical results from a call to process() and saves a human-readable version
    * into a log file in the same directory as the processed text file. The naming convention of log files is
-   * 'log_fileName'.
+   * 'log_fileName'. The statistics are written straight to the log file, without being built up as one String first.
    * 
    * E.g. If the text file 'C:\Documents\Lord of the Rings.txt' was processed, then calling saveLog() would save
    *      the statistics to 'C:\Documents\log_Lord of the Rings.txt'.
    * 
    * @throws NullPointerException if the file name or directory are null (not set), or if no statistics are found 
    * i.e. process() has not been called.
-   * @throws FileNotFoundException if the file path "does not denote an existing, writable 
-   * regular file and a new regular file of that name cannot be created, or if some other error occurs while 
-   * opening or creating the file" (see the throws definition for FileNotFoundException in java.io.PrintWriter). 
+   * @throws FileNotFoundException if the log file path does not denote an existing, writable regular file and a new 
+   * regular file of that name cannot be created, or if some other error occurs while opening or creating the file.
+   * @throws IOException if the log file was opened, but an I/O error stopped it from being written.
    *
    * @see uk.co.bluettduncanj.controller.IFileAnalyser#saveLog()
    */
   @Override
-  public void saveLog() throws NullPointerException, FileNotFoundException {
+  public void saveLog() throws NullPointerException, FileNotFoundException, IOException {
     if (!this.isFilePathSet()) {
       throw new NullPointerException("File path is not set.");
     }
@@ -540,10 +1155,21 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
     String logFileName = "log_" + this.getFileName();
     String logFilePath = this.getFileDirectory() + File.separator + logFileName;
     
-    this.log = new LogFileHandler(logFilePath, this.stats.toString());
+    this.log = new LogFileHandler(logFilePath, null);
+    this.log.setStatistics(this.stats);
     this.log.save();
   } 
   
+  /**
+   * A public API method that returns a snapshot of the statistical results from a call to process(), e.g. so that they
+   * can be combined with the results for other text files through Statistics.combine(Statistics, Statistics).
+   * 
+   * @return a copy of the statistics, which is not changed by later calls to process().
+   */
+  public Statistics getStatistics() {
+    return new Statistics(this.stats);
+  }
+  
   /**
    * A public API method that takes statistical results from a call to process() and returns it in a human-readable
    * String format.
@@ -557,19 +1183,6 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
     return stats.toString();
   }
   
-  /**
-   * Private utility method for parseChars() that converts a List<Character> data structure into a char array.
-   * 
-   * @param chars: The list of Characters to convert.
-   * 
-   * @return the corresponding char array (char[]).
-   */
-  private char[] toCharArray(List<Character> chars) {
-    StringBuilder s = new StringBuilder(chars.size());
-    for (Character c : chars) s.append(c);
-    return s.toString().toCharArray();
-  }
-
   /**
    * This JUnit 4 specific test method should be commented out or made private before building the program for
    * public release!
@@ -580,7 +1193,11 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
    */
   public boolean isInitialStateOK() {
     return (this.stats != null && this.sentences == null && this.words == null && this.characters == null &&
-        this.log == null && this.options == null && this.pattern == null && this.noOfLineTerminators == 0 &&
+        this.log == null && this.options == null && this.mode == AnalysisMode.DEFAULT_MODE && this.patterns == null && 
+        this.noOfLineTerminators == 0 && this.cache == null && this.noOfTopWords == 0 && this.incremental == null && 
+        this.distinctPrecision == 0 && this.indexDirectory == null && this.index == null && 
+        this.substringIndexDirectory == null && this.substringIndex == null && this.scannedPatterns == null && 
+        this.plugIns.length == 0 && this.metrics == AnalysisMetrics.NONE && 
         !this.isFilePathSet());
   }
 
@@ -589,15 +1206,84 @@ public class FileAnalyser extends AbstractFileHandler implements IFileAnalyser {
    * public release!
    * 
    * This method allows JUnit 4 units tests to be run on the contents of the characters, words and sentences data
-   * structures held within a FileAnalyser object.
+   * structures held within a FileAnalyser object. Data structures that were not stored (see AnalysisMode) are skipped.
    * 
    * @return a String containing the characters, words and sentences in a FileAnalyser object, in that order.
    */
   public String datStructPrint() {
-    StringBuilder result = new StringBuilder(this.characters.length);
-    for (char c : this.characters)  result.append(c).append("\n");
-    for (String w : this.words)     result.append(w).append("\n");
-    for (String s : this.sentences) result.append(s).append("\n");
+    StringBuilder result = new StringBuilder();
+    if (this.characters != null) for (char c : this.characters)  result.append(c).append("\n");
+    if (this.words != null)      for (String w : this.words)     result.append(w).append("\n");
+    if (this.sentences != null)  for (String s : this.sentences) result.append(s).append("\n");
     return result.toString();
   }
+  
+  /**
+   * TimedReader is a Reader that passes on everything read from another Reader, while adding up how long the reads took 
+   * and how many characters they returned, so that the time spent reading and decoding the text file can be told apart
+   * from the time spent scanning it (see AnalysisPhase).
+   */
+  private class TimedReader extends FilterReader {
+    
+    /** The time spent reading so far, in nanoseconds */
+    private long nanos;
+    
+    /** The number of characters read so far */
+    private long noOfChars;
+    
+    /**
+     * Constructor.
+     * 
+     * @param in: The Reader to read from.
+     */
+    TimedReader(Reader in) {
+      super(in);
+      this.nanos = 0;
+      this.noOfChars = 0;
+    }
+    
+    /**
+     * @see java.io.FilterReader#read()
+     */
+    @Override
+    public int read() throws IOException {
+      long start = System.nanoTime();
+      try {
+        int c = super.read();
+        if (c != -1) this.noOfChars++;
+        return c;
+      }
+      finally {
+        this.addNanos(start);
+      }
+    }
+    
+    /**
+     * @see java.io.FilterReader#read(char[], int, int)
+     */
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      long start = System.nanoTime();
+      try {
+        int n = super.read(cbuf, off, len);
+        if (n > 0) this.noOfChars += n;
+        return n;
+      }
+      finally {
+        this.addNanos(start);
+      }
+    }
+    
+    /**
+     * Private helper method that adds the time since a read started to the reading time of this Reader and of the 
+     * current call to process().
+     * 
+     * @param start: The value of System.nanoTime() when the read started.
+     */
+    private void addNanos(long start) {
+      long elapsed = System.nanoTime() - start;
+      this.nanos += elapsed;
+      FileAnalyser.this.phaseNanos[AnalysisPhase.READING.ordinal()] += elapsed;
+    }
+  }
 }
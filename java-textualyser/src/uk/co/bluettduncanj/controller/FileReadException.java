@@ -0,0 +1,46 @@
+/**
+ * FileReadException.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.IOException;
+
+
+/**
+ * FileReadException signals that a text file was found and opened, but could not be read to the end, e.g. because of a
+ * disk error or because the text file was shortened while it was being read.
+ *
+ * It is thrown by FileAnalyser.process() in place of reporting the problem itself, so that the caller can decide how to
+ * tell the user (a dialog in the GUI, a line on standard error in CommandLineApplication, etc.). The statistics of a
+ * FileAnalyser that has thrown a FileReadException only cover the part of the text file that was read, and should not be
+ * relied upon.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class FileReadException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The absolute path of the text file that could not be read */
+  private final String filePath;
+
+  /**
+   * Constructor.
+   *
+   * @param filePath: The absolute path of the text file that could not be read.
+   * @param cause: The IOException that stopped the text file from being read.
+   */
+  public FileReadException(String filePath, IOException cause) {
+    super("The file " + filePath + " could not be read: " + cause.getMessage(), cause);
+    this.filePath = filePath;
+  }
+
+  /**
+   * @return the absolute path of the text file that could not be read.
+   */
+  public String getFilePath() {
+    return this.filePath;
+  }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * IAnalysisMetricsMXBean.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+
+/**
+ * IAnalysisMetricsMXBean is the management interface through which the metrics of every call to FileAnalyser.process()
+ * are published with JMX (see AnalysisMetricsRecorder), e.g. so that they can be watched live in JConsole. Its name 
+ * must end in 'MXBean' for JMX to recognise it.
+ * 
+ * Every attribute covers every call since the metrics were last reset, and has the same meaning as the method of
+ * AnalysisMetrics with the same name.
+ * 
+ * @author Jonathan Bluett-Duncan
+ */
+public interface IAnalysisMetricsMXBean {
+
+  /**
+   * @return the number of calls to process().
+   */
+  public long getNoOfRuns();
+
+  /**
+   * @return the time spent in AnalysisPhase.READING, in nanoseconds.
+   */
+  public long getReadingNanos();
+
+  /**
+   * @return the time spent in AnalysisPhase.SCANNING, in nanoseconds.
+   */
+  public long getScanningNanos();
+
+  /**
+   * @return the time spent in AnalysisPhase.STATISTICS, in nanoseconds.
+   */
+  public long getStatisticsNanos();
+
+  /**
+   * @return the time spent in AnalysisPhase.PATTERN_MATCHING, in nanoseconds.
+   */
+  public long getPatternMatchingNanos();
+
+  /**
+   * @return the time spent in every phase, in nanoseconds.
+   */
+  public long getTotalNanos();
+
+  /**
+   * @return the number of bytes of text files read, or -1 if it is not known.
+   */
+  public long getBytesProcessed();
+
+  /**
+   * @return the number of characters read, or -1 if it is not known.
+   */
+  public long getCharsProcessed();
+
+  /**
+   * @return the number of words parsed, or -1 if it is not known.
+   */
+  public long getTokensProcessed();
+
+  /**
+   * @return the number of words parsed per second, or -1 if it is not known.
+   */
+  public double getTokensPerSecond();
+
+  /**
+   * @return the estimated number of bytes allocated, or -1 if it is not known.
+   */
+  public long getAllocatedBytes();
+
+  /**
+   * Sets every metric back to zero.
+   */
+  public void reset();
+
+}
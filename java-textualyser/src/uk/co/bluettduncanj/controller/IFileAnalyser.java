@@ -5,6 +5,7 @@
 package uk.co.bluettduncanj.controller;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
 
 /**
@@ -38,19 +39,20 @@ public interface IFileAnalyser {
    * 
    * @throws NullPointerException if the file path is not set.
    * @throws FileNotFoundException if the file cannot be found or read.
+   * @throws IOException if the file was found, but an I/O error stopped it from being analysed.
    */
-  public void process() throws NullPointerException, FileNotFoundException;
+  public void process() throws NullPointerException, FileNotFoundException, IOException;
   
   /**
    * saveLog() defines the condition that all file analysers must be able to save analysis results (statistics)
    * for a text file to a different log file.
    * 
    * @throws NullPointerException if the file path is not set, or if no statistics are found i.e. process() has not been called.
-   * @throws FileNotFoundException if the file path "does not denote an existing, writable 
-   * regular file and a new regular file of that name cannot be created, or if some other error occurs while 
-   * opening or creating the file" (see the throws definition for FileNotFoundException in java.io.PrintWriter).
+   * @throws FileNotFoundException if the log file path does not denote an existing, writable regular file and a new 
+   * regular file of that name cannot be created, or if some other error occurs while opening or creating the file.
+   * @throws IOException if the log file was opened, but an I/O error stopped it from being written.
    */
-  public void saveLog() throws NullPointerException, FileNotFoundException;
+  public void saveLog() throws NullPointerException, FileNotFoundException, IOException;
   
   /**
    * toString() defines the condition that all file analysers must be able to return analysis results (statistics)
@@ -0,0 +1,359 @@
+/**
+ * IncrementalTextScanner.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+import uk.co.bluettduncanj.model.IStatistic;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * IncrementalTextScanner is a component class of FileAnalyser that scans a text file which only ever grows at its end,
+ * such as a log file, so that scanning it again only reads the bytes that have been appended since it was last scanned.
+ *
+ * Between scans it remembers how many bytes of the text file have been scanned, the state of the charset decoder, and
+ * the state of a streaming TextScanner (and StreamingStringMatcher) part way through the text, including any
+ * half-finished word or sentence. The statistics of everything scanned so far are kept without the end-of-file rules of
+ * TextScanner applied to them; those rules are applied to a copy at the end of each scan instead (see
+ * TextScanner(TextScanner, Statistics)). The statistics are therefore exactly the same as if the whole text file had
+ * been scanned from the start, and the cost of each scan depends only on the number of bytes appended.
+ *
+ * A character whose bytes have only been partly written when the text file is scanned is left for the next scan. If the
+ * text file has become shorter, or the last bytes that were scanned have changed (e.g. because a log file was rotated),
+ * the text file is scanned again from the start.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class IncrementalTextScanner {
+
+  /** The number of bytes to read from the text file at a time */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** The number of bytes just before the end of the scanned part that are checked for changes before each scan */
+  private static final int TAIL_SIZE = 256;
+
+  /** The text file to scan */
+  private final File file;
+
+  /** The charset the text file is decoded with */
+  private final Charset charset;
+
+  /** Whether the 'Average Lengths' statistics are calculated */
+  private final boolean avgLens;
+
+  /** Whether the 'Frequencies' statistics are calculated */
+  private final boolean frequencies;
+
+  /** The patterns searched for by the 'Text Occurrences' statistic, or null if it is not calculated */
+  private final char[][] patterns;
+
+  /** The number of most frequent words to find, or 0 if they are not found */
+  private final int noOfTopWords;
+
+  /** The number of words counted at once when finding the most frequent words */
+  private final int topWordsCapacity;
+
+  /** The precision of the estimated numbers of distinct words and sentences, or 0 if they are not estimated */
+  private final int distinctPrecision;
+
+  /** The plug-in statistics, of which empty copies are calculated */
+  private IStatistic[] plugIns;
+
+  /** The statistics of the part of the text file scanned so far, without the end-of-file rules applied */
+  private Statistics running;
+
+  /** The scanner of the text file, part way through it */
+  private TextScanner scanner;
+
+  /** The matcher of the patterns, part way through the text file, or null */
+  private StreamingStringMatcher matcher;
+
+  /** The decoder of the text file, part way through it */
+  private CharsetDecoder decoder;
+
+  /** The number of bytes of the text file that have been scanned */
+  private long offset;
+
+  /** The last bytes of the text file that have been scanned, up to TAIL_SIZE of them */
+  private byte[] tail;
+
+  /** The number of times the text file has been scanned from the start */
+  private int noOfRestarts;
+
+  /** A counter for the number of line terminators in the text file, as of the end of the last scan */
+  private int noOfLineTerminators;
+
+  /**
+   * Constructor that does not find the most frequent words.
+   *
+   * @param file: The text file to scan.
+   * @param charset: The charset to decode the text file with.
+   * @param avgLens: Whether the 'Average Lengths' statistics are calculated.
+   * @param frequencies: Whether the 'Frequencies' statistics are calculated.
+   * @param patterns: The patterns searched for by the 'Text Occurrences' statistic, or null if it is not calculated.
+   *
+   * @throws NullPointerException if file or charset is null.
+   */
+  public IncrementalTextScanner(File file, Charset charset, boolean avgLens, boolean frequencies, char[][] patterns)
+      throws NullPointerException {
+    this(file, charset, avgLens, frequencies, patterns, 0, 0, 0);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param file: The text file to scan.
+   * @param charset: The charset to decode the text file with.
+   * @param avgLens: Whether the 'Average Lengths' statistics are calculated.
+   * @param frequencies: Whether the 'Frequencies' statistics are calculated.
+   * @param patterns: The patterns searched for by the 'Text Occurrences' statistic, or null if it is not calculated.
+   * @param noOfTopWords: The number of most frequent words to find, or 0 to not find them.
+   * @param topWordsCapacity: The number of words to count at once when finding the most frequent words, or
+   *                          TopWords.EXACT to count every distinct word exactly.
+   * @param distinctPrecision: The precision of the estimated numbers of distinct words and sentences, or 0 to not
+   *                           estimate them.
+   *
+   * @throws NullPointerException if file or charset is null.
+   */
+  public IncrementalTextScanner(File file, Charset charset, boolean avgLens, boolean frequencies, char[][] patterns,
+      int noOfTopWords, int topWordsCapacity, int distinctPrecision) throws NullPointerException {
+    super();
+    if (file == null) {
+      throw new NullPointerException("The file cannot be null.");
+    }
+    if (charset == null) {
+      throw new NullPointerException("The charset cannot be null.");
+    }
+    this.file = file;
+    this.charset = charset;
+    this.avgLens = avgLens;
+    this.frequencies = frequencies;
+    this.patterns = (patterns == null) ? null : patterns.clone();
+    this.noOfTopWords = noOfTopWords;
+    this.topWordsCapacity = topWordsCapacity;
+    this.distinctPrecision = distinctPrecision;
+    this.plugIns = new IStatistic[0];
+    this.noOfRestarts = -1;
+    this.restart();
+  }
+
+  /**
+   * Setter of the plug-in statistics, of which empty copies are calculated along with the other statistics (see
+   * IStatistic). By default, there are none. Everything scanned so far is forgotten, so the next scan starts from the
+   * start of the text file.
+   *
+   * @param plugIns: The plug-in statistics, each with a different name.
+   */
+  public void setPlugIns(IStatistic[] plugIns) {
+    this.plugIns = plugIns.clone();
+    this.restart();
+  }
+
+  /**
+   * Scans the bytes that have been appended to the text file since the last scan (or the whole text file, the first
+   * time), and adds the statistics of the whole text file to a Statistics object.
+   *
+   * The Statistics object should not have been prepared beforehand; the categories of statistics chosen at construction
+   * time are prepared as needed.
+   *
+   * @param stats: The Statistics object to add the statistics of the text file to.
+   *
+   * @throws IOException if the text file cannot be read. Whatever was scanned before the error is kept, and the next
+   * scan carries on from there.
+   */
+  public void scan(Statistics stats) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(this.file, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      if (!this.isUnchanged(channel)) {
+        this.restart();
+      }
+      this.scanFrom(channel);
+    }
+    finally {
+      raf.close();
+    }
+
+    // Apply the end-of-file rules to a copy, so that the next scan can carry on from the same point
+    Statistics result = new Statistics(this.running);
+    TextScanner end = new TextScanner(this.scanner, result);
+    end.finish();
+    if (this.patterns != null) {
+      result.startTextOCs(this.patterns);
+      result.addTextOCs(this.matcher.getCounts());
+    }
+    this.noOfLineTerminators = end.getNoOfLineTerminators();
+    stats.merge(result);
+  }
+
+  /**
+   * Private helper method for scan(Statistics) that checks whether the part of the text file that has already been scanned
+   * is still there, by comparing its last few bytes with those seen by the last scan.
+   *
+   * @param channel: The channel of the text file.
+   *
+   * @return true if the text file can be scanned on from where the last scan stopped, otherwise false.
+   *
+   * @throws IOException if the text file cannot be read.
+   */
+  private boolean isUnchanged(FileChannel channel) throws IOException {
+    if (channel.size() < this.offset) {
+      return false;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(this.tail.length);
+    long position = this.offset - this.tail.length;
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) == -1) {
+        return false;
+      }
+    }
+    return Arrays.equals(buffer.array(), this.tail);
+  }
+
+  /**
+   * Private helper method for scan(Statistics) that decodes and scans the text file from this.offset to its end.
+   *
+   * @param channel: The channel of the text file.
+   *
+   * @throws IOException if the text file cannot be read.
+   */
+  private void scanFrom(FileChannel channel) throws IOException {
+    ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+    CharBuffer out = CharBuffer.allocate(BUFFER_SIZE);
+    long position = this.offset;
+    try {
+      int n;
+      while ((n = channel.read(in, position)) != -1) {
+        position += n;
+        in.flip();
+
+        // The end of input is never signalled, so any incomplete character is left in the buffer for the next scan
+        CoderResult result;
+        do {
+          result = this.decoder.decode(in, out, false);
+          out.flip();
+          this.scanner.scan(out.array(), out.arrayOffset() + out.position(), out.remaining());
+          out.clear();
+        } while (result.isOverflow());
+        this.offset += in.position();
+        in.compact();
+      }
+    }
+    finally {
+      this.updateTail(channel);
+    }
+  }
+
+  /**
+   * Private helper method for scanFrom(FileChannel) that remembers the last bytes scanned.
+   *
+   * @param channel: The channel of the text file.
+   *
+   * @throws IOException if the text file cannot be read.
+   */
+  private void updateTail(FileChannel channel) throws IOException {
+    int length = (int) Math.min(TAIL_SIZE, this.offset);
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    long position = this.offset - length;
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) == -1) {
+        break;
+      }
+    }
+    this.tail = Arrays.copyOf(buffer.array(), buffer.position());
+  }
+
+  /**
+   * Private helper method that forgets everything scanned so far, so that the next scan starts from the start of the text
+   * file.
+   */
+  private void restart() {
+    this.running = new Statistics();
+    if (this.avgLens) this.running.startAvgLens();
+    if (this.frequencies) this.running.startFrequencies();
+    if (this.noOfTopWords > 0) this.running.startTopWords(this.noOfTopWords, this.topWordsCapacity);
+    if (this.distinctPrecision > 0) this.running.startDistinctCounts(this.distinctPrecision);
+    for (IStatistic plugIn : this.plugIns) this.running.startPlugIn(plugIn.newInstance());
+    if (this.patterns != null) {
+      this.matcher = new StreamingStringMatcher(this.patterns);
+      this.scanner = new TextScanner(this.running, this.matcher);
+    }
+    else {
+      this.matcher = null;
+      this.scanner = new TextScanner(this.running, false);
+    }
+    if (this.plugIns.length > 0) {
+      this.scanner.setPlan(AnalysisPlan.ALL);
+    }
+    else {
+      this.scanner.setPlan(new AnalysisPlan(this.avgLens, this.frequencies, this.patterns != null, 
+          this.noOfTopWords > 0, this.distinctPrecision > 0));
+    }
+    this.decoder = this.charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.offset = 0;
+    this.tail = new byte[0];
+    this.noOfRestarts++;
+  }
+
+  /**
+   * @return the number of bytes of the text file that have been scanned.
+   */
+  public long getOffset() {
+    return this.offset;
+  }
+
+  /**
+   * @return the number of times the text file has been scanned again from the start, because it had become shorter or
+   * had changed.
+   */
+  public int getNoOfRestarts() {
+    return this.noOfRestarts;
+  }
+
+  /**
+   * @return the number of line terminators in the text file, as of the end of the last scan.
+   */
+  public int getNoOfLineTerminators() {
+    return this.noOfLineTerminators;
+  }
+
+  /**
+   * Checks whether this IncrementalTextScanner scans a given text file in a given way, and so can be used to scan it
+   * again.
+   *
+   * @param file: The text file.
+   * @param charset: The charset to decode the text file with.
+   * @param avgLens: Whether the 'Average Lengths' statistics are calculated.
+   * @param frequencies: Whether the 'Frequencies' statistics are calculated.
+   * @param patterns: The patterns searched for by the 'Text Occurrences' statistic, or null if it is not calculated.
+   * @param noOfTopWords: The number of most frequent words to find, or 0 if they are not found.
+   * @param topWordsCapacity: The number of words counted at once when finding the most frequent words.
+   * @param distinctPrecision: The precision of the estimated numbers of distinct words and sentences, or 0 if they are
+   *                           not estimated.
+   *
+   * @return true if all of the arguments are the same as those given at construction time, otherwise false.
+   */
+  public boolean scans(File file, Charset charset, boolean avgLens, boolean frequencies, char[][] patterns,
+      int noOfTopWords, int topWordsCapacity, int distinctPrecision) {
+    return this.file.getAbsoluteFile().equals(file.getAbsoluteFile()) && this.charset.equals(charset) &&
+        this.avgLens == avgLens && this.frequencies == frequencies && Arrays.deepEquals(this.patterns, patterns) &&
+        this.noOfTopWords == noOfTopWords && (noOfTopWords == 0 || this.topWordsCapacity == topWordsCapacity) &&
+        this.distinctPrecision == distinctPrecision;
+  }
+
+}
@@ -5,24 +5,44 @@
 package uk.co.bluettduncanj.controller;
 
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import uk.co.bluettduncanj.model.Statistics;
 
 
 /**
- * LogFileHandler is a file-handling class that takes a String of text and stores it persistently to the
- * native machine's filesystem as a log file, using a given file name and filesystem directory.
+ * LogFileHandler is a file-handling class that takes a String of text, or the statistics of a Statistics object, and 
+ * stores it persistently to the native machine's filesystem as a log file, using a given file name and filesystem 
+ * directory.
  * 
  * It is designed to work as a component of FileAnalyser that gets instantiated when needed. Its role as such a 
  * component is to save the statistical results of a Statistics object to an appropriately named log file,
- * in the same directory as the text file whose statistics have been calculated.
+ * in the same directory as the text file whose statistics have been calculated. The statistics are written straight
+ * to the log file through a buffered channel (see Statistics.writeTo(Appendable)), rather than being built up as one
+ * String first, so saving them takes no more memory however many different characters the text file contains.
+ * 
+ * The log file is encoded with the charset from getCharset(), which is the platform's default charset unless it is
+ * changed with setCharset(Charset). Characters that the charset cannot encode are replaced.
  * 
  * @author Jonathan Bluett-Duncan
  */
 public class LogFileHandler extends AbstractFileHandler {
   
-  /** Text to store in the log file */
+  /** Size in bytes of the buffer between the encoder and the log file */
+  private static final int BUFFER_SIZE = 8 * 1024;
+  
+  /** Text to store in the log file, if no statistics are given */
   private String logString;
   
+  /** Statistics to store in the log file */
+  private Statistics stats;
+  
   /**
    * Parameterised constructor - Initialises state to parameter data
    */
@@ -33,24 +53,61 @@ public class LogFileHandler extends AbstractFileHandler {
   }
   
   /**
-   * Stores the log String specified at construction time to the log file with name and directory also specified
-   * at construction time.
+   * Sets the statistics to store in the log file instead of the log String given at construction time.
+   * 
+   * @param stats: The statistics to store in the log file, as they are when save() is called.
+   * 
+   * @throws NullPointerException if the argument is <code>null</code>.
+   */
+  public void setStatistics(Statistics stats) throws NullPointerException {
+    if (stats == null) {
+      throw new NullPointerException("The statistics cannot be null.");
+    }
+    this.stats = stats;
+  }
+  
+  /**
+   * Stores the log String specified at construction time, or the statistics given through setStatistics(Statistics),
+   * to the log file with name and directory specified at construction time.
    * 
    * If the log file does not exist, it gets created with the given name at the given directory.
    * 
-   * If the log file already exists and contains data, it will be overwritten with the new log String.
+   * If the log file already exists and contains data, it will be overwritten with the new log String or statistics.
    * 
-   * @throws FileNotFoundException if the file path "does not denote an existing, writable 
-   * regular file and a new regular file of that name cannot be created, or if some other error occurs while 
-   * opening or creating the file" (see the throws definition for FileNotFoundException in java.io.PrintWriter).
+   * @throws FileNotFoundException if the file path does not denote an existing, writable regular file and a new regular
+   * file of that name cannot be created, or if some other error occurs while opening or creating the file.
+   * @throws IOException if the log file was opened, but an I/O error stopped it from being written.
    */
-  public void save() throws FileNotFoundException {
-    PrintWriter writer = new PrintWriter(this.getFilePath());
+  public void save() throws FileNotFoundException, IOException {
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(Paths.get(this.getFilePath()), StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+          StandardOpenOption.TRUNCATE_EXISTING);
+    }
+    catch (IOException e) {
+      FileNotFoundException notFound = new FileNotFoundException("The log file " + this.getFilePath() + 
+          " cannot be opened for writing.");
+      notFound.initCause(e);
+      throw notFound;
+    }
     
-    // Print the log string to the file
-    writer.print(this.logString);
-    writer.flush();
-    writer.close();
+    Writer writer = Channels.newWriter(channel, this.getCharset().newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE), BUFFER_SIZE);
+    try {
+      
+      // Write the statistics or the log string to the file
+      if (this.stats != null) {
+        this.stats.writeTo(writer);
+      }
+      else {
+        writer.write(String.valueOf(this.logString));
+      }
+    }
+    finally {
+      
+      // Closing the writer flushes it, and closes the channel
+      writer.close();
+    }
   }
 
   /**
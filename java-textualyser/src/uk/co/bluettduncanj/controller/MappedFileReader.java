@@ -0,0 +1,238 @@
+/**
+ * MappedFileReader.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+
+/**
+ * MappedFileReader is a Reader that reads a (large) text file through windows of the file that are mapped into memory
+ * with FileChannel.map, rather than copying its bytes through a chain of streams.
+ *
+ * The bytes of each window are decoded in fixed-size chunks into one reusable CharBuffer, from which characters are then
+ * read. A multi-byte character that is split across the end of a window is decoded from the start of the next window.
+ * Malformed or unmappable input is replaced, just like java.io.FileReader does.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class MappedFileReader extends Reader {
+
+  /** The default number of bytes in each mapped window of the file */
+  public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  /** The smallest allowed window size, which is big enough to hold any single encoded character */
+  private static final int MIN_WINDOW_SIZE = 16;
+
+  /** The default number of chars decoded at a time */
+  public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  /** The smallest allowed buffer size, which is big enough to hold a surrogate pair */
+  private static final int MIN_BUFFER_SIZE = 2;
+
+  /** An empty byte buffer used to tell the decoder that the end of the file has been reached */
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  /** The file being read */
+  private final RandomAccessFile file;
+
+  /** The channel that the windows of the file are mapped from */
+  private final FileChannel channel;
+
+  /** The offset in the file just past the last byte to read */
+  private final long end;
+
+  /** The maximum number of bytes in each mapped window */
+  private final int windowSize;
+
+  /** Decodes the bytes of the file into chars */
+  private final CharsetDecoder decoder;
+
+  /** The reusable buffer of decoded chars waiting to be read */
+  private final CharBuffer chars;
+
+  /** The currently mapped window of the file, or null if the next window needs to be mapped */
+  private ByteBuffer window;
+
+  /** The offset in the file of the start of the current window */
+  private long windowOffset;
+
+  /** The offset in the file of the next byte to decode */
+  private long position;
+
+  /** Whether the decoder has been flushed at the end of the file */
+  private boolean flushed;
+
+  /**
+   * Constructor that uses the default window and buffer sizes.
+   *
+   * @param file: The file to read.
+   * @param charset: The charset to decode the file with.
+   *
+   * @throws IOException if the file cannot be opened.
+   */
+  public MappedFileReader(File file, Charset charset) throws IOException {
+    this(file, charset, DEFAULT_WINDOW_SIZE, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructor that reads only a range of the bytes of a file, using the default window and buffer sizes. The range is
+   * expected to start and end on character boundaries.
+   *
+   * @param file: The file to read.
+   * @param charset: The charset to decode the file with.
+   * @param offset: The offset in the file of the first byte to read.
+   * @param length: The number of bytes to read.
+   *
+   * @throws IOException if the file cannot be opened.
+   * @throws IllegalArgumentException if the range does not lie within the file.
+   */
+  public MappedFileReader(File file, Charset charset, long offset, long length)
+      throws IOException, IllegalArgumentException {
+    this(file, charset, offset, length, DEFAULT_WINDOW_SIZE, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param file: The file to read.
+   * @param charset: The charset to decode the file with.
+   * @param windowSize: The maximum number of bytes in each mapped window of the file. Sizes below 16 bytes are rounded up.
+   * @param bufferSize: The number of chars to decode at a time. Sizes below 2 chars are rounded up.
+   *
+   * @throws IOException if the file cannot be opened.
+   * @throws IllegalArgumentException if windowSize or bufferSize is not positive.
+   */
+  public MappedFileReader(File file, Charset charset, int windowSize, int bufferSize)
+      throws IOException, IllegalArgumentException {
+    this(file, charset, 0, -1, windowSize, bufferSize);
+  }
+
+  /**
+   * Common constructor.
+   *
+   * @param file: The file to read.
+   * @param charset: The charset to decode the file with.
+   * @param offset: The offset in the file of the first byte to read.
+   * @param length: The number of bytes to read, or -1 to read up to the end of the file.
+   * @param windowSize: The maximum number of bytes in each mapped window of the file.
+   * @param bufferSize: The number of chars to decode at a time.
+   *
+   * @throws IOException if the file cannot be opened.
+   * @throws IllegalArgumentException if windowSize or bufferSize is not positive, or if the range does not lie within
+   * the file.
+   */
+  private MappedFileReader(File file, Charset charset, long offset, long length, int windowSize, int bufferSize)
+      throws IOException, IllegalArgumentException {
+    super();
+    if (windowSize <= 0 || bufferSize <= 0) {
+      throw new IllegalArgumentException("The window and buffer sizes must be positive.");
+    }
+    this.file = new RandomAccessFile(file, "r");
+    this.channel = this.file.getChannel();
+    long size = this.channel.size();
+    if (length == -1) {
+      length = size - offset;
+    }
+    if (offset < 0 || length < 0 || offset + length > size) {
+      this.file.close();
+      throw new IllegalArgumentException("The range to read does not lie within the file.");
+    }
+    this.end = offset + length;
+    this.windowSize = Math.max(windowSize, MIN_WINDOW_SIZE);
+    this.decoder = charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.chars = CharBuffer.allocate(Math.max(bufferSize, MIN_BUFFER_SIZE));
+    this.chars.flip();
+    this.window = null;
+    this.windowOffset = offset;
+    this.position = offset;
+    this.flushed = false;
+  }
+
+  /**
+   * Reads chars into a portion of an array.
+   *
+   * @see java.io.Reader#read(char[], int, int)
+   */
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!this.chars.hasRemaining() && !this.fill()) {
+      return -1;
+    }
+    int n = Math.min(len, this.chars.remaining());
+    this.chars.get(cbuf, off, n);
+    return n;
+  }
+
+  /**
+   * Decodes the next chunk of chars into the reusable char buffer, mapping new windows of the file as needed.
+   *
+   * @return true if any chars were decoded, or false if the end of the file has been reached.
+   *
+   * @throws IOException if a window of the file cannot be mapped.
+   */
+  private boolean fill() throws IOException {
+    this.chars.clear();
+    while (this.chars.hasRemaining() && !this.flushed) {
+      if (this.position >= this.end) {
+
+        // Every byte has been decoded, so let the decoder write out anything it is still holding on to
+        this.decoder.decode(EMPTY, this.chars, true);
+        if (this.decoder.flush(this.chars).isOverflow()) {
+          break;
+        }
+        this.flushed = true;
+        break;
+      }
+
+      if (this.window == null) {
+        this.windowOffset = this.position;
+        long length = Math.min(this.windowSize, this.end - this.position);
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.windowOffset, length);
+      }
+
+      boolean isLastWindow = this.windowOffset + this.window.limit() >= this.end;
+      CoderResult result = this.decoder.decode(this.window, this.chars, isLastWindow);
+      this.position = this.windowOffset + this.window.position();
+      if (result.isOverflow()) {
+        break;
+      }
+
+      // Either the window has been used up, or it ends part-way through a character, which will be decoded again from
+      // the start of the next window
+      if (!isLastWindow || !this.window.hasRemaining()) {
+        this.window = null;
+      }
+    }
+    this.chars.flip();
+    return this.chars.hasRemaining();
+  }
+
+  /**
+   * Closes the file.
+   *
+   * @see java.io.Reader#close()
+   */
+  @Override
+  public void close() throws IOException {
+    this.window = null;
+    this.file.close();
+  }
+
+}
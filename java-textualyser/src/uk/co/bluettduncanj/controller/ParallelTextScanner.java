@@ -0,0 +1,388 @@
+/**
+ * ParallelTextScanner.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import uk.co.bluettduncanj.model.IStatistic;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * ParallelTextScanner is a component class of FileAnalyser that scans a text file in parallel, by splitting it into
+ * chunks of bytes and scanning each chunk with its own TextScanner in a ForkJoinPool.
+ *
+ * The results of neighbouring chunks are joined back together by ChunkSummary, so that the statistics of the whole text
+ * file are exactly the same as those found by a single TextScanner.
+ *
+ * So that each chunk can be decoded and scanned on its own, chunks never start part-way through a character or straight
+ * after a carriage return '\r' (which could be the first half of a Windows line terminator). This means that the charset
+ * of the text file must either be UTF-8 or a single-byte charset that encodes '\r' as the byte 0x0D (see canSplit(Charset)).
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class ParallelTextScanner {
+
+  /** The default number of bytes in each chunk of the text file */
+  public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+  /** The pool shared by all ParallelTextScanners, which has one thread for each available processor */
+  private static final ForkJoinPool pool = new ForkJoinPool();
+
+  /** Whether the 'Average Lengths' statistics are calculated */
+  private final boolean avgLens;
+
+  /** Whether the 'Frequencies' statistics are calculated */
+  private final boolean frequencies;
+
+  /** The matcher of the patterns searched for by the 'Text Occurrences' statistic, or null if it is not calculated */
+  private final AhoCorasickStringMatcher matcher;
+
+  /** The number of bytes in each chunk of the text file */
+  private final int chunkSize;
+
+  /** The number of most frequent words to find, or 0 if they are not found */
+  private int noOfTopWords;
+
+  /** The number of words counted at once when finding the most frequent words */
+  private int topWordsCapacity;
+
+  /** The precision of the estimated numbers of distinct words and sentences, or 0 if they are not estimated */
+  private int distinctPrecision;
+
+  /** The plug-in statistics, of which each chunk calculates empty copies */
+  private IStatistic[] plugIns;
+
+  /** A counter for the number of line terminators in the text file */
+  private int noOfLineTerminators;
+
+  /**
+   * Constructor that uses the default chunk size.
+   *
+   * @param avgLens: Whether to calculate the 'Average Lengths' statistics.
+   * @param frequencies: Whether to calculate the 'Frequencies' statistics.
+   * @param patterns: The patterns to search for to calculate the 'Text Occurrences' statistic, or null to not calculate it.
+   *
+   * @throws IllegalArgumentException if any of the patterns is empty.
+   */
+  public ParallelTextScanner(boolean avgLens, boolean frequencies, char[][] patterns) throws IllegalArgumentException {
+    this(avgLens, frequencies, patterns, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param avgLens: Whether to calculate the 'Average Lengths' statistics.
+   * @param frequencies: Whether to calculate the 'Frequencies' statistics.
+   * @param patterns: The patterns to search for to calculate the 'Text Occurrences' statistic, or null to not calculate it.
+   * @param chunkSize: The number of bytes in each chunk of the text file.
+   *
+   * @throws IllegalArgumentException if any of the patterns is empty, or if chunkSize is not positive.
+   */
+  public ParallelTextScanner(boolean avgLens, boolean frequencies, char[][] patterns, int chunkSize)
+      throws IllegalArgumentException {
+    super();
+    if (patterns != null) {
+      for (char[] pattern : patterns) {
+        if (pattern.length == 0) {
+          throw new IllegalArgumentException("The patterns cannot be empty.");
+        }
+      }
+    }
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("The chunk size must be positive.");
+    }
+    this.avgLens = avgLens;
+    this.frequencies = frequencies;
+    this.matcher = (patterns == null) ? null : new AhoCorasickStringMatcher(patterns);
+    this.chunkSize = chunkSize;
+    this.noOfTopWords = 0;
+    this.topWordsCapacity = 0;
+    this.distinctPrecision = 0;
+    this.plugIns = new IStatistic[0];
+    this.noOfLineTerminators = 0;
+  }
+
+  /**
+   * Makes each chunk count its words, so that the most frequent words of the text file are found (see TopWords). By
+   * default, they are not found.
+   *
+   * Only exact counts are the same as those of a single TextScanner. Approximate counts depend on the order in which
+   * words are counted, so they may differ once the chunks are merged.
+   *
+   * @param noOfWords: The number of most frequent words to find, or 0 to not find them.
+   * @param capacity: The number of words to count at once, or TopWords.EXACT to count every distinct word exactly.
+   */
+  public void setTopWords(int noOfWords, int capacity) {
+    this.noOfTopWords = noOfWords;
+    this.topWordsCapacity = capacity;
+  }
+
+  /**
+   * Makes each chunk count its distinct words and sentences, so that their numbers in the text file are estimated (see
+   * DistinctCounter). By default, they are not estimated.
+   *
+   * @param precision: The precision of the estimates, or 0 to not estimate them.
+   */
+  public void setDistinctCounts(int precision) {
+    this.distinctPrecision = precision;
+  }
+
+  /**
+   * Makes each chunk calculate empty copies of plug-in statistics, which are merged into those of the text file (see
+   * IStatistic). By default, there are none.
+   *
+   * @param plugIns: The plug-in statistics, each with a different name.
+   */
+  public void setPlugIns(IStatistic[] plugIns) {
+    this.plugIns = plugIns.clone();
+  }
+
+  /**
+   * Checks whether text files in a charset can be split into chunks by a ParallelTextScanner.
+   *
+   * @param charset: The charset to check.
+   *
+   * @return true if the charset is UTF-8 or a single-byte charset that encodes '\r' as the byte 0x0D, otherwise false.
+   */
+  public static boolean canSplit(Charset charset) {
+    if (charset.name().equals("UTF-8")) {
+      return true;
+    }
+    if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1.0f) {
+      return false;
+    }
+    return Arrays.equals("\r".getBytes(charset), new byte[] { '\r' });
+  }
+
+  /**
+   * Scans a text file in parallel, and adds its statistics to a Statistics object.
+   *
+   * The Statistics object is expected to have been prepared beforehand with Statistics.startAvgLens(),
+   * Statistics.startFrequencies() and Statistics.startTextOCs(char[][]) (and Statistics.startTopWords(int, int) and
+   * Statistics.startDistinctCounts(int), if setTopWords(int, int) and setDistinctCounts(int) have been called), to match
+   * the statistics chosen.
+   *
+   * @param file: The text file to scan.
+   * @param charset: The charset to decode the text file with, for which canSplit(Charset) must be true.
+   * @param stats: The Statistics object to add the statistics of the text file to.
+   *
+   * @throws IOException if the text file cannot be read.
+   * @throws IllegalArgumentException if the charset cannot be split into chunks.
+   */
+  public void scan(File file, Charset charset, Statistics stats) throws IOException, IllegalArgumentException {
+    if (!ParallelTextScanner.canSplit(charset)) {
+      throw new IllegalArgumentException("Text files in " + charset.name() + " cannot be split into chunks.");
+    }
+    long[] bounds = this.findChunkBounds(file, charset.name().equals("UTF-8"));
+    ChunkSummary summary;
+    try {
+      summary = pool.invoke(new ChunkTask(file, charset, bounds, 0, bounds.length - 1));
+    }
+    catch (RuntimeException e) {
+
+      // Unwrap any IOException thrown by a chunk task
+      for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+      }
+      throw e;
+    }
+    summary.finish(stats);
+    this.noOfLineTerminators = summary.getNoOfLineTerminators();
+  }
+
+  /**
+   * Private helper method for scan(File, Charset, Statistics) that works out where each chunk of the text file starts.
+   * Each chunk is moved forwards from a multiple of the chunk size until it starts neither part-way through a UTF-8
+   * character nor straight after a carriage return.
+   *
+   * @param file: The text file to split.
+   * @param isUTF8: Whether the text file is encoded in UTF-8.
+   *
+   * @return the offsets of the start of each chunk, followed by the size of the text file.
+   *
+   * @throws IOException if the text file cannot be read.
+   */
+  private long[] findChunkBounds(File file, boolean isUTF8) throws IOException {
+    List<Long> bounds = new ArrayList<Long>();
+    bounds.add(0L);
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      long size = channel.size();
+      ByteBuffer b = ByteBuffer.allocate(1);
+      long start = this.chunkSize;
+      while (start < size) {
+        while (start < size) {
+          boolean isContinuation = isUTF8 && (ParallelTextScanner.readByte(channel, b, start) & 0xC0) == 0x80;
+          if (!isContinuation && ParallelTextScanner.readByte(channel, b, start - 1) != '\r') {
+            break;
+          }
+          start++;
+        }
+        if (start < size) {
+          bounds.add(start);
+        }
+        start += this.chunkSize;
+      }
+      bounds.add(size);
+    }
+    finally {
+      raf.close();
+    }
+
+    long[] result = new long[bounds.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = bounds.get(i);
+    }
+    return result;
+  }
+
+  /**
+   * Private helper method for findChunkBounds(File, boolean) that reads one byte of a file.
+   *
+   * @param channel: The channel of the file.
+   * @param b: A buffer with room for one byte.
+   * @param position: The offset of the byte in the file.
+   *
+   * @return the byte.
+   *
+   * @throws IOException if the byte cannot be read.
+   */
+  private static byte readByte(FileChannel channel, ByteBuffer b, long position) throws IOException {
+    b.clear();
+    while (b.hasRemaining()) {
+      if (channel.read(b, position) == -1) {
+        throw new IOException("The text file was shortened while it was being read.");
+      }
+    }
+    return b.get(0);
+  }
+
+  /**
+   * Private helper method for ChunkTask that prepares an empty Statistics object for one chunk of the text file.
+   *
+   * @return the Statistics object.
+   */
+  private Statistics newChunkStats() {
+    Statistics stats = new Statistics();
+    if (this.avgLens) stats.startAvgLens();
+    if (this.frequencies) stats.startFrequencies();
+    if (this.noOfTopWords > 0) stats.startTopWords(this.noOfTopWords, this.topWordsCapacity);
+    if (this.distinctPrecision > 0) stats.startDistinctCounts(this.distinctPrecision);
+    for (IStatistic plugIn : this.plugIns) stats.startPlugIn(plugIn.newInstance());
+    return stats;
+  }
+
+  /**
+   * Private helper method that works out which parsers the chosen statistics need in each chunk.
+   *
+   * @return the plan for the chosen statistics.
+   */
+  private AnalysisPlan getPlan() {
+    if (this.plugIns.length > 0) {
+      return AnalysisPlan.ALL;
+    }
+    return new AnalysisPlan(this.avgLens, this.frequencies, this.matcher != null, this.noOfTopWords > 0,
+        this.distinctPrecision > 0);
+  }
+
+  /**
+   * @return the number of line terminators in the text file.
+   */
+  public int getNoOfLineTerminators() {
+    return this.noOfLineTerminators;
+  }
+
+  /**
+   * ChunkTask scans a run of neighbouring chunks of the text file, by splitting the run in half until only one chunk is
+   * left, and then joining the summaries of each half back together.
+   */
+  private class ChunkTask extends RecursiveTask<ChunkSummary> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The text file being scanned */
+    private final File file;
+
+    /** The charset to decode the text file with */
+    private final Charset charset;
+
+    /** The offsets of the start of each chunk, followed by the size of the text file */
+    private final long[] bounds;
+
+    /** The index of the first chunk in the run */
+    private final int from;
+
+    /** The index just past the last chunk in the run */
+    private final int to;
+
+    /**
+     * Constructor.
+     *
+     * @param file: The text file being scanned.
+     * @param charset: The charset to decode the text file with.
+     * @param bounds: The offsets of the start of each chunk, followed by the size of the text file.
+     * @param from: The index of the first chunk in the run.
+     * @param to: The index just past the last chunk in the run.
+     */
+    ChunkTask(File file, Charset charset, long[] bounds, int from, int to) {
+      super();
+      this.file = file;
+      this.charset = charset;
+      this.bounds = bounds;
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * @see java.util.concurrent.RecursiveTask#compute()
+     */
+    @Override
+    protected ChunkSummary compute() {
+      if (this.to - this.from > 1) {
+        int middle = (this.from + this.to) >>> 1;
+        ChunkTask second = new ChunkTask(this.file, this.charset, this.bounds, middle, this.to);
+        second.fork();
+        ChunkSummary summary = new ChunkTask(this.file, this.charset, this.bounds, this.from, middle).compute();
+        summary.append(second.join());
+        return summary;
+      }
+
+      ChunkSummary summary = new ChunkSummary(ParallelTextScanner.this.newChunkStats(), ParallelTextScanner.this.matcher);
+      long offset = this.bounds[this.from];
+      try {
+        Reader reader = new MappedFileReader(this.file, this.charset, offset, this.bounds[this.to] - offset);
+        try {
+          TextScanner scanner = new TextScanner(summary);
+          scanner.setPlan(ParallelTextScanner.this.getPlan());
+          scanner.scan(reader);
+        }
+        finally {
+          reader.close();
+        }
+      }
+      catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      return summary;
+    }
+
+  }
+
+}
@@ -0,0 +1,502 @@
+/**
+ * ResultCache.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * ResultCache remembers the Statistics of text files that have already been analysed, so that analysing the same
+ * contents with the same options again (see FileAnalyser.setResultCache(ResultCache)) returns the stored Statistics
+ * instead of parsing the text file again.
+ *
+ * Results are keyed by the SHA-256 hash of the contents of the text file, together with the charset, the options and
+ * the text patterns it was analysed with, so a renamed or copied text file is still found, and an edited one is not.
+ * The analysis mode is not part of the key, as every mode gives the same Statistics.
+ *
+ * Hashing a text file still means reading all of it, so the hash of each text file is also remembered alongside its
+ * size and last-modified time. While both are unchanged the text file is not read at all. A hash is only remembered for
+ * a text file that was last modified a little while before it was hashed, since a change made within the granularity of
+ * the file system's clock would otherwise not show in its last-modified time.
+ *
+ * Results are held in two tiers:
+ * <ul>
+ *   <li>An in-memory tier, holding up to a fixed number of results and evicting the least recently used.</li>
+ *   <li>An optional on-disk tier in a directory of its own, which holds every result (and remembered hash) that has
+ *   been stored, and so survives from one run of the program to the next. It is never evicted from; delete the
+ *   directory (or call clear()) to empty it.</li>
+ * </ul>
+ * A ResultCache is only an aid to speed: an entry of the on-disk tier that cannot be read or written is treated as
+ * missing, rather than as an error. A ResultCache may be shared between threads.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class ResultCache {
+
+  /** The default number of results held in memory */
+  public static final int DEFAULT_MAX_ENTRIES = 64;
+
+  /** The number of remembered hashes held in memory */
+  private static final int MAX_FINGERPRINTS = 4096;
+
+  /** How long before hashing a text file must have been last modified for its hash to be remembered, in milliseconds */
+  private static final long MTIME_GRANULARITY = 2000;
+
+  /** Changed whenever the way in which Statistics are calculated changes, so that older results are not used */
+  private static final String KEY_VERSION = "2";
+
+  /** The extension of result files of the on-disk tier */
+  private static final String RESULT_EXTENSION = ".stats";
+
+  /** The extension of remembered hash files of the on-disk tier */
+  private static final String FINGERPRINT_EXTENSION = ".hash";
+
+  /** The number of bytes of a text file to hash at a time */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** The in-memory tier of results, by key, in least to most recently used order */
+  private final Map<String, Statistics> results;
+
+  /** The remembered hash of each text file, by absolute path, in least to most recently used order */
+  private final Map<String, Fingerprint> fingerprints;
+
+  /** The directory of the on-disk tier, or null */
+  private final File directory;
+
+  /**
+   * Constructor of a cache with an in-memory tier only.
+   *
+   * @param maxEntries: The number of results to hold in memory.
+   *
+   * @throws IllegalArgumentException if maxEntries is not positive.
+   */
+  public ResultCache(int maxEntries) throws IllegalArgumentException {
+    this(maxEntries, null);
+  }
+
+  /**
+   * Constructor of a cache with an in-memory tier and an on-disk tier. The directory is created if it does not exist.
+   *
+   * @param maxEntries: The number of results to hold in memory.
+   * @param directory: The directory of the on-disk tier, or null for an in-memory tier only.
+   *
+   * @throws IllegalArgumentException if maxEntries is not positive, or if the directory cannot be created.
+   */
+  public ResultCache(final int maxEntries, File directory) throws IllegalArgumentException {
+    super();
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("The number of entries must be positive.");
+    }
+    if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalArgumentException("The cache directory " + directory + " cannot be created.");
+    }
+    this.directory = directory;
+    this.results = new LinkedHashMap<String, Statistics>(16, 0.75f, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Statistics> eldest) {
+        return this.size() > maxEntries;
+      }
+
+    };
+    this.fingerprints = new LinkedHashMap<String, Fingerprint>(16, 0.75f, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Fingerprint> eldest) {
+        return this.size() > MAX_FINGERPRINTS;
+      }
+
+    };
+  }
+
+  /**
+   * Works out the key under which the results of analysing a text file are stored. The text file is only read if its
+   * hash is not remembered, or if its size or last-modified time have changed since it was.
+   *
+   * @param file: The text file.
+   * @param charset: The charset the text file is decoded with.
+   * @param options: The options the text file is analysed with (see FileAnalyser.setOptions(boolean[], String[])).
+   * @param patterns: The text patterns the text file is analysed with, which are ignored unless options[2] is true.
+   * @param settings: Any other settings that change the results, e.g. the number of most frequent words found.
+   *
+   * @return the key.
+   *
+   * @throws IOException if the text file cannot be read.
+   */
+  public Key getKey(File file, Charset charset, boolean[] options, String[] patterns, String... settings)
+      throws IOException {
+    Fingerprint fingerprint = this.getFingerprint(file.getAbsoluteFile());
+
+    MessageDigest digest = ResultCache.newDigest();
+    ResultCache.update(digest, KEY_VERSION);
+    ResultCache.update(digest, fingerprint.hash);
+    ResultCache.update(digest, charset.name());
+    for (boolean option : options) {
+      ResultCache.update(digest, option ? "1" : "0");
+    }
+    if (options[2] == true) {
+      for (String pattern : patterns) {
+        ResultCache.update(digest, pattern);
+      }
+    }
+    for (String setting : settings) {
+      ResultCache.update(digest, setting);
+    }
+    return new Key(ResultCache.toHex(digest.digest()), fingerprint);
+  }
+
+  /**
+   * Looks up the results stored under a key, first in memory and then on disk. A result found on disk is also put into
+   * memory.
+   *
+   * @param key: The key, from getKey(File, Charset, boolean[], String[], String...).
+   *
+   * @return a copy of the stored Statistics, or null if none are stored.
+   */
+  public Statistics get(Key key) {
+    Statistics stats;
+    synchronized (this.results) {
+      stats = this.results.get(key.value);
+    }
+    if (stats == null && this.directory != null) {
+      stats = this.readResult(key.value);
+      if (stats != null) {
+        synchronized (this.results) {
+          this.results.put(key.value, stats);
+        }
+      }
+    }
+    return (stats == null) ? null : new Statistics(stats);
+  }
+
+  /**
+   * Stores the results of analysing a text file under a key. Nothing is stored if the text file has been changed since
+   * the key was worked out, or was changed so shortly before that a further change might not show, as the results may
+   * then be of different contents to those that were hashed.
+   *
+   * @param key: The key, from getKey(File, Charset, boolean[], String[], String...).
+   * @param stats: The Statistics of the text file, of which a copy is stored.
+   */
+  public void put(Key key, Statistics stats) {
+    if (!key.fingerprint.isStable || !key.fingerprint.matches(key.fingerprint.file)) {
+      return;
+    }
+    Statistics copy = new Statistics(stats);
+    synchronized (this.results) {
+      this.results.put(key.value, copy);
+    }
+    if (this.directory != null) {
+      this.write(new File(this.directory, key.value + RESULT_EXTENSION), copy);
+    }
+  }
+
+  /**
+   * Removes every result and remembered hash, from memory and from disk.
+   */
+  public void clear() {
+    synchronized (this.results) {
+      this.results.clear();
+    }
+    synchronized (this.fingerprints) {
+      this.fingerprints.clear();
+    }
+    if (this.directory != null) {
+      File[] files = this.directory.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          String name = file.getName();
+          if (name.endsWith(RESULT_EXTENSION) || name.endsWith(FINGERPRINT_EXTENSION)) {
+            file.delete();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the number of results held in memory.
+   */
+  public int getNoOfEntries() {
+    synchronized (this.results) {
+      return this.results.size();
+    }
+  }
+
+  /**
+   * @return the directory of the on-disk tier, or null if there is none.
+   */
+  public File getDirectory() {
+    return this.directory;
+  }
+
+  /**
+   * Private helper method for getKey(...) that finds the hash of a text file, from memory, from disk, or failing both by
+   * reading the text file.
+   *
+   * @param file: The text file, as an absolute path.
+   *
+   * @return the fingerprint of the text file.
+   *
+   * @throws IOException if the text file cannot be read.
+   */
+  private Fingerprint getFingerprint(File file) throws IOException {
+    String path = file.getPath();
+    Fingerprint fingerprint;
+    synchronized (this.fingerprints) {
+      fingerprint = this.fingerprints.get(path);
+    }
+    if (fingerprint == null && this.directory != null) {
+      Object stored = this.read(this.getFingerprintFile(path));
+      fingerprint = (stored instanceof Fingerprint) ? (Fingerprint) stored : null;
+    }
+    if (fingerprint != null && fingerprint.file.equals(file) && fingerprint.matches(file)) {
+      return fingerprint;
+    }
+
+    long startTime = System.currentTimeMillis();
+    long size = file.length();
+    long lastModified = file.lastModified();
+    String hash = ResultCache.hash(file);
+
+    // Only trust the hash if nothing could have changed the text file without changing its last-modified time
+    boolean isStable = lastModified != 0 && lastModified < startTime - MTIME_GRANULARITY;
+    fingerprint = new Fingerprint(file, size, lastModified, hash, isStable);
+    if (isStable && fingerprint.matches(file)) {
+      synchronized (this.fingerprints) {
+        this.fingerprints.put(path, fingerprint);
+      }
+      if (this.directory != null) {
+        this.write(this.getFingerprintFile(path), fingerprint);
+      }
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Private helper method that finds the file of the on-disk tier in which the hash of a text file is remembered.
+   *
+   * @param path: The absolute path of the text file.
+   *
+   * @return the file.
+   */
+  private File getFingerprintFile(String path) {
+    MessageDigest digest = ResultCache.newDigest();
+    ResultCache.update(digest, path);
+    return new File(this.directory, ResultCache.toHex(digest.digest()) + FINGERPRINT_EXTENSION);
+  }
+
+  /**
+   * Private helper method for get(Key) that reads a result from the on-disk tier.
+   *
+   * @param key: The key of the result.
+   *
+   * @return the result, or null if it is not stored or cannot be read.
+   */
+  private Statistics readResult(String key) {
+    Object stored = this.read(new File(this.directory, key + RESULT_EXTENSION));
+    return (stored instanceof Statistics) ? (Statistics) stored : null;
+  }
+
+  /**
+   * Private helper method that reads an object from a file of the on-disk tier. A file that cannot be read, e.g. because
+   * it was written by an older version of the program, is deleted.
+   *
+   * @param file: The file.
+   *
+   * @return the object, or null if the file does not exist or cannot be read.
+   */
+  private Object read(File file) {
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+      try {
+        return in.readObject();
+      }
+      finally {
+        in.close();
+      }
+    }
+    catch (IOException | ClassNotFoundException | RuntimeException e) {
+      file.delete();
+      return null;
+    }
+  }
+
+  /**
+   * Private helper method that writes an object to a file of the on-disk tier. The object is written to a temporary file
+   * first, which then replaces the file, so that a reader never sees a half-written file.
+   *
+   * @param file: The file.
+   * @param object: The object.
+   */
+  private void write(File file, Object object) {
+    File temp = null;
+    try {
+      temp = File.createTempFile("cache", ".tmp", this.directory);
+      ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+      try {
+        out.writeObject(object);
+      }
+      finally {
+        out.close();
+      }
+      try {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (IOException e) {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    catch (IOException e) {
+      if (temp != null) {
+        temp.delete();
+      }
+    }
+  }
+
+  /**
+   * Private helper method that works out the SHA-256 hash of the contents of a text file.
+   *
+   * @param file: The text file.
+   *
+   * @return the hash, in hexadecimal.
+   *
+   * @throws IOException if the text file cannot be read.
+   */
+  private static String hash(File file) throws IOException {
+    MessageDigest digest = ResultCache.newDigest();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    InputStream in = new FileInputStream(file);
+    try {
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        digest.update(buffer, 0, n);
+      }
+    }
+    finally {
+      in.close();
+    }
+    return ResultCache.toHex(digest.digest());
+  }
+
+  /**
+   * Helper method (also used by WordIndex) that adds a String to a digest, preceded by its length so that the boundaries between the
+   * Strings added are part of the digest too.
+   */
+  static void update(MessageDigest digest, String s) {
+    byte[] bytes = s.getBytes(Charset.forName("UTF-8"));
+    int length = bytes.length;
+    digest.update(new byte[] { (byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length });
+    digest.update(bytes);
+  }
+
+  /**
+   * Helper method (also used by WordIndex) that creates a SHA-256 digest, which every Java runtime has.
+   */
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Helper method (also used by WordIndex) that writes bytes in hexadecimal.
+   */
+  static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * The key under which the results of analysing a text file are stored, together with the size and last-modified time
+   * of the text file when the key was worked out.
+   */
+  public static final class Key {
+
+    /** The key, in hexadecimal */
+    private final String value;
+
+    /** The fingerprint of the text file when the key was worked out */
+    private final Fingerprint fingerprint;
+
+    private Key(String value, Fingerprint fingerprint) {
+      this.value = value;
+      this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public String toString() {
+      return this.value;
+    }
+
+  }
+
+  /**
+   * The hash of the contents of a text file, together with the size and last-modified time of the text file when it was
+   * hashed.
+   */
+  private static final class Fingerprint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final File file;
+
+    private final long size;
+
+    private final long lastModified;
+
+    private final String hash;
+
+    /** Whether the text file was last modified long enough before it was hashed for the hash to be trusted */
+    private final boolean isStable;
+
+    Fingerprint(File file, long size, long lastModified, String hash, boolean isStable) {
+      this.file = file;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.hash = hash;
+      this.isStable = isStable;
+    }
+
+    /**
+     * @return true if the text file has the same size and last-modified time as when it was hashed, otherwise false.
+     */
+    boolean matches(File file) {
+      return file.length() == this.size && file.lastModified() == this.lastModified;
+    }
+
+  }
+
+}
@@ -0,0 +1,176 @@
+/**
+ * StatisticsFileReader.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import uk.co.bluettduncanj.model.Statistics;
+import uk.co.bluettduncanj.model.StatisticsRecord;
+
+
+/**
+ * StatisticsFileReader reads the binary records written by a StatisticsFileWriter straight from windows of the file
+ * that are mapped into memory with FileChannel.map, in the same way as MappedFileReader reads text files.
+ *
+ * Each record is read through one reusable StatisticsRecord view, so no bytes are copied and no objects are created per
+ * record, however many records the file holds. A window always ends on a record boundary: a record that would run past
+ * the end of the current window is read from the start of a new one instead.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class StatisticsFileReader implements Closeable {
+
+  /** The default number of bytes in each mapped window of the file */
+  public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  /** The file being read */
+  private final RandomAccessFile file;
+
+  /** The channel that the windows of the file are mapped from */
+  private final FileChannel channel;
+
+  /** The size of the file */
+  private final long end;
+
+  /** The maximum number of bytes in each mapped window, unless a single record is bigger */
+  private final int windowSize;
+
+  /** The currently mapped window of the file, or null if none has been mapped yet */
+  private ByteBuffer window;
+
+  /** The offset in the file of the start of the current window */
+  private long windowOffset;
+
+  /** The offset in the file of the next record */
+  private long position;
+
+  /** The reusable view over the current record, or null if no record has been read yet */
+  private StatisticsRecord record;
+
+  /**
+   * Constructor that uses the default window size.
+   *
+   * @param file: The file to read.
+   *
+   * @throws IOException if the file cannot be opened.
+   */
+  public StatisticsFileReader(File file) throws IOException {
+    this(file, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param file: The file to read.
+   * @param windowSize: The maximum number of bytes in each mapped window of the file, unless a single record is bigger.
+   *
+   * @throws IOException if the file cannot be opened.
+   * @throws IllegalArgumentException if windowSize is not positive.
+   */
+  public StatisticsFileReader(File file, int windowSize) throws IOException, IllegalArgumentException {
+    super();
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("The window size must be positive.");
+    }
+    this.file = new RandomAccessFile(file, "r");
+    this.channel = this.file.getChannel();
+    this.end = this.channel.size();
+    this.windowSize = windowSize;
+    this.window = null;
+    this.windowOffset = 0;
+    this.position = 0;
+    this.record = null;
+  }
+
+  /**
+   * Reads the next record of the file.
+   *
+   * @return a view over the next record, which is only valid until this method is next called, or null if the end of
+   * the file has been reached.
+   *
+   * @throws IOException if the next record is corrupt or cut short, or a window of the file cannot be mapped.
+   */
+  public StatisticsRecord next() throws IOException {
+    if (this.position >= this.end) {
+      return null;
+    }
+    if (this.end - this.position < StatisticsRecord.HEADER_LENGTH) {
+      throw new IOException("The statistics file ends part-way through a record.");
+    }
+    if (this.window == null || this.position + StatisticsRecord.HEADER_LENGTH > this.windowOffset + this.window.limit()) {
+      this.map(StatisticsRecord.HEADER_LENGTH);
+    }
+
+    // Make sure the whole record lies within the window before reading it
+    int length = this.window.getInt((int) (this.position - this.windowOffset) + 8);
+    if (length < StatisticsRecord.HEADER_LENGTH || length > this.end - this.position) {
+      throw new IOException("The statistics file holds a corrupt or cut short record at offset " + this.position + ".");
+    }
+    if (this.position + length > this.windowOffset + this.window.limit()) {
+      this.map(length);
+    }
+
+    int offset = (int) (this.position - this.windowOffset);
+    try {
+      if (this.record == null) {
+        this.record = new StatisticsRecord(this.window, offset);
+      }
+      else {
+        this.record.wrap(this.window, offset);
+      }
+    }
+    catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage() + " (at offset " + this.position + ")", e);
+    }
+    this.position += length;
+    return this.record;
+  }
+
+  /**
+   * Private helper method for next() that maps a new window of the file, starting at the next record.
+   *
+   * @param minLength: The least number of bytes the window must hold.
+   *
+   * @throws IOException if the window cannot be mapped.
+   */
+  private void map(int minLength) throws IOException {
+    this.windowOffset = this.position;
+    long length = Math.max(minLength, Math.min(this.windowSize, this.end - this.position));
+    this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.windowOffset, length);
+  }
+
+  /**
+   * Adds the counts of every remaining record of the file together.
+   *
+   * @return a new Statistics object holding the counts of every remaining record merged together.
+   *
+   * @throws IOException if a record is corrupt or cut short, or a window of the file cannot be mapped.
+   * @throws IllegalArgumentException if two records counted the occurrences of different text patterns.
+   */
+  public Statistics aggregate() throws IOException, IllegalArgumentException {
+    Statistics total = new Statistics();
+    for (StatisticsRecord next = this.next(); next != null; next = this.next()) {
+      total.merge(next);
+    }
+    return total;
+  }
+
+  /**
+   * Closes the file.
+   *
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    this.window = null;
+    this.file.close();
+  }
+
+}
@@ -0,0 +1,75 @@
+/**
+ * StatisticsFileWriter.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import uk.co.bluettduncanj.model.Statistics;
+import uk.co.bluettduncanj.model.StatisticsRecord;
+
+
+/**
+ * StatisticsFileWriter writes the raw counts of any number of Statistics objects to a file, as binary records one after
+ * another (see StatisticsRecord), so that they can later be read back and aggregated by a StatisticsFileReader without
+ * parsing any human-readable reports.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class StatisticsFileWriter implements Closeable {
+
+  /** The channel the records are written to */
+  private final FileChannel channel;
+
+  /**
+   * Constructor. Opens the file, creating it if it does not exist.
+   *
+   * @param file: The file to write the records to.
+   * @param append: Whether to add the records after those already in the file, rather than replacing them.
+   *
+   * @throws IOException if the file cannot be opened for writing.
+   */
+  public StatisticsFileWriter(File file, boolean append) throws IOException {
+    super();
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  /**
+   * Writes the raw counts of a Statistics object to the file as one record. Its most frequent words, distinct counts and
+   * plug-in statistics are left out.
+   *
+   * @param stats: The statistics to write.
+   *
+   * @throws IOException if the record cannot be written.
+   */
+  public void write(Statistics stats) throws IOException {
+    ByteBuffer record;
+    try {
+      record = StatisticsRecord.encode(stats);
+    }
+    catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    while (record.hasRemaining()) {
+      this.channel.write(record);
+    }
+  }
+
+  /**
+   * Closes the file.
+   *
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * StreamingStringMatcher.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.nio.CharBuffer;
+
+
+/**
+ * StreamingStringMatcher counts the matches of a set of patterns in a text that is fed to it a segment at a time, e.g.
+ * as it is read from a file, so that the whole text never needs to be held in memory at once.
+ *
+ * It runs the automaton of an AhoCorasickStringMatcher, and carries the state of the automaton over from the end of one
+ * segment to the start of the next. A match that spans the edge between two segments is therefore counted just as if
+ * the segments had been searched as one text, and the counts are exactly the same as AhoCorasickStringMatcher.search(char[])
+ * gives for the whole text. Only the number of times each state is reached is kept, so the memory used depends on the
+ * patterns, and not on the length of the text.
+ *
+ * Unlike AhoCorasickStringMatcher, a StreamingStringMatcher is changed by feeding it, so it should only be used by one
+ * thread at a time. Several StreamingStringMatchers may share one AhoCorasickStringMatcher.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class StreamingStringMatcher {
+
+  /** The automaton of the patterns */
+  private final AhoCorasickStringMatcher matcher;
+
+  /** The current state of the automaton */
+  private int state;
+
+  /** The number of times each state of the automaton has been reached */
+  private long[] visits;
+
+  /** The number of chars fed so far */
+  private long length;
+
+  /**
+   * Constructor, where the patterns are provided as character arrays.
+   *
+   * @param patterns: The patterns as character arrays. Patterns may be repeated, and are counted separately.
+   */
+  public StreamingStringMatcher(char[][] patterns) {
+    this(new AhoCorasickStringMatcher(patterns));
+  }
+
+  /**
+   * Constructor that reuses the automaton of an existing matcher.
+   *
+   * @param matcher: The matcher of the patterns.
+   *
+   * @throws NullPointerException if matcher is null.
+   */
+  public StreamingStringMatcher(AhoCorasickStringMatcher matcher) throws NullPointerException {
+    super();
+    if (matcher == null) {
+      throw new NullPointerException("The matcher cannot be null.");
+    }
+    this.matcher = matcher;
+    this.reset();
+  }
+
+  /**
+   * Sets or resets the default state, as if nothing had been fed.
+   */
+  public void reset() {
+    this.state = 0;
+    this.visits = new long[this.matcher.getNoOfStates()];
+    this.length = 0;
+  }
+
+  /**
+   * Feeds the next char of the text.
+   *
+   * @param c: The char.
+   */
+  public void feed(char c) {
+    this.state = this.matcher.step(this.state, c);
+    this.visits[this.state]++;
+    this.length++;
+  }
+
+  /**
+   * Feeds the next segment of the text.
+   *
+   * @param text: The segment as a character array.
+   */
+  public void feed(char[] text) {
+    this.feed(text, 0, text.length);
+  }
+
+  /**
+   * Feeds the next segment of the text from a section of a character array.
+   *
+   * @param text: The character array.
+   * @param offset: The index of the first char of the segment.
+   * @param length: The number of chars in the segment.
+   */
+  public void feed(char[] text, int offset, int length) {
+    int state = this.state;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      state = this.matcher.step(state, text[i]);
+      this.visits[state]++;
+    }
+    this.state = state;
+    this.length += length;
+  }
+
+  /**
+   * Feeds the next segment of the text from the remaining chars of a buffer. The position of the buffer is moved up to
+   * its limit.
+   *
+   * @param text: The buffer.
+   */
+  public void feed(CharBuffer text) {
+    if (text.hasArray()) {
+      int offset = text.arrayOffset() + text.position();
+      this.feed(text.array(), offset, text.remaining());
+      text.position(text.limit());
+      return;
+    }
+    while (text.hasRemaining()) {
+      this.feed(text.get());
+    }
+  }
+
+  /**
+   * @return the number of matches of each pattern in the text fed so far, in the same order as the patterns were passed
+   * in at construction time.
+   */
+  public long[] getCounts() {
+    return this.matcher.countMatches(this.visits.clone(), this.length);
+  }
+
+  /**
+   * @return the number of chars fed so far.
+   */
+  public long getLength() {
+    return this.length;
+  }
+
+  /**
+   * @return the matcher of the patterns.
+   */
+  public AhoCorasickStringMatcher getMatcher() {
+    return this.matcher;
+  }
+
+}
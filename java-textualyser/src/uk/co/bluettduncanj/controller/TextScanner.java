@@ -0,0 +1,749 @@
+/**
+ * TextScanner.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.co.bluettduncanj.model.CharClasses;
+import uk.co.bluettduncanj.model.DistinctCounter;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * TextScanner is a component class of FileAnalyser that reads the contents of a text file exactly once, and feeds every
+ * character it reads to three parsers at the same time: one for characters, one for words and one for sentences.
+ *
+ * Each parser sees the line terminators of the text file in its own way:
+ * <ul>
+ *   <li>The character parser drops line terminators and counts them instead, treating '\n', '\r' and "\r\n" as one line
+ *   terminator each, and a non-empty last line as being terminated by the end of the file.</li>
+ *   <li>The word parser replaces every '\r' and '\n' with a space.</li>
+ *   <li>The sentence parser replaces "\r\n", '\n' and a lone '\r' with one space each, and ignores a '\r' at the very end
+ *   of the file.</li>
+ * </ul>
+ *
+ * The word and sentence parsers need to know whether they are looking at the final character of the file, so each of them
+ * holds back one character until the next one arrives (or until the end of the file is reached).
+ *
+ * A TextScanner can either store the characters, words and sentences it parses for later analysis, or pass them straight
+ * into the running accumulators of a Statistics object as they are parsed (see Statistics.addChar(char),
+ * Statistics.addWord(long, boolean) and Statistics.addSentence(long, long)). In the latter case only the lengths of words
+ * and the lengths and hashes of sentences are kept track of (and the text of each word only while it is being parsed, if
+ * the Statistics object needs it), so the memory used stays the same whatever the size of the text file. Likewise, rather
+ * than storing the characters for the 'Text Occurrences' statistic, they can be fed straight to a StreamingStringMatcher.
+ *
+ * A TextScanner can also scan one chunk of a larger text file on behalf of a ParallelTextScanner, in which case it
+ * passes every character straight to a ChunkSummary, and the end-of-file rules above are left to the ChunkSummary.
+ *
+ * Parsers whose results are not needed can be left out with setPlan(AnalysisPlan), e.g. so that only the characters are
+ * looked at when nothing but the 'Text Occurrences' statistic is calculated. By default every parser runs.
+ *
+ * Finally, a streaming TextScanner can be fed a text a part at a time on behalf of an IncrementalTextScanner, which
+ * applies the end-of-file rules to a copy of the TextScanner (see TextScanner(TextScanner, Statistics)), so that the
+ * TextScanner itself can carry on from where it stopped once more of the text arrives.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class TextScanner {
+
+  /** The number of chars to read from the text file at a time */
+  private static final int BUFFER_SIZE = 8192;
+
+  /** Marker for the parsers' held-back characters, used when no character is being held back */
+  private static final int NO_CHAR = -1;
+
+  /** The Statistics object to pass characters, words and sentences to as they are parsed, or null */
+  private final Statistics stats;
+
+  /** The summary to pass characters to if a chunk of a text file is being scanned, or null */
+  private final ChunkSummary chunk;
+
+  /** Whether words and sentences are stored in lists */
+  private final boolean storeTokens;
+
+  /** Whether characters are stored in an array */
+  private final boolean storeCharacters;
+
+  /** The matcher to feed characters to for the 'Text Occurrences' statistic, or null */
+  private final StreamingStringMatcher matcher;
+
+  /** The plan of which parsers run and what is kept */
+  private AnalysisPlan plan;
+
+  /** Whether the word parser runs, as set by this.plan */
+  private boolean isParsingWords;
+
+  /** Whether the sentence parser runs, as set by this.plan */
+  private boolean isParsingSentences;
+
+  /** Whether characters are passed to the Statistics object, as set by this.plan */
+  private boolean isCountingCharacters;
+
+  /** All characters read from the text file, excluding line terminators, or null if they are not being stored */
+  private StringBuilder characters;
+
+  /** List of words parsed from the text file */
+  private List<String> words;
+
+  /** List of sentences parsed from the text file */
+  private List<String> sentences;
+
+  /** A counter for the number of line terminators in the text file */
+  private int noOfLineTerminators;
+
+  /** A counter for the number of words parsed from the text file */
+  private long noOfWords;
+
+  /** Whether the previous character read was a carriage return '\r' */
+  private boolean previousWasCR;
+
+  /** Whether any characters have been read since the last line terminator */
+  private boolean lineHasChars;
+
+  /** The current state of the word parser */
+  private WordParseState wordState;
+
+  /** The word currently being constructed, if words are being stored */
+  private StringBuilder currentWord;
+
+  /** The length of the word currently being constructed, or -1 if there isn't one */
+  private long currentWordLen;
+
+  /** The text of the word currently being constructed, if words are passed to a Statistics object that counts them */
+  private StringBuilder currentWordText;
+
+  /** The last three characters of the word currently being constructed, from oldest to newest */
+  private char wordTail1, wordTail2, wordTail3;
+
+  /** The character held back by the word parser, or NO_CHAR */
+  private int heldWordChar;
+
+  /** The current state of the sentence parser */
+  private SentenceParseState sentenceState;
+
+  /** The sentence currently being constructed, if sentences are being stored */
+  private StringBuilder currentSentence;
+
+  /** The length of the sentence currently being constructed, or -1 if there isn't one */
+  private long currentSentenceLen;
+
+  /** The hash of the sentence currently being constructed (see DistinctCounter.extendHash(long, char)) */
+  private long currentSentenceHash;
+
+  /** The character held back by the sentence parser, or NO_CHAR */
+  private int heldSentenceChar;
+
+  /**
+   * A flag that listens for '\r' carriage returns to allow Windows line terminators (LT) "\r\n" to be recognised by the
+   * sentence parser
+   */
+  private boolean possibleWindowsLT;
+
+  /**
+   * Public default constructor. Initialises state so that all parsed characters, words and sentences are stored.
+   */
+  public TextScanner() {
+    super();
+    this.stats = null;
+    this.chunk = null;
+    this.storeTokens = true;
+    this.storeCharacters = true;
+    this.matcher = null;
+    this.applyPlan(AnalysisPlan.ALL);
+    this.reset();
+  }
+
+  /**
+   * Streaming constructor. Initialises state so that parsed characters, words and sentences are passed straight to the
+   * given Statistics object, rather than being stored.
+   *
+   * The Statistics object is expected to have been prepared with Statistics.startAvgLens() and/or
+   * Statistics.startFrequencies() beforehand.
+   *
+   * @param stats: The Statistics object to pass characters, words and sentences to.
+   * @param storeCharacters: Whether to also store all characters, e.g. for a later call to
+   *                         Statistics.calcNoOfTextOCs(char[], char[]).
+   *
+   * @throws NullPointerException if stats is null.
+   */
+  public TextScanner(Statistics stats, boolean storeCharacters) throws NullPointerException {
+    super();
+    if (stats == null) {
+      throw new NullPointerException("The Statistics object cannot be null.");
+    }
+    this.stats = stats;
+    this.chunk = null;
+    this.storeTokens = false;
+    this.storeCharacters = storeCharacters;
+    this.matcher = null;
+    this.applyPlan(AnalysisPlan.ALL);
+    this.reset();
+  }
+
+  /**
+   * Streaming constructor that also counts the occurrences of text patterns as the characters are parsed, so that no
+   * characters need to be stored for the 'Text Occurrences' statistic.
+   *
+   * The Statistics object is expected to have been prepared with Statistics.startAvgLens() and/or
+   * Statistics.startFrequencies() beforehand. The counts can be read from the matcher once the text file has been
+   * scanned, and are reset at the start of each scan.
+   *
+   * @param stats: The Statistics object to pass characters, words and sentences to.
+   * @param matcher: The matcher to feed every character to, excluding line terminators.
+   *
+   * @throws NullPointerException if stats or matcher is null.
+   */
+  public TextScanner(Statistics stats, StreamingStringMatcher matcher) throws NullPointerException {
+    super();
+    if (stats == null) {
+      throw new NullPointerException("The Statistics object cannot be null.");
+    }
+    if (matcher == null) {
+      throw new NullPointerException("The matcher cannot be null.");
+    }
+    this.stats = stats;
+    this.chunk = null;
+    this.storeTokens = false;
+    this.storeCharacters = false;
+    this.matcher = matcher;
+    this.applyPlan(AnalysisPlan.ALL);
+    this.reset();
+  }
+
+  /**
+   * Continuation constructor. Copies the parser state of a streaming TextScanner part way through a text, including any
+   * held-back characters and half-finished word or sentence, so that the copy carries on from the same point but passes
+   * characters, words and sentences to another Statistics object. Nothing is stored, and no matcher is fed.
+   *
+   * @param other: The streaming TextScanner to copy, which must not store words and sentences or scan a chunk.
+   * @param stats: The Statistics object to pass characters, words and sentences to.
+   *
+   * @throws NullPointerException if stats is null.
+   */
+  TextScanner(TextScanner other, Statistics stats) throws NullPointerException {
+    this(stats, false);
+    this.applyPlan(other.plan);
+    this.noOfLineTerminators = other.noOfLineTerminators;
+    this.previousWasCR = other.previousWasCR;
+    this.lineHasChars = other.lineHasChars;
+    this.wordState = other.wordState;
+    this.currentWordLen = other.currentWordLen;
+    if (this.currentWordText != null && other.currentWordText != null) {
+      this.currentWordText.append(other.currentWordText);
+    }
+    this.wordTail1 = other.wordTail1;
+    this.wordTail2 = other.wordTail2;
+    this.wordTail3 = other.wordTail3;
+    this.heldWordChar = other.heldWordChar;
+    this.sentenceState = other.sentenceState;
+    this.currentSentenceLen = other.currentSentenceLen;
+    this.currentSentenceHash = other.currentSentenceHash;
+    this.heldSentenceChar = other.heldSentenceChar;
+    this.possibleWindowsLT = other.possibleWindowsLT;
+  }
+
+  /**
+   * Chunk constructor. Initialises state so that every character of a chunk of a text file is passed straight to the given
+   * ChunkSummary, and nothing is stored.
+   *
+   * @param chunk: The summary of the chunk being scanned.
+   */
+  TextScanner(ChunkSummary chunk) {
+    super();
+    this.stats = null;
+    this.chunk = chunk;
+    this.storeTokens = false;
+    this.storeCharacters = false;
+    this.matcher = null;
+    this.applyPlan(AnalysisPlan.ALL);
+    this.reset();
+  }
+
+  /**
+   * Setter of the plan of which parsers run and what is kept, which takes effect from the next scan. Words and sentences
+   * that are not parsed are neither stored nor passed on, and characters that are not kept are not stored (see
+   * getCharacters()). The results of any previous scan are discarded.
+   *
+   * @param plan: The plan to set.
+   *
+   * @throws NullPointerException if plan is null.
+   */
+  public void setPlan(AnalysisPlan plan) throws NullPointerException {
+    if (plan == null) {
+      throw new NullPointerException("The plan cannot be null.");
+    }
+    this.applyPlan(plan);
+    this.reset();
+  }
+
+  /**
+   * Private helper method that copies the choices of a plan into fields, so that they are cheap to check for every
+   * character.
+   *
+   * @param plan: The plan.
+   */
+  private void applyPlan(AnalysisPlan plan) {
+    this.plan = plan;
+    this.isParsingWords = plan.isParsingWords();
+    this.isParsingSentences = plan.isParsingSentences();
+    this.isCountingCharacters = plan.isCountingCharacters();
+  }
+
+  /**
+   * Sets or resets the default state, discarding the results of any previous scan.
+   */
+  public void reset() {
+    this.characters = (this.storeCharacters && this.plan.isKeepingCharacters()) ? new StringBuilder() : null;
+    this.words = this.storeTokens ? new ArrayList<String>() : null;
+    this.sentences = this.storeTokens ? new ArrayList<String>() : null;
+    this.noOfLineTerminators = 0;
+    this.noOfWords = 0;
+    this.previousWasCR = false;
+    this.lineHasChars = false;
+    this.wordState = WordParseState.LISTEN_FOR_NEW_WORD;
+    this.currentWord = null;
+    this.currentWordLen = -1;
+    this.currentWordText = (this.stats != null && this.stats.needsWordText()) ? new StringBuilder() : null;
+    this.heldWordChar = NO_CHAR;
+    this.sentenceState = SentenceParseState.LISTEN_FOR_NEW_SENTENCE;
+    this.currentSentence = null;
+    this.currentSentenceLen = -1;
+    this.currentSentenceHash = DistinctCounter.EMPTY_HASH;
+    this.heldSentenceChar = NO_CHAR;
+    this.possibleWindowsLT = false;
+    if (this.matcher != null) {
+      this.matcher.reset();
+    }
+  }
+
+  /**
+   * Reads all of the remaining characters from the given reader and parses them into characters, words and sentences.
+   * The reader is not closed by this method.
+   *
+   * @param reader: The source of the text to scan.
+   *
+   * @throws IOException if the reader cannot be read from.
+   */
+  public void scan(Reader reader) throws IOException {
+    this.reset();
+    char[] buffer = new char[BUFFER_SIZE];
+    int length;
+    while ((length = reader.read(buffer)) != -1) {
+      this.scan(buffer, 0, length);
+    }
+    this.finish();
+  }
+
+  /**
+   * Parses the next part of a text, without treating its end as the end of the text.
+   *
+   * @param text: The character array holding the part.
+   * @param offset: The index of the first char of the part.
+   * @param length: The number of chars in the part.
+   */
+  void scan(char[] text, int offset, int length) {
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      this.accept(text[i]);
+    }
+  }
+
+  /**
+   * Passes the next character of the text file to each of the three parsers.
+   *
+   * @param c: The character to parse.
+   */
+  private void accept(char c) {
+    this.acceptChar(c);
+
+    // The word parser treats every line terminator character as a space
+    if (this.isParsingWords) {
+      if (c == '\n' || c == '\r') {
+        this.holdWordChar(' ');
+      }
+      else {
+        this.holdWordChar(c);
+      }
+    }
+
+    if (this.isParsingSentences) {
+      this.acceptSentenceChar(c);
+    }
+  }
+
+  /**
+   * Tells each of the parsers that the end of the text file has been reached, so they can release their held-back
+   * characters and save any words and sentences still under construction.
+   */
+  void finish() {
+    if (this.chunk != null) {
+      this.chunk.complete(this.lineHasChars);
+      return;
+    }
+    if (this.lineHasChars) {
+
+      // The last line was not followed by a line terminator, but it still counts as a line
+      this.countLineTerminator();
+    }
+    if (this.heldWordChar != NO_CHAR) {
+      this.parseWordChar((char) this.heldWordChar, true);
+      this.heldWordChar = NO_CHAR;
+    }
+    if (this.heldSentenceChar != NO_CHAR) {
+      this.parseSentenceChar((char) this.heldSentenceChar, true);
+      this.heldSentenceChar = NO_CHAR;
+    }
+  }
+
+  /**
+   * Character parser. Stores every character that is not part of a line terminator, and counts the line terminators.
+   *
+   * @param c: The character to parse.
+   */
+  private void acceptChar(char c) {
+    if (c == '\r') {
+      this.countLineTerminator();
+      this.lineHasChars = false;
+      this.previousWasCR = true;
+    }
+    else if (c == '\n') {
+
+      // A line feed straight after a carriage return completes a Windows line terminator, which has already been counted
+      if (!this.previousWasCR) {
+        this.countLineTerminator();
+      }
+      this.lineHasChars = false;
+      this.previousWasCR = false;
+    }
+    else {
+      if (this.characters != null) {
+        this.characters.append(c);
+      }
+      if (this.isCountingCharacters && this.stats != null) {
+        this.stats.addChar(c);
+      }
+      if (this.matcher != null) {
+        this.matcher.feed(c);
+      }
+      if (this.chunk != null) {
+        this.chunk.acceptChar(c);
+      }
+      this.lineHasChars = true;
+      this.previousWasCR = false;
+    }
+  }
+
+  /**
+   * Counts one line terminator.
+   */
+  private void countLineTerminator() {
+    this.noOfLineTerminators++;
+    if (this.stats != null) {
+      this.stats.addLineTerminator();
+    }
+    if (this.chunk != null) {
+      this.chunk.acceptLineTerminator();
+    }
+  }
+
+  /**
+   * Holds back a character for the word parser, releasing the previously held-back character (which we now know is not
+   * the final character of the file).
+   *
+   * @param c: The character to hold back.
+   */
+  private void holdWordChar(char c) {
+    if (this.chunk != null) {
+      this.chunk.acceptWordChar(c);
+      return;
+    }
+    if (this.heldWordChar != NO_CHAR) {
+      this.parseWordChar((char) this.heldWordChar, false);
+    }
+    this.heldWordChar = c;
+  }
+
+  /**
+   * Word parser. Uses WordParseState to simulate the states of the parser algorithm.
+   *
+   * @param c: The character to parse.
+   * @param isFinalChar: Whether c is the final character of the text file.
+   */
+  private void parseWordChar(char c, boolean isFinalChar) {
+    boolean isBoundary = (CharClasses.of(c) & (CharClasses.WHITESPACE | CharClasses.PUNCTUATION)) != 0;
+
+    switch (this.wordState) {
+      case LISTEN_FOR_NEW_WORD:
+
+        // If the current char is neither a whitespace nor a punctuation mark, make it the start of the next word and
+        // change the state so that we start reading and adding more characters to it.
+        if (!isBoundary) {
+          this.currentWordLen = 0;
+          if (this.storeTokens) {
+            this.currentWord = new StringBuilder();
+          }
+          this.appendWordChar(c);
+          this.wordState = WordParseState.READ_AND_STORE_CHARS;
+        }
+
+        // If we are at the final character of the text file, then we need to add the current word as it is to the words
+        // list.
+        if (isFinalChar && this.currentWordLen != -1) {
+          this.completeWord();
+        }
+
+      break;
+      case READ_AND_STORE_CHARS:
+
+        // If the current char is a whitespace or punctuation character, or if we are at the final character of the text
+        // file, then our current word is complete. Therefore, we need to save it to the words list.
+        //
+        // Note that the final character of the text file is never added onto the current word.
+        if (isBoundary || isFinalChar) {
+          this.completeWord();
+        }
+        else {
+          this.appendWordChar(c);
+        }
+
+        // If the current char is a whitespace or punctuation char, then change the state to start listening for the start
+        // of another word.
+        if (isBoundary) {
+          this.wordState = WordParseState.LISTEN_FOR_NEW_WORD;
+        }
+
+      break;
+    }
+  }
+
+  /**
+   * Adds a character onto the end of the current word.
+   *
+   * @param c: The character to add.
+   */
+  private void appendWordChar(char c) {
+    if (this.storeTokens) {
+      this.currentWord.append(c);
+    }
+    if (this.currentWordText != null) {
+      this.currentWordText.append(c);
+    }
+    this.currentWordLen++;
+    this.wordTail1 = this.wordTail2;
+    this.wordTail2 = this.wordTail3;
+    this.wordTail3 = c;
+  }
+
+  /**
+   * Saves the current word to the words list and/or passes it to the Statistics object.
+   */
+  private void completeWord() {
+    this.noOfWords++;
+    if (this.storeTokens) {
+      this.words.add(this.currentWord.toString());
+      this.currentWord = null;
+    }
+    if (this.currentWordText != null) {
+      this.stats.addWord(this.currentWordText, this.hasSuffix());
+      this.currentWordText.setLength(0);
+    }
+    else if (this.stats != null) {
+      this.stats.addWord(this.currentWordLen, this.hasSuffix());
+    }
+    this.currentWordLen = -1;
+  }
+
+  /**
+   * @return true if the current word ends with one of the suffixes 'ed', 'ing' and 'ly', otherwise false.
+   */
+  private boolean hasSuffix() {
+    if (this.currentWordLen < 2) {
+      return false;
+    }
+    return (this.wordTail2 == 'e' && this.wordTail3 == 'd') || (this.wordTail2 == 'l' && this.wordTail3 == 'y') ||
+        (this.currentWordLen >= 3 && this.wordTail1 == 'i' && this.wordTail2 == 'n' && this.wordTail3 == 'g');
+  }
+
+  /**
+   * Translates line terminators into spaces for the sentence parser.
+   *
+   * If the previous char was a carriage return '\r' and the current char is a line feed '\n', ONE space represents these
+   * two line terminators (because "\r\n" is a SINGLE Windows line terminator).
+   *
+   * @param c: The character to translate.
+   */
+  private void acceptSentenceChar(char c) {
+    if (this.possibleWindowsLT && c == '\n') {
+      this.holdSentenceChar(' ');
+      this.possibleWindowsLT = false;
+    }
+    else if (this.possibleWindowsLT && c == '\r') {
+
+      // Then both the previous and current chars are old Mac OS-style line terminators
+      this.holdSentenceChar(' ');
+      this.holdSentenceChar(' ');
+      this.possibleWindowsLT = false;
+    }
+    else if (this.possibleWindowsLT) {
+
+      // Then it turns out the previous carriage return was not part of a Windows line terminator.
+      // The previous char was in fact an old Mac OS way of line terminating, so it becomes a space before the current
+      // character, which we've determined is NOT a line terminator.
+      this.holdSentenceChar(' ');
+      this.holdSentenceChar(c);
+      this.possibleWindowsLT = false;
+    }
+    else if (c == '\n') {
+      this.holdSentenceChar(' ');
+    }
+    else if (c == '\r') {
+
+      // Listen for a Windows line terminator string
+      this.possibleWindowsLT = true;
+    }
+    else {
+      this.holdSentenceChar(c);
+    }
+  }
+
+  /**
+   * Holds back a character for the sentence parser, releasing the previously held-back character (which we now know is
+   * not the final character of the file).
+   *
+   * @param c: The character to hold back.
+   */
+  private void holdSentenceChar(char c) {
+    if (this.chunk != null) {
+      this.chunk.acceptSentenceChar(c);
+      return;
+    }
+    if (this.heldSentenceChar != NO_CHAR) {
+      this.parseSentenceChar((char) this.heldSentenceChar, false);
+    }
+    this.heldSentenceChar = c;
+  }
+
+  /**
+   * Sentence parser. Uses SentenceParseState to simulate the states of the parser algorithm.
+   *
+   * @param c: The character to parse.
+   * @param isFinalChar: Whether c is the final character of the text file.
+   */
+  private void parseSentenceChar(char c, boolean isFinalChar) {
+    switch (this.sentenceState) {
+      case LISTEN_FOR_NEW_SENTENCE:
+
+        // If the current char is neither a whitespace nor a full stop, then make it the start of the next sentence and
+        // change the state so we start reading and adding more characters to it.
+        if (!CharClasses.isWhitespace(c) && c != '.') {
+          this.currentSentenceLen = 0;
+          this.currentSentenceHash = DistinctCounter.EMPTY_HASH;
+          if (this.storeTokens) {
+            this.currentSentence = new StringBuilder();
+          }
+          this.appendSentenceChar(c);
+          this.sentenceState = SentenceParseState.READ_AND_STORE_CHARS;
+        }
+
+        // If we are at the final character of the text file, then we need to add the current sentence as it is to the
+        // sentences list.
+        if (isFinalChar && this.currentSentenceLen != -1) {
+          this.completeSentence();
+        }
+
+      break;
+      case READ_AND_STORE_CHARS:
+
+        // Add the current char onto the current sentence
+        this.appendSentenceChar(c);
+
+        // If the current char is a full stop, or if we are at the final character, then our current sentence is complete.
+        // Therefore, we need to save it to the sentences list.
+        if (c == '.' || isFinalChar) {
+          this.completeSentence();
+        }
+
+        // If the current char is a full stop, change the state to start listening for the start of another sentence.
+        if (c == '.') {
+          this.sentenceState = SentenceParseState.LISTEN_FOR_NEW_SENTENCE;
+        }
+
+      break;
+    }
+  }
+
+  /**
+   * Adds a character onto the end of the current sentence.
+   *
+   * @param c: The character to add.
+   */
+  private void appendSentenceChar(char c) {
+    if (this.storeTokens) {
+      this.currentSentence.append(c);
+    }
+    this.currentSentenceLen++;
+    this.currentSentenceHash = DistinctCounter.extendHash(this.currentSentenceHash, c);
+  }
+
+  /**
+   * Saves the current sentence to the sentences list and/or passes it to the Statistics object.
+   */
+  private void completeSentence() {
+    if (this.storeTokens) {
+      this.sentences.add(this.currentSentence.toString());
+      this.currentSentence = null;
+    }
+    if (this.stats != null) {
+      this.stats.addSentence(this.currentSentenceLen, this.currentSentenceHash);
+    }
+    this.currentSentenceLen = -1;
+  }
+
+  /**
+   * @return an array of all characters read from the text file, excluding line terminators, or null if characters are not
+   * being stored or kept.
+   */
+  public char[] getCharacters() {
+    if (this.characters == null) {
+      return null;
+    }
+    char[] result = new char[this.characters.length()];
+    this.characters.getChars(0, result.length, result, 0);
+    return result;
+  }
+
+  /**
+   * @return the list of words parsed from the text file, or null if words are not being stored.
+   */
+  public List<String> getWords() {
+    return this.words;
+  }
+
+  /**
+   * @return the list of sentences parsed from the text file, or null if sentences are not being stored.
+   */
+  public List<String> getSentences() {
+    return this.sentences;
+  }
+
+  /**
+   * @return the number of line terminators in the text file.
+   */
+  public int getNoOfLineTerminators() {
+    return this.noOfLineTerminators;
+  }
+
+  /**
+   * @return the number of words parsed from the text file, whether or not they are stored, or 0 if words are not being
+   * parsed.
+   */
+  public long getNoOfWords() {
+    return this.noOfWords;
+  }
+
+}
@@ -0,0 +1,698 @@
+/**
+ * WordIndex.java
+ */
+
+package uk.co.bluettduncanj.controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uk.co.bluettduncanj.model.CharClasses;
+
+
+/**
+ * WordIndex is a component class of FileAnalyser that holds a positional inverted index of the words of a text file,
+ * so that the 'Text Occurrences' of word and phrase patterns can be counted (and found) by looking them up, rather than
+ * by scanning the whole text file again.
+ *
+ * The index is built over the same characters as the 'Text Occurrences' statistic is counted over, i.e. the text file
+ * without its line terminators. These are split into 'terms', the longest runs of characters that are neither
+ * whitespaces nor the punctuation marks that separate words, and 'gaps', the runs of such characters between terms.
+ * For every distinct term, the index holds the positions (in order) of the terms in which it appears, and for every
+ * term position, the gap before it.
+ *
+ * A pattern is answered from the index if it starts and ends with a term character. A pattern with no gap in it is
+ * counted within every distinct term that contains it, so that e.g. "at" is found in "cat" and "sat" just as a scan
+ * would find it. A phrase, e.g. "the cat", must end one term, match the gaps and terms between exactly, and start
+ * another; it is looked up through the positions of its rarest whole term, or if it has none, through those of the
+ * distinct terms it can start or end in. Any other pattern, e.g. one that starts with a space, can only be counted by
+ * scanning the text file (see canCount(String)).
+ *
+ * An index is saved in a directory of its own (see open(File, Charset, File)), from which it is loaded rather than
+ * built again while the size and last-modified time of the text file are unchanged. Like ResultCache, a saved index is
+ * only an aid to speed: one that cannot be read or written is built again, rather than treated as an error.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class WordIndex {
+
+  /** The first bytes of every saved index */
+  private static final int MAGIC = 0x54584958;
+
+  /** Changed whenever the format of a saved index, or the way in which terms are split, changes */
+  private static final int VERSION = 1;
+
+  /** The extension of saved indexes */
+  private static final String INDEX_EXTENSION = ".idx";
+
+  /** How long before indexing a text file must have been last modified for its index to be saved, in milliseconds */
+  private static final long MTIME_GRANULARITY = 2000;
+
+  /** The number of characters of a text file to read at a time */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** The classes of the characters that separate terms */
+  private static final int GAP_CLASSES = CharClasses.WHITESPACE | CharClasses.PUNCTUATION;
+
+  /** The text file, as an absolute path */
+  private final File file;
+
+  /** The name of the charset the text file was decoded with */
+  private final String charsetName;
+
+  /** The size of the text file when it was indexed */
+  private final long size;
+
+  /** The last-modified time of the text file when it was indexed */
+  private final long lastModified;
+
+  /** Whether nothing could have changed the text file during indexing without changing its last-modified time */
+  private final boolean isStable;
+
+  /** The distinct terms, by term ID */
+  private final String[] terms;
+
+  /** The ID of each distinct term, by term */
+  private final Map<String, Integer> termIds;
+
+  /** The positions of each distinct term, in order, by term ID */
+  private final int[][] postings;
+
+  /** The distinct gaps, by gap ID */
+  private final String[] gaps;
+
+  /** The ID of each distinct gap, by gap */
+  private final Map<String, Integer> gapIds;
+
+  /** The term ID of the term at each position */
+  private final int[] termAt;
+
+  /** The gap ID of the gap before the term at each position, and lastly of the gap after the last term */
+  private final int[] gapBefore;
+
+  /** The offset of the term at each position from the start of the characters, without line terminators */
+  private final long[] offsets;
+
+  /**
+   * Private constructor, from the terms and gaps of a text file.
+   *
+   * @param file: The text file, as an absolute path.
+   * @param charsetName: The name of the charset the text file was decoded with.
+   * @param size: The size of the text file when it was indexed.
+   * @param lastModified: The last-modified time of the text file when it was indexed.
+   * @param isStable: Whether the text file cannot have changed unseen during indexing.
+   * @param terms: The distinct terms, by term ID.
+   * @param gaps: The distinct gaps, by gap ID.
+   * @param termAt: The term ID of the term at each position.
+   * @param gapBefore: The gap ID of the gap before the term at each position, and of the gap after the last term.
+   */
+  private WordIndex(File file, String charsetName, long size, long lastModified, boolean isStable, String[] terms,
+      String[] gaps, int[] termAt, int[] gapBefore) {
+    super();
+    this.file = file;
+    this.charsetName = charsetName;
+    this.size = size;
+    this.lastModified = lastModified;
+    this.isStable = isStable;
+    this.terms = terms;
+    this.gaps = gaps;
+    this.termAt = termAt;
+    this.gapBefore = gapBefore;
+    this.termIds = WordIndex.toIds(terms);
+    this.gapIds = WordIndex.toIds(gaps);
+
+    // Invert the term at each position into the positions of each term, with a counting sort
+    int[] noOfPostings = new int[terms.length];
+    for (int termId : termAt) {
+      noOfPostings[termId]++;
+    }
+    this.postings = new int[terms.length][];
+    for (int t = 0; t < terms.length; t++) {
+      this.postings[t] = new int[noOfPostings[t]];
+      noOfPostings[t] = 0;
+    }
+    for (int position = 0; position < termAt.length; position++) {
+      int termId = termAt[position];
+      this.postings[termId][noOfPostings[termId]++] = position;
+    }
+
+    this.offsets = new long[termAt.length];
+    long offset = 0;
+    for (int position = 0; position < termAt.length; position++) {
+      offset += gaps[gapBefore[position]].length();
+      this.offsets[position] = offset;
+      offset += terms[termAt[position]].length();
+    }
+  }
+
+  /**
+   * Loads the index of a text file from a directory, or if it has not been saved there, or the text file has changed
+   * since, builds it and saves it there.
+   *
+   * @param file: The text file.
+   * @param charset: The charset to decode the text file with.
+   * @param directory: The directory of saved indexes, which must exist.
+   *
+   * @return the index.
+   *
+   * @throws IOException if the text file cannot be read.
+   */
+  public static WordIndex open(File file, Charset charset, File directory) throws IOException {
+    File absoluteFile = file.getAbsoluteFile();
+    File indexFile = WordIndex.getIndexFile(absoluteFile, charset, directory);
+    WordIndex index = WordIndex.read(indexFile);
+    if (index != null && index.isFor(absoluteFile, charset)) {
+      return index;
+    }
+    index = WordIndex.build(absoluteFile, charset);
+    if (index.isStable && index.isFor(absoluteFile, charset)) {
+      index.write(indexFile);
+    }
+    return index;
+  }
+
+  /**
+   * Builds the index of a text file, without saving it.
+   *
+   * @param file: The text file.
+   * @param charset: The charset to decode the text file with.
+   *
+   * @return the index.
+   *
+   * @throws IOException if the text file cannot be read.
+   */
+  public static WordIndex build(File file, Charset charset) throws IOException {
+    File absoluteFile = file.getAbsoluteFile();
+    long startTime = System.currentTimeMillis();
+    long size = absoluteFile.length();
+    long lastModified = absoluteFile.lastModified();
+
+    Map<String, Integer> termIds = new HashMap<String, Integer>();
+    List<String> terms = new ArrayList<String>();
+    Map<String, Integer> gapIds = new HashMap<String, Integer>();
+    List<String> gaps = new ArrayList<String>();
+    int[] termAt = new int[1024];
+    int[] gapBefore = new int[1024];
+    int noOfTerms = 0;
+    StringBuilder term = new StringBuilder();
+    StringBuilder gap = new StringBuilder();
+
+    Reader reader = new InputStreamReader(new FileInputStream(absoluteFile), charset);
+    try {
+      char[] buffer = new char[BUFFER_SIZE];
+      int n;
+      while ((n = reader.read(buffer)) != -1) {
+        for (int i = 0; i < n; i++) {
+          char c = buffer[i];
+
+          // Line terminators are not among the characters that patterns are counted over
+          if (c == '\n' || c == '\r') {
+            continue;
+          }
+          if ((CharClasses.of(c) & GAP_CLASSES) != 0) {
+            if (term.length() > 0) {
+              termAt[noOfTerms++] = WordIndex.intern(term, termIds, terms);
+              term.setLength(0);
+            }
+            gap.append(c);
+          }
+          else {
+            if (term.length() == 0) {
+              if (noOfTerms == termAt.length) {
+                termAt = Arrays.copyOf(termAt, 2 * noOfTerms);
+                gapBefore = Arrays.copyOf(gapBefore, 2 * noOfTerms);
+              }
+              gapBefore[noOfTerms] = WordIndex.intern(gap, gapIds, gaps);
+              gap.setLength(0);
+            }
+            term.append(c);
+          }
+        }
+      }
+    }
+    finally {
+      reader.close();
+    }
+    if (term.length() > 0) {
+      termAt[noOfTerms++] = WordIndex.intern(term, termIds, terms);
+    }
+    termAt = Arrays.copyOf(termAt, noOfTerms);
+    gapBefore = Arrays.copyOf(gapBefore, noOfTerms + 1);
+    gapBefore[noOfTerms] = WordIndex.intern(gap, gapIds, gaps);
+
+    // Only trust the index if nothing could have changed the text file without changing its last-modified time
+    boolean isStable = lastModified != 0 && lastModified < startTime - MTIME_GRANULARITY;
+    return new WordIndex(absoluteFile, charset.name(), size, lastModified, isStable,
+        terms.toArray(new String[terms.size()]), gaps.toArray(new String[gaps.size()]), termAt, gapBefore);
+  }
+
+  /**
+   * Checks whether a pattern can be counted from the index, which it can if it starts and ends with a term character.
+   *
+   * @param pattern: The pattern.
+   *
+   * @return true if the pattern can be counted from the index, otherwise false.
+   */
+  public static boolean canCount(String pattern) {
+    return !pattern.isEmpty() && !WordIndex.isGapChar(pattern.charAt(0)) &&
+        !WordIndex.isGapChar(pattern.charAt(pattern.length() - 1));
+  }
+
+  /**
+   * Counts the occurrences of a pattern in the text file, in the same way as the 'Text Occurrences' statistic.
+   *
+   * @param pattern: The pattern.
+   *
+   * @return the number of occurrences, or -1 if the pattern cannot be counted from the index (see canCount(String)).
+   */
+  public long count(String pattern) {
+    return WordIndex.canCount(pattern) ? this.search(pattern, null) : -1;
+  }
+
+  /**
+   * Finds the occurrences of a pattern in the text file.
+   *
+   * @param pattern: The pattern.
+   *
+   * @return the offset of each occurrence from the start of the characters of the text file without its line
+   * terminators, in order, or null if the pattern cannot be counted from the index (see canCount(String)).
+   */
+  public long[] getPositions(String pattern) {
+    if (!WordIndex.canCount(pattern)) {
+      return null;
+    }
+    long[][] positions = { new long[16] };
+    int n = (int) this.search(pattern, positions);
+    long[] result = Arrays.copyOf(positions[0], n);
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * Checks whether this index is of a given text file, as it is now.
+   *
+   * @param file: The text file.
+   * @param charset: The charset to decode the text file with.
+   *
+   * @return true if this index is of the text file, decoded with the charset, and the size and last-modified time of
+   * the text file are unchanged since it was indexed, otherwise false.
+   */
+  public boolean isFor(File file, Charset charset) {
+    File absoluteFile = file.getAbsoluteFile();
+    return this.file.equals(absoluteFile) && this.charsetName.equals(charset.name()) &&
+        absoluteFile.length() == this.size && absoluteFile.lastModified() == this.lastModified;
+  }
+
+  /**
+   * @return the number of terms in the text file.
+   */
+  public int getNoOfTerms() {
+    return this.termAt.length;
+  }
+
+  /**
+   * @return the number of distinct terms in the text file.
+   */
+  public int getNoOfDistinctTerms() {
+    return this.terms.length;
+  }
+
+  /**
+   * Private helper method for count(String) and getPositions(String) that finds the occurrences of a pattern.
+   *
+   * @param pattern: The pattern, which starts and ends with a term character.
+   * @param positions: A one-element array holding the array that the offset of each occurrence is added to (in no
+   *                   particular order), which is grown as needed, or null to only count the occurrences.
+   *
+   * @return the number of occurrences.
+   */
+  private long search(String pattern, long[][] positions) {
+    List<String> words = new ArrayList<String>();
+    List<String> separators = new ArrayList<String>();
+    int start = 0;
+    for (int i = 1; i <= pattern.length(); i++) {
+      if (i == pattern.length() || WordIndex.isGapChar(pattern.charAt(i)) != WordIndex.isGapChar(pattern.charAt(i - 1))) {
+        (WordIndex.isGapChar(pattern.charAt(start)) ? separators : words).add(pattern.substring(start, i));
+        start = i;
+      }
+    }
+    if (separators.isEmpty()) {
+      return this.searchTerms(pattern, positions);
+    }
+    return this.searchPhrase(words, separators, positions);
+  }
+
+  /**
+   * Private helper method for search(String, long[][]) that finds the occurrences of a pattern with no gap in it,
+   * within every distinct term that contains it.
+   */
+  private long searchTerms(String pattern, long[][] positions) {
+    long count = 0;
+    for (int t = 0; t < this.terms.length; t++) {
+      String term = this.terms[t];
+      for (int i = term.indexOf(pattern); i != -1; i = term.indexOf(pattern, i + 1)) {
+        if (positions == null) {
+          count += this.postings[t].length;
+          continue;
+        }
+        for (int position : this.postings[t]) {
+          WordIndex.add(positions, (int) count++, this.offsets[position] + i);
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Private helper method for search(String, long[][]) that finds the occurrences of a phrase, i.e. a pattern of words
+   * separated by gaps. The first word must end a term, the gaps and words between must match exactly, and the last word
+   * must start a term.
+   *
+   * @param words: The words of the phrase, one more than the separators.
+   * @param separators: The separators of the phrase.
+   * @param positions: See search(String, long[][]).
+   *
+   * @return the number of occurrences.
+   */
+  private long searchPhrase(List<String> words, List<String> separators, long[][] positions) {
+    int k = separators.size();
+    String first = words.get(0);
+    String last = words.get(k);
+
+    int[] separatorIds = new int[k + 1];
+    for (int j = 1; j <= k; j++) {
+      Integer gapId = this.gapIds.get(separators.get(j - 1));
+      if (gapId == null) {
+        return 0;
+      }
+      separatorIds[j] = gapId;
+    }
+    int[] wordIds = new int[k];
+    int rarest = 0;
+    for (int j = 1; j < k; j++) {
+      Integer termId = this.termIds.get(words.get(j));
+      if (termId == null) {
+        return 0;
+      }
+      wordIds[j] = termId;
+      if (rarest == 0 || this.postings[termId].length < this.postings[wordIds[rarest]].length) {
+        rarest = j;
+      }
+    }
+
+    // Choose the positions at which the phrase may start, from those of its rarest whole word if it has one, or
+    // otherwise from the fewer of those of the terms it can start in and those of the terms it can end in
+    List<int[]> candidates = new ArrayList<int[]>();
+    int shift = rarest;
+    if (rarest != 0) {
+      candidates.add(this.postings[wordIds[rarest]]);
+    }
+    else {
+      List<int[]> starts = new ArrayList<int[]>();
+      List<int[]> ends = new ArrayList<int[]>();
+      long noOfStarts = 0;
+      long noOfEnds = 0;
+      for (int t = 0; t < this.terms.length; t++) {
+        if (this.terms[t].endsWith(first)) {
+          starts.add(this.postings[t]);
+          noOfStarts += this.postings[t].length;
+        }
+        if (this.terms[t].startsWith(last)) {
+          ends.add(this.postings[t]);
+          noOfEnds += this.postings[t].length;
+        }
+      }
+      candidates = (noOfStarts <= noOfEnds) ? starts : ends;
+      shift = (noOfStarts <= noOfEnds) ? 0 : k;
+    }
+
+    long count = 0;
+    for (int[] postings : candidates) {
+      for (int position : postings) {
+        int i = position - shift;
+        if (i < 0 || i + k >= this.termAt.length) {
+          continue;
+        }
+        boolean isMatch = this.terms[this.termAt[i]].endsWith(first) &&
+            this.terms[this.termAt[i + k]].startsWith(last);
+        for (int j = 1; isMatch && j <= k; j++) {
+          isMatch = this.gapBefore[i + j] == separatorIds[j] && (j == k || this.termAt[i + j] == wordIds[j]);
+        }
+        if (isMatch) {
+          count++;
+          if (positions != null) {
+            long offset = this.offsets[i] + this.terms[this.termAt[i]].length() - first.length();
+            WordIndex.add(positions, (int) count - 1, offset);
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Private helper method that finds the file in which the index of a text file is saved.
+   *
+   * @param file: The text file, as an absolute path.
+   * @param charset: The charset the text file is decoded with.
+   * @param directory: The directory of saved indexes.
+   *
+   * @return the file.
+   */
+  private static File getIndexFile(File file, Charset charset, File directory) {
+    MessageDigest digest = ResultCache.newDigest();
+    ResultCache.update(digest, file.getPath());
+    ResultCache.update(digest, charset.name());
+    return new File(directory, ResultCache.toHex(digest.digest()) + INDEX_EXTENSION);
+  }
+
+  /**
+   * Private helper method for open(File, Charset, File) that loads a saved index. A file that cannot be read, e.g.
+   * because it was saved by an older version of the program, is deleted.
+   *
+   * @param indexFile: The file the index is saved in.
+   *
+   * @return the index, or null if it is not saved or cannot be read.
+   */
+  private static WordIndex read(File indexFile) {
+    if (!indexFile.isFile()) {
+      return null;
+    }
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+      try {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+          throw new IOException("Unknown index format.");
+        }
+        File file = new File(WordIndex.readString(in));
+        String charsetName = WordIndex.readString(in);
+        long size = in.readLong();
+        long lastModified = in.readLong();
+
+        // The positions of each term are saved as the differences between them, and turned back into the term at
+        // each position
+        int noOfTerms = in.readInt();
+        String[] terms = new String[in.readInt()];
+        int[] termAt = new int[noOfTerms];
+        for (int t = 0; t < terms.length; t++) {
+          terms[t] = WordIndex.readString(in);
+          int noOfPostings = WordIndex.readVarInt(in);
+          int position = -1;
+          for (int p = 0; p < noOfPostings; p++) {
+            position += WordIndex.readVarInt(in);
+            termAt[position] = t;
+          }
+        }
+        String[] gaps = new String[in.readInt()];
+        for (int g = 0; g < gaps.length; g++) {
+          gaps[g] = WordIndex.readString(in);
+        }
+        int[] gapBefore = new int[noOfTerms + 1];
+        for (int position = 0; position <= noOfTerms; position++) {
+          gapBefore[position] = WordIndex.readVarInt(in);
+        }
+        return new WordIndex(file, charsetName, size, lastModified, true, terms, gaps, termAt, gapBefore);
+      }
+      finally {
+        in.close();
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      indexFile.delete();
+      return null;
+    }
+  }
+
+  /**
+   * Private helper method for open(File, Charset, File) that saves this index. It is written to a temporary file first,
+   * which then replaces the file, so that a reader never sees a half-written index. An index that cannot be saved is
+   * only kept in memory.
+   *
+   * @param indexFile: The file to save the index in.
+   */
+  private void write(File indexFile) {
+    File temp = null;
+    try {
+      temp = File.createTempFile("index", ".tmp", indexFile.getParentFile());
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+      try {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        WordIndex.writeString(out, this.file.getPath());
+        WordIndex.writeString(out, this.charsetName);
+        out.writeLong(this.size);
+        out.writeLong(this.lastModified);
+        out.writeInt(this.termAt.length);
+        out.writeInt(this.terms.length);
+        for (int t = 0; t < this.terms.length; t++) {
+          WordIndex.writeString(out, this.terms[t]);
+          WordIndex.writeVarInt(out, this.postings[t].length);
+          int previous = -1;
+          for (int position : this.postings[t]) {
+            WordIndex.writeVarInt(out, position - previous);
+            previous = position;
+          }
+        }
+        out.writeInt(this.gaps.length);
+        for (String gap : this.gaps) {
+          WordIndex.writeString(out, gap);
+        }
+        for (int gapId : this.gapBefore) {
+          WordIndex.writeVarInt(out, gapId);
+        }
+      }
+      finally {
+        out.close();
+      }
+      try {
+        Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (IOException e) {
+        Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    catch (IOException e) {
+      if (temp != null) {
+        temp.delete();
+      }
+    }
+  }
+
+  /**
+   * Private helper method that checks whether a character separates terms.
+   */
+  private static boolean isGapChar(char c) {
+    return (CharClasses.of(c) & GAP_CLASSES) != 0;
+  }
+
+  /**
+   * Private helper method for build(File, Charset) that finds the ID of a term or gap, giving it the next ID if it has
+   * not been seen before.
+   *
+   * @param text: The term or gap.
+   * @param ids: The ID of each term or gap seen so far.
+   * @param texts: The terms or gaps seen so far, by ID.
+   *
+   * @return the ID.
+   */
+  private static int intern(CharSequence text, Map<String, Integer> ids, List<String> texts) {
+    String key = text.toString();
+    Integer id = ids.get(key);
+    if (id == null) {
+      id = texts.size();
+      ids.put(key, id);
+      texts.add(key);
+    }
+    return id;
+  }
+
+  /**
+   * Private helper method that maps each of some distinct Strings to its index.
+   */
+  private static Map<String, Integer> toIds(String[] texts) {
+    Map<String, Integer> ids = new HashMap<String, Integer>(Math.max(16, texts.length * 2));
+    for (int i = 0; i < texts.length; i++) {
+      ids.put(texts[i], i);
+    }
+    return ids;
+  }
+
+  /**
+   * Private helper method that puts an offset into a growable array of offsets.
+   *
+   * @param positions: A one-element array holding the array of offsets.
+   * @param index: The index to put the offset at.
+   * @param offset: The offset.
+   */
+  private static void add(long[][] positions, int index, long offset) {
+    if (index == positions[0].length) {
+      positions[0] = Arrays.copyOf(positions[0], 2 * index);
+    }
+    positions[0][index] = offset;
+  }
+
+  /**
+   * Private helper method that writes a String as its length and its chars, so that it may be of any length and hold
+   * any chars (unlike DataOutputStream.writeUTF(String)).
+   */
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    out.writeInt(s.length());
+    out.writeChars(s);
+  }
+
+  /**
+   * Private helper method that reads a String written by writeString(DataOutputStream, String).
+   */
+  private static String readString(DataInputStream in) throws IOException {
+    char[] chars = new char[in.readInt()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = in.readChar();
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Private helper method that writes a non-negative int in as few bytes as it needs, seven bits at a time.
+   */
+  private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  /**
+   * Private helper method that reads an int written by writeVarInt(DataOutputStream, int).
+   */
+  private static int readVarInt(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed index.");
+  }
+
+}
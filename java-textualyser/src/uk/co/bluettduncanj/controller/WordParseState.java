@@ -7,7 +7,7 @@ package uk.co.bluettduncanj.controller;
 
 /**
  * This Enum class simulates two important 'states' that are used to aid an algorithm used in FileAnalyser's process() method 
- * (in particular, it's private helper method parseSentences()) that parses words from
+ * (in particular, its helper class TextScanner) that parses words from
  * characters obtained from the user-chosen text file.
  * 
  * @author Jonathan Bluett-Duncan
@@ -0,0 +1,54 @@
+/**
+ * AbstractStatistic.java
+ */
+
+package uk.co.bluettduncanj.model;
+
+
+/**
+ * AbstractStatistic is an abstract class that implements the IStatistic interface by ignoring everything that is passed
+ * in, so that plug-in statistics which only look at e.g. characters only need to override addChar(char).
+ *
+ * It is the responsibility of classes which extend AbstractStatistic to implement getName(), newInstance(),
+ * merge(IStatistic) and getResult().
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public abstract class AbstractStatistic implements IStatistic {
+
+  private static final long serialVersionUID = 1L;
+
+  /** Default super constructor for subclasses of AbstractStatistic */
+  public AbstractStatistic() {
+    super();
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.model.IStatistic#addChar(char)
+   */
+  @Override
+  public void addChar(char c) {
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.model.IStatistic#addLineTerminator()
+   */
+  @Override
+  public void addLineTerminator() {
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.model.IStatistic#addWord(java.lang.CharSequence)
+   */
+  @Override
+  public void addWord(CharSequence word) {
+  }
+
+  /**
+   * @see uk.co.bluettduncanj.model.IStatistic#addSentence(long, long)
+   */
+  @Override
+  public void addSentence(long length, long hash) {
+  }
+
+}
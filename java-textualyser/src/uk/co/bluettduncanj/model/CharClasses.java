@@ -0,0 +1,153 @@
+/**
+ * CharClasses.java
+ */
+
+package uk.co.bluettduncanj.model;
+
+import java.util.regex.Pattern;
+
+
+/**
+ * CharClasses is a utility class that answers which 'classes' a character belongs to, e.g. whether it is a whitespace or
+ * an English alphanumeric character, with a single array lookup.
+ *
+ * The classes of all 65,536 chars are worked out once, when this class is loaded, by matching each char against the
+ * regular expressions below. After that, no regular expressions are run and no objects are created to classify a char.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public final class CharClasses {
+
+  /** Class flag for whitespace characters */
+  public static final int WHITESPACE = 1;
+
+  /** Class flag for English alphanumeric characters */
+  public static final int ENGLISH_AN = 1 << 1;
+
+  /** Class flag for non-alphanumeric characters */
+  public static final int NON_AN = 1 << 2;
+
+  /** Class flag for international characters */
+  public static final int INTL = 1 << 3;
+
+  /** Class flag for the 'punctuation' marks that separate words */
+  public static final int PUNCTUATION = 1 << 4;
+
+  /**
+   * Compiled version of a whitespace regular expression.
+   *
+   * [\\p{Z}\\s] is a Java regular expression that finds all ASCII and Unicode whitespace characters.
+   *
+   * \s is a standard regex expression for any ASCII whitespace.
+   *
+   * According to page 120 of the source (1) below, \p{Z} is a Unicode property that can be used
+   * by Unicode-compliant regex parsers to catch the 'Separator' quality of Unicode characters that are meant to separate
+   * things but have no visual representation.
+   *
+   * Internet Sources (16/05/2013):
+   * 1) http://books.google.com.au/books?id=ucwR4KIvExMC&pg=PA119&lpg=PA119&dq=regular+expression+unicode+whitespace+%22#v=onepage&q=regular%20expression%20unicode%20whitespace%20%22&f=false
+   * 2) http://stackoverflow.com/questions/1822772/java-regular-expression-to-match-all-whitespace-characters
+   */
+  private static final Pattern whitespaceCompiled = Pattern.compile("[\\p{Z}\\s]");
+
+  /** Compiled version of a regular expression that represents an English alphanumeric character. */
+  private static final Pattern englishANCompiled = Pattern.compile("[a-zA-Z0-9]");
+
+  /**
+   * Compiled version of a regular expression that represents a non-alphanumeric character (excludes whitespaces).
+   * Includes all other symbols on a United Kingdom QWERTY keyboard, i.e. '' and '' too.
+   */
+  private static final Pattern nonANCompiled = Pattern.compile("[`!\"$%^&*()_\\-\\+\\={}\\[\\]\\\\|,.<>/?;:'@#~]");
+
+  /**
+   * Compiled version of a regular expression that represents unicode characters that are not in the printable ASCII
+   * range. Designed to be used as a test for international characters.
+   */
+  private static final Pattern notASCIIRangeCompiled = Pattern.compile("[^\\u0000-\\u0080]+");
+
+  /** Compiled version of a regular expression designed to match 'punctuation' marks */
+  private static final Pattern punctuationCompiled = Pattern.compile("[!?/:;,.]");
+
+  /** The class flags of every char, indexed by the char itself */
+  private static final byte[] classes = CharClasses.buildTable();
+
+  /** Private constructor - This class only has static members */
+  private CharClasses() {
+    super();
+  }
+
+  /**
+   * Builds the table of class flags by matching every char against each regular expression once.
+   *
+   * @return the table of class flags.
+   */
+  private static byte[] buildTable() {
+    byte[] table = new byte[Character.MAX_VALUE + 1];
+    for (int i = 0; i <= Character.MAX_VALUE; i++) {
+      String c = Character.toString((char) i);
+      int flags = 0;
+      if (whitespaceCompiled.matcher(c).matches())    flags |= WHITESPACE;
+      if (englishANCompiled.matcher(c).matches())     flags |= ENGLISH_AN;
+      if (nonANCompiled.matcher(c).matches())         flags |= NON_AN;
+      if (notASCIIRangeCompiled.matcher(c).matches()) flags |= INTL;
+      if (punctuationCompiled.matcher(c).matches())   flags |= PUNCTUATION;
+      table[i] = (byte) flags;
+    }
+    return table;
+  }
+
+  /**
+   * @param c: The character to check.
+   *
+   * @return the class flags of c, e.g. (WHITESPACE | PUNCTUATION) for a char that is both.
+   */
+  public static int of(char c) {
+    return classes[c];
+  }
+
+  /**
+   * @param c: The character to check.
+   *
+   * @return true if c is a whitespace character (including spaces, tabs and line terminators), otherwise false.
+   */
+  public static boolean isWhitespace(char c) {
+    return (classes[c] & WHITESPACE) != 0;
+  }
+
+  /**
+   * @param c: The character to check.
+   *
+   * @return true if c is an English alphanumeric character, otherwise false.
+   */
+  public static boolean isEnglishAN(char c) {
+    return (classes[c] & ENGLISH_AN) != 0;
+  }
+
+  /**
+   * @param c: The character to check.
+   *
+   * @return true if c is a non-alphanumeric character (excluding whitespaces), otherwise false.
+   */
+  public static boolean isNonAN(char c) {
+    return (classes[c] & NON_AN) != 0;
+  }
+
+  /**
+   * @param c: The character to check.
+   *
+   * @return true if c is an international or accented character, otherwise false.
+   */
+  public static boolean isIntl(char c) {
+    return (classes[c] & INTL) != 0;
+  }
+
+  /**
+   * @param c: The character to check.
+   *
+   * @return true if c is a punctuation mark that separates words, otherwise false.
+   */
+  public static boolean isPunctuation(char c) {
+    return (classes[c] & PUNCTUATION) != 0;
+  }
+
+}
@@ -0,0 +1,348 @@
+/**
+ * CharHistogram.java
+ */
+
+package uk.co.bluettduncanj.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+
+/**
+ * CharHistogram is a component class of Statistics that counts how many times each character appears in a text, in a
+ * single pass and without boxing any of the counts.
+ *
+ * Characters are counted as Unicode code points, so a surrogate pair counts as one character, even when its two halves
+ * are passed in through separate calls to add(char). Counts for the Basic Multilingual Plane (BMP) are held in a dense
+ * table that is split into pages of 256 characters, where a page is only allocated once one of its characters is seen.
+ * Counts for supplementary code points are held in a sparse open-addressing hash table instead.
+ *
+ * Frequencies (out of 100%) are not stored; they are worked out from the counts when they are asked for.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class CharHistogram implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The number of characters in a page of the dense table */
+  private static final int PAGE_SIZE = 256;
+
+  /** The number of bits to shift a BMP character by to find its page */
+  private static final int PAGE_SHIFT = 8;
+
+  /** The initial capacity of the sparse table (must be a power of two) */
+  private static final int INITIAL_SPARSE_CAPACITY = 16;
+
+  /** The dense table of counts for BMP characters, indexed by page and then by the low 8 bits of the character */
+  private long[][] pages;
+
+  /** The keys of the sparse table of supplementary code points, where 0 marks an empty slot */
+  private int[] sparseKeys;
+
+  /** The counts of the sparse table of supplementary code points */
+  private long[] sparseCounts;
+
+  /** The number of code points held in the sparse table */
+  private int sparseSize;
+
+  /** A high surrogate that is waiting to be paired with the next character, or 0 if there isn't one */
+  private char pendingHighSurrogate;
+
+  /** The total number of characters counted */
+  private long total;
+
+  /** The number of distinct characters counted */
+  private int noOfDistinct;
+
+  /**
+   * Default constructor. Creates an empty histogram.
+   */
+  public CharHistogram() {
+    super();
+    this.pages = new long[(Character.MAX_VALUE + 1) / PAGE_SIZE][];
+    this.sparseKeys = null;
+    this.sparseCounts = null;
+    this.sparseSize = 0;
+    this.pendingHighSurrogate = 0;
+    this.total = 0;
+    this.noOfDistinct = 0;
+  }
+
+  /**
+   * Copy constructor. Creates a histogram with the same counts as another one.
+   *
+   * @param other: The histogram to copy.
+   */
+  public CharHistogram(CharHistogram other) {
+    this();
+    this.merge(other);
+  }
+
+  /**
+   * Counts every character in a section of a character array, as if each one were passed to add(char) in turn.
+   *
+   * @param characters: The characters to count.
+   * @param offset: The index of the first character to count.
+   * @param length: The number of characters to count.
+   */
+  public void addAll(char[] characters, int offset, int length) {
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      this.add(characters[i]);
+    }
+  }
+
+  /**
+   * Counts the next character of a text. A high surrogate followed by a low surrogate is counted as the one supplementary
+   * code point they represent; any other surrogate is counted as it is.
+   *
+   * @param c: The character to count.
+   */
+  public void add(char c) {
+    if (this.pendingHighSurrogate != 0) {
+      char high = this.pendingHighSurrogate;
+      this.pendingHighSurrogate = 0;
+      if (Character.isLowSurrogate(c)) {
+        this.addCodePoint(Character.toCodePoint(high, c));
+        return;
+      }
+      this.addBMP(high, 1);
+    }
+    if (Character.isHighSurrogate(c)) {
+      this.pendingHighSurrogate = c;
+    }
+    else {
+      this.addBMP(c, 1);
+    }
+  }
+
+  /**
+   * Counts a high surrogate that is still waiting to be paired as a character on its own. This is done before another
+   * histogram is merged into this one, since it must have been the last character of this part of the text.
+   */
+  private void settle() {
+    if (this.pendingHighSurrogate != 0) {
+      this.addBMP(this.pendingHighSurrogate, 1);
+      this.pendingHighSurrogate = 0;
+    }
+  }
+
+  /**
+   * Checks whether a high surrogate is waiting to be paired with a character that it has not been counted as yet. Until
+   * it is paired, the counts are read as if it were the last character of the text, and so counted on its own, without 
+   * changing the histogram.
+   *
+   * @return true if there is such a high surrogate, otherwise false.
+   */
+  private boolean isPendingUncounted() {
+    return this.pendingHighSurrogate != 0 && this.getStoredCount(this.pendingHighSurrogate) == 0;
+  }
+
+  /**
+   * Counts a BMP character a number of times.
+   *
+   * @param c: The character to count.
+   * @param count: The number of times to count it.
+   */
+  private void addBMP(char c, long count) {
+    long[] page = this.pages[c >>> PAGE_SHIFT];
+    if (page == null) {
+      page = new long[PAGE_SIZE];
+      this.pages[c >>> PAGE_SHIFT] = page;
+    }
+    if (page[c & (PAGE_SIZE - 1)] == 0) {
+      this.noOfDistinct++;
+    }
+    page[c & (PAGE_SIZE - 1)] += count;
+    this.total += count;
+  }
+
+  /**
+   * Counts one code point.
+   *
+   * @param codePoint: The code point to count.
+   */
+  public void addCodePoint(int codePoint) {
+    this.addCodePoint(codePoint, 1);
+  }
+
+  /**
+   * Counts a code point a number of times, e.g. when adding the histogram of a StatisticsRecord.
+   *
+   * @param codePoint: The code point to count.
+   * @param count: The number of times to count it.
+   */
+  void addCodePoint(int codePoint, long count) {
+    if (codePoint <= Character.MAX_VALUE) {
+      this.addBMP((char) codePoint, count);
+      return;
+    }
+    if (this.sparseKeys == null) {
+      this.sparseKeys = new int[INITIAL_SPARSE_CAPACITY];
+      this.sparseCounts = new long[INITIAL_SPARSE_CAPACITY];
+    }
+    int slot = this.findSlot(codePoint);
+    if (this.sparseKeys[slot] == 0) {
+      this.sparseKeys[slot] = codePoint;
+      this.sparseSize++;
+      this.noOfDistinct++;
+      if (this.sparseSize * 2 > this.sparseKeys.length) {
+        this.growSparseTable();
+        slot = this.findSlot(codePoint);
+      }
+    }
+    this.sparseCounts[slot] += count;
+    this.total += count;
+  }
+
+  /**
+   * Adds all of the counts of another histogram to this one, e.g. to combine the histograms of two parts of the same
+   * text. The other histogram is left unchanged, and a high surrogate that it is still waiting to pair is counted on
+   * its own.
+   *
+   * @param other: The histogram to add.
+   */
+  public void merge(CharHistogram other) {
+    this.settle();
+    for (int p = 0; p < other.pages.length; p++) {
+      long[] page = other.pages[p];
+      if (page != null) {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+          if (page[i] != 0) {
+            this.addBMP((char) ((p << PAGE_SHIFT) | i), page[i]);
+          }
+        }
+      }
+    }
+    if (other.sparseKeys != null) {
+      for (int i = 0; i < other.sparseKeys.length; i++) {
+        if (other.sparseKeys[i] != 0) {
+          this.addCodePoint(other.sparseKeys[i], other.sparseCounts[i]);
+        }
+      }
+    }
+    if (other.pendingHighSurrogate != 0) {
+      this.addBMP(other.pendingHighSurrogate, 1);
+    }
+  }
+
+  /**
+   * Finds the slot of the sparse table that holds a code point, or the empty slot where it should be put.
+   *
+   * @param codePoint: The supplementary code point to look for.
+   *
+   * @return the index of the slot.
+   */
+  private int findSlot(int codePoint) {
+    int mask = this.sparseKeys.length - 1;
+    int slot = (codePoint * 0x9E3779B9) >>> 16 & mask;
+    while (this.sparseKeys[slot] != 0 && this.sparseKeys[slot] != codePoint) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Doubles the capacity of the sparse table.
+   */
+  private void growSparseTable() {
+    int[] oldKeys = this.sparseKeys;
+    long[] oldCounts = this.sparseCounts;
+    this.sparseKeys = new int[oldKeys.length * 2];
+    this.sparseCounts = new long[oldKeys.length * 2];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != 0) {
+        int slot = this.findSlot(oldKeys[i]);
+        this.sparseKeys[slot] = oldKeys[i];
+        this.sparseCounts[slot] = oldCounts[i];
+      }
+    }
+  }
+
+  /**
+   * @param codePoint: The code point to look up.
+   *
+   * @return the number of times the code point has been counted.
+   */
+  public long getCount(int codePoint) {
+    long count = this.getStoredCount(codePoint);
+    return (this.pendingHighSurrogate != 0 && codePoint == this.pendingHighSurrogate) ? count + 1 : count;
+  }
+
+  /**
+   * Private helper method for getCount(int) that looks up the count of a code point, leaving out a high surrogate that
+   * is still waiting to be paired.
+   *
+   * @param codePoint: The code point to look up.
+   *
+   * @return the number of times the code point has been counted.
+   */
+  private long getStoredCount(int codePoint) {
+    if (codePoint <= Character.MAX_VALUE) {
+      long[] page = this.pages[codePoint >>> PAGE_SHIFT];
+      return (page == null) ? 0 : page[codePoint & (PAGE_SIZE - 1)];
+    }
+    if (this.sparseKeys == null) {
+      return 0;
+    }
+    int slot = this.findSlot(codePoint);
+    return (this.sparseKeys[slot] == 0) ? 0 : this.sparseCounts[slot];
+  }
+
+  /**
+   * @param codePoint: The code point to look up.
+   *
+   * @return the frequency of the code point out of 100% of all characters counted, or 0 if nothing has been counted.
+   */
+  public double getFrequency(int codePoint) {
+    long count = this.getCount(codePoint);
+    long total = this.getTotal();
+    return (total == 0) ? 0.0 : (count * 100.0) / total;
+  }
+
+  /**
+   * @return the total number of characters counted.
+   */
+  public long getTotal() {
+    return (this.pendingHighSurrogate != 0) ? this.total + 1 : this.total;
+  }
+
+  /**
+   * @return the number of distinct characters counted.
+   */
+  public int getNoOfDistinct() {
+    return this.isPendingUncounted() ? this.noOfDistinct + 1 : this.noOfDistinct;
+  }
+
+  /**
+   * @return every distinct code point counted, in ascending order.
+   */
+  public int[] getCodePoints() {
+    int pending = this.isPendingUncounted() ? this.pendingHighSurrogate : -1;
+    int[] result = new int[this.getNoOfDistinct()];
+    int n = 0;
+    for (int p = 0; p < this.pages.length; p++) {
+      long[] page = this.pages[p];
+      if (page != null || pending >>> PAGE_SHIFT == p) {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+          int c = (p << PAGE_SHIFT) | i;
+          if ((page != null && page[i] != 0) || c == pending) {
+            result[n++] = c;
+          }
+        }
+      }
+    }
+    if (this.sparseKeys != null) {
+      int firstSupplementary = n;
+      for (int key : this.sparseKeys) {
+        if (key != 0) {
+          result[n++] = key;
+        }
+      }
+      Arrays.sort(result, firstSupplementary, n);
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * CorpusStatistics.java
+ */
+
+package uk.co.bluettduncanj.model;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * CorpusStatistics holds the results of analysing a corpus (a directory tree) of text files: the Statistics of each
+ * text file, the Statistics of the whole corpus, and the text files that could not be analysed.
+ *
+ * Text files are identified by their paths, and are kept in path order. The Statistics of the whole corpus are the
+ * Statistics of every text file merged together (see Statistics.merge(Statistics)), so they are exactly the same as if
+ * the text files had been joined into one, apart from the words and sentences that would span the joins.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class CorpusStatistics {
+
+  /** The Statistics of each text file that was analysed, by path */
+  private final SortedMap<String, Statistics> files;
+
+  /** The error that stopped each text file (or directory) from being analysed, by path */
+  private final SortedMap<String, IOException> failures;
+
+  /** The Statistics of every text file that was analysed, merged together */
+  private final Statistics total;
+
+  /**
+   * Constructor.
+   *
+   * @param files: The Statistics of each text file that was analysed, by path.
+   * @param failures: The error that stopped each text file (or directory) from being analysed, by path.
+   */
+  public CorpusStatistics(Map<String, Statistics> files, Map<String, IOException> failures) {
+    super();
+    this.files = Collections.unmodifiableSortedMap(new TreeMap<String, Statistics>(files));
+    this.failures = Collections.unmodifiableSortedMap(new TreeMap<String, IOException>(failures));
+    this.total = new Statistics();
+    for (Statistics stats : this.files.values()) {
+      this.total.merge(stats);
+    }
+  }
+
+  /**
+   * @return the Statistics of each text file that was analysed, by path, in path order.
+   */
+  public SortedMap<String, Statistics> getFiles() {
+    return this.files;
+  }
+
+  /**
+   * @return the error that stopped each text file (or directory) from being analysed, by path, in path order.
+   */
+  public SortedMap<String, IOException> getFailures() {
+    return this.failures;
+  }
+
+  /**
+   * @return a copy of the Statistics of every text file that was analysed, merged together.
+   */
+  public Statistics getTotal() {
+    return new Statistics(this.total);
+  }
+
+  /**
+   * @return the number of text files that were analysed.
+   */
+  public int getNoOfFiles() {
+    return this.files.size();
+  }
+
+}
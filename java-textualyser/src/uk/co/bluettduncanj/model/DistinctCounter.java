@@ -0,0 +1,265 @@
+/**
+ * DistinctCounter.java
+ */
+
+package uk.co.bluettduncanj.model;
+
+import java.io.Serializable;
+
+
+/**
+ * DistinctCounter is a component class of Statistics that estimates the number of distinct words or sentences of a
+ * text, in a fixed amount of memory, using the HyperLogLog algorithm (Flajolet, Fusy, Gandouet and Meunier, 2007).
+ *
+ * Each item is hashed to 64 bits. The first (precision) bits of the hash choose one of 2^precision registers, and the
+ * register keeps the largest number of leading zeros (plus one) seen in the rest of the hashes that chose it. The number
+ * of distinct items is estimated from the harmonic mean of the registers, with the 'linear counting' correction while
+ * many registers are still empty. The standard error of the estimate is about 1.04 / sqrt(2^precision), e.g. 0.81% for
+ * the default precision of 14, which takes 16KB.
+ *
+ * Items are hashed with a polynomial hash of their characters, which can be worked out one character at a time
+ * (extendHash(long, char)) and joined together (joinHashes(long, long, long)), so that an item does not need to be kept
+ * in memory to be counted, even if it was scanned in pieces. The hash is then mixed by addHash(long) before it is used.
+ *
+ * The counters of separate parts of a text (or of separate texts) can be combined with merge(DistinctCounter), which
+ * gives the same result as counting every item with one counter. Counters with different precisions can be merged too,
+ * the result having the lower of the two precisions.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class DistinctCounter implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The default precision */
+  public static final int DEFAULT_PRECISION = 14;
+
+  /** The lowest precision allowed */
+  public static final int MIN_PRECISION = 4;
+
+  /** The highest precision allowed */
+  public static final int MAX_PRECISION = 18;
+
+  /** The hash of the empty string, from which the hash of every item is worked out */
+  public static final long EMPTY_HASH = 0L;
+
+  /** The multiplier of the polynomial hash, which is odd so that no information is lost modulo 2^64 */
+  private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  /** The number of bits of the hash that choose a register */
+  private int precision;
+
+  /** The registers, each holding the largest rank seen by it */
+  private byte[] registers;
+
+  /**
+   * Constructor.
+   *
+   * @param precision: The number of bits of the hash that choose a register, from MIN_PRECISION to MAX_PRECISION.
+   *
+   * @throws IllegalArgumentException if precision is out of range.
+   */
+  public DistinctCounter(int precision) throws IllegalArgumentException {
+    super();
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException("The precision must be from " + MIN_PRECISION + " to " + MAX_PRECISION + ".");
+    }
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other: The DistinctCounter to copy.
+   */
+  public DistinctCounter(DistinctCounter other) {
+    super();
+    this.precision = other.precision;
+    this.registers = other.registers.clone();
+  }
+
+  /**
+   * Counts one item.
+   *
+   * @param item: The item.
+   */
+  public void add(CharSequence item) {
+    this.addHash(DistinctCounter.hash(item));
+  }
+
+  /**
+   * Counts one item, which has been hashed with hash(CharSequence), or extendHash(long, char) and
+   * joinHashes(long, long, long).
+   *
+   * @param hash: The hash of the item.
+   */
+  public void addHash(long hash) {
+    long mixed = DistinctCounter.mix(hash);
+    int index = (int) (mixed >>> (64 - this.precision));
+    int rank = Math.min(Long.numberOfLeadingZeros(mixed << this.precision), 64 - this.precision) + 1;
+    if (rank > this.registers[index]) {
+      this.registers[index] = (byte) rank;
+    }
+  }
+
+  /**
+   * Adds the items counted by another DistinctCounter, e.g. those of another part of the same text, to those counted by
+   * this one. If the other DistinctCounter has a lower precision, this one is lowered to match.
+   *
+   * @param other: The DistinctCounter whose items will be added. It is left unchanged.
+   */
+  public void merge(DistinctCounter other) {
+    if (other.precision < this.precision) {
+      this.registers = DistinctCounter.fold(this.registers, this.precision, other.precision);
+      this.precision = other.precision;
+    }
+    byte[] registers = (other.precision == this.precision) ? other.registers :
+        DistinctCounter.fold(other.registers, other.precision, this.precision);
+    for (int i = 0; i < this.registers.length; i++) {
+      if (registers[i] > this.registers[i]) {
+        this.registers[i] = registers[i];
+      }
+    }
+  }
+
+  /**
+   * @return the estimated number of distinct items counted.
+   */
+  public long getEstimate() {
+    int m = this.registers.length;
+    double sum = 0.0;
+    int noOfEmpty = 0;
+    for (byte register : this.registers) {
+      sum += Math.scalb(1.0, -register);
+      if (register == 0) {
+        noOfEmpty++;
+      }
+    }
+    double estimate = DistinctCounter.alpha(m) * m * m / sum;
+
+    // While many registers are empty, linear counting is more accurate
+    if (estimate <= 2.5 * m && noOfEmpty > 0) {
+      estimate = m * Math.log((double) m / noOfEmpty);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * @return the number of bits of the hash that choose a register.
+   */
+  public int getPrecision() {
+    return this.precision;
+  }
+
+  /**
+   * @return the relative standard error of the estimate, e.g. 0.0081 for 0.81%.
+   */
+  public double getStandardError() {
+    return 1.04 / Math.sqrt(this.registers.length);
+  }
+
+  /**
+   * Hashes an item.
+   *
+   * @param item: The item.
+   *
+   * @return the hash of the item.
+   */
+  public static long hash(CharSequence item) {
+    long hash = EMPTY_HASH;
+    for (int i = 0; i < item.length(); i++) {
+      hash = DistinctCounter.extendHash(hash, item.charAt(i));
+    }
+    return hash;
+  }
+
+  /**
+   * Works out the hash of an item with one more character on its end.
+   *
+   * @param hash: The hash of the item.
+   * @param c: The character.
+   *
+   * @return the hash of the item followed by the character.
+   */
+  public static long extendHash(long hash, char c) {
+    return hash * MULTIPLIER + c + 1;
+  }
+
+  /**
+   * Works out the hash of two items joined together.
+   *
+   * @param first: The hash of the first item.
+   * @param second: The hash of the second item.
+   * @param secondLength: The number of characters in the second item.
+   *
+   * @return the hash of the first item followed by the second.
+   */
+  public static long joinHashes(long first, long second, long secondLength) {
+    long power = 1L;
+    long base = MULTIPLIER;
+    for (long n = secondLength; n > 0; n >>>= 1) {
+      if ((n & 1) != 0) {
+        power *= base;
+      }
+      base *= base;
+    }
+    return first * power + second;
+  }
+
+  /**
+   * Private helper method for addHash(long) that mixes the bits of a polynomial hash (with the finalisation step of
+   * MurmurHash3), so that every bit of the result depends on every character of the item.
+   */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Private helper method for merge(DistinctCounter) that lowers the precision of some registers. The bits of the hash
+   * that no longer choose a register become the first bits of the rest of the hash, from which the rank is found.
+   *
+   * @param registers: The registers.
+   * @param from: The precision of the registers.
+   * @param to: The lower precision to fold the registers into.
+   *
+   * @return the folded registers.
+   */
+  private static byte[] fold(byte[] registers, int from, int to) {
+    int shift = from - to;
+    byte[] folded = new byte[1 << to];
+    for (int i = 0; i < registers.length; i++) {
+      if (registers[i] == 0) {
+        continue;
+      }
+      int dropped = i & ((1 << shift) - 1);
+      int rank = (dropped != 0) ? Integer.numberOfLeadingZeros(dropped) - (32 - shift) + 1 : shift + registers[i];
+      if (rank > folded[i >>> shift]) {
+        folded[i >>> shift] = (byte) rank;
+      }
+    }
+    return folded;
+  }
+
+  /**
+   * Private helper method for getEstimate() that finds the constant which corrects the bias of the raw estimate.
+   */
+  private static double alpha(int m) {
+    switch (m) {
+      case 16:
+        return 0.673;
+      case 32:
+        return 0.697;
+      case 64:
+        return 0.709;
+      default:
+        return 0.7213 / (1.0 + 1.079 / m);
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * IStatistic.java
+ */
+
+package uk.co.bluettduncanj.model;
+
+import java.io.Serializable;
+
+
+/**
+ * IStatistic is an interface which specifies a contract that all plug-in statistics must obey, so that statistics other
+ * than those built into Statistics can be calculated without another pass over the text file.
+ *
+ * A plug-in statistic is prepared with Statistics.startPlugIn(IStatistic), after which it is passed the same
+ * characters, line terminators, words and sentences as the built-in statistics, in the same loop (see TextScanner and
+ * Statistics.calcStarted(char[], int, List, List)). Parts of a text may be scanned separately and merged afterwards
+ * (see ParallelTextScanner), and words and sentences that span two parts are passed in after the rest, so a plug-in
+ * statistic should not depend on the order in which it is passed things.
+ *
+ * Plug-in statistics can also be found with java.util.ServiceLoader, by listing them in a file called
+ * META-INF/services/uk.co.bluettduncanj.model.IStatistic.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public interface IStatistic extends Serializable {
+
+  /**
+   * @return the name of the statistic, which is unique among the plug-in statistics of a Statistics object and is used
+   * to tell them apart, e.g. when they are merged or when results are cached.
+   */
+  public String getName();
+
+  /**
+   * newInstance() defines the condition that a plug-in statistic must be able to make an empty copy of itself, i.e. one
+   * with the same name and settings that has not been passed anything, e.g. for each part of a text scanned separately.
+   *
+   * @return the empty copy.
+   */
+  public IStatistic newInstance();
+
+  /**
+   * Passes in one character, which is not part of a line terminator.
+   *
+   * @param c: The character.
+   */
+  public void addChar(char c);
+
+  /**
+   * Passes in one line terminator, where the last line of a text counts as one even if it does not end with one.
+   */
+  public void addLineTerminator();
+
+  /**
+   * Passes in one word.
+   *
+   * @param word: The word, which is only valid until this method returns.
+   */
+  public void addWord(CharSequence word);
+
+  /**
+   * Passes in one sentence. Only the length and hash of each sentence are known while a text file is being scanned.
+   *
+   * @param length: The length of the sentence.
+   * @param hash: The hash of the sentence, as worked out by DistinctCounter.hash(CharSequence).
+   */
+  public void addSentence(long length, long hash);
+
+  /**
+   * Adds the results of another instance of the same statistic, e.g. of another part of the same text, to those of this
+   * one.
+   *
+   * @param other: The other instance, with the same name as this one. It is left unchanged.
+   */
+  public void merge(IStatistic other);
+
+  /**
+   * @return the result of the statistic as a human-readable String, e.g. for the output of Statistics.toString().
+   */
+  public String getResult();
+
+}
@@ -4,15 +4,17 @@
 
 package uk.co.bluettduncanj.model;
 
+import java.io.IOException;
+import java.io.Serializable;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Pattern;
 
+import uk.co.bluettduncanj.controller.AhoCorasickStringMatcher;
 import uk.co.bluettduncanj.controller.BoyerMooreStringMatcher;
+import uk.co.bluettduncanj.controller.FMIndex;
 
 
 /**
@@ -20,84 +22,91 @@ import uk.co.bluettduncanj.controller.BoyerMooreStringMatcher;
  * stores the results as statistics for later use.
  * 
  * It contains various methods which calculate different sorts of statistics, depending on the needs of a FileAnalyser object.
- * It also contains a method to return the statistics as a human-readable String [toString()].
+ * It also contains methods to return the statistics as a human-readable String [toString()], or to write them straight
+ * to a Writer [writeTo(Appendable)].
+ * 
+ * Only raw counts and sums are stored (e.g. the total length of all words and the number of words, rather than the
+ * average word length), so that the statistics of separate parts of a text, or of separate texts, can be combined with
+ * merge(Statistics) or combine(Statistics, Statistics). Averages and frequencies are worked out when they are needed.
+ * 
+ * Statistics other than the built-in ones can be plugged in with startPlugIn(IStatistic). Every started accumulator,
+ * built-in or plugged in, is passed each character, word and sentence in the same loop, whether they are passed in one
+ * at a time (e.g. by TextScanner) or stored beforehand (see calcStarted(char[], int, List, List)).
+ * 
+ * Statistics objects are Serializable, so that they can be stored between runs of the program (see ResultCache). Their
+ * raw counts can also be stored in a compact binary form (see StatisticsRecord), which can be added back with
+ * merge(StatisticsRecord) without decoding it first.
  * 
  * @author Jonathan Bluett-Duncan
  */
-public class Statistics {
+public class Statistics implements Serializable {
+  
+  private static final long serialVersionUID = 1L;
   
   /** An easy-to-use constant reference to the operating system's default line terminator string */
   private static final String newline = System.getProperty("line.separator");
   
-  /**
-   * Compiled version of a whitespace regular expression - Makes multiples uses of this regex faster.
-   * 
-   * [\\p{Z}\\s] is a Java regular expression that finds all ASCII and Unicode whitespace characters.
-   *
-   * \s is a standard regex expression for any ASCII whitespace.
-   *
-   * According to page 120 of the source (1) below, \p{Z} is a Unicode property that can be used
-   * by Unicode-compliant regex parsers to catch the 'Separator' quality of Unicode characters that are meant to separate
-   * things but have no visual representation.
-   *
-   * Internet Sources (16/05/2013):
-   * 1) http://books.google.com.au/books?id=ucwR4KIvExMC&pg=PA119&lpg=PA119&dq=regular+expression+unicode+whitespace+%22#v=onepage&q=regular%20expression%20unicode%20whitespace%20%22&f=false
-   * 2) http://stackoverflow.com/questions/1822772/java-regular-expression-to-match-all-whitespace-characters
-   */
-  private static final Pattern whitespaceCompiled = Pattern.compile("[\\p{Z}\\s]");
+  /** The plug-in statistics of a Statistics object that has none */
+  private static final IStatistic[] NO_PLUG_INS = new IStatistic[0];
   
-  /** 
-   * Compiled version of a regular expression - Makes multiple uses of this regex faster.
-   * Represents an English alphanumeric character.
-   */
-  private static final Pattern englishANCompiled = Pattern.compile("[a-zA-Z0-9]");
+  /** Counts of every character in a text file, from which their frequencies (out of 100%) are worked out */
+  private CharHistogram charFreq = null;
   
   /** 
-   * Compiled version of a regular expression - Makes multiple uses of this regex faster.
-   * Represents a non-alphanumeric character (excludes whitespaces).
+   * Number of sentences in text file, from which the average sentence length is worked out.
+   * Note: This and the following count class fields are initialised to -1 to tell Statistics that
+   *       no corresponding calculations have yet happened.
    */
-  private static final Pattern nonANCompiled = Pattern.compile("[`!\"$%^&*()_\\-\\+\\={}\\[\\]\\\\|,.<>/?;:'@#~]");
+  private long noOfSentences;
   
-  /** 
-   * Compiled version of a regular expression - Makes multiple uses of this regex faster.
-   * Represents unicode characters that are not in the printable ASCII range. 
-   * Designed to be used as a test for international characters.
-   */
-  private static final Pattern notASCIIRangeCompiled = Pattern.compile("[^\\u0000-\\u0080]+");
+  /** Total length of all sentences in text file */
+  private long totalSentenceLen;
   
-  /** Map between characters and their frequencies (out of 100%) in a text file */
-  private Map<Character, Double> charFreq = null;
+  /** Number of words in text file, from which the average word length is worked out */
+  private long noOfWords;
   
-  /** 
-   * Average sentence length for text file.
-   * Note: This and the following class fields are initialised to -1 to tell Statistics that
-   *       no corresponding calculations have yet happened.
-   */
-  private double avgSentenceLen;
-  
-  /** Average word length for text file */
-  private double avgWordLen;
+  /** Total length of all words in text file */
+  private long totalWordLen;
   
   /** Number of English alphanumeric characters [a-zA-z0-9] in text file */
-  private int noOfEnglishANs;
+  private long noOfEnglishANs;
   
   /** Number of non-alphanumeric characters. Excludes whitespaces, but includes all other symbols on a QWERTY keyboard */
-  private int noOfNonANs;
+  private long noOfNonANs;
   
   /** Number of whitespaces e.g. spaces, tabs and line terminators. */
-  private int noOfWhitespaces;
+  private long noOfWhitespaces;
   
   /** Number of international characters, including accented Latin characters */
-  private int noOfIntlChars;
+  private long noOfIntlChars;
   
   /** Number of words ending in 'ed', 'ing' and 'ly' */
-  private int noOfSuffixes;
+  private long noOfSuffixes;
   
-  /** Number of times a particular text pattern appears in text file (see calcNoOfTextOCs(char[], char[])) */
-  private int noOfTextOCs;
+  /** 
+   * Number of times each of a set of text patterns appears in text file (see calcNoOfTextOCs(char[], char[][])).
+   * Note: This is null, rather than -1, if no corresponding calculation has yet happened.
+   */
+  private long[] noOfTextOCs;
 
-  /** A global reference to the pattern used by calcNoOfTextOCs(char[], char[]) */
-  private String pattern;
+  /** A global reference to the patterns used by calcNoOfTextOCs(char[], char[][]) */
+  private String[] patterns;
+  
+  /** 
+   * The most frequent words in text file (see TopWords).
+   * Note: This is null if no corresponding calculation has yet happened.
+   */
+  private TopWords topWords;
+  
+  /** 
+   * The estimated numbers of distinct words and of distinct sentences in the text file (see DistinctCounter).
+   * Note: These are null if no corresponding calculation has yet happened.
+   */
+  private DistinctCounter distinctWords;
+  private DistinctCounter distinctSentences;
+  
+  /** The plug-in statistics that have been started, in the order they were started (see IStatistic) */
+  private IStatistic[] plugIns;
 
   /**
    * Default constructor
@@ -107,56 +116,69 @@ public class Statistics {
     this.reset();
   }
   
+  /**
+   * Copy constructor. Creates a snapshot of the statistics held by another Statistics object, which is independent of any
+   * later changes to that object.
+   * 
+   * @param other: The Statistics object to copy.
+   */
+  public Statistics(Statistics other) {
+    this();
+    this.merge(other);
+  }
+  
+  /**
+   * Combines the statistics of two parts of a text (or of two texts) into a new Statistics object, leaving both arguments
+   * unchanged. Combining is associative, i.e. combine(combine(a, b), c) holds the same statistics as 
+   * combine(a, combine(b, c)), so partial statistics can be combined in any grouping, as long as their order is kept.
+   * 
+   * @param first: The statistics of the first part.
+   * @param second: The statistics of the second part.
+   * 
+   * @return a new Statistics object holding the combined statistics.
+   * 
+   * @throws IllegalArgumentException if the two objects counted the occurrences of different text patterns.
+   */
+  public static Statistics combine(Statistics first, Statistics second) throws IllegalArgumentException {
+    Statistics result = new Statistics(first);
+    result.merge(second);
+    return result;
+  }
+  
   /**
    * A method that sets or resets the default state.
    */
   public void reset() {
     this.charFreq = null;
-    this.avgSentenceLen = -1.0;
-    this.avgWordLen = -1.0;
+    this.noOfSentences = -1;
+    this.totalSentenceLen = 0;
+    this.noOfWords = -1;
+    this.totalWordLen = 0;
     this.noOfEnglishANs = -1;
     this.noOfNonANs = -1;
     this.noOfWhitespaces = -1;
     this.noOfIntlChars = -1;
     this.noOfSuffixes = -1;
-    this.noOfTextOCs = -1;
-    this.pattern = null;
+    this.noOfTextOCs = null;
+    this.patterns = null;
+    this.topWords = null;
+    this.distinctWords = null;
+    this.distinctSentences = null;
+    this.plugIns = NO_PLUG_INS;
   }
  
   /**
    * Calculate the frequency of every character in the passed-in character array, out of a 
    * percentage of all characters (out of 100%).
    * 
+   * Only the number of times each character appears is stored. The frequencies themselves are worked out when they are
+   * needed, e.g. by toString().
+   * 
    * @param characters: The list of characters to analyse.
    */
   public void calcCharFreq(char[] characters) {
-    
-    int size = characters.length; // Keep track of size of characters
-    
-    // Use a Map implementation that will keep Character keys in order
-    this.charFreq = new HashMap<Character, Double>(size);
-    
-    // TODO: Consider using a BoyerMooreStringMatcher here...
-    
-    double charCount = 0.0; // Keep track of the number of times a particular character appears in characters
-    for (char c : characters) {
-      
-      // Identify new unique characters
-      if (!this.charFreq.containsKey(c)) {
-        
-        // Find number of times c appears in characters
-        charCount = 0.0;
-        for (char charToCompare : characters)
-          if (c == charToCompare) // Then we have found an occurrence of c in characters; increment a counter
-            charCount++;
-        
-        // Calculate frequency out of 100(%), to 2 decimal places
-        double freq = (charCount / size) * 100.0;
-        
-        // Store character with its frequency as a respective key and value pair in this.charFreq for later use
-        this.charFreq.put(c, freq);
-      }
-    }  
+    this.charFreq = new CharHistogram();
+    this.charFreq.addAll(characters, 0, characters.length);
   }
   
   /**
@@ -165,9 +187,10 @@ public class Statistics {
    * @param sentences: The list of sentences to analyse.
    */
   public void calcAvgSentenceLen(List<String> sentences) {
-    double total = 0.0;
+    long total = 0;
     for (String sentence : sentences) total += sentence.length();
-    this.avgSentenceLen = total / sentences.size();
+    this.totalSentenceLen = total;
+    this.noOfSentences = sentences.size();
   }
   
   /**
@@ -176,9 +199,10 @@ public class Statistics {
    * @param words: The list of words to analyse.
    */
   public void calcAvgWordLen(List<String> words) {
-    double total = 0.0;
+    long total = 0;
     for (String word : words) total += word.length();
-    this.avgWordLen = total / words.size();
+    this.totalWordLen = total;
+    this.noOfWords = words.size();
   }
   
   /**
@@ -189,7 +213,7 @@ public class Statistics {
    * @param characters: The group of characters to analyse.
    */
   public void calcNoOfEnglishANs(char[] characters) {
-    int count = 0;
+    long count = 0;
     for (char c : characters) if (this.isEnglishAN(c)) count++;
     this.noOfEnglishANs = count;
   }
@@ -203,7 +227,7 @@ public class Statistics {
    * @return true if c is an English alphanumeric character, otherwise false.
    */
   private boolean isEnglishAN(char c) {
-    return englishANCompiled.matcher(Character.toString(c)).matches();
+    return CharClasses.isEnglishAN(c);
   }
   
   /**
@@ -215,7 +239,7 @@ public class Statistics {
    * @param characters: The group of characters to analyse.
    */
   public void calcNoOfNonANs(char[] characters) {
-    int count = 0;
+    long count = 0;
     for (char c : characters) if (this.isNonAN(c)) count++;
     this.noOfNonANs = count;
   }
@@ -230,7 +254,7 @@ public class Statistics {
    * @return true if c is a non-alphanumeric character, otherwise false.
    */
   private boolean isNonAN(char c) {
-    return nonANCompiled.matcher(Character.toString(c)).matches();
+    return CharClasses.isNonAN(c);
   }
 
   /**
@@ -243,7 +267,7 @@ public class Statistics {
    * @param noOfLineTerminators: A number of line terminators that will be added to the number of whitespaces.
    */
   public void calcNoOfWhitespaces(char[] characters, int noOfLineTerminators) {
-    int count = noOfLineTerminators;
+    long count = noOfLineTerminators;
     for (char c : characters) if (Statistics.isWhitespace(c)) count++;
     this.noOfWhitespaces = count;
   }
@@ -257,7 +281,7 @@ public class Statistics {
    * @return true if c is whitespace, otherwise false.
    */
   public static boolean isWhitespace(char c) {
-    return whitespaceCompiled.matcher(Character.toString(c)).matches();
+    return CharClasses.isWhitespace(c);
   }
 
   /**
@@ -269,7 +293,7 @@ public class Statistics {
    * @param characters: The group of characters to analyse.
    */
   public void calcNoOfIntlChars(char[] characters) {
-    int count = 0;
+    long count = 0;
     for (char c : characters) if (this.isIntl(c)) count++;
     this.noOfIntlChars = count;
   }
@@ -283,7 +307,7 @@ public class Statistics {
    * @return true if c is an international or accented character, otherwise false.
    */
   private boolean isIntl(char c) {
-    return notASCIIRangeCompiled.matcher(Character.toString(c)).matches();
+    return CharClasses.isIntl(c);
   }
   
   /**
@@ -292,12 +316,433 @@ public class Statistics {
    * @param words: The list of words to analyse.
    */
   public void calcNoOfSuffixes(List<String> words) {
-    int count = 0;
+    long count = 0;
     for (String w : words)
       if (w.endsWith("ed") || w.endsWith("ing") || w.endsWith("ly"))
         count++;
     this.noOfSuffixes = count;
   }
+  
+  /**
+   * Find the most frequent words in the passed-in word list (see TopWords).
+   * 
+   * @param words: The list of words to analyse.
+   * @param noOfWords: The number of most frequent words to find.
+   * @param capacity: The number of words to count at once, or TopWords.EXACT to count every distinct word exactly.
+   */
+  public void calcTopWords(List<String> words, int noOfWords, int capacity) {
+    this.topWords = new TopWords(noOfWords, capacity);
+    for (String word : words) this.topWords.add(word);
+  }
+  
+  /**
+   * Estimate the numbers of distinct words and of distinct sentences in the passed-in lists (see DistinctCounter). Words
+   * are compared without regard to case, and sentences exactly.
+   * 
+   * @param words: The list of words to analyse.
+   * @param sentences: The list of sentences to analyse.
+   * @param precision: The precision of the estimates, from DistinctCounter.MIN_PRECISION to 
+   *                   DistinctCounter.MAX_PRECISION.
+   */
+  public void calcDistinctCounts(List<String> words, List<String> sentences, int precision) {
+    this.startDistinctCounts(precision);
+    for (String w : words) this.distinctWords.addHash(Statistics.wordHash(w));
+    for (String s : sentences) this.distinctSentences.add(s);
+  }
+  
+  /**
+   * Calculate every statistic whose accumulators have been prepared with startAvgLens(), startFrequencies(), 
+   * startTopWords(int, int), startDistinctCounts(int) and startPlugIn(IStatistic), from stored characters, words and
+   * sentences. Each of them is looped over only once, however many statistics are calculated from it, as an alternative
+   * to calling calcCharFreq(char[]), calcNoOfEnglishANs(char[]), calcNoOfNonANs(char[]) and so on one after another.
+   * 
+   * @param characters: The characters to analyse, excluding line terminators, or null if none are needed.
+   * @param noOfLineTerminators: The number of line terminators.
+   * @param words: The list of words to analyse, or null if none are needed.
+   * @param sentences: The list of sentences to analyse, or null if none are needed.
+   */
+  public void calcStarted(char[] characters, int noOfLineTerminators, List<String> words, List<String> sentences) {
+    if (characters != null && (this.charFreq != null || this.plugIns.length > 0)) {
+      for (char c : characters) this.addChar(c);
+    }
+    for (int i = 0; i < noOfLineTerminators; i++) this.addLineTerminator();
+    if (words != null) {
+      for (String w : words) this.addWord(w, w.endsWith("ed") || w.endsWith("ing") || w.endsWith("ly"));
+    }
+    if (sentences != null) {
+      for (String s : sentences) this.addSentence(s.length(), DistinctCounter.hash(s));
+    }
+  }
+
+  /**
+   * Prepares the running accumulators for the 'Average Lengths' statistics, so that sentences and words can be passed in
+   * one at a time through addSentence(long) and addWord(long, boolean), as an alternative to calcAvgSentenceLen(List) and 
+   * calcAvgWordLen(List).
+   */
+  public void startAvgLens() {
+    this.noOfSentences = 0;
+    this.totalSentenceLen = 0;
+    this.noOfWords = 0;
+    this.totalWordLen = 0;
+  }
+  
+  /**
+   * Prepares the running accumulators for the 'Frequencies' statistics, so that characters, line terminators and words can
+   * be passed in one at a time through addChar(char), addLineTerminator() and addWord(long, boolean), as an alternative to
+   * calcCharFreq(char[]), calcNoOfEnglishANs(char[]), calcNoOfNonANs(char[]), calcNoOfWhitespaces(char[], int), 
+   * calcNoOfIntlChars(char[]) and calcNoOfSuffixes(List).
+   */
+  public void startFrequencies() {
+    this.charFreq = new CharHistogram();
+    this.noOfEnglishANs = 0;
+    this.noOfNonANs = 0;
+    this.noOfWhitespaces = 0;
+    this.noOfIntlChars = 0;
+    this.noOfSuffixes = 0;
+  }
+  
+  /**
+   * Prepares the running counter of the most frequent words, so that words can be passed in one at a time through 
+   * addWord(CharSequence, boolean), as an alternative to calcTopWords(List, int, int).
+   * 
+   * @param noOfWords: The number of most frequent words to find.
+   * @param capacity: The number of words to count at once, or TopWords.EXACT to count every distinct word exactly.
+   */
+  public void startTopWords(int noOfWords, int capacity) {
+    this.topWords = new TopWords(noOfWords, capacity);
+  }
+  
+  /**
+   * Prepares the running counters of distinct words and sentences, so that words and sentences can be passed in one at
+   * a time through addWord(CharSequence, boolean) and addSentence(long, long), as an alternative to 
+   * calcDistinctCounts(List, List, int).
+   * 
+   * @param precision: The precision of the estimates, from DistinctCounter.MIN_PRECISION to 
+   *                   DistinctCounter.MAX_PRECISION.
+   */
+  public void startDistinctCounts(int precision) {
+    this.distinctWords = new DistinctCounter(precision);
+    this.distinctSentences = new DistinctCounter(precision);
+  }
+  
+  /**
+   * Prepares a plug-in statistic, so that characters, line terminators, words and sentences are passed to it along with 
+   * the built-in accumulators (see IStatistic).
+   * 
+   * @param statistic: The plug-in statistic, which should not have been passed anything yet.
+   * 
+   * @throws NullPointerException if statistic is null.
+   * @throws IllegalArgumentException if a plug-in statistic with the same name has already been started.
+   */
+  public void startPlugIn(IStatistic statistic) throws NullPointerException, IllegalArgumentException {
+    if (statistic == null) {
+      throw new NullPointerException("The plug-in statistic cannot be null.");
+    }
+    if (this.findPlugIn(statistic.getName()) != null) {
+      throw new IllegalArgumentException("A plug-in statistic called " + statistic.getName() + " has already been " +
+          "started.");
+    }
+    this.plugIns = Arrays.copyOf(this.plugIns, this.plugIns.length + 1);
+    this.plugIns[this.plugIns.length - 1] = statistic;
+  }
+  
+  /**
+   * Private helper method that finds a started plug-in statistic by its name.
+   * 
+   * @param name: The name of the plug-in statistic.
+   * 
+   * @return the plug-in statistic, or null if none with the given name has been started.
+   */
+  private IStatistic findPlugIn(String name) {
+    for (IStatistic plugIn : this.plugIns) {
+      if (plugIn.getName().equals(name)) {
+        return plugIn;
+      }
+    }
+    return null;
+  }
+  
+  /**
+   * Adds one sentence to the 'Average Lengths' accumulators, if they have been prepared with startAvgLens().
+   * 
+   * @param length: The length of the sentence.
+   */
+  public void addSentence(long length) {
+    if (this.noOfSentences != -1) {
+      this.noOfSentences++;
+      this.totalSentenceLen += length;
+    }
+  }
+  
+  /**
+   * Adds one sentence to the 'Average Lengths' accumulators and the counter of distinct sentences, if they have been
+   * prepared with startAvgLens() and startDistinctCounts(int) respectively, and to every plug-in statistic.
+   * 
+   * @param length: The length of the sentence.
+   * @param hash: The hash of the sentence, as worked out by DistinctCounter.hash(CharSequence).
+   */
+  public void addSentence(long length, long hash) {
+    this.addSentence(length);
+    if (this.distinctSentences != null) {
+      this.distinctSentences.addHash(hash);
+    }
+    for (IStatistic plugIn : this.plugIns) {
+      plugIn.addSentence(length, hash);
+    }
+  }
+  
+  /**
+   * Adds one word to the 'Average Lengths' accumulators and the suffix accumulator, if they have been prepared with
+   * startAvgLens() and startFrequencies() respectively.
+   * 
+   * @param length: The length of the word.
+   * @param hasSuffix: Whether the word ends with one of the suffixes 'ed', 'ing' and 'ly'.
+   */
+  public void addWord(long length, boolean hasSuffix) {
+    if (this.noOfWords != -1) {
+      this.noOfWords++;
+      this.totalWordLen += length;
+    }
+    if (hasSuffix && this.noOfSuffixes != -1) {
+      this.noOfSuffixes++;
+    }
+  }
+  
+  /**
+   * Adds one word to the 'Average Lengths' accumulators, the suffix accumulator, the counter of the most frequent words
+   * and the counter of distinct words, if they have been prepared with startAvgLens(), startFrequencies(), 
+   * startTopWords(int, int) and startDistinctCounts(int) respectively, and to every plug-in statistic.
+   * 
+   * @param word: The word.
+   * @param hasSuffix: Whether the word ends with one of the suffixes 'ed', 'ing' and 'ly'.
+   */
+  public void addWord(CharSequence word, boolean hasSuffix) {
+    this.addWord(word.length(), hasSuffix);
+    if (this.topWords != null) {
+      this.topWords.add(word);
+    }
+    if (this.distinctWords != null) {
+      this.distinctWords.addHash(Statistics.wordHash(word));
+    }
+    for (IStatistic plugIn : this.plugIns) {
+      plugIn.addWord(word);
+    }
+  }
+  
+  /**
+   * @return true if the counter of the most frequent words, the counter of distinct words or any plug-in statistic has
+   * been prepared, in which case words should be passed in through addWord(CharSequence, boolean) rather than 
+   * addWord(long, boolean).
+   */
+  public boolean needsWordText() {
+    return this.topWords != null || this.distinctWords != null || this.plugIns.length > 0;
+  }
+  
+  /**
+   * Private helper method that hashes a word for the counter of distinct words, converting each of its characters to
+   * lower case so that words are compared without regard to case.
+   * 
+   * @param word: The word.
+   * 
+   * @return the hash of the word in lower case.
+   */
+  private static long wordHash(CharSequence word) {
+    long hash = DistinctCounter.EMPTY_HASH;
+    for (int i = 0; i < word.length(); i++) {
+      hash = DistinctCounter.extendHash(hash, Character.toLowerCase(word.charAt(i)));
+    }
+    return hash;
+  }
+  
+  /**
+   * Adds one character (which is not part of a line terminator) to the 'Frequencies' accumulators, if they have been
+   * prepared with startFrequencies(), and to every plug-in statistic.
+   * 
+   * @param c: The character to add.
+   */
+  public void addChar(char c) {
+    if (this.charFreq != null) {
+      this.charFreq.add(c);
+      int classes = CharClasses.of(c);
+      if ((classes & CharClasses.ENGLISH_AN) != 0) this.noOfEnglishANs++;
+      if ((classes & CharClasses.NON_AN) != 0)     this.noOfNonANs++;
+      if ((classes & CharClasses.WHITESPACE) != 0) this.noOfWhitespaces++;
+      if ((classes & CharClasses.INTL) != 0)       this.noOfIntlChars++;
+    }
+    for (IStatistic plugIn : this.plugIns) {
+      plugIn.addChar(c);
+    }
+  }
+  
+  /**
+   * Adds one line terminator to the number of whitespaces, if the 'Frequencies' accumulators have been prepared with
+   * startFrequencies(), and to every plug-in statistic.
+   */
+  public void addLineTerminator() {
+    if (this.noOfWhitespaces != -1) {
+      this.noOfWhitespaces++;
+    }
+    for (IStatistic plugIn : this.plugIns) {
+      plugIn.addLineTerminator();
+    }
+  }
+
+  /**
+   * Prepares the running accumulators for the 'Text Occurrences' statistic, so that the number of times each of a set of
+   * patterns appears in a text can be passed in a part at a time through addTextOCs(long[]), as an alternative to 
+   * calcNoOfTextOCs(char[], char[][]).
+   * 
+   * @param patterns: The groups of character text that are being searched for.
+   */
+  public void startTextOCs(char[][] patterns) {
+    this.patterns = Statistics.toStrings(patterns);
+    this.noOfTextOCs = new long[patterns.length];
+  }
+  
+  /**
+   * Adds a number of occurrences of each pattern to the 'Text Occurrences' accumulators, if they have been prepared with
+   * startTextOCs(char[][]).
+   * 
+   * @param counts: The number of occurrences of each pattern to add, in the same order as the patterns.
+   */
+  public void addTextOCs(long[] counts) {
+    if (this.noOfTextOCs != null) {
+      for (int i = 0; i < this.noOfTextOCs.length; i++) {
+        this.noOfTextOCs[i] += counts[i];
+      }
+    }
+  }
+  
+  /**
+   * Adds the statistics held by another Statistics object, e.g. the statistics of another part of the same text, to those
+   * held by this one. Statistics that have only been calculated by one of the two objects are taken as they are.
+   * 
+   * Words and sentences that span the two parts of the text are not known to either object, so they need to be passed in
+   * separately through addWord(long, boolean) and addSentence(long).
+   * 
+   * @param other: The Statistics object whose statistics will be added. It is left unchanged.
+   * 
+   * @throws IllegalArgumentException if the two objects counted the occurrences of different text patterns.
+   */
+  public void merge(Statistics other) throws IllegalArgumentException {
+    if (this.patterns != null && other.patterns != null && !Arrays.equals(this.patterns, other.patterns)) {
+      throw new IllegalArgumentException("Occurrences of different text patterns cannot be merged.");
+    }
+    if (other.charFreq != null) {
+      if (this.charFreq == null) {
+        this.charFreq = new CharHistogram();
+      }
+      this.charFreq.merge(other.charFreq);
+    }
+    if (other.noOfSentences != -1) {
+      this.totalSentenceLen += other.totalSentenceLen;
+    }
+    if (other.noOfWords != -1) {
+      this.totalWordLen += other.totalWordLen;
+    }
+    this.noOfSentences = Statistics.mergeCounts(this.noOfSentences, other.noOfSentences);
+    this.noOfWords = Statistics.mergeCounts(this.noOfWords, other.noOfWords);
+    this.noOfEnglishANs = Statistics.mergeCounts(this.noOfEnglishANs, other.noOfEnglishANs);
+    this.noOfNonANs = Statistics.mergeCounts(this.noOfNonANs, other.noOfNonANs);
+    this.noOfWhitespaces = Statistics.mergeCounts(this.noOfWhitespaces, other.noOfWhitespaces);
+    this.noOfIntlChars = Statistics.mergeCounts(this.noOfIntlChars, other.noOfIntlChars);
+    this.noOfSuffixes = Statistics.mergeCounts(this.noOfSuffixes, other.noOfSuffixes);
+    if (other.topWords != null) {
+      if (this.topWords == null) {
+        this.topWords = new TopWords(other.topWords);
+      }
+      else {
+        this.topWords.merge(other.topWords);
+      }
+    }
+    if (other.distinctWords != null) {
+      if (this.distinctWords == null) {
+        this.distinctWords = new DistinctCounter(other.distinctWords);
+        this.distinctSentences = new DistinctCounter(other.distinctSentences);
+      }
+      else {
+        this.distinctWords.merge(other.distinctWords);
+        this.distinctSentences.merge(other.distinctSentences);
+      }
+    }
+    if (other.noOfTextOCs != null) {
+      if (this.noOfTextOCs == null) {
+        this.patterns = other.patterns;
+        this.noOfTextOCs = new long[other.noOfTextOCs.length];
+      }
+      this.addTextOCs(other.noOfTextOCs);
+    }
+    for (IStatistic otherPlugIn : other.plugIns) {
+      IStatistic plugIn = this.findPlugIn(otherPlugIn.getName());
+      if (plugIn == null) {
+        plugIn = otherPlugIn.newInstance();
+        this.startPlugIn(plugIn);
+      }
+      plugIn.merge(otherPlugIn);
+    }
+  }
+  
+  /**
+   * Adds the raw counts held by a binary statistics record (see StatisticsRecord) to those held by this object, in the
+   * same way as merge(Statistics), reading them straight from the record rather than decoding it first. The record holds 
+   * no most frequent words, distinct counts or plug-in statistics, so those of this object are left as they are.
+   * 
+   * @param record: The record whose counts will be added.
+   * 
+   * @throws IllegalArgumentException if this object and the record counted the occurrences of different text patterns.
+   */
+  public void merge(StatisticsRecord record) throws IllegalArgumentException {
+    int noOfPatterns = record.getNoOfPatterns();
+    if (this.patterns != null && noOfPatterns != -1 && !record.hasPatterns(this.patterns)) {
+      throw new IllegalArgumentException("Occurrences of different text patterns cannot be merged.");
+    }
+    int noOfChars = record.getNoOfDistinctChars();
+    if (noOfChars != -1) {
+      if (this.charFreq == null) {
+        this.charFreq = new CharHistogram();
+      }
+      for (int i = 0; i < noOfChars; i++) {
+        this.charFreq.addCodePoint(record.getCodePoint(i), record.getCharCount(i));
+      }
+    }
+    if (record.getNoOfSentences() != -1) {
+      this.totalSentenceLen += record.getTotalSentenceLen();
+    }
+    if (record.getNoOfWords() != -1) {
+      this.totalWordLen += record.getTotalWordLen();
+    }
+    this.noOfSentences = Statistics.mergeCounts(this.noOfSentences, record.getNoOfSentences());
+    this.noOfWords = Statistics.mergeCounts(this.noOfWords, record.getNoOfWords());
+    this.noOfEnglishANs = Statistics.mergeCounts(this.noOfEnglishANs, record.getNoOfEnglishANs());
+    this.noOfNonANs = Statistics.mergeCounts(this.noOfNonANs, record.getNoOfNonANs());
+    this.noOfWhitespaces = Statistics.mergeCounts(this.noOfWhitespaces, record.getNoOfWhitespaces());
+    this.noOfIntlChars = Statistics.mergeCounts(this.noOfIntlChars, record.getNoOfIntlChars());
+    this.noOfSuffixes = Statistics.mergeCounts(this.noOfSuffixes, record.getNoOfSuffixes());
+    if (noOfPatterns != -1) {
+      if (this.noOfTextOCs == null) {
+        this.patterns = record.getPatterns();
+        this.noOfTextOCs = new long[noOfPatterns];
+      }
+      for (int i = 0; i < noOfPatterns; i++) {
+        this.noOfTextOCs[i] += record.getNoOfTextOCs(i);
+      }
+    }
+  }
+  
+  /**
+   * Private helper method for merge(Statistics) that adds two counts together, where a count of -1 means that it has not
+   * been calculated.
+   * 
+   * @param a: The first count.
+   * @param b: The second count.
+   * 
+   * @return the sum of the counts that have been calculated, or -1 if neither has.
+   */
+  private static long mergeCounts(long a, long b) {
+    if (a == -1) return b;
+    if (b == -1) return a;
+    return a + b;
+  }
 
   /**
    * Calculate the number of times that a char[] pattern appears in a char[] body of text.
@@ -311,59 +756,290 @@ public class Statistics {
    * @param pattern: The group of character text to find in the body.
    */
   public void calcNoOfTextOCs(char[] body, char[] pattern) {
+    this.calcNoOfTextOCs(body, new char[][] { pattern });
+  }
+  
+  /**
+   * Calculate the number of times that each of a set of char[] patterns appears in a char[] body of text.
+   * 
+   * A single pattern is searched for with Boyer-Moore's string-search algorithm. A set of patterns is searched for all
+   * at once with the Aho-Corasick string-search algorithm, which only needs one pass over the body however many patterns
+   * there are.
+   * 
+   * @param body: The group of character text to search through.
+   * @param patterns: The groups of character text to find in the body.
+   */
+  public void calcNoOfTextOCs(char[] body, char[][] patterns) {
     
-    // Store the pattern as a class field for later referral by toString()
-    StringBuilder s = new StringBuilder(pattern.length);
-    for (Character c : pattern) s.append(c);
-    this.pattern = s.toString();
+    // Store the patterns as a class field for later referral by toString()
+    this.patterns = Statistics.toStrings(patterns);
 
-    // Search for the number of matches of the pattern against the body
-    BoyerMooreStringMatcher bm = new BoyerMooreStringMatcher(pattern, 256);
-    this.noOfTextOCs = bm.search(body);
+    // Search for the number of matches of the patterns against the body
+    if (patterns.length == 1) {
+      BoyerMooreStringMatcher bm = new BoyerMooreStringMatcher(patterns[0]);
+      this.noOfTextOCs = new long[] { bm.search(body) };
+    }
+    else {
+      AhoCorasickStringMatcher ac = new AhoCorasickStringMatcher(patterns);
+      this.noOfTextOCs = ac.search(body);
+    }
+  }
+  
+  /**
+   * Calculate the number of times that each of a set of char[] patterns appears in a body of text that has been indexed
+   * with an FMIndex. Each pattern is counted in time proportional to its length, however long the body is, so this is
+   * much faster than calcNoOfTextOCs(char[], char[][]) when the same body is searched many times.
+   * 
+   * @param index: The index of the body of text to search through.
+   * @param patterns: The groups of character text to find in the body.
+   */
+  public void calcNoOfTextOCs(FMIndex index, char[][] patterns) {
+    this.patterns = Statistics.toStrings(patterns);
+    this.noOfTextOCs = index.count(patterns);
+  }
+  
+  /**
+   * Private helper method that converts char[] patterns into Strings.
+   * 
+   * @param patterns: The patterns to convert.
+   * 
+   * @return the patterns as Strings.
+   */
+  private static String[] toStrings(char[][] patterns) {
+    String[] result = new String[patterns.length];
+    for (int i = 0; i < patterns.length; i++) result[i] = new String(patterns[i]);
+    return result;
+  }
+
+  /**
+   * @return the average sentence length, or -1 if it has not been calculated.
+   */
+  public double getAvgSentenceLen() {
+    return (this.noOfSentences == -1) ? -1.0 : (double) this.totalSentenceLen / this.noOfSentences;
+  }
+  
+  /**
+   * @return the average word length, or -1 if it has not been calculated.
+   */
+  public double getAvgWordLen() {
+    return (this.noOfWords == -1) ? -1.0 : (double) this.totalWordLen / this.noOfWords;
+  }
+  
+  /**
+   * @return the number of times each character appears, as calculated by calcCharFreq(char[]), or null if it has not been
+   * calculated.
+   */
+  public CharHistogram getCharFreq() {
+    return this.charFreq;
+  }
+  
+  /**
+   * @return the number of sentences, or -1 if it has not been calculated.
+   */
+  public long getNoOfSentences() {
+    return this.noOfSentences;
+  }
+  
+  /**
+   * @return the total length of all sentences, or 0 if it has not been calculated.
+   */
+  public long getTotalSentenceLen() {
+    return this.totalSentenceLen;
+  }
+  
+  /**
+   * @return the number of words, or -1 if it has not been calculated.
+   */
+  public long getNoOfWords() {
+    return this.noOfWords;
+  }
+  
+  /**
+   * @return the total length of all words, or 0 if it has not been calculated.
+   */
+  public long getTotalWordLen() {
+    return this.totalWordLen;
+  }
+  
+  /**
+   * @return the number of English alphanumeric characters, or -1 if it has not been calculated.
+   */
+  public long getNoOfEnglishANs() {
+    return this.noOfEnglishANs;
+  }
+  
+  /**
+   * @return the number of non-alphanumeric characters, or -1 if it has not been calculated.
+   */
+  public long getNoOfNonANs() {
+    return this.noOfNonANs;
+  }
+  
+  /**
+   * @return the number of whitespaces (including line terminators), or -1 if it has not been calculated.
+   */
+  public long getNoOfWhitespaces() {
+    return this.noOfWhitespaces;
+  }
+  
+  /**
+   * @return the number of international characters, or -1 if it has not been calculated.
+   */
+  public long getNoOfIntlChars() {
+    return this.noOfIntlChars;
+  }
+  
+  /**
+   * @return the number of words ending in 'ed', 'ing' and 'ly', or -1 if it has not been calculated.
+   */
+  public long getNoOfSuffixes() {
+    return this.noOfSuffixes;
+  }
+  
+  /**
+   * @return the total number of times the text patterns appear, or -1 if it has not been calculated.
+   */
+  public long getNoOfTextOCs() {
+    if (this.noOfTextOCs == null) {
+      return -1;
+    }
+    long total = 0;
+    for (long count : this.noOfTextOCs) total += count;
+    return total;
+  }
+  
+  /**
+   * @param index: The index of the text pattern, in the order the patterns were given in.
+   * 
+   * @return the number of times the text pattern appears, or -1 if it has not been calculated.
+   */
+  public long getNoOfTextOCs(int index) {
+    return (this.noOfTextOCs == null) ? -1 : this.noOfTextOCs[index];
+  }
+  
+  /**
+   * @return the text patterns whose occurrences were counted, or null if they have not been.
+   */
+  public String[] getPatterns() {
+    return (this.patterns == null) ? null : this.patterns.clone();
+  }
+  
+  /**
+   * @return a copy of the counter of the most frequent words, or null if they have not been calculated.
+   */
+  public TopWords getTopWords() {
+    return (this.topWords == null) ? null : new TopWords(this.topWords);
+  }
+  
+  /**
+   * @return the estimated number of distinct words, compared without regard to case, or -1 if it has not been calculated.
+   */
+  public long getNoOfDistinctWords() {
+    return (this.distinctWords == null) ? -1 : this.distinctWords.getEstimate();
+  }
+  
+  /**
+   * @return the estimated number of distinct sentences, or -1 if it has not been calculated.
+   */
+  public long getNoOfDistinctSentences() {
+    return (this.distinctSentences == null) ? -1 : this.distinctSentences.getEstimate();
+  }
+  
+  /**
+   * @return the names of the plug-in statistics that have been started, in the order they were started.
+   */
+  public String[] getPlugInNames() {
+    String[] names = new String[this.plugIns.length];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = this.plugIns[i].getName();
+    }
+    return names;
+  }
+  
+  /**
+   * @param name: The name of a plug-in statistic.
+   * 
+   * @return a copy of the plug-in statistic with the given name, or null if none has been started.
+   */
+  public IStatistic getPlugIn(String name) {
+    IStatistic plugIn = this.findPlugIn(name);
+    if (plugIn == null) {
+      return null;
+    }
+    IStatistic copy = plugIn.newInstance();
+    copy.merge(plugIn);
+    return copy;
   }
 
   /**
    * This overridden implementation of toString() returns the state of this Statistics object as a human-readable
    * String.
    * 
-   * @return a human-readable representation of the statistics, or null if no statistics have yet been calculated.
+   * @return a human-readable representation of the statistics, or an empty String if no statistics have yet been 
+   * calculated.
    *
    * @see java.lang.Object#toString()
    */
   @Override
   public String toString() {
-    String output = "";
+    StringBuilder output = new StringBuilder();
+    try {
+      this.writeTo(output);
+    }
+    catch (IOException e) {
+      
+      // A StringBuilder never throws an IOException
+      throw new AssertionError(e);
+    }
+    return output.toString();
+  }
+  
+  /**
+   * Writes the state of this Statistics object in the same human-readable form as toString(), straight to a Writer or 
+   * any other Appendable, a line or less at a time. This takes time in proportion to the length of the output, and no 
+   * more memory than is needed for the longest line, whatever the number of different characters in the text file.
+   * 
+   * Nothing is written if no statistics have yet been calculated.
+   * 
+   * @param out: The Appendable to write to. It is neither flushed nor closed.
+   * 
+   * @throws IOException if out cannot be written to.
+   */
+  public void writeTo(Appendable out) throws IOException {
     
-    // Only return a non-null String if any analysis has actually happened, i.e. if any of the corresponding results
+    // Only write anything if any analysis has actually happened, i.e. if any of the corresponding results
     // class fields no longer contain their default values.
-    if (this.charFreq != null || this.avgSentenceLen != -1.0 || this.avgWordLen != -1.0 || 
+    if (this.charFreq != null || this.noOfSentences != -1 || this.noOfWords != -1 || 
         this.noOfEnglishANs != -1 || this.noOfNonANs != -1 || this.noOfWhitespaces != -1 ||
-        this.noOfIntlChars != -1 || this.noOfSuffixes != -1 || this.noOfTextOCs != -1) {
+        this.noOfIntlChars != -1 || this.noOfSuffixes != -1 || this.noOfTextOCs != null || this.topWords != null ||
+        this.distinctWords != null || this.plugIns.length > 0) {
       
       // Firstly, output the date and time at the time this method was invoked
-      output += this.dateTimeToString();
+      this.writeDateTime(out);
        
-      // A section of the output String will contain stats about Average Lengths... 
-      output += this.avgLensToString();
+      // A section of the output will contain stats about Average Lengths... 
+      this.writeAvgLens(out);
 
-      // Another section of the output String will contain stats about Frequencies....
-      output += this.frequenciesToString();
+      // Another section of the output will contain stats about Frequencies....
+      this.writeFrequencies(out);
       
-      // Yet another section of the output String will contain a statistic about the number of times
+      // Yet another section of the output will contain a statistic about the number of times
       // a user-defined pattern string appears in the text file (where this stat is called Text Occurrences)...
-      output += this.textOCsToString();
+      this.writeTextOCs(out);
+      
+      // And the last section will contain the results of any plug-in statistics
+      this.writePlugIns(out);
     }
-    
-    return output;
   }
   
   /**
-   * A private helper method for toString().
+   * A private helper method for writeTo(Appendable) that writes the current date and time.
+   * 
+   * @param out: The Appendable to write to.
    * 
-   * @return a sub-string containing the current date and time.
+   * @throws IOException if out cannot be written to.
    */
-  private String dateTimeToString() {
-    String output = "";
+  private void writeDateTime(Appendable out) throws IOException {
     Date now = Calendar.getInstance().getTime();
     SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/YYYY");
     String time = dateFormat.format(now);
@@ -372,138 +1048,198 @@ public class Statistics {
     SimpleDateFormat timeZoneFormat = new SimpleDateFormat("z");
     String timeZone = timeZoneFormat.format(now);
     
-    output += 
-        time + ", " +
-        date + " " +
-        timeZone + newline;
-    return output;
+    out.append(time).append(", ").append(date).append(' ').append(timeZone).append(newline);
   }
   
   /**
-   * A private helper method for toString().
+   * A private helper method for writeTo(Appendable) that writes a human-readable form of the 'Average Lengths' 
+   * statistics.
+   * 
+   * @param out: The Appendable to write to.
    * 
-   * @return a sub-string containing a human-readable form of the 'Average Lengths' statistics.
+   * @throws IOException if out cannot be written to.
    */
-  private String avgLensToString() {
-    String output = "";
+  private void writeAvgLens(Appendable out) throws IOException {
     
     // Execute this method only if any of the related calculation methods were called e.g. calcAvgSentenceLen(List<String>).
-    if (this.avgSentenceLen != -1 || this.avgWordLen != -1) {
+    if (this.noOfSentences != -1 || this.noOfWords != -1) {
       
       // Add the category of stats to do with Average Lengths.
-      output += newline + "=== Average Lengths ===" + newline;
-      if (this.isAnalysed(this.avgSentenceLen)) {
+      out.append(newline).append("=== Average Lengths ===").append(newline);
+      if (this.isAnalysed(this.noOfSentences)) {
         
-        // Add the result from calcAvgSentenceLen(...) to the output string in a readable form
-        output += "Average sentence length: " + this.to2DecimalPlaces(this.avgSentenceLen) + newline;
+        // Add the result from calcAvgSentenceLen(...) in a readable form
+        out.append("Average sentence length: ").append(this.to2DecimalPlaces(this.getAvgSentenceLen())).append(newline);
       }
-      if (this.isAnalysed(this.avgWordLen)) {
+      if (this.isAnalysed(this.noOfWords)) {
         
-        // Add the result from calcAvgWordLen(...) to the output string in a readable form
-        output += "Average word length: " + this.to2DecimalPlaces(this.avgWordLen) + newline;
+        // Add the result from calcAvgWordLen(...) in a readable form
+        out.append("Average word length: ").append(this.to2DecimalPlaces(this.getAvgWordLen())).append(newline);
       }
     }
-    return output;
   }
   
   /**
-   * A private helper method for toString(). 
+   * A private helper method for writeTo(Appendable) that writes a human-readable form of the 'Frequencies' statistics.
    * 
-   * @return a sub-string containing a human-readable form of the 'Frequencies' statistics.
+   * @param out: The Appendable to write to.
+   * 
+   * @throws IOException if out cannot be written to.
    */
-  private String frequenciesToString() {
+  private void writeFrequencies(Appendable out) throws IOException {
     
     // Execute this method only if any of the related calculation methods were called e.g. calcCharFreq(char[]) or 
     // calcNoOfIntlChars(char[]).
-    String output = "";
     if (this.charFreq != null || this.noOfEnglishANs != -1 || this.noOfNonANs != -1 || this.noOfIntlChars != -1 ||
-        this.noOfWhitespaces != -1 || this.noOfSuffixes != -1) {
+        this.noOfWhitespaces != -1 || this.noOfSuffixes != -1 || this.topWords != null || this.distinctWords != null) {
       
       // Add the category of stats to do with frequencies.
-      output += newline + "=== Frequencies ===" + newline;
+      out.append(newline).append("=== Frequencies ===").append(newline);
       if (this.charFreq != null) {
         
-        // Add the results from calcCharFreq(...) to the output string in a readable form
-        output += "--- Character frequencies (out of 100%) ---" + newline;
+        // Add the results from calcCharFreq(...) in a readable form
+        out.append("--- Character frequencies (out of 100%) ---").append(newline);
         
         // We want to treat whitespaces differently; whitespaces include a whole range of possible
         // non-visible characters e.g. spaces and tabs. 
         //
         // Therefore we will want keep track of the total percentage frequency of all whitespaces. 
         // 
-        // We will add the number of whitespaces to the end of the output string
+        // We will add the number of whitespaces to the end of the output
         // when all the other characters in this.charFreq have been dealt with.
         double totalWhitespaceFreq = 0.0;
-        for (Character key : this.charFreq.keySet()) {
-          double charFreq = this.charFreq.get(key);
+        for (int codePoint : this.charFreq.getCodePoints()) {
+          double charFreq = this.charFreq.getFrequency(codePoint);
           
           // Output the frequencies of each non-whitespace character
-          if (!Statistics.isWhitespace(key))
-            output += key + ": " + this.to2DecimalPlaces(charFreq) + "%" + newline;
+          if (codePoint > Character.MAX_VALUE || !Statistics.isWhitespace((char) codePoint)) {
+            Statistics.appendCodePoint(out, codePoint);
+            out.append(": ").append(this.to2DecimalPlaces(charFreq)).append('%').append(newline);
+          }
           
           // If we come across a whitespace character, add its frequency to the local record
           else totalWhitespaceFreq += charFreq;
         }
         
         // Now output the total frequency of whitespace characters
-        output += "Whitespaces: " + this.to2DecimalPlaces(totalWhitespaceFreq) + "%" + newline;
+        out.append("Whitespaces: ").append(this.to2DecimalPlaces(totalWhitespaceFreq)).append('%').append(newline);
       }
       if (this.charFreq != null || this.noOfEnglishANs != -1 || this.noOfNonANs != -1 || this.noOfIntlChars != -1 ||
           this.noOfWhitespaces != -1 || this.noOfSuffixes != -1) {
         
         // Add the sub-category of stats to do with whole numbers of specific characters/strings e.g. noOfIntlChars
-        output += "--- Other numbers ---" + newline;
+        out.append("--- Other numbers ---").append(newline);
         if (this.isAnalysed(this.noOfEnglishANs)) {
           
-          // Add the result from calcNoOfEnglishANs(...) to the output string in a readable form
-          output += "English alphanumeric characters: " + this.toWholeNumber(this.noOfEnglishANs) + newline;
+          // Add the result from calcNoOfEnglishANs(...) in a readable form
+          out.append("English alphanumeric characters: ").append(this.toWholeNumber(this.noOfEnglishANs))
+              .append(newline);
         }
         if (this.isAnalysed(this.noOfNonANs)) {
           
-          // Add the result from calcNoOfNonANs(...) to the output string in a readable form
-          output += "Non-alphanumeric characters: " + this.toWholeNumber(this.noOfNonANs) + newline;
+          // Add the result from calcNoOfNonANs(...) in a readable form
+          out.append("Non-alphanumeric characters: ").append(this.toWholeNumber(this.noOfNonANs)).append(newline);
         }
         if (this.isAnalysed(this.noOfWhitespaces)) {
           
-          // Add the result from calcNoOfWhitespaces(...) to the output string in a readable form
-          output += "Whitespaces: " + this.toWholeNumber(this.noOfWhitespaces) + newline;
+          // Add the result from calcNoOfWhitespaces(...) in a readable form
+          out.append("Whitespaces: ").append(this.toWholeNumber(this.noOfWhitespaces)).append(newline);
         }
         if (this.isAnalysed(this.noOfIntlChars)) {
           
-          // Add the result from calcNoOfIntlChars(...) to the output string in a readable form
-          output += "International/Accented characters: " + this.toWholeNumber(this.noOfIntlChars) + newline;
+          // Add the result from calcNoOfIntlChars(...) in a readable form
+          out.append("International/Accented characters: ").append(this.toWholeNumber(this.noOfIntlChars))
+              .append(newline);
         }
         if (this.isAnalysed(this.noOfSuffixes)) {
           
-          // Add the result from calcNoOfSuffixes(...) to the output string in a readable form
-          output += "No. of suffixes 'ed' 'ing' 'ly': " + this.toWholeNumber(this.noOfSuffixes) + newline;
+          // Add the result from calcNoOfSuffixes(...) in a readable form
+          out.append("No. of suffixes 'ed' 'ing' 'ly': ").append(this.toWholeNumber(this.noOfSuffixes)).append(newline);
+        }
+      }
+      if (this.distinctWords != null) {
+        
+        // Add the results from calcDistinctCounts(...) in a readable form, with their standard error
+        out.append("--- Distinct counts (approximate, +/-")
+            .append(this.to2DecimalPlaces(this.distinctWords.getStandardError() * 100)).append("%) ---").append(newline);
+        out.append("Distinct words: ").append(Long.toString(this.distinctWords.getEstimate())).append(newline);
+        out.append("Distinct sentences: ").append(Long.toString(this.distinctSentences.getEstimate())).append(newline);
+      }
+      if (this.topWords != null) {
+        
+        // Add the results from calcTopWords(...) in a readable form, one line per word, marking counts that may be 
+        // overestimates
+        out.append("--- Most frequent words").append(this.topWords.isExact() ? "" : " (approximate)").append(" ---")
+            .append(newline);
+        for (TopWords.Entry entry : this.topWords.getTop()) {
+          out.append(entry.getWord()).append(": ").append(Long.toString(entry.getCount()));
+          if (entry.getError() > 0) {
+            out.append(" (up to ").append(Long.toString(entry.getError())).append(" fewer)");
+          }
+          out.append(newline);
         }
       }
     }
-    return output;
   }
   
   /**
-   * A private helper method for toString().
+   * Private helper method for writeFrequencies(Appendable) that writes one Unicode code point, without creating a 
+   * String for it.
+   * 
+   * @param out: The Appendable to write to.
+   * @param codePoint: The code point.
+   * 
+   * @throws IOException if out cannot be written to.
+   */
+  private static void appendCodePoint(Appendable out, int codePoint) throws IOException {
+    if (Character.isBmpCodePoint(codePoint)) {
+      out.append((char) codePoint);
+    }
+    else {
+      out.append(Character.highSurrogate(codePoint)).append(Character.lowSurrogate(codePoint));
+    }
+  }
+  
+  /**
+   * A private helper method for writeTo(Appendable) that writes a human-readable form of the 'Text Occurrences' 
+   * statistic.
+   * 
+   * @param out: The Appendable to write to.
    * 
-   * @return a sub-string containing a human-readable form of the 'Text Occurrences' statistic.
+   * @throws IOException if out cannot be written to.
    */
-  private String textOCsToString() {
-    String output = "";
+  private void writeTextOCs(Appendable out) throws IOException {
     
     // Execute this method only if calcNoOfTextOCs(...) was called.
-    if (this.isAnalysed(this.noOfTextOCs)) {
+    if (this.noOfTextOCs != null) {
       
-      // Add the result from calcNoOfTextOCs(...) to the output string in a readable form
-      output +=
-          newline + "=== Text Occurrences ===" + newline +
-          "Number of occurrences of " + this.pattern + " in text file: " + this.noOfTextOCs;
+      // Add the results from calcNoOfTextOCs(...) in a readable form, one line per pattern
+      out.append(newline).append("=== Text Occurrences ===");
+      for (int i = 0; i < this.patterns.length; i++) {
+        out.append(newline).append("Number of occurrences of ").append(this.patterns[i]).append(" in text file: ")
+            .append(Long.toString(this.noOfTextOCs[i]));
+      }
+    }
+  }
+
+  /**
+   * A private helper method for writeTo(Appendable) that writes a human-readable form of the plug-in statistics.
+   * 
+   * @param out: The Appendable to write to.
+   * 
+   * @throws IOException if out cannot be written to.
+   */
+  private void writePlugIns(Appendable out) throws IOException {
+    if (this.plugIns.length > 0) {
+      out.append(newline).append("=== Plug-in Statistics ===");
+      for (IStatistic plugIn : this.plugIns) {
+        out.append(newline).append(plugIn.getName()).append(": ").append(plugIn.getResult());
+      }
     }
-    return output;
   }
 
   /**
-   * Private helper method for toString() that checks whether a chosen numerical statistics-holding class field, 
+   * Private helper method for writeTo(Appendable) that checks whether a chosen numerical statistics-holding class field, 
    * e.g. noOfEnglishANs, has had its value changed from the default of -1.
    * 
    * Any change from the default of -1 implies that the corresponding calculation (analysis) method, 
@@ -518,7 +1254,7 @@ public class Statistics {
   }
 
   /**
-   * A private utility method for toString() that converts a double-type number into a String representing the same
+   * A private utility method for writeTo(Appendable) that converts a double-type number into a String representing the same
    * number to 2 decimal places.
    * 
    * @param number: The number to convert to a 2 decimal place string.
@@ -530,7 +1266,7 @@ public class Statistics {
   }
   
   /**
-   * A private utility method for toString() that converts a double-type number into a String representing the same
+   * A private utility method for writeTo(Appendable) that converts a double-type number into a String representing the same
    * number as if it were truncated (floored) to a whole number (integer).
    * 
    * @param number: The number to convert.
@@ -551,9 +1287,11 @@ public class Statistics {
    * @return true if the state is (re)set to default, otherwise false.
    */
   public boolean isReset() {
-    return (this.charFreq == null && this.avgSentenceLen == -1.0 && this.avgWordLen == -1.0 &&
+    return (this.charFreq == null && this.noOfSentences == -1 && this.noOfWords == -1 &&
         this.noOfEnglishANs == -1 && this.noOfNonANs == -1 && this.noOfWhitespaces == -1 &&
-        this.noOfIntlChars == -1 && this.noOfSuffixes == -1 && this.noOfTextOCs == -1 && this.pattern == null);
+        this.noOfIntlChars == -1 && this.noOfSuffixes == -1 && this.noOfTextOCs == null && this.patterns == null &&
+        this.topWords == null && this.distinctWords == null && this.distinctSentences == null && 
+        this.plugIns.length == 0);
   }
   
 }
@@ -0,0 +1,509 @@
+/**
+ * StatisticsRecord.java
+ */
+
+package uk.co.bluettduncanj.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+
+/**
+ * StatisticsRecord is a compact, versioned binary form of the raw counts held by a Statistics object, for when the
+ * statistics of many text files need to be stored and then aggregated without parsing the human-readable report of
+ * Statistics.toString(). It holds the counts behind the 'Average Lengths' and 'Frequencies' statistics, the character
+ * histogram (see CharHistogram) and the 'Text Occurrences' patterns with their counts. The most frequent words, the
+ * distinct counts and the plug-in statistics are not held, as they have no fixed-size form; Java serialisation (as used
+ * by ResultCache) keeps them.
+ *
+ * A StatisticsRecord object is a view over the bytes of one record in a ByteBuffer, e.g. a window of a memory-mapped
+ * file (see StatisticsFileReader), and reads each field straight from those bytes when it is asked for, without
+ * copying them. The same object can be moved on to the next record with wrap(ByteBuffer, int), so that any number of
+ * records can be read without creating any objects, and added to a Statistics object with merge(StatisticsRecord).
+ *
+ * Every record is in big-endian byte order and is a multiple of 8 bytes long, so that records can be written one after
+ * another and every count stays aligned:
+ * <pre>
+ *   0  int   magic number 'TXST'
+ *   4  short version
+ *   6  short reserved (0)
+ *   8  int   length of the record in bytes
+ *  12  int   number of distinct characters in the histogram (n), or -1 if it has not been calculated
+ *  16  int   number of patterns (m), or -1 if the 'Text Occurrences' statistic has not been calculated
+ *  20  int   reserved (0)
+ *  24  long  number of sentences, total length of all sentences, number of words, total length of all words, and the
+ *            numbers of English alphanumeric characters, non-alphanumeric characters, whitespaces, international
+ *            characters and suffixes, each -1 if it has not been calculated (except the total lengths)
+ *  96  n longs, the count of each character, in ascending order of code point; then n ints, the code points; then
+ *            padding to a multiple of 8 bytes
+ *   P  m longs, the number of occurrences of each pattern; then m ints, the number of chars of the patterns up to and
+ *            including each one; then the UTF-16 chars of every pattern, one after another; then padding to a
+ *            multiple of 8 bytes
+ * </pre>
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public final class StatisticsRecord {
+
+  /** The first bytes of every record */
+  public static final int MAGIC = 0x54585354;
+
+  /** Changed whenever the format of a record changes */
+  public static final short VERSION = 1;
+
+  /** The length of the fixed-size part of every record, which is also the smallest possible record */
+  public static final int HEADER_LENGTH = 96;
+
+  /** The offsets of the fields of the fixed-size part */
+  private static final int VERSION_OFFSET = 4;
+  private static final int LENGTH_OFFSET = 8;
+  private static final int CHARS_OFFSET = 12;
+  private static final int PATTERNS_OFFSET = 16;
+  private static final int COUNTS_OFFSET = 24;
+
+  /** The indices of the counts of the fixed-size part */
+  private static final int SENTENCES = 0;
+  private static final int TOTAL_SENTENCE_LEN = 1;
+  private static final int WORDS = 2;
+  private static final int TOTAL_WORD_LEN = 3;
+  private static final int ENGLISH_ANS = 4;
+  private static final int NON_ANS = 5;
+  private static final int WHITESPACES = 6;
+  private static final int INTL_CHARS = 7;
+  private static final int SUFFIXES = 8;
+
+  /** The buffer the record is read from */
+  private ByteBuffer buffer;
+
+  /** The index in the buffer of the first byte of the record */
+  private int offset;
+
+  /** The number of distinct characters in the histogram, or -1 */
+  private int noOfChars;
+
+  /** The number of patterns, or -1 */
+  private int noOfPatterns;
+
+  /** The index in the buffer of the pattern section */
+  private int patternsOffset;
+
+  /**
+   * Constructor. Creates a view over the record that starts at an index of a buffer.
+   *
+   * @param buffer: The buffer holding the record, in big-endian byte order. It is neither copied nor moved.
+   * @param offset: The index in the buffer of the first byte of the record.
+   *
+   * @throws IllegalArgumentException if the bytes at the index are not a valid record of this version.
+   */
+  public StatisticsRecord(ByteBuffer buffer, int offset) throws IllegalArgumentException {
+    super();
+    this.wrap(buffer, offset);
+  }
+
+  /**
+   * Moves this view on to another record, e.g. the next one in the same buffer.
+   *
+   * @param buffer: The buffer holding the record, in big-endian byte order. It is neither copied nor moved.
+   * @param offset: The index in the buffer of the first byte of the record.
+   *
+   * @throws IllegalArgumentException if the bytes at the index are not a valid record of this version.
+   */
+  public void wrap(ByteBuffer buffer, int offset) throws IllegalArgumentException {
+    if (buffer.order() != ByteOrder.BIG_ENDIAN) {
+      throw new IllegalArgumentException("Statistics records are in big-endian byte order.");
+    }
+    if (offset < 0 || buffer.limit() - offset < HEADER_LENGTH) {
+      throw new IllegalArgumentException("The buffer is too short to hold a statistics record.");
+    }
+    if (buffer.getInt(offset) != MAGIC) {
+      throw new IllegalArgumentException("The buffer does not hold a statistics record.");
+    }
+    if (buffer.getShort(offset + VERSION_OFFSET) != VERSION) {
+      throw new IllegalArgumentException("The statistics record is of an unsupported version.");
+    }
+
+    // Check that the sections fit in the record, and the record in the buffer
+    int length = buffer.getInt(offset + LENGTH_OFFSET);
+    int noOfChars = buffer.getInt(offset + CHARS_OFFSET);
+    int noOfPatterns = buffer.getInt(offset + PATTERNS_OFFSET);
+    if (length < HEADER_LENGTH || length > buffer.limit() - offset || noOfChars < -1 || noOfPatterns < -1) {
+      throw new IllegalArgumentException("The statistics record is corrupt.");
+    }
+    long patternsOffset = StatisticsRecord.getPatternsOffset(Math.max(noOfChars, 0));
+    long patternChars = 0;
+    if (noOfPatterns > 0 && patternsOffset + 12L * noOfPatterns <= length) {
+      patternChars = buffer.getInt(offset + (int) patternsOffset + 8 * noOfPatterns + 4 * (noOfPatterns - 1));
+    }
+    if (patternChars < 0 || StatisticsRecord.pad(patternsOffset + 12L * Math.max(noOfPatterns, 0) +
+        2 * patternChars) != length) {
+      throw new IllegalArgumentException("The statistics record is corrupt.");
+    }
+
+    // Check that no count is negative, and that every pattern ends within the pattern chars and after the one before
+    for (int i = 0; i < noOfChars; i++) {
+      if (buffer.getLong(offset + HEADER_LENGTH + 8 * i) < 0) {
+        throw new IllegalArgumentException("The statistics record is corrupt.");
+      }
+    }
+    int previousEnd = 0;
+    for (int i = 0; i < noOfPatterns; i++) {
+      int end = buffer.getInt(offset + (int) patternsOffset + 8 * noOfPatterns + 4 * i);
+      if (buffer.getLong(offset + (int) patternsOffset + 8 * i) < 0 || end < previousEnd || end > patternChars) {
+        throw new IllegalArgumentException("The statistics record is corrupt.");
+      }
+      previousEnd = end;
+    }
+
+    this.buffer = buffer;
+    this.offset = offset;
+    this.noOfChars = noOfChars;
+    this.noOfPatterns = noOfPatterns;
+    this.patternsOffset = offset + (int) patternsOffset;
+  }
+
+  /**
+   * Encodes the raw counts held by a Statistics object as a record.
+   *
+   * @param stats: The statistics to encode.
+   *
+   * @return a new buffer holding the record, from its position to its limit.
+   *
+   * @throws IllegalArgumentException if the statistics are too big to be held by one record.
+   */
+  public static ByteBuffer encode(Statistics stats) throws IllegalArgumentException {
+    CharHistogram charFreq = stats.getCharFreq();
+    int[] codePoints = (charFreq == null) ? null : charFreq.getCodePoints();
+    String[] patterns = stats.getPatterns();
+    int noOfChars = (codePoints == null) ? -1 : codePoints.length;
+    int noOfPatterns = (patterns == null) ? -1 : patterns.length;
+
+    long patternsOffset = StatisticsRecord.getPatternsOffset(Math.max(noOfChars, 0));
+    long patternChars = 0;
+    if (patterns != null) {
+      for (String pattern : patterns) patternChars += pattern.length();
+    }
+    long length = StatisticsRecord.pad(patternsOffset + 12L * Math.max(noOfPatterns, 0) + 2 * patternChars);
+    if (length > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The statistics are too big to be held by one record.");
+    }
+
+    ByteBuffer record = ByteBuffer.allocate((int) length);
+    record.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt((int) length).putInt(noOfChars)
+        .putInt(noOfPatterns).putInt(0);
+    record.putLong(stats.getNoOfSentences()).putLong(stats.getTotalSentenceLen()).putLong(stats.getNoOfWords())
+        .putLong(stats.getTotalWordLen()).putLong(stats.getNoOfEnglishANs()).putLong(stats.getNoOfNonANs())
+        .putLong(stats.getNoOfWhitespaces()).putLong(stats.getNoOfIntlChars()).putLong(stats.getNoOfSuffixes());
+    if (codePoints != null) {
+      for (int codePoint : codePoints) record.putLong(charFreq.getCount(codePoint));
+      for (int codePoint : codePoints) record.putInt(codePoint);
+    }
+    if (patterns != null) {
+      record.position((int) patternsOffset);
+      for (int i = 0; i < patterns.length; i++) record.putLong(stats.getNoOfTextOCs(i));
+      int end = 0;
+      for (String pattern : patterns) {
+        end += pattern.length();
+        record.putInt(end);
+      }
+      for (String pattern : patterns) {
+        for (int i = 0; i < pattern.length(); i++) record.putChar(pattern.charAt(i));
+      }
+    }
+
+    // The padding is already zeroed
+    record.clear();
+    return record;
+  }
+
+  /**
+   * Private helper method that works out where the pattern section of a record starts.
+   *
+   * @param noOfChars: The number of distinct characters in the histogram.
+   *
+   * @return the offset of the pattern section from the start of the record.
+   */
+  private static long getPatternsOffset(int noOfChars) {
+    return StatisticsRecord.pad(HEADER_LENGTH + 12L * noOfChars);
+  }
+
+  /**
+   * Private helper method that rounds a length up to a multiple of 8 bytes.
+   *
+   * @param length: The length to round up.
+   *
+   * @return the rounded length.
+   */
+  private static long pad(long length) {
+    return (length + 7) & ~7L;
+  }
+
+  /**
+   * Private helper method that reads one of the counts of the fixed-size part.
+   *
+   * @param index: The index of the count.
+   *
+   * @return the count.
+   */
+  private long getCount(int index) {
+    return this.buffer.getLong(this.offset + COUNTS_OFFSET + 8 * index);
+  }
+
+  /**
+   * @return the length of the record in bytes, i.e. the offset of the record after it.
+   */
+  public int getLength() {
+    return this.buffer.getInt(this.offset + LENGTH_OFFSET);
+  }
+
+  /**
+   * @return the number of sentences, or -1 if it has not been calculated.
+   */
+  public long getNoOfSentences() {
+    return this.getCount(SENTENCES);
+  }
+
+  /**
+   * @return the total length of all sentences, or 0 if it has not been calculated.
+   */
+  public long getTotalSentenceLen() {
+    return this.getCount(TOTAL_SENTENCE_LEN);
+  }
+
+  /**
+   * @return the number of words, or -1 if it has not been calculated.
+   */
+  public long getNoOfWords() {
+    return this.getCount(WORDS);
+  }
+
+  /**
+   * @return the total length of all words, or 0 if it has not been calculated.
+   */
+  public long getTotalWordLen() {
+    return this.getCount(TOTAL_WORD_LEN);
+  }
+
+  /**
+   * @return the number of English alphanumeric characters, or -1 if it has not been calculated.
+   */
+  public long getNoOfEnglishANs() {
+    return this.getCount(ENGLISH_ANS);
+  }
+
+  /**
+   * @return the number of non-alphanumeric characters, or -1 if it has not been calculated.
+   */
+  public long getNoOfNonANs() {
+    return this.getCount(NON_ANS);
+  }
+
+  /**
+   * @return the number of whitespaces (including line terminators), or -1 if it has not been calculated.
+   */
+  public long getNoOfWhitespaces() {
+    return this.getCount(WHITESPACES);
+  }
+
+  /**
+   * @return the number of international characters, or -1 if it has not been calculated.
+   */
+  public long getNoOfIntlChars() {
+    return this.getCount(INTL_CHARS);
+  }
+
+  /**
+   * @return the number of words ending in 'ed', 'ing' and 'ly', or -1 if it has not been calculated.
+   */
+  public long getNoOfSuffixes() {
+    return this.getCount(SUFFIXES);
+  }
+
+  /**
+   * @return the number of distinct characters in the histogram, or -1 if it has not been calculated.
+   */
+  public int getNoOfDistinctChars() {
+    return this.noOfChars;
+  }
+
+  /**
+   * @param index: The index of the character in the histogram, from 0 to getNoOfDistinctChars() - 1.
+   *
+   * @return the code point of the character. Code points are in ascending order.
+   *
+   * @throws IndexOutOfBoundsException if there is no such character.
+   */
+  public int getCodePoint(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.noOfChars) {
+      throw new IndexOutOfBoundsException("No character at index " + index + ".");
+    }
+    return this.buffer.getInt(this.offset + HEADER_LENGTH + 8 * this.noOfChars + 4 * index);
+  }
+
+  /**
+   * @param index: The index of the character in the histogram, from 0 to getNoOfDistinctChars() - 1.
+   *
+   * @return the number of times the character appears.
+   *
+   * @throws IndexOutOfBoundsException if there is no such character.
+   */
+  public long getCharCount(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.noOfChars) {
+      throw new IndexOutOfBoundsException("No character at index " + index + ".");
+    }
+    return this.buffer.getLong(this.offset + HEADER_LENGTH + 8 * index);
+  }
+
+  /**
+   * Looks up the number of times a character appears, with a binary search over the code points of the histogram.
+   *
+   * @param codePoint: The code point to look up.
+   *
+   * @return the number of times the code point appears, or 0 if it does not (or the histogram has not been calculated).
+   */
+  public long getCountOf(int codePoint) {
+    int low = 0;
+    int high = this.noOfChars - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midCodePoint = this.getCodePoint(mid);
+      if (midCodePoint < codePoint) {
+        low = mid + 1;
+      }
+      else if (midCodePoint > codePoint) {
+        high = mid - 1;
+      }
+      else {
+        return this.getCharCount(mid);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @return the number of text patterns whose occurrences were counted, or -1 if they have not been.
+   */
+  public int getNoOfPatterns() {
+    return this.noOfPatterns;
+  }
+
+  /**
+   * @param index: The index of the text pattern, from 0 to getNoOfPatterns() - 1.
+   *
+   * @return the number of times the text pattern appears.
+   *
+   * @throws IndexOutOfBoundsException if there is no such pattern.
+   */
+  public long getNoOfTextOCs(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.noOfPatterns) {
+      throw new IndexOutOfBoundsException("No pattern at index " + index + ".");
+    }
+    return this.buffer.getLong(this.patternsOffset + 8 * index);
+  }
+
+  /**
+   * @param index: The index of the text pattern, from 0 to getNoOfPatterns() - 1.
+   *
+   * @return the text pattern, which is decoded into a new String.
+   *
+   * @throws IndexOutOfBoundsException if there is no such pattern.
+   */
+  public String getPattern(int index) throws IndexOutOfBoundsException {
+    int start = this.getPatternStart(index);
+    int end = this.getPatternEnd(index);
+    char[] pattern = new char[end - start];
+    for (int i = 0; i < pattern.length; i++) {
+      pattern[i] = this.getPatternChar(start + i);
+    }
+    return new String(pattern);
+  }
+
+  /**
+   * Checks whether the text patterns of this record are the same as those given, in the same order, without decoding
+   * them.
+   *
+   * @param patterns: The text patterns to compare them to.
+   *
+   * @return true if they are the same, otherwise false.
+   */
+  public boolean hasPatterns(String[] patterns) {
+    if (patterns.length != this.noOfPatterns) {
+      return false;
+    }
+    for (int p = 0; p < patterns.length; p++) {
+      int start = this.getPatternStart(p);
+      if (this.getPatternEnd(p) - start != patterns[p].length()) {
+        return false;
+      }
+      for (int i = 0; i < patterns[p].length(); i++) {
+        if (this.getPatternChar(start + i) != patterns[p].charAt(i)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the text patterns, which are decoded into new Strings, or null if they were not counted.
+   */
+  public String[] getPatterns() {
+    if (this.noOfPatterns == -1) {
+      return null;
+    }
+    String[] patterns = new String[this.noOfPatterns];
+    for (int i = 0; i < patterns.length; i++) {
+      patterns[i] = this.getPattern(i);
+    }
+    return patterns;
+  }
+
+  /**
+   * Private helper method that finds where the chars of a pattern start among the chars of every pattern.
+   *
+   * @param index: The index of the text pattern.
+   *
+   * @return the index of its first char.
+   */
+  private int getPatternStart(int index) {
+    return (index == 0) ? 0 : this.getPatternEnd(index - 1);
+  }
+
+  /**
+   * Private helper method that finds where the chars of a pattern end among the chars of every pattern.
+   *
+   * @param index: The index of the text pattern.
+   *
+   * @return the index just past its last char.
+   *
+   * @throws IndexOutOfBoundsException if there is no such pattern.
+   */
+  private int getPatternEnd(int index) {
+    if (index < 0 || index >= this.noOfPatterns) {
+      throw new IndexOutOfBoundsException("No pattern at index " + index + ".");
+    }
+    return this.buffer.getInt(this.patternsOffset + 8 * this.noOfPatterns + 4 * index);
+  }
+
+  /**
+   * Private helper method that reads one of the chars of every pattern.
+   *
+   * @param index: The index of the char among the chars of every pattern.
+   *
+   * @return the char.
+   */
+  private char getPatternChar(int index) {
+    return this.buffer.getChar(this.patternsOffset + 12 * this.noOfPatterns + 2 * index);
+  }
+
+  /**
+   * Decodes the whole record into a new Statistics object.
+   *
+   * @return the statistics held by the record.
+   */
+  public Statistics toStatistics() {
+    Statistics stats = new Statistics();
+    stats.merge(this);
+    return stats;
+  }
+
+}
@@ -0,0 +1,411 @@
+/**
+ * TopWords.java
+ */
+
+package uk.co.bluettduncanj.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * TopWords is a component class of Statistics that finds the most frequent words of a text, in a bounded amount of
+ * memory, using the Space-Saving algorithm (Metwally, Agrawal and El Abbadi, 2005).
+ *
+ * At most a fixed number of words (the capacity) are counted at once. While there are no more distinct words than
+ * that, every count is exact. Once there are, each new word takes over the counter of the least frequent word counted so
+ * far, starting from that word's count. Every count is then an overestimate by at most its error, which is also kept,
+ * and any word that appears more than (number of words / capacity) times is certain to be counted. A capacity of EXACT
+ * never takes over a counter, and so counts every distinct word exactly, for inputs small enough to allow it.
+ *
+ * Words are counted without regard to case, by converting each of their characters to lower case.
+ *
+ * The words of separate parts of a text (or of separate texts) can be combined with merge(TopWords), using the merging
+ * rule for Space-Saving summaries of Agarwal et al., 2012. The result is exact if both parts were, and their distinct
+ * words together fit into the capacity.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public class TopWords implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The default number of most frequent words reported */
+  public static final int DEFAULT_NO_OF_WORDS = 10;
+
+  /** The capacity that counts every distinct word exactly */
+  public static final int EXACT = Integer.MAX_VALUE;
+
+  /** The smallest default capacity, and the number of counters for each word reported above that */
+  private static final int CAPACITY_PER_WORD = 100;
+
+  /** The number of most frequent words reported */
+  private final int noOfWords;
+
+  /** The number of words counted at once */
+  private final int capacity;
+
+  /** The counter of each word counted, by word */
+  private Map<String, Counter> counters;
+
+  /** The counters, in a binary min-heap ordered by count */
+  private Counter[] heap;
+
+  /** The number of counters in the heap */
+  private int size;
+
+  /** The total number of words added */
+  private long total;
+
+  /** Whether every count is exact, i.e. no counter has been taken over */
+  private boolean isExact;
+
+  /**
+   * Constructor, with a default capacity of 100 counters for each word reported, and at least 1000.
+   *
+   * @param noOfWords: The number of most frequent words to report.
+   *
+   * @throws IllegalArgumentException if noOfWords is not positive.
+   */
+  public TopWords(int noOfWords) throws IllegalArgumentException {
+    this(noOfWords, Math.max(10 * CAPACITY_PER_WORD, (int) Math.min(EXACT, (long) noOfWords * CAPACITY_PER_WORD)));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param noOfWords: The number of most frequent words to report.
+   * @param capacity: The number of words to count at once, which is at least noOfWords, or EXACT to count every word.
+   *
+   * @throws IllegalArgumentException if noOfWords is not positive, or capacity is less than noOfWords.
+   */
+  public TopWords(int noOfWords, int capacity) throws IllegalArgumentException {
+    super();
+    if (noOfWords <= 0) {
+      throw new IllegalArgumentException("The number of words must be positive.");
+    }
+    if (capacity < noOfWords) {
+      throw new IllegalArgumentException("The capacity cannot be less than the number of words.");
+    }
+    this.noOfWords = noOfWords;
+    this.capacity = capacity;
+    this.counters = new HashMap<String, Counter>();
+    this.heap = new Counter[16];
+    this.size = 0;
+    this.total = 0;
+    this.isExact = true;
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other: The TopWords to copy.
+   */
+  public TopWords(TopWords other) {
+    this(other.noOfWords, other.capacity);
+    this.rebuild(other.getCounters(), other.isExact);
+    this.total = other.total;
+  }
+
+  /**
+   * Counts one word.
+   *
+   * @param word: The word.
+   */
+  public void add(CharSequence word) {
+    String key = TopWords.toLowerCase(word);
+    this.total++;
+    Counter counter = this.counters.get(key);
+    if (counter != null) {
+      counter.count++;
+      this.siftDown(counter.index);
+    }
+    else if (this.size < this.capacity) {
+      counter = new Counter(key, 1, 0);
+      this.counters.put(key, counter);
+      this.push(counter);
+    }
+    else {
+
+      // Take over the counter of the least frequent word
+      counter = this.heap[0];
+      this.counters.remove(counter.word);
+      counter.word = key;
+      counter.error = counter.count;
+      counter.count++;
+      this.counters.put(key, counter);
+      this.siftDown(0);
+      this.isExact = false;
+    }
+  }
+
+  /**
+   * Adds the words counted by another TopWords, e.g. those of another part of the same text, to those counted by this
+   * one.
+   *
+   * A word counted by only one of the two has the smallest count of the other added to its count and error, since it
+   * may have appeared up to that many times there without being counted.
+   *
+   * @param other: The TopWords whose words will be added. It is left unchanged.
+   */
+  public void merge(TopWords other) {
+    long thisMin = this.getMinCount();
+    long otherMin = other.getMinCount();
+    List<Counter> merged = new ArrayList<Counter>(this.size + other.size);
+    for (int i = 0; i < this.size; i++) {
+      Counter counter = this.heap[i];
+      Counter match = other.counters.get(counter.word);
+      if (match != null) {
+        merged.add(new Counter(counter.word, counter.count + match.count, counter.error + match.error));
+      }
+      else {
+        merged.add(new Counter(counter.word, counter.count + otherMin, counter.error + otherMin));
+      }
+    }
+    for (int i = 0; i < other.size; i++) {
+      Counter counter = other.heap[i];
+      if (!this.counters.containsKey(counter.word)) {
+        merged.add(new Counter(counter.word, counter.count + thisMin, counter.error + thisMin));
+      }
+    }
+
+    // Keep the most frequent words that fit into the capacity
+    boolean isExact = this.isExact && other.isExact;
+    if (merged.size() > this.capacity) {
+      Collections.sort(merged, BY_COUNT);
+      merged = merged.subList(0, this.capacity);
+      isExact = false;
+    }
+    this.rebuild(merged, isExact);
+    this.total += other.total;
+  }
+
+  /**
+   * @return the most frequent words (up to the number reported) with their counts, from most to least frequent, where
+   * words with the same count are in alphabetical order.
+   */
+  public List<Entry> getTop() {
+    List<Counter> counters = this.getCounters();
+    Collections.sort(counters, BY_COUNT);
+    List<Entry> top = new ArrayList<Entry>(Math.min(this.noOfWords, counters.size()));
+    for (Counter counter : counters.subList(0, Math.min(this.noOfWords, counters.size()))) {
+      top.add(new Entry(counter.word, counter.count, counter.error));
+    }
+    return top;
+  }
+
+  /**
+   * @return the number of most frequent words reported.
+   */
+  public int getNoOfWords() {
+    return this.noOfWords;
+  }
+
+  /**
+   * @return the number of words counted at once.
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * @return the total number of words added.
+   */
+  public long getTotal() {
+    return this.total;
+  }
+
+  /**
+   * @return true if every count is exact, otherwise false.
+   */
+  public boolean isExact() {
+    return this.isExact;
+  }
+
+  /**
+   * Private helper method for merge(TopWords) that finds the smallest count, which bounds how many times an uncounted
+   * word may have appeared.
+   *
+   * @return the smallest count if every counter is in use, otherwise 0 (as every word that appeared is counted).
+   */
+  private long getMinCount() {
+    return (this.size < this.capacity || this.size == 0) ? 0 : this.heap[0].count;
+  }
+
+  /**
+   * Private helper method that copies the counters.
+   *
+   * @return a copy of every counter, in no particular order.
+   */
+  private List<Counter> getCounters() {
+    List<Counter> counters = new ArrayList<Counter>(this.size);
+    for (int i = 0; i < this.size; i++) {
+      counters.add(new Counter(this.heap[i].word, this.heap[i].count, this.heap[i].error));
+    }
+    return counters;
+  }
+
+  /**
+   * Private helper method that replaces every counter.
+   *
+   * @param counters: The new counters.
+   * @param isExact: Whether every count of the new counters is exact.
+   */
+  private void rebuild(List<Counter> counters, boolean isExact) {
+    this.counters = new HashMap<String, Counter>(Math.max(16, counters.size() * 2));
+    this.heap = new Counter[Math.max(16, counters.size())];
+    this.size = 0;
+    for (Counter counter : counters) {
+      this.counters.put(counter.word, counter);
+      this.push(counter);
+    }
+    this.isExact = isExact;
+  }
+
+  /**
+   * Private helper method that adds a counter to the heap.
+   *
+   * @param counter: The counter.
+   */
+  private void push(Counter counter) {
+    if (this.size == this.heap.length) {
+      Counter[] heap = new Counter[(int) Math.min(EXACT, 2L * this.heap.length)];
+      System.arraycopy(this.heap, 0, heap, 0, this.size);
+      this.heap = heap;
+    }
+    int i = this.size++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (this.heap[parent].count <= counter.count) {
+        break;
+      }
+      this.place(this.heap[parent], i);
+      i = parent;
+    }
+    this.place(counter, i);
+  }
+
+  /**
+   * Private helper method that moves the counter at an index of the heap down, after its count has grown.
+   *
+   * @param i: The index of the counter.
+   */
+  private void siftDown(int i) {
+    Counter counter = this.heap[i];
+    int half = this.size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < this.size && this.heap[child + 1].count < this.heap[child].count) {
+        child++;
+      }
+      if (counter.count <= this.heap[child].count) {
+        break;
+      }
+      this.place(this.heap[child], i);
+      i = child;
+    }
+    this.place(counter, i);
+  }
+
+  /**
+   * Private helper method that puts a counter at an index of the heap.
+   */
+  private void place(Counter counter, int i) {
+    this.heap[i] = counter;
+    counter.index = i;
+  }
+
+  /**
+   * Private helper method that converts each character of a word to lower case.
+   */
+  private static String toLowerCase(CharSequence word) {
+    char[] chars = new char[word.length()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(word.charAt(i));
+    }
+    return new String(chars);
+  }
+
+  /** Orders counters from most to least frequent, and then alphabetically */
+  private static final Comparator<Counter> BY_COUNT = new Comparator<Counter>() {
+
+    @Override
+    public int compare(Counter a, Counter b) {
+      if (a.count != b.count) {
+        return (a.count > b.count) ? -1 : 1;
+      }
+      return a.word.compareTo(b.word);
+    }
+
+  };
+
+  /**
+   * The counter of one word.
+   */
+  private static final class Counter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String word;
+
+    private long count;
+
+    private long error;
+
+    /** The index of the counter in the heap */
+    private int index;
+
+    Counter(String word, long count, long error) {
+      this.word = word;
+      this.count = count;
+      this.error = error;
+    }
+
+  }
+
+  /**
+   * One of the most frequent words, with its count.
+   */
+  public static final class Entry {
+
+    private final String word;
+
+    private final long count;
+
+    private final long error;
+
+    Entry(String word, long count, long error) {
+      this.word = word;
+      this.count = count;
+      this.error = error;
+    }
+
+    /**
+     * @return the word, in lower case.
+     */
+    public String getWord() {
+      return this.word;
+    }
+
+    /**
+     * @return the number of times the word appears, which may be an overestimate by up to getError().
+     */
+    public long getCount() {
+      return this.count;
+    }
+
+    /**
+     * @return the most that getCount() may overestimate by, which is 0 if the count is exact.
+     */
+    public long getError() {
+      return this.error;
+    }
+
+  }
+
+}
@@ -14,6 +14,7 @@ import java.awt.event.ItemListener;
 import java.awt.event.WindowEvent;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.List;
 
 import javax.swing.BorderFactory;
@@ -38,7 +39,9 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import org.eclipse.wb.swing.FocusTraversalOnArray;
 
 import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.FileReadException;
 import uk.co.bluettduncanj.controller.IFileAnalyser;
+import uk.co.bluettduncanj.controller.ResultCache;
 
 /**
  * The main window of the program's desktop Graphical User Interface (GUI).
@@ -218,6 +221,24 @@ public class GUI {
           e.printStackTrace();
         }
 
+        // If the file could not be read part-way through analysis, the statistics are incomplete, so they are not shown.
+        catch (FileReadException e) {
+          String message = "There was an unexpected problem reading the file! The statistics could not be calculated.";
+          JOptionPane.showMessageDialog(GUI.this.frmMainWindow, message, "File I/O Error", JOptionPane.ERROR_MESSAGE);
+
+          // Developer error message
+          e.printStackTrace();
+        }
+        
+        // If the log file was created but could not be written part-way through, the statistics are still shown.
+        catch (IOException e) {
+          String message = "Sorry, there was an error writing the log file. It may be incomplete.";
+          JOptionPane.showMessageDialog(GUI.this.frmMainWindow, message, "Log file error", JOptionPane.ERROR_MESSAGE);
+
+          // Developer error message
+          e.printStackTrace();
+        }
+
         // Analysis finished; set the GUI's default mode
         this.publish(GUIMode.DEFAULT_MODE);
 
@@ -253,7 +274,10 @@ public class GUI {
    */
   private void initialize() {
 
-    this.fileAnalyser = new FileAnalyser();
+    // Re-analysing a text file that has not changed, e.g. to save its log again, reuses the earlier statistics
+    FileAnalyser fileAnalyser = new FileAnalyser();
+    fileAnalyser.setResultCache(new ResultCache(ResultCache.DEFAULT_MAX_ENTRIES));
+    this.fileAnalyser = fileAnalyser;
 
     try {
       // Set the native system Look and Feel
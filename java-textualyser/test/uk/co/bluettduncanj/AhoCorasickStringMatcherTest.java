@@ -0,0 +1,142 @@
+/**
+ * AhoCorasickStringMatcherTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.randomChars;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AhoCorasickStringMatcher;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class AhoCorasickStringMatcherTest {
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.AhoCorasickStringMatcher#AhoCorasickStringMatcher(char[][])}.
+   */
+  @Test
+  public void testAhoCorasickStringMatcher() {
+    AhoCorasickStringMatcher ac = new AhoCorasickStringMatcher(toChars("he", "she", "his", "hers"));
+    assertEquals("Incorrect number of patterns", 4, ac.getNoOfPatterns());
+    assertEquals("Incorrect maximum pattern length", 4, ac.getMaxPatternLength());
+    assertEquals("Incorrect number of states", 10, ac.getNoOfStates());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.AhoCorasickStringMatcher#search(char[])}.
+   */
+  @Test
+  public void testSearch() {
+    AhoCorasickStringMatcher ac = new AhoCorasickStringMatcher(toChars("he", "she", "his", "hers", "he", "s", ""));
+    long[] counts = ac.search("ushers and his sheep".toCharArray());
+    assertArrayEquals("Incorrect numbers of matches", new long[] { 2, 2, 1, 1, 2, 4, 21 }, counts);
+
+    ac = new AhoCorasickStringMatcher(toChars("aa", "a", "aaa"));
+    assertArrayEquals("Overlapping matches not counted", new long[] { 3, 4, 2 }, ac.search("aaaa".toCharArray()));
+    assertArrayEquals("Section not searched", new long[] { 1, 2, 0 }, ac.search("baab".toCharArray(), 1, 3));
+
+    ac = new AhoCorasickStringMatcher(toChars("\u5927\u5b66", "\ud83d\ude00", "caf\u00e9"));
+    counts = ac.search("caf\u00e9 \u5927\u5b66\u751f \ud83d\ude00\ud83d\ude00 \u5927\u5b66".toCharArray());
+    assertArrayEquals("Unicode patterns not matched", new long[] { 2, 2, 1 }, counts);
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.AhoCorasickStringMatcher#search(char[])}, which compares the
+   * number of (overlapping) matches of each pattern against a naive search on random texts.
+   */
+  @Test
+  public void testSearchRandom() {
+    Random random = new Random(42);
+    String alphabet = "ab\u00e9\u5927";
+    for (int n = 0; n < 300; n++) {
+      char[] text = randomChars(random, alphabet, random.nextInt(200));
+      char[][] patterns = new char[1 + random.nextInt(8)][];
+      for (int p = 0; p < patterns.length; p++) {
+        patterns[p] = randomChars(random, alphabet, 1 + random.nextInt(5));
+      }
+      long[] counts = new AhoCorasickStringMatcher(patterns).search(text);
+      for (int p = 0; p < patterns.length; p++) {
+        assertEquals("The number of " + new String(patterns[p]) + "s is incorrect", countStartingBefore(text, patterns[p], text.length),
+            counts[p]);
+      }
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.AhoCorasickStringMatcher#searchAcross(char[], int)}, which
+   * checks that the matches either side of a join plus the matches across it add up to the matches of the whole text.
+   */
+  @Test
+  public void testSearchAcross() {
+    AhoCorasickStringMatcher ac = new AhoCorasickStringMatcher(toChars("abc", "b", "bcab"));
+    assertArrayEquals("Incorrect matches across join", new long[] { 1, 0, 1 }, ac.searchAcross("bcabc".toCharArray(), 3));
+
+    Random random = new Random(7);
+    String alphabet = "ab\u00e9";
+    for (int n = 0; n < 300; n++) {
+      char[] text = randomChars(random, alphabet, random.nextInt(40));
+      int join = random.nextInt(text.length + 1);
+      char[][] patterns = new char[1 + random.nextInt(6)][];
+      for (int p = 0; p < patterns.length; p++) {
+        patterns[p] = randomChars(random, alphabet, 1 + random.nextInt(4));
+      }
+      ac = new AhoCorasickStringMatcher(patterns);
+      long[] across = ac.searchAcross(text, join);
+      for (int p = 0; p < patterns.length; p++) {
+        assertEquals("The number of " + new String(patterns[p]) + "s across the join is incorrect",
+            countStartingBefore(text, patterns[p], join) - countEndingBefore(text, patterns[p], join), across[p]);
+      }
+    }
+  }
+
+  /**
+   * Naively counts the (overlapping) matches of a pattern in a text that start before an index.
+   */
+  private static long countStartingBefore(char[] text, char[] pattern, int before) {
+    long count = 0;
+    for (int i = 0; i < before && i + pattern.length <= text.length; i++) {
+      if (matchesAt(text, pattern, i)) count++;
+    }
+    return count;
+  }
+
+  /**
+   * Naively counts the (overlapping) matches of a pattern in a text that end before an index.
+   */
+  private static long countEndingBefore(char[] text, char[] pattern, int before) {
+    long count = 0;
+    for (int i = 0; i + pattern.length <= before; i++) {
+      if (matchesAt(text, pattern, i)) count++;
+    }
+    return count;
+  }
+
+  /**
+   * Checks whether a pattern matches a text at an index.
+   */
+  private static boolean matchesAt(char[] text, char[] pattern, int index) {
+    int j = 0;
+    while (j < pattern.length && text[index + j] == pattern[j]) j++;
+    return j == pattern.length;
+  }
+
+  /**
+   * Converts Strings into an array of character arrays.
+   */
+  private static char[][] toChars(String... strings) {
+    char[][] result = new char[strings.length][];
+    for (int i = 0; i < strings.length; i++) {
+      result[i] = strings[i].toCharArray();
+    }
+    return result;
+  }
+
+}
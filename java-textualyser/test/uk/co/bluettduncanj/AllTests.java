@@ -13,8 +13,13 @@ import org.junit.runners.Suite.SuiteClasses;
  * @author Jonathan Bluett-Duncan
  */
 @RunWith(Suite.class)
-@SuiteClasses({ AbstractFileHandlerTest.class, BoyerMooreStringMatcherTest.class, FileAnalyserTest.class, GUITest.class,
-    LogFileHandlerTest.class, OtherRequirementsTest.class, StatisticsTest.class })
+@SuiteClasses({ AbstractFileHandlerTest.class, AhoCorasickStringMatcherTest.class, AnalysisMetricsTest.class,
+    AnalysisPlanTest.class, BoyerMooreStringMatcherTest.class, CharClassesTest.class, CharHistogramTest.class,
+    CommandLineApplicationTest.class, CorpusAnalyserTest.class, DistinctCounterTest.class, FMIndexTest.class,
+    FileAnalyserTest.class, GUITest.class, IStatisticTest.class, IncrementalTextScannerTest.class,
+    LogFileHandlerTest.class, MappedFileReaderTest.class, OtherRequirementsTest.class, ParallelTextScannerTest.class,
+    ResultCacheTest.class, StatisticsRecordTest.class, StatisticsTest.class, StreamingStringMatcherTest.class,
+    TextScannerTest.class, TopWordsTest.class, WordIndexTest.class })
 public class AllTests {
 
 }
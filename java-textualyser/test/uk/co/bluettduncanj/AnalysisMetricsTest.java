@@ -0,0 +1,186 @@
+/**
+ * AnalysisMetricsTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AnalysisMetrics;
+import uk.co.bluettduncanj.controller.AnalysisMetricsRecorder;
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.AnalysisPhase;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.TextScanner;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class AnalysisMetricsTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final String TEXT = "The cat sat on the mat. The dog sat on the log!\r\n" +
+      "A caf\u00e9 is a caf\u00e9; a cat is not... Is it?\nThe  cat sat on the mat.  The end\nless road";
+
+  private static final String NAME = "uk.co.bluettduncanj:type=AnalysisMetrics,name=AnalysisMetricsTest";
+
+  private File file;
+
+  private AnalysisMetricsRecorder recorder;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("analysismetrics", ".txt");
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(TEXT.getBytes(UTF_8));
+    }
+    finally {
+      out.close();
+    }
+    recorder = new AnalysisMetricsRecorder();
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+    file = null;
+    recorder = null;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#getMetrics()}, which checks that every analysis
+   * mode records one call with the amounts it can know, and that each call is added to the recorder.
+   */
+  @Test
+  public void testGetMetrics() throws Exception {
+    long words = countWords();
+    int runs = 0;
+    for (AnalysisMode mode : AnalysisMode.values()) {
+      FileAnalyser analyser = new FileAnalyser();
+      assertSame("Metrics before analysing", AnalysisMetrics.NONE, analyser.getMetrics());
+      analyser.setMetricsRecorder(recorder);
+      analyser.setAnalysisMode(mode);
+      analyser.setCharset(UTF_8);
+      analyser.setOptions(new boolean[] { true, true, true }, new String[] { "cat" });
+      analyser.setFilePath(file.getPath());
+      analyser.process();
+      runs++;
+
+      AnalysisMetrics metrics = analyser.getMetrics();
+      assertEquals("Incorrect number of runs in " + mode, 1, metrics.getNoOfRuns());
+      assertEquals("Incorrect bytes in " + mode, file.length(), metrics.getBytesProcessed());
+      long total = 0;
+      for (AnalysisPhase phase : AnalysisPhase.values()) {
+        assertTrue("Negative time in " + phase + " in " + mode, metrics.getNanos(phase) >= 0);
+        total += metrics.getNanos(phase);
+      }
+      assertEquals("Incorrect total time in " + mode, total, metrics.getTotalNanos());
+      if (mode == AnalysisMode.DEFAULT_MODE || mode == AnalysisMode.STREAMING_MODE) {
+        assertEquals("Incorrect characters in " + mode, TEXT.length(), metrics.getCharsProcessed());
+        assertEquals("Incorrect words in " + mode, words, metrics.getTokensProcessed());
+        assertTrue("Scanning not timed in " + mode, metrics.getNanos(AnalysisPhase.SCANNING) > 0);
+      }
+      assertEquals("Not recorded in " + mode, runs, recorder.getNoOfRuns());
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#process(java.io.Reader)}.
+   */
+  @Test
+  public void testGetMetricsReader() throws Exception {
+    FileAnalyser analyser = new FileAnalyser();
+    analyser.setMetricsRecorder(null);
+    analyser.setOptions(new boolean[] { true, false, false }, null);
+    analyser.process(new StringReader(TEXT));
+    AnalysisMetrics metrics = analyser.getMetrics();
+    assertEquals("Incorrect number of runs", 1, metrics.getNoOfRuns());
+    assertEquals("Bytes known", -1, metrics.getBytesProcessed());
+    assertEquals("Incorrect characters", TEXT.length(), metrics.getCharsProcessed());
+    assertEquals("Incorrect words", countWords(), metrics.getTokensProcessed());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.AnalysisMetricsRecorder#record(AnalysisMetrics)}, which
+   * checks that amounts which are not known are left out of the totals.
+   */
+  @Test
+  public void testRecord() throws Exception {
+    FileAnalyser analyser = new FileAnalyser();
+    analyser.setMetricsRecorder(recorder);
+    analyser.setOptions(new boolean[] { true, false, false }, null);
+    analyser.process(new StringReader(TEXT));
+    analyser.setAnalysisMode(AnalysisMode.PARALLEL_MODE);
+    analyser.setFilePath(file.getPath());
+    analyser.process();
+
+    AnalysisMetrics metrics = recorder.getMetrics();
+    assertEquals("Incorrect number of runs", 2, metrics.getNoOfRuns());
+    assertEquals("Incorrect bytes", file.length(), metrics.getBytesProcessed());
+    assertEquals("Incorrect characters", TEXT.length(), metrics.getCharsProcessed());
+    assertTrue("Incorrect words per second", metrics.getTokensPerSecond() > 0);
+
+    recorder.reset();
+    assertSame("Not reset", AnalysisMetrics.NONE, recorder.getMetrics());
+    assertEquals("Words per second known", -1.0, recorder.getTokensPerSecond(), 0.0);
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.AnalysisMetricsRecorder#register(String)}.
+   */
+  @Test
+  public void testRegister() throws Exception {
+    FileAnalyser analyser = new FileAnalyser();
+    analyser.setMetricsRecorder(recorder);
+    analyser.setOptions(new boolean[] { true, true, false }, null);
+    analyser.setFilePath(file.getPath());
+    analyser.process();
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    recorder.register(NAME);
+    try {
+      assertEquals("Incorrect number of runs", 1L, server.getAttribute(new ObjectName(NAME), "NoOfRuns"));
+      assertEquals("Incorrect bytes", file.length(), server.getAttribute(new ObjectName(NAME), "BytesProcessed"));
+      server.invoke(new ObjectName(NAME), "reset", null, null);
+      assertEquals("Not reset", 0L, server.getAttribute(new ObjectName(NAME), "NoOfRuns"));
+    }
+    finally {
+      recorder.unregister(NAME);
+    }
+    assertFalse("Still registered", server.isRegistered(new ObjectName(NAME)));
+  }
+
+  /**
+   * Counts the words in TEXT with a TextScanner.
+   */
+  private static long countWords() throws IOException {
+    TextScanner scanner = new TextScanner();
+    scanner.scan(new StringReader(TEXT));
+    return scanner.getWords().size();
+  }
+
+}
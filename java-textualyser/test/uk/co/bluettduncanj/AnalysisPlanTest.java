@@ -0,0 +1,191 @@
+/**
+ * AnalysisPlanTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.AnalysisPlan;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.TextScanner;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class AnalysisPlanTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final String TEXT = "The cat sat on the mat. The dog sat on the log!\r\n" +
+      "A caf\u00e9 is a caf\u00e9; a cat is not... Is it?\nThe  cat sat on the mat.  The end\nless road";
+
+  private File file;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("analysisplan", ".txt");
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(TEXT.getBytes(UTF_8));
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+    file = null;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.AnalysisPlan#AnalysisPlan(boolean, boolean, boolean, boolean, boolean)}.
+   */
+  @Test
+  public void testAnalysisPlan() {
+    AnalysisPlan textOCs = new AnalysisPlan(false, false, true, false, false);
+    assertFalse("Words parsed for 'Text Occurrences'", textOCs.isParsingWords());
+    assertFalse("Sentences parsed for 'Text Occurrences'", textOCs.isParsingSentences());
+    assertFalse("Characters counted for 'Text Occurrences'", textOCs.isCountingCharacters());
+    assertTrue("Characters not kept for 'Text Occurrences'", textOCs.isKeepingCharacters());
+    assertTrue("Text file not scanned for 'Text Occurrences'", textOCs.isScanning());
+
+    AnalysisPlan frequencies = new AnalysisPlan(false, true, false, false, false);
+    assertTrue("Words not parsed for 'Frequencies'", frequencies.isParsingWords());
+    assertFalse("Sentences parsed for 'Frequencies'", frequencies.isParsingSentences());
+    assertTrue("Characters not counted for 'Frequencies'", frequencies.isCountingCharacters());
+    assertTrue("Sentences not parsed for distinct counts",
+        new AnalysisPlan(false, true, false, false, true).isParsingSentences());
+    assertTrue("Words not parsed for the most frequent words",
+        new AnalysisPlan(false, false, false, true, false).isParsingWords());
+
+    AnalysisPlan avgLens = new AnalysisPlan(true, false, false, false, false);
+    assertTrue("Words not parsed for 'Average Lengths'", avgLens.isParsingWords());
+    assertTrue("Sentences not parsed for 'Average Lengths'", avgLens.isParsingSentences());
+    assertFalse("Characters kept for 'Average Lengths'", avgLens.isKeepingCharacters());
+
+    assertFalse("Text file scanned for no statistics",
+        new AnalysisPlan(false, false, false, false, false).isScanning());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.TextScanner#setPlan(AnalysisPlan)}, which checks that a
+   * streaming TextScanner calculates the same statistics with the plan for them as with every parser running.
+   */
+  @Test
+  public void testSetPlanStreaming() throws IOException {
+    for (int i = 0; i < 8; i++) {
+      boolean avgLens = (i & 1) != 0;
+      boolean frequencies = (i & 2) != 0;
+      boolean distinctCounts = (i & 4) != 0;
+
+      Statistics expected = newStats(avgLens, frequencies, distinctCounts);
+      new TextScanner(expected, false).scan(new StringReader(TEXT));
+
+      Statistics actual = newStats(avgLens, frequencies, distinctCounts);
+      TextScanner scanner = new TextScanner(actual, false);
+      scanner.setPlan(new AnalysisPlan(avgLens, frequencies, false, false, distinctCounts));
+      scanner.scan(new StringReader(TEXT));
+      assertEquals("Statistics differ for options " + i, withoutDateTime(expected.toString()),
+          withoutDateTime(actual.toString()));
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.TextScanner#setPlan(AnalysisPlan)}, which checks that only
+   * characters are kept when nothing but the 'Text Occurrences' statistic is calculated.
+   */
+  @Test
+  public void testSetPlanTextOCs() throws IOException {
+    TextScanner all = new TextScanner();
+    all.scan(new StringReader(TEXT));
+
+    TextScanner scanner = new TextScanner();
+    scanner.setPlan(new AnalysisPlan(false, false, true, false, false));
+    scanner.scan(new StringReader(TEXT));
+    assertEquals("Incorrect characters", new String(all.getCharacters()), new String(scanner.getCharacters()));
+    assertTrue("Words parsed", scanner.getWords().isEmpty());
+    assertTrue("Sentences parsed", scanner.getSentences().isEmpty());
+    assertEquals("Incorrect number of line terminators", all.getNoOfLineTerminators(),
+        scanner.getNoOfLineTerminators());
+
+    scanner.setPlan(new AnalysisPlan(true, false, false, false, false));
+    scanner.scan(new StringReader(TEXT));
+    assertNull("Characters kept", scanner.getCharacters());
+    assertEquals("Incorrect words", all.getWords(), scanner.getWords());
+    assertEquals("Incorrect sentences", all.getSentences(), scanner.getSentences());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.TextScanner#setPlan(AnalysisPlan)}.
+   */
+  @Test(expected = NullPointerException.class)
+  public void testSetPlanNull() {
+    new TextScanner().setPlan(null);
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#process()}, which checks that every analysis mode
+   * gives the same statistics for each category of statistics on its own.
+   */
+  @Test
+  public void testFileAnalyserModes() throws Exception {
+    String[] patterns = { "cat", " the", "t. " };
+    boolean[][] allOptions = { { true, false, false }, { false, true, false }, { false, false, true },
+      { true, false, true } };
+    for (boolean[] options : allOptions) {
+      String expected = null;
+      for (AnalysisMode mode : AnalysisMode.values()) {
+        FileAnalyser analyser = new FileAnalyser();
+        analyser.setAnalysisMode(mode);
+        analyser.setCharset(UTF_8);
+        analyser.setOptions(options, patterns);
+        analyser.setDistinctCounts(10);
+        analyser.setFilePath(file.getPath());
+        analyser.process();
+        String actual = withoutDateTime(analyser.toString());
+        if (expected == null) {
+          expected = actual;
+        }
+        else {
+          assertEquals("Statistics differ in " + mode, expected, actual);
+        }
+      }
+    }
+  }
+
+  /**
+   * Prepares an empty Statistics object for a streaming TextScanner.
+   */
+  private static Statistics newStats(boolean avgLens, boolean frequencies, boolean distinctCounts) {
+    Statistics stats = new Statistics();
+    if (avgLens) stats.startAvgLens();
+    if (frequencies) stats.startFrequencies();
+    if (distinctCounts) stats.startDistinctCounts(10);
+    return stats;
+  }
+
+}
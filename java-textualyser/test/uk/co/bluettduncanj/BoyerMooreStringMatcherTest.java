@@ -5,6 +5,9 @@
 package uk.co.bluettduncanj;
 
 import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.randomChars;
+
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -94,4 +97,51 @@ public class BoyerMooreStringMatcherTest {
     assertEquals(message, 1, bm.search(text.toCharArray()));
   }
 
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.BoyerMooreStringMatcher#search(char[])}, where the text and
+   * pattern contain chars outside the alphabet.
+   */
+  @Test
+  public void testSearchUnicode() {
+    String text = "caf\u00e9 \u5927\u5b66\u751f \u5927\u5b66 \u20ac5 caf\u00e9\u00e9";
+
+    String pattern = "\u5927\u5b66";
+    String message = "The number of " + pattern + "s is incorrect";
+    BoyerMooreStringMatcher bm = new BoyerMooreStringMatcher(pattern.toCharArray());
+    assertEquals(message, 2, bm.search(text.toCharArray()));
+    assertEquals("Unequal array sizes", BoyerMooreStringMatcher.DEFAULT_ALPHABET_SIZE, bm.getBadCharTableSize());
+
+    pattern = "caf\u00e9";
+    message = "The number of " + pattern + "s is incorrect";
+    bm = new BoyerMooreStringMatcher(pattern.toCharArray(), 128);
+    assertEquals(message, 2, bm.search(text.toCharArray()));
+
+    pattern = "ab";
+    message = "The number of " + pattern + "s is incorrect";
+    bm = new BoyerMooreStringMatcher(pattern.toCharArray());
+    assertEquals(message, 0, bm.search(text.toCharArray()));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.BoyerMooreStringMatcher#search(char[])}, which compares the
+   * number of (overlapping) matches against a naive search on random texts.
+   */
+  @Test
+  public void testSearchRandom() {
+    Random random = new Random(42);
+    String alphabet = "ab\u00e9\u5927";
+    for (int n = 0; n < 500; n++) {
+      char[] text = randomChars(random, alphabet, random.nextInt(200));
+      char[] pattern = randomChars(random, alphabet, 1 + random.nextInt(6));
+      int expected = 0;
+      for (int i = 0; i + pattern.length <= text.length; i++) {
+        int j = 0;
+        while (j < pattern.length && text[i + j] == pattern[j]) j++;
+        if (j == pattern.length) expected++;
+      }
+      BoyerMooreStringMatcher bm = new BoyerMooreStringMatcher(pattern, 128);
+      assertEquals("The number of " + new String(pattern) + "s is incorrect", expected, bm.search(text));
+    }
+  }
+
 }
@@ -0,0 +1,47 @@
+/**
+ * CharClassesTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import uk.co.bluettduncanj.model.CharClasses;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class CharClassesTest {
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.CharClasses#of(char)}.
+   */
+  @Test
+  public void testOf() {
+    assertEquals("Incorrect classes for 'a'", CharClasses.ENGLISH_AN, CharClasses.of('a'));
+    assertEquals("Incorrect classes for '7'", CharClasses.ENGLISH_AN, CharClasses.of('7'));
+    assertEquals("Incorrect classes for ' '", CharClasses.WHITESPACE, CharClasses.of(' '));
+    assertEquals("Incorrect classes for '.'", CharClasses.NON_AN | CharClasses.PUNCTUATION, CharClasses.of('.'));
+    assertEquals("Incorrect classes for '\\u00a3'", CharClasses.NON_AN | CharClasses.INTL, CharClasses.of('\u00a3'));
+    assertEquals("Incorrect classes for '\\u00a0'", CharClasses.WHITESPACE | CharClasses.INTL, CharClasses.of('\u00a0'));
+    assertEquals("Incorrect classes for '\\u00e9'", CharClasses.INTL, CharClasses.of('\u00e9'));
+    assertEquals("Incorrect classes for '\\u0080'", 0, CharClasses.of('\u0080'));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.CharClasses#isWhitespace(char)}.
+   */
+  @Test
+  public void testIsWhitespace() {
+    for (char c : " \t\n\r\u000b\f\u2028\u3000".toCharArray()) {
+      assertTrue("Whitespace not recognised", CharClasses.isWhitespace(c));
+    }
+    for (char c : "a.-_\u00e9\u6f22".toCharArray()) {
+      assertFalse("Non-whitespace recognised as whitespace", CharClasses.isWhitespace(c));
+    }
+  }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * CharHistogramTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.model.CharHistogram;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class CharHistogramTest {
+
+  private CharHistogram histogram;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    histogram = new CharHistogram();
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    histogram = null;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.CharHistogram#CharHistogram()}.
+   */
+  @Test
+  public void testCharHistogram() {
+    assertEquals("New histogram is not empty", 0, histogram.getTotal());
+    assertEquals("New histogram is not empty", 0, histogram.getNoOfDistinct());
+    assertEquals("Frequency of an empty histogram is not 0", 0.0, histogram.getFrequency('a'), 0.0);
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.CharHistogram#addAll(char[], int, int)}.
+   */
+  @Test
+  public void testAddAll() {
+    String text = "This is a t\u00ebst \u6f22\ud83d\ude00.";
+    histogram.addAll(text.toCharArray(), 0, text.length());
+
+    assertEquals("Surrogate pair not counted as one character", text.length() - 1, histogram.getTotal());
+    assertEquals("Incorrect count for 's'", 3, histogram.getCount('s'));
+    assertEquals("Incorrect count for ' '", 4, histogram.getCount(' '));
+    assertEquals("Incorrect count for a non-Latin character", 1, histogram.getCount('\u6f22'));
+    assertEquals("Incorrect count for a supplementary character", 1, histogram.getCount(0x1f600));
+    assertEquals("Incorrect count for an unseen character", 0, histogram.getCount('z'));
+    assertEquals("Incorrect frequency for 's'", 300.0 / histogram.getTotal(), histogram.getFrequency('s'), 0.0001);
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.CharHistogram#getCodePoints()}.
+   */
+  @Test
+  public void testGetCodePoints() {
+    for (int codePoint = 0x10400; codePoint < 0x10500; codePoint++) {
+      histogram.addCodePoint(codePoint);
+    }
+    histogram.add('b');
+    histogram.add('a');
+    histogram.add('b');
+
+    int[] codePoints = histogram.getCodePoints();
+    assertEquals("Incorrect number of distinct characters", 0x100 + 2, histogram.getNoOfDistinct());
+    assertEquals("Incorrect number of code points", histogram.getNoOfDistinct(), codePoints.length);
+    assertEquals("Code points not in ascending order", 'a', codePoints[0]);
+    assertEquals("Code points not in ascending order", 'b', codePoints[1]);
+    for (int i = 2; i < codePoints.length; i++) {
+      assertEquals("Code points not in ascending order", 0x10400 + i - 2, codePoints[i]);
+      assertEquals("Incorrect count for a supplementary character", 1, histogram.getCount(codePoints[i]));
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.CharHistogram#merge(CharHistogram)}.
+   */
+  @Test
+  public void testMerge() {
+    CharHistogram other = new CharHistogram();
+    histogram.addAll("abb".toCharArray(), 0, 3);
+    other.addAll("bc\ud83d\ude00".toCharArray(), 0, 4);
+    histogram.merge(other);
+    assertEquals("Total not merged", 6, histogram.getTotal());
+    assertEquals("Distinct characters not merged", 4, histogram.getNoOfDistinct());
+    assertEquals("Count not merged", 3, histogram.getCount('b'));
+    assertEquals("Supplementary count not merged", 1, histogram.getCount(0x1F600));
+    assertEquals("Merged histogram was changed", 3, other.getTotal());
+
+    CharHistogram copy = new CharHistogram(histogram);
+    histogram.add('a');
+    assertEquals("Copy is not independent", 1, copy.getCount('a'));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.CharHistogram#merge(CharHistogram)}, where the other histogram
+   * ends with a high surrogate that is still waiting to be paired. Neither merging nor reading the counts may change it.
+   */
+  @Test
+  public void testMergePendingHighSurrogate() {
+    CharHistogram other = new CharHistogram();
+    other.addAll("a\ud83d".toCharArray(), 0, 2);
+    assertEquals("Unpaired high surrogate not counted", 2, other.getTotal());
+    assertEquals("Unpaired high surrogate not counted", 2, other.getNoOfDistinct());
+    assertEquals("Unpaired high surrogate not counted", 1, other.getCount('\ud83d'));
+    assertEquals("Incorrect code points", 0xd83d, other.getCodePoints()[1]);
+
+    histogram.merge(other);
+    assertEquals("Total not merged", 2, histogram.getTotal());
+    assertEquals("Unpaired high surrogate not merged", 1, histogram.getCount('\ud83d'));
+
+    other.add('\ude00');
+    assertEquals("Surrogate pair not counted as one character", 2, other.getTotal());
+    assertEquals("Surrogate pair not counted", 1, other.getCount(0x1F600));
+    assertEquals("High surrogate counted on its own", 0, other.getCount('\ud83d'));
+    assertEquals("Incorrect code points", 2, other.getCodePoints().length);
+  }
+
+}
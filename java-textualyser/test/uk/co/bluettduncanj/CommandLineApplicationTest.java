@@ -0,0 +1,179 @@
+/**
+ * CommandLineApplicationTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.StatisticsFileReader;
+import uk.co.bluettduncanj.model.StatisticsRecord;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class CommandLineApplicationTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private ByteArrayOutputStream out;
+
+  private ByteArrayOutputStream err;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    out = new ByteArrayOutputStream();
+    err = new ByteArrayOutputStream();
+  }
+
+  /**
+   * Runs the application with the given standard input and arguments.
+   */
+  private int run(String stdin, String... args) throws Exception {
+    CommandLineApplication application = new CommandLineApplication(new ByteArrayInputStream(stdin.getBytes(UTF_8)),
+        new PrintStream(out, true, "UTF-8"), new PrintStream(err, true, "UTF-8"));
+    return application.run(args);
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.CommandLineApplication#run(String[])}.
+   */
+  @Test
+  public void testRunTSV() throws Exception {
+    int status = run("It is. This is it.", "--tsv", "-c", "UTF-8", "-a", "-p", "is", "-p", "t", "-");
+    assertEquals("Incorrect exit status", CommandLineApplication.EXIT_OK, status);
+    String[] lines = out.toString("UTF-8").split("\n");
+    assertEquals("Incorrect number of rows", 2, lines.length);
+    assertTrue("Incorrect header row", lines[0].startsWith("file\tsentences\t"));
+    assertTrue("Incorrect header row", lines[0].endsWith("\toccurrences:is\toccurrences:t"));
+    String[] fields = lines[1].split("\t", -1);
+    assertEquals("Incorrect number of fields", lines[0].split("\t").length, fields.length);
+    assertEquals("Incorrect file", "-", fields[0]);
+    assertEquals("Incorrect number of sentences", "2", fields[1]);
+    assertEquals("'Frequencies' statistic not left empty", "", fields[7]);
+    assertEquals("Incorrect number of occurrences of is", "3", fields[fields.length - 2]);
+    assertEquals("Incorrect number of occurrences of t", "2", fields[fields.length - 1]);
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.CommandLineApplication#run(String[])}.
+   */
+  @Test
+  public void testRunReport() throws Exception {
+    int status = run("", "-m", "default", "test/uk/co/bluettduncanj/test2.txt", "test/uk/co/bluettduncanj/missing.txt");
+    assertEquals("Incorrect exit status", CommandLineApplication.EXIT_FAILED, status);
+    String report = out.toString("UTF-8");
+    assertTrue("Missing heading", report.startsWith("==> test/uk/co/bluettduncanj/test2.txt <=="));
+    assertTrue("Missing report", report.contains("=== Average Lengths ==="));
+    assertTrue("Missing error", err.toString("UTF-8").contains("missing.txt"));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.CommandLineApplication#run(String[])}, where a directory is analysed.
+   */
+  @Test
+  public void testRunDirectory() throws Exception {
+    int status = run("", "--tsv", "--total", "-j", "2", "-f", "test/uk/co/bluettduncanj");
+    assertEquals("Incorrect exit status", CommandLineApplication.EXIT_OK, status);
+    String[] lines = out.toString("UTF-8").split("\n");
+    assertTrue("Missing text file", out.toString("UTF-8").contains("test2.txt\t"));
+    assertTrue("Missing total", lines[lines.length - 1].startsWith("(total)\t"));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.CommandLineApplication#run(String[])}, where the cache directory is not
+   * created until the arguments are known to be valid, and a cache directory that cannot be created fails the run.
+   */
+  @Test
+  public void testRunCache() throws Exception {
+    File file = File.createTempFile("textualyser", ".txt");
+    try {
+      File directory = new File(file.getPath() + ".cache");
+      assertEquals("Unknown option accepted", CommandLineApplication.EXIT_USAGE,
+          run("", "--cache", directory.getPath(), "--unknown", "-"));
+      assertFalse("Cache directory created for a usage error", directory.exists());
+
+      int status = run("", "--cache", new File(file, "cache").getPath(), "test/uk/co/bluettduncanj/test2.txt");
+      assertEquals("Incorrect exit status", CommandLineApplication.EXIT_FAILED, status);
+      assertTrue("Missing error", err.toString("UTF-8").contains("cannot be created"));
+    }
+    finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.CommandLineApplication#run(String[])}, where the index directory cannot
+   * be created, which is reported when the text files are analysed rather than as a usage error.
+   */
+  @Test
+  public void testRunIndexNotCreated() throws Exception {
+    File file = File.createTempFile("textualyser", ".txt");
+    try {
+      String index = new File(file, "index").getPath();
+      int status = run("", "-p", "is", "--index", index, "test/uk/co/bluettduncanj/test2.txt");
+      assertEquals("Incorrect exit status", CommandLineApplication.EXIT_FAILED, status);
+      assertTrue("Missing error", err.toString("UTF-8").contains("cannot be created"));
+      assertEquals("Incorrect exit status for a directory", CommandLineApplication.EXIT_FAILED,
+          run("", "-p", "is", "--substring-index", index, "test/uk/co/bluettduncanj"));
+    }
+    finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.CommandLineApplication#run(String[])}, where binary records are written.
+   */
+  @Test
+  public void testRunBinary() throws Exception {
+    File binary = File.createTempFile("textualyser", ".stats");
+    try {
+      int status = run("It is. This is it.", "--binary", binary.getPath(), "-c", "UTF-8", "-a", "-p", "is", "-",
+          "test/uk/co/bluettduncanj/test2.txt");
+      assertEquals("Incorrect exit status", CommandLineApplication.EXIT_OK, status);
+      StatisticsFileReader reader = new StatisticsFileReader(binary);
+      try {
+        StatisticsRecord record = reader.next();
+        assertEquals("Incorrect number of sentences", 2, record.getNoOfSentences());
+        assertEquals("Incorrect number of occurrences of is", 3, record.getNoOfTextOCs(0));
+        assertEquals("'Frequencies' statistic not left uncalculated", -1, record.getNoOfDistinctChars());
+        assertNotNull("Second text file not written", reader.next());
+        assertNull("Total written", reader.next());
+      }
+      finally {
+        reader.close();
+      }
+    }
+    finally {
+      binary.delete();
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.CommandLineApplication#run(String[])}.
+   */
+  @Test
+  public void testRunUsage() throws Exception {
+    assertEquals("Unknown option accepted", CommandLineApplication.EXIT_USAGE, run("", "--unknown", "-"));
+    assertEquals("Missing file accepted", CommandLineApplication.EXIT_USAGE, run("", "-a"));
+    assertEquals("Missing value accepted", CommandLineApplication.EXIT_USAGE, run("", "-", "-p"));
+    assertEquals("Unknown mode accepted", CommandLineApplication.EXIT_USAGE, run("", "-m", "fast", "-"));
+    assertEquals("Help not shown", CommandLineApplication.EXIT_OK, run("", "--help"));
+    assertTrue("Usage not shown", out.toString("UTF-8").startsWith("Usage:"));
+  }
+
+}
@@ -0,0 +1,188 @@
+/**
+ * CorpusAnalyserTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.CorpusAnalyser;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.model.CorpusStatistics;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class CorpusAnalyserTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final boolean[] OPTIONS = new boolean[] { true, true, true };
+
+  private static final String[] PATTERNS = new String[] { "e", "th" };
+
+  private Path root;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    root = Files.createTempDirectory("corpus");
+    Random random = new Random(42);
+    String[] words = { "the", "then", "cat", "sat", "slowly", "caf\u00e9", "ending", ".", "\n", "  " };
+    for (int i = 0; i < 30; i++) {
+      Path dir = root.resolve("dir" + (i % 4)).resolve("sub" + (i % 3));
+      Files.createDirectories(dir);
+      StringBuilder text = new StringBuilder();
+      for (int w = random.nextInt(200); w > 0; w--) {
+        text.append(words[random.nextInt(words.length)]).append(' ');
+      }
+      Path file = Files.write(dir.resolve("file" + i + ".txt"), text.toString().getBytes(UTF_8));
+      
+      // Indexes are only saved for text files that were not modified just before being indexed
+      file.toFile().setLastModified(System.currentTimeMillis() - 30000);
+    }
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    delete(root.toFile());
+  }
+
+  /**
+   * Deletes a file, or a directory and everything beneath it.
+   */
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.CorpusAnalyser#analyse(Path)}, which checks that the
+   * statistics of each text file are the same as those found by a FileAnalyser on its own, and that the statistics of
+   * the whole corpus are all of them merged together.
+   */
+  @Test
+  public void testAnalyse() throws Exception {
+    CorpusAnalyser corpusAnalyser = new CorpusAnalyser(OPTIONS, PATTERNS);
+    corpusAnalyser.setCharset(UTF_8);
+    corpusAnalyser.setParallelism(3);
+    CorpusStatistics corpus = corpusAnalyser.analyse(root);
+    assertEquals("Incorrect number of files", 30, corpus.getNoOfFiles());
+    assertTrue("Unexpected failures", corpus.getFailures().isEmpty());
+
+    Statistics expectedTotal = new Statistics();
+    String previous = "";
+    for (String path : corpus.getFiles().keySet()) {
+      assertTrue("Files not in path order", path.compareTo(previous) > 0);
+      previous = path;
+
+      FileAnalyser fileAnalyser = new FileAnalyser();
+      fileAnalyser.setAnalysisMode(AnalysisMode.DEFAULT_MODE);
+      fileAnalyser.setCharset(UTF_8);
+      fileAnalyser.setOptions(OPTIONS, PATTERNS);
+      fileAnalyser.setFilePath(path);
+      fileAnalyser.process();
+      assertEquals("Statistics differ for " + path, withoutDateTime(fileAnalyser.toString()),
+          withoutDateTime(corpus.getFiles().get(path).toString()));
+      expectedTotal.merge(fileAnalyser.getStatistics());
+    }
+    assertEquals("Total statistics differ", withoutDateTime(expectedTotal.toString()),
+        withoutDateTime(corpus.getTotal().toString()));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.CorpusAnalyser#setWordIndexDirectory(File)}, which checks
+   * that small text files are indexed too, and that the statistics are unchanged by the indexes.
+   */
+  @Test
+  public void testAnalyseWordIndex() throws Exception {
+    CorpusAnalyser plain = new CorpusAnalyser(OPTIONS, PATTERNS);
+    plain.setCharset(UTF_8);
+    CorpusStatistics expected = plain.analyse(root);
+
+    File directory = Files.createTempDirectory("corpusindex").toFile();
+    try {
+      CorpusAnalyser corpusAnalyser = new CorpusAnalyser(OPTIONS, PATTERNS);
+      corpusAnalyser.setCharset(UTF_8);
+      corpusAnalyser.setWordIndexDirectory(directory);
+      CorpusStatistics corpus = corpusAnalyser.analyse(root);
+      assertEquals("Not every text file indexed", 30, directory.list().length);
+      assertEquals("Total statistics differ", withoutDateTime(expected.getTotal().toString()),
+          withoutDateTime(corpus.getTotal().toString()));
+    }
+    finally {
+      delete(directory);
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.CorpusAnalyser#setSubstringIndexDirectory(File)}, which
+   * checks that small text files are indexed too, and that the statistics are unchanged by the indexes.
+   */
+  @Test
+  public void testAnalyseSubstringIndex() throws Exception {
+    CorpusAnalyser plain = new CorpusAnalyser(OPTIONS, PATTERNS);
+    plain.setCharset(UTF_8);
+    CorpusStatistics expected = plain.analyse(root);
+
+    File directory = Files.createTempDirectory("corpusindex").toFile();
+    try {
+      CorpusAnalyser corpusAnalyser = new CorpusAnalyser(OPTIONS, PATTERNS);
+      corpusAnalyser.setCharset(UTF_8);
+      corpusAnalyser.setSubstringIndexDirectory(directory);
+      CorpusStatistics corpus = corpusAnalyser.analyse(root);
+      assertEquals("Not every text file indexed", 30, directory.list().length);
+      assertEquals("Total statistics differ", withoutDateTime(expected.getTotal().toString()),
+          withoutDateTime(corpus.getTotal().toString()));
+    }
+    finally {
+      delete(directory);
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.CorpusAnalyser#analyse(Path)}, where the directory does not
+   * exist.
+   */
+  @Test
+  public void testAnalyseMissing() throws IOException, InterruptedException {
+    Path missing = root.resolve("missing");
+    CorpusStatistics corpus = new CorpusAnalyser(OPTIONS, PATTERNS).analyse(missing);
+    assertEquals("Files found in a missing directory", 0, corpus.getNoOfFiles());
+    assertTrue("Missing directory not recorded", corpus.getFailures().containsKey(missing.toString()));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.CorpusAnalyser#CorpusAnalyser(boolean[], String[])}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testCorpusAnalyserInvalidOptions() {
+    new CorpusAnalyser(new boolean[] { true, true, true }, null);
+  }
+
+}
@@ -0,0 +1,205 @@
+/**
+ * DistinctCounterTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.ParallelTextScanner;
+import uk.co.bluettduncanj.controller.TextScanner;
+import uk.co.bluettduncanj.model.DistinctCounter;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class DistinctCounterTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final String TEXT = "The cat sat. The dog sat.\r\nThe cat sat.  A caf\u00e9 is a caf\u00e9. the CAT sat.\n" +
+      "The dog sat. No full stop at the end";
+
+  private File file;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("distinct", ".txt");
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(TEXT.getBytes(UTF_8));
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+    file = null;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.DistinctCounter#getEstimate()}, which checks that small numbers of
+   * distinct items are counted (almost) exactly, and that repeated items are not counted again.
+   */
+  @Test
+  public void testGetEstimateSmall() {
+    DistinctCounter counter = new DistinctCounter(DistinctCounter.DEFAULT_PRECISION);
+    assertEquals("Incorrect estimate when empty", 0, counter.getEstimate());
+    for (int repeat = 0; repeat < 3; repeat++) {
+      for (int i = 0; i < 100; i++) {
+        counter.add("item" + i);
+      }
+    }
+    assertEquals("Incorrect estimate", 100, counter.getEstimate());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.DistinctCounter#getEstimate()}, which checks that the estimate of
+   * a large number of distinct items is within three standard errors.
+   */
+  @Test
+  public void testGetEstimateLarge() {
+    for (int precision = DistinctCounter.MIN_PRECISION + 6; precision <= DistinctCounter.MAX_PRECISION; precision += 4) {
+      DistinctCounter counter = new DistinctCounter(precision);
+      int n = 200000;
+      for (int i = 0; i < n; i++) {
+        counter.add("word" + i);
+      }
+      double error = Math.abs(counter.getEstimate() - n) / (double) n;
+      assertTrue("Estimate " + counter.getEstimate() + " too far out at precision " + precision,
+          error < 3 * counter.getStandardError());
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.DistinctCounter#merge(DistinctCounter)}, which checks that merging
+   * two counters gives the same estimate as counting every item with one counter, even when their precisions differ.
+   */
+  @Test
+  public void testMerge() {
+    DistinctCounter whole = new DistinctCounter(10);
+    DistinctCounter first = new DistinctCounter(10);
+    DistinctCounter second = new DistinctCounter(10);
+    DistinctCounter finer = new DistinctCounter(14);
+    for (int i = 0; i < 50000; i++) {
+      String item = "item" + (i % 30000);
+      whole.add(item);
+      (i % 2 == 0 ? first : second).add(item);
+      if (i % 2 != 0) finer.add(item);
+    }
+    DistinctCounter copy = new DistinctCounter(first);
+    first.merge(second);
+    assertEquals("Merged estimate differs", whole.getEstimate(), first.getEstimate());
+
+    // Merging in a counter with a higher precision folds its registers into this counter's precision
+    copy.merge(finer);
+    assertEquals("Precision not kept", 10, copy.getPrecision());
+    assertEquals("Folded estimate differs", whole.getEstimate(), copy.getEstimate());
+
+    // Merging in a counter with a lower precision lowers this counter's precision
+    finer.merge(new DistinctCounter(10));
+    assertEquals("Precision not lowered", 10, finer.getPrecision());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.DistinctCounter#joinHashes(long, long, long)}.
+   */
+  @Test
+  public void testJoinHashes() {
+    String first = "The cat ";
+    String second = "sat on the mat.";
+    assertEquals("Joined hash differs", DistinctCounter.hash(first + second),
+        DistinctCounter.joinHashes(DistinctCounter.hash(first), DistinctCounter.hash(second), second.length()));
+    assertEquals("Joined hash differs with an empty item", DistinctCounter.hash(first),
+        DistinctCounter.joinHashes(DistinctCounter.hash(first), DistinctCounter.EMPTY_HASH, 0));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.DistinctCounter#DistinctCounter(int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testDistinctCounterInvalidPrecision() {
+    new DistinctCounter(DistinctCounter.MAX_PRECISION + 1);
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#setDistinctCounts(int)}, which checks the
+   * estimates and that every analysis mode gives the same ones.
+   */
+  @Test
+  public void testFileAnalyserModes() throws Exception {
+    for (AnalysisMode mode : AnalysisMode.values()) {
+      FileAnalyser fileAnalyser = new FileAnalyser();
+      fileAnalyser.setAnalysisMode(mode);
+      fileAnalyser.setCharset(UTF_8);
+      fileAnalyser.setOptions(new boolean[] { false, true, false }, null);
+      fileAnalyser.setDistinctCounts(DistinctCounter.DEFAULT_PRECISION);
+      fileAnalyser.setFilePath(file.getPath());
+      fileAnalyser.process();
+      Statistics stats = fileAnalyser.getStatistics();
+
+      // the, cat, sat, dog, a, caf\u00e9, is, no, full, stop, at, en (as the final character of the file is never added
+      // onto a word)
+      assertEquals("Incorrect distinct words in " + mode, 12, stats.getNoOfDistinctWords());
+
+      // "The cat sat.", "The dog sat.", "A caf\u00e9 is a caf\u00e9.", "the CAT sat.", "No full stop at the end"
+      assertEquals("Incorrect distinct sentences in " + mode, 5, stats.getNoOfDistinctSentences());
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.ParallelTextScanner#setDistinctCounts(int)}, which checks that
+   * words and sentences split across chunks of every size from 1 to 16 bytes are counted whole.
+   */
+  @Test
+  public void testParallelTextScanner() throws IOException {
+    String text = "One. Two two.   Three\r\nthree three.. \n Two two. One";
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(text.getBytes(UTF_8));
+    }
+    finally {
+      out.close();
+    }
+    Statistics expected = new Statistics();
+    expected.startDistinctCounts(10);
+    new TextScanner(expected, false).scan(new StringReader(text));
+    assertEquals("Incorrect distinct words", 4, expected.getNoOfDistinctWords());
+    assertEquals("Incorrect distinct sentences", 4, expected.getNoOfDistinctSentences());
+    for (int chunkSize = 1; chunkSize <= 16; chunkSize++) {
+      ParallelTextScanner scanner = new ParallelTextScanner(false, false, null, chunkSize);
+      scanner.setDistinctCounts(10);
+      Statistics actual = new Statistics();
+      actual.startDistinctCounts(10);
+      scanner.scan(file, UTF_8, actual);
+      assertEquals("Statistics differ with a chunk size of " + chunkSize, withoutDateTime(expected.toString()),
+          withoutDateTime(actual.toString()));
+    }
+  }
+
+}
@@ -0,0 +1,220 @@
+/**
+ * FMIndexTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.BoyerMooreStringMatcher;
+import uk.co.bluettduncanj.controller.FMIndex;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class FMIndexTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final String TEXT = "The cat sat on the mat. The dog sat on the log.\r\n" +
+      "A caf\u00e9 is a caf\u00e9; a cat is not.\nThe  cat sat on the mat.  The end\nless road.";
+
+  private File file;
+
+  private File directory;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("fmindex", ".txt");
+    write(file, TEXT);
+    directory = Files.createTempDirectory("fmindex").toFile();
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+    file = null;
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        f.delete();
+      }
+    }
+    directory.delete();
+    directory = null;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FMIndex#count(CharSequence)}, which checks that random
+   * patterns in a random text are counted exactly as often as Boyer-Moore's algorithm finds them.
+   */
+  @Test
+  public void testCount() {
+    Random random = new Random(11);
+    char[] alphabet = { 'a', 'b', 'c', ' ', '\u00e9', '\u4e2d' };
+    char[] text = new char[5000];
+    for (int i = 0; i < text.length; i++) {
+      text[i] = alphabet[random.nextInt(random.nextBoolean() ? 2 : alphabet.length)];
+    }
+    FMIndex index = new FMIndex(text, text.length);
+    assertEquals("Incorrect length", text.length, index.getLength());
+    for (int i = 0; i < 500; i++) {
+      char[] pattern;
+      if (i % 2 == 0) {
+        int start = random.nextInt(text.length);
+        pattern = Arrays.copyOfRange(text, start, Math.min(text.length, start + 1 + random.nextInt(8)));
+      }
+      else {
+        pattern = new char[1 + random.nextInt(4)];
+        for (int j = 0; j < pattern.length; j++) pattern[j] = alphabet[random.nextInt(alphabet.length)];
+      }
+      assertEquals("Incorrect count of '" + new String(pattern) + "'",
+          new BoyerMooreStringMatcher(pattern).search(text), index.count(new String(pattern)));
+    }
+    assertEquals("Incorrect count of an unknown character", 0, index.count("x"));
+    assertEquals("Incorrect count of the empty pattern", text.length + 1, index.count(""));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FMIndex#FMIndex(char[], int)}, with texts that need the most
+   * rounds of prefix doubling to sort, and with an empty text.
+   */
+  @Test
+  public void testFMIndexRepetitive() {
+    char[] text = new char[4096];
+    Arrays.fill(text, 'a');
+    FMIndex index = new FMIndex(text, 1000);
+    assertEquals("Incorrect count of 'a'", 1000, index.count("a"));
+    assertEquals("Incorrect count of 'aaa'", 998, index.count("aaa"));
+    assertEquals("Incorrect count of 'b'", 0, index.count("b"));
+
+    FMIndex empty = new FMIndex(new char[0], 0);
+    assertEquals("Incorrect count in an empty text", 0, empty.count("a"));
+    assertEquals("Incorrect count of the empty pattern in an empty text", 1, empty.count(""));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FMIndex#count(char[][])}, which checks that an index still
+   * counts the same once it has been serialised and deserialised.
+   */
+  @Test
+  public void testSerialization() throws Exception {
+    FMIndex index = FMIndex.build(file, UTF_8);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(index);
+    out.close();
+    ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    FMIndex copy = (FMIndex) in.readObject();
+    in.close();
+
+    char[][] patterns = { "cat".toCharArray(), " the".toCharArray(), "d\nl".toCharArray(), "endless".toCharArray() };
+    assertArrayEquals("Counts differ after serialisation", index.count(patterns), copy.count(patterns));
+    assertArrayEquals("Incorrect counts", new long[] { 3, 3, 0, 1 }, copy.count(patterns));
+    assertTrue("Deserialised index not of the text file", copy.isFor(file, UTF_8));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FMIndex#open(File, Charset, File)}, which checks that an
+   * index is saved, and that it is built again once the text file has changed.
+   */
+  @Test
+  public void testOpen() throws IOException {
+    assertTrue(file.setLastModified(System.currentTimeMillis() - 60000));
+    assertEquals("Incorrect count", 3, FMIndex.open(file, UTF_8, directory).count("cat"));
+    assertEquals("Index not saved", 1, directory.listFiles().length);
+    FMIndex loaded = FMIndex.open(file, UTF_8, directory);
+    assertEquals("Incorrect count after loading", 3, loaded.count("at on"));
+
+    write(file, "A cat, a cat and a dog.");
+    assertTrue(file.setLastModified(System.currentTimeMillis() - 30000));
+    assertFalse("Index still of the changed text file", loaded.isFor(file, UTF_8));
+    assertEquals("Incorrect count after a change", 2, FMIndex.open(file, UTF_8, directory).count("cat"));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.Statistics#calcNoOfTextOCs(FMIndex, char[][])}.
+   */
+  @Test
+  public void testCalcNoOfTextOCs() {
+    char[] body = "abracadabra abracadabra".toCharArray();
+    char[][] patterns = { "abra".toCharArray(), "a".toCharArray(), "ra a".toCharArray(), "".toCharArray() };
+    Statistics expected = new Statistics();
+    expected.calcNoOfTextOCs(body, patterns);
+    Statistics actual = new Statistics();
+    actual.calcNoOfTextOCs(new FMIndex(body, body.length), patterns);
+    assertEquals("Statistics differ", withoutDateTime(expected.toString()), withoutDateTime(actual.toString()));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#setSubstringIndexDirectory(File)}, which checks
+   * that every analysis mode gives the same statistics with a substring index as without one.
+   */
+  @Test
+  public void testFileAnalyserModes() throws Exception {
+    String[] patterns = { "cat", " the", "at. ", "", "d\nl", "caf\u00e9" };
+    for (AnalysisMode mode : AnalysisMode.values()) {
+      for (boolean[] options : new boolean[][] { { false, false, true }, { true, true, true } }) {
+        FileAnalyser expected = new FileAnalyser();
+        expected.setAnalysisMode(mode);
+        expected.setCharset(UTF_8);
+        expected.setOptions(options, patterns);
+        expected.setFilePath(file.getPath());
+        expected.process();
+
+        FileAnalyser actual = new FileAnalyser();
+        actual.setAnalysisMode(mode);
+        actual.setCharset(UTF_8);
+        actual.setOptions(options, patterns);
+        actual.setSubstringIndexDirectory(directory);
+        actual.setFilePath(file.getPath());
+        actual.process();
+        assertEquals("Statistics differ in " + mode, withoutDateTime(expected.toString()),
+            withoutDateTime(actual.toString()));
+        assertEquals("Incorrect count of 'at. ' in " + mode, 2, actual.getStatistics().getNoOfTextOCs(2));
+      }
+    }
+  }
+
+  /**
+   * Writes a text file in UTF-8.
+   */
+  private static void write(File file, String text) throws IOException {
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(text.getBytes(UTF_8));
+    }
+    finally {
+      out.close();
+    }
+  }
+
+}
@@ -5,12 +5,19 @@
 package uk.co.bluettduncanj;
 
 import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import uk.co.bluettduncanj.controller.AnalysisMode;
 import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.FileReadException;
 
 
 /**
@@ -46,4 +53,78 @@ public class FileAnalyserTest {
     assertEquals("fileAnalyser internal state not properly set.", true, fileAnalyser.isInitialStateOK());
   }
 
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#setAnalysisMode(AnalysisMode)}.
+   * @throws Exception
+   */
+  @Test
+  public void testStreamingMode() throws Exception {
+    fileAnalyser.setFilePath("test/uk/co/bluettduncanj/test2.txt");
+    fileAnalyser.setOptions(new boolean[]{ true, true, true }, new String[]{ "l" });
+    fileAnalyser.process();
+    String expected = withoutDateTime(fileAnalyser.toString());
+
+    fileAnalyser.setAnalysisMode(AnalysisMode.STREAMING_MODE);
+    fileAnalyser.process();
+    assertEquals("Streaming mode statistics differ from default mode", expected, withoutDateTime(fileAnalyser.toString()));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#setAnalysisMode(AnalysisMode)}.
+   */
+  @Test
+  public void testParallelMode() throws Exception {
+    fileAnalyser.setFilePath("test/uk/co/bluettduncanj/test2.txt");
+    fileAnalyser.setOptions(new boolean[]{ true, true, true }, new String[]{ "l" });
+    fileAnalyser.process();
+    String expected = withoutDateTime(fileAnalyser.toString());
+
+    fileAnalyser.setAnalysisMode(AnalysisMode.PARALLEL_MODE);
+    fileAnalyser.process();
+    assertEquals("Parallel mode statistics differ from default mode", expected, withoutDateTime(fileAnalyser.toString()));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#process(java.io.Reader)}.
+   */
+  @Test
+  public void testProcessReader() throws Exception {
+    String path = "test/uk/co/bluettduncanj/test2.txt";
+    fileAnalyser.setFilePath(path);
+    fileAnalyser.setOptions(new boolean[]{ true, true, true }, new String[]{ "l" });
+    fileAnalyser.process();
+    String expected = withoutDateTime(fileAnalyser.toString());
+
+    String text = new String(Files.readAllBytes(Paths.get(path)), fileAnalyser.getCharset());
+    for (AnalysisMode mode : AnalysisMode.values()) {
+      FileAnalyser readerAnalyser = new FileAnalyser();
+      readerAnalyser.setAnalysisMode(mode);
+      readerAnalyser.setOptions(new boolean[]{ true, true, true }, new String[]{ "l" });
+      readerAnalyser.process(new StringReader(text));
+      assertEquals("Reader statistics differ from file statistics in " + mode, expected,
+          withoutDateTime(readerAnalyser.toString()));
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#process()}, where the file exists but cannot
+   * be read as a text file.
+   */
+  @Test
+  public void testProcessUnreadable() throws Exception {
+    fileAnalyser.setFilePath("test/uk/co/bluettduncanj");
+    fileAnalyser.setOptions(new boolean[]{ true, true, false }, null);
+    for (AnalysisMode mode : AnalysisMode.values()) {
+      fileAnalyser.setAnalysisMode(mode);
+      try {
+        fileAnalyser.process();
+        fail("No FileReadException thrown in " + mode);
+      }
+      catch (FileReadException e) {
+        assertEquals("Incorrect file path", fileAnalyser.getFilePath(), e.getFilePath());
+        assertNotNull("No cause", e.getCause());
+      }
+    }
+  }
+
 }
@@ -0,0 +1,312 @@
+/**
+ * IStatisticTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.ParallelTextScanner;
+import uk.co.bluettduncanj.controller.TextScanner;
+import uk.co.bluettduncanj.model.AbstractStatistic;
+import uk.co.bluettduncanj.model.IStatistic;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class IStatisticTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final String TEXT = "The cat sat on the mat. The dog sat on the log!\r\n" +
+      "A caf\u00e9 is a caf\u00e9; a cat is not... Is it?\nThe  cat slowly sat on the mat.  The end\nless road";
+
+  /** The result of CountingStatistic for TEXT */
+  private static final String RESULT = "chars=136 lines=4 words=34 wordChars=95 sentences=4 sentenceChars=133";
+
+  private File file;
+
+  /**
+   * A plug-in statistic that counts everything it is passed.
+   */
+  private static class CountingStatistic extends AbstractStatistic {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+
+    private long chars, lines, words, wordChars, sentences, sentenceChars;
+
+    CountingStatistic(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String getName() {
+      return this.name;
+    }
+
+    @Override
+    public IStatistic newInstance() {
+      return new CountingStatistic(this.name);
+    }
+
+    @Override
+    public void addChar(char c) {
+      this.chars++;
+    }
+
+    @Override
+    public void addLineTerminator() {
+      this.lines++;
+    }
+
+    @Override
+    public void addWord(CharSequence word) {
+      this.words++;
+      this.wordChars += word.length();
+    }
+
+    @Override
+    public void addSentence(long length, long hash) {
+      this.sentences++;
+      this.sentenceChars += length;
+    }
+
+    @Override
+    public void merge(IStatistic other) {
+      CountingStatistic o = (CountingStatistic) other;
+      this.chars += o.chars;
+      this.lines += o.lines;
+      this.words += o.words;
+      this.wordChars += o.wordChars;
+      this.sentences += o.sentences;
+      this.sentenceChars += o.sentenceChars;
+    }
+
+    @Override
+    public String getResult() {
+      return "chars=" + this.chars + " lines=" + this.lines + " words=" + this.words + " wordChars=" + this.wordChars +
+          " sentences=" + this.sentences + " sentenceChars=" + this.sentenceChars;
+    }
+  }
+
+  /**
+   * A plug-in statistic that only counts vowels.
+   */
+  private static class VowelStatistic extends AbstractStatistic {
+
+    private static final long serialVersionUID = 1L;
+
+    private long vowels;
+
+    @Override
+    public String getName() {
+      return "vowels";
+    }
+
+    @Override
+    public IStatistic newInstance() {
+      return new VowelStatistic();
+    }
+
+    @Override
+    public void addChar(char c) {
+      if ("aeiouAEIOU".indexOf(c) >= 0) this.vowels++;
+    }
+
+    @Override
+    public void merge(IStatistic other) {
+      this.vowels += ((VowelStatistic) other).vowels;
+    }
+
+    @Override
+    public String getResult() {
+      return Long.toString(this.vowels);
+    }
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("istatistic", ".txt");
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(TEXT.getBytes(UTF_8));
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+    file = null;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.Statistics#calcStarted(char[], int, List, List)}, which checks
+   * that the fused loops give the same statistics as calculating each of them on its own, and the same plug-in results
+   * as a streaming TextScanner.
+   */
+  @Test
+  public void testCalcStarted() throws IOException {
+    TextScanner scanner = new TextScanner();
+    scanner.scan(new StringReader(TEXT));
+    char[] characters = scanner.getCharacters();
+    List<String> words = scanner.getWords();
+    List<String> sentences = scanner.getSentences();
+    int noOfLineTerminators = scanner.getNoOfLineTerminators();
+
+    Statistics expected = new Statistics();
+    expected.calcAvgSentenceLen(sentences);
+    expected.calcAvgWordLen(words);
+    expected.calcCharFreq(characters);
+    expected.calcNoOfEnglishANs(characters);
+    expected.calcNoOfNonANs(characters);
+    expected.calcNoOfWhitespaces(characters, noOfLineTerminators);
+    expected.calcNoOfIntlChars(characters);
+    expected.calcNoOfSuffixes(words);
+    expected.calcTopWords(words, 5, 10);
+    expected.calcDistinctCounts(words, sentences, 10);
+
+    Statistics actual = new Statistics();
+    actual.startAvgLens();
+    actual.startFrequencies();
+    actual.startTopWords(5, 10);
+    actual.startDistinctCounts(10);
+    actual.calcStarted(characters, noOfLineTerminators, words, sentences);
+    assertEquals("Statistics differ", withoutDateTime(expected.toString()), withoutDateTime(actual.toString()));
+
+    Statistics plugIns = new Statistics();
+    plugIns.startPlugIn(new CountingStatistic("counts"));
+    plugIns.calcStarted(characters, noOfLineTerminators, words, sentences);
+    Statistics streamed = new Statistics();
+    streamed.startPlugIn(new CountingStatistic("counts"));
+    new TextScanner(streamed, false).scan(new StringReader(TEXT));
+    assertEquals("Incorrect plug-in result", RESULT, plugIns.getPlugIn("counts").getResult());
+    assertEquals("Plug-in results differ", RESULT, streamed.getPlugIn("counts").getResult());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#setPlugIns(IStatistic[])}, which checks that
+   * every analysis mode gives the same plug-in results, whatever the options, and that the built-in statistics are
+   * unchanged by them.
+   */
+  @Test
+  public void testFileAnalyserModes() throws Exception {
+    IStatistic[] plugIns = { new CountingStatistic("counts"), new VowelStatistic() };
+    for (boolean[] options : new boolean[][] { { true, true, true }, { false, false, true } }) {
+      for (AnalysisMode mode : AnalysisMode.values()) {
+        FileAnalyser expected = new FileAnalyser();
+        expected.setAnalysisMode(mode);
+        expected.setCharset(UTF_8);
+        expected.setOptions(options, new String[] { "cat" });
+        expected.setFilePath(file.getPath());
+        expected.process();
+
+        FileAnalyser actual = new FileAnalyser();
+        actual.setAnalysisMode(mode);
+        actual.setCharset(UTF_8);
+        actual.setOptions(options, new String[] { "cat" });
+        actual.setPlugIns(plugIns);
+        actual.setFilePath(file.getPath());
+        actual.process();
+        Statistics stats = actual.getStatistics();
+        assertEquals("Incorrect plug-in result in " + mode, RESULT, stats.getPlugIn("counts").getResult());
+        assertEquals("Incorrect vowels in " + mode, "35", stats.getPlugIn("vowels").getResult());
+        String report = withoutDateTime(actual.toString());
+        assertTrue("Built-in statistics differ in " + mode, report.startsWith(withoutDateTime(expected.toString())));
+        assertTrue("Plug-in statistics missing in " + mode, report.endsWith("=== Plug-in Statistics ===" +
+            System.getProperty("line.separator") + "counts: " + RESULT + System.getProperty("line.separator") +
+            "vowels: 35"));
+      }
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.ParallelTextScanner#setPlugIns(IStatistic[])}, which checks
+   * that words and sentences that span chunks are still passed to plug-in statistics once each.
+   */
+  @Test
+  public void testParallelTextScanner() throws IOException {
+    for (int chunkSize = 1; chunkSize <= 16; chunkSize++) {
+      ParallelTextScanner scanner = new ParallelTextScanner(false, false, null, chunkSize);
+      scanner.setPlugIns(new IStatistic[] { new CountingStatistic("counts") });
+      Statistics stats = new Statistics();
+      scanner.scan(file, UTF_8, stats);
+      assertEquals("Incorrect plug-in result with a chunk size of " + chunkSize, RESULT,
+          stats.getPlugIn("counts").getResult());
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.Statistics#merge(Statistics)}, which checks that plug-in
+   * statistics are merged by name and copied rather than shared.
+   */
+  @Test
+  public void testMerge() {
+    Statistics first = new Statistics();
+    first.startPlugIn(new VowelStatistic());
+    first.addChar('a');
+    Statistics second = new Statistics();
+    second.startPlugIn(new CountingStatistic("counts"));
+    second.startPlugIn(new VowelStatistic());
+    second.addChar('e');
+    second.addChar('x');
+
+    Statistics combined = Statistics.combine(first, second);
+    assertEquals("Incorrect names", Arrays.asList("vowels", "counts"), Arrays.asList(combined.getPlugInNames()));
+    assertEquals("Incorrect vowels", "2", combined.getPlugIn("vowels").getResult());
+    assertEquals("Incorrect counts", "chars=2 lines=0 words=0 wordChars=0 sentences=0 sentenceChars=0",
+        combined.getPlugIn("counts").getResult());
+    second.addChar('i');
+    combined.getPlugIn("vowels").addChar('o');
+    assertEquals("Combined statistics changed", "2", combined.getPlugIn("vowels").getResult());
+    assertNull("Unknown plug-in statistic found", combined.getPlugIn("unknown"));
+    assertFalse("Not analysed", new Statistics(combined).isReset());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.Statistics#startPlugIn(IStatistic)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testStartPlugInSameName() {
+    Statistics stats = new Statistics();
+    stats.startPlugIn(new CountingStatistic("counts"));
+    stats.startPlugIn(new CountingStatistic("counts"));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#setPlugIns(IStatistic[])}.
+   */
+  @Test(expected = NullPointerException.class)
+  public void testSetPlugInsNullElement() {
+    new FileAnalyser().setPlugIns(new IStatistic[] { new VowelStatistic(), null });
+  }
+
+}
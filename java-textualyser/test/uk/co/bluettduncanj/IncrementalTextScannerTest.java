@@ -0,0 +1,167 @@
+/**
+ * IncrementalTextScannerTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.IncrementalTextScanner;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class IncrementalTextScannerTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final boolean[] OPTIONS = new boolean[] { true, true, true };
+
+  private static final String[] PATTERNS = new String[] { "the", "\u00e9t", "" };
+
+  private File file;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("incremental", ".txt");
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+  }
+
+  /**
+   * Appends bytes to the text file.
+   */
+  private void append(byte[] bytes, int offset, int length) throws IOException {
+    Files.write(file.toPath(), Arrays.copyOfRange(bytes, offset, offset + length), StandardOpenOption.APPEND);
+  }
+
+  /**
+   * Analyses the whole text file from the start, in the given mode.
+   */
+  private String analyse(AnalysisMode mode) throws IOException {
+    FileAnalyser fileAnalyser = new FileAnalyser();
+    fileAnalyser.setAnalysisMode(mode);
+    fileAnalyser.setCharset(UTF_8);
+    fileAnalyser.setOptions(OPTIONS, PATTERNS);
+    fileAnalyser.setFilePath(file.getPath());
+    fileAnalyser.process();
+    return withoutDateTime(fileAnalyser.toString());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#process()} in AnalysisMode.INCREMENTAL_MODE, which
+   * checks that the statistics are the same as for the whole text file after every append, wherever the appends split
+   * words, sentences, line terminators and multi-byte characters.
+   */
+  @Test
+  public void testProcessIncremental() throws IOException {
+    String[] pieces = { "The cat", " sat", ". Then", "\r", "\n", "the caf\u00e9 \u00e9t", "ait", " closed\r", "\rEnd",
+        ".", " trailing words", "\r" };
+    StringBuilder text = new StringBuilder();
+    for (String piece : pieces) {
+      text.append(piece);
+    }
+    byte[] bytes = text.toString().getBytes(UTF_8);
+
+    Random random = new Random(7);
+    for (int run = 0; run < 20; run++) {
+      Files.write(file.toPath(), new byte[0]);
+      FileAnalyser incremental = new FileAnalyser();
+      incremental.setAnalysisMode(AnalysisMode.INCREMENTAL_MODE);
+      incremental.setCharset(UTF_8);
+      incremental.setOptions(OPTIONS, PATTERNS);
+      incremental.setFilePath(file.getPath());
+
+      // Append the text in random lengths, which often end part-way through a two-byte character
+      int offset = 0;
+      while (offset < bytes.length) {
+        int length = Math.min(bytes.length - offset, 1 + random.nextInt(6));
+        append(bytes, offset, length);
+        offset += length;
+        incremental.process();
+
+        // A character whose second byte has not been written yet is not analysed
+        String expected = analyse(AnalysisMode.STREAMING_MODE);
+        if (offset < bytes.length && (bytes[offset] & 0xC0) == 0x80) {
+          assertFalse("Partial character analysed", expected.equals(withoutDateTime(incremental.toString())));
+          continue;
+        }
+        assertEquals("Statistics differ after " + offset + " bytes", expected, withoutDateTime(incremental.toString()));
+      }
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.IncrementalTextScanner#scan(Statistics)}, which checks that
+   * only appended bytes are scanned, and that a text file that was shortened or rewritten is scanned from the start.
+   */
+  @Test
+  public void testScan() throws IOException {
+    Files.write(file.toPath(), "The first line.\n".getBytes(UTF_8));
+    IncrementalTextScanner scanner = new IncrementalTextScanner(file, UTF_8, true, true, new char[][] { "e".toCharArray() });
+    Statistics stats = new Statistics();
+    scanner.scan(stats);
+    assertEquals("Incorrect offset", 16, scanner.getOffset());
+    assertEquals("Incorrect number of words", 3, stats.getNoOfWords());
+
+    Files.write(file.toPath(), "The second line.\n".getBytes(UTF_8), StandardOpenOption.APPEND);
+    stats = new Statistics();
+    scanner.scan(stats);
+    assertEquals("Incorrect offset", 33, scanner.getOffset());
+    assertEquals("Incorrect number of words", 6, stats.getNoOfWords());
+    assertEquals("Incorrect number of line terminators", 2, scanner.getNoOfLineTerminators());
+    assertEquals("Incorrect number of occurrences", 5, stats.getNoOfTextOCs(0));
+    assertEquals("Restarted needlessly", 0, scanner.getNoOfRestarts());
+
+    // A rewritten text file of the same length is noticed by its last bytes
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      raf.seek(30);
+      raf.write('X');
+    }
+    finally {
+      raf.close();
+    }
+    stats = new Statistics();
+    scanner.scan(stats);
+    assertEquals("Rewrite not noticed", 1, scanner.getNoOfRestarts());
+    assertEquals("Incorrect number of words", 6, stats.getNoOfWords());
+    assertEquals("Incorrect number of occurrences", 4, stats.getNoOfTextOCs(0));
+
+    // A shortened text file is noticed by its size
+    Files.write(file.toPath(), "Short.".getBytes(UTF_8));
+    stats = new Statistics();
+    scanner.scan(stats);
+    assertEquals("Shortening not noticed", 2, scanner.getNoOfRestarts());
+    assertEquals("Incorrect number of words", 1, stats.getNoOfWords());
+    assertEquals("Incorrect offset", 6, scanner.getOffset());
+  }
+
+}
@@ -8,12 +8,16 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import uk.co.bluettduncanj.controller.LogFileHandler;
+import uk.co.bluettduncanj.model.Statistics;
 
 
 /**
@@ -21,6 +25,8 @@ import uk.co.bluettduncanj.controller.LogFileHandler;
  */
 public class LogFileHandlerTest {
   
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  
   private LogFileHandler log;
   //private String fileName = "file name";
   //private String fileDir = "directory";
@@ -60,4 +66,43 @@ public class LogFileHandlerTest {
     
   }
 
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.LogFileHandler#save()}, which checks that a log String is
+   * saved as it is, and that statistics are saved as the same report as Statistics.toString(), replacing anything
+   * that was in the log file before.
+   */
+  @Test
+  public void testSave() throws IOException {
+    File temp = File.createTempFile("log_test", ".txt");
+    try {
+      LogFileHandler stringLog = new LogFileHandler(temp.getAbsolutePath(), statsString);
+      stringLog.setCharset(UTF_8);
+      stringLog.save();
+      assertEquals("Log String not saved", statsString, new String(Files.readAllBytes(temp.toPath()), UTF_8));
+
+      Statistics stats = new Statistics();
+      stats.calcCharFreq("caf\u00e9 au lait".toCharArray());
+      stats.calcNoOfTextOCs("caf\u00e9 au lait".toCharArray(), "a".toCharArray());
+      LogFileHandler statsLog = new LogFileHandler(temp.getAbsolutePath(), null);
+      statsLog.setStatistics(stats);
+      statsLog.setCharset(UTF_8);
+      statsLog.save();
+      String expected = stats.toString();
+      String actual = new String(Files.readAllBytes(temp.toPath()), UTF_8);
+      assertEquals("Statistics not saved", expected.substring(expected.indexOf('\n')), 
+          actual.substring(actual.indexOf('\n')));
+    }
+    finally {
+      temp.delete();
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.LogFileHandler#setStatistics(Statistics)}.
+   */
+  @Test(expected = NullPointerException.class)
+  public void testSetStatisticsNull() {
+    log.setStatistics(null);
+  }
+
 }
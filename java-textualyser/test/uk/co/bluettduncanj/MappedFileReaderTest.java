@@ -0,0 +1,116 @@
+/**
+ * MappedFileReaderTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.MappedFileReader;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class MappedFileReaderTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private File file;
+  private String text;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+
+    // Mix one, two, three and four byte characters so that windows end part-way through characters
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      builder.append("a\u00e9\u20ac\ud83d\ude00 ").append(i).append("\r\n");
+    }
+    text = builder.toString();
+    file = File.createTempFile("mapped", ".txt");
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(text.getBytes(UTF_8));
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+    file = null;
+    text = null;
+  }
+
+  /**
+   * Reads the whole of the test file.
+   */
+  private String readAll(Reader reader) throws IOException {
+    StringBuilder result = new StringBuilder();
+    char[] buffer = new char[7];
+    int n;
+    try {
+      while ((n = reader.read(buffer, 0, buffer.length)) != -1) {
+        result.append(buffer, 0, n);
+      }
+    }
+    finally {
+      reader.close();
+    }
+    return result.toString();
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.MappedFileReader#read(char[], int, int)}.
+   */
+  @Test
+  public void testRead() throws IOException {
+    assertEquals("Text not read properly with default sizes", text, readAll(new MappedFileReader(file, UTF_8)));
+    assertEquals("Text not read properly with small windows", text, readAll(new MappedFileReader(file, UTF_8, 17, 5)));
+    assertEquals("Text not read properly with tiny sizes", text, readAll(new MappedFileReader(file, UTF_8, 1, 1)));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.MappedFileReader#read(char[], int, int)}.
+   */
+  @Test
+  public void testReadMalformed() throws IOException {
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(new byte[] { 'a', (byte) 0xe2, (byte) 0x82 });
+    }
+    finally {
+      out.close();
+    }
+    assertEquals("Malformed input not replaced", "a\ufffd", readAll(new MappedFileReader(file, UTF_8, 16, 4)));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.MappedFileReader#MappedFileReader(File, Charset, int, int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMappedFileReaderBadSize() throws IOException {
+    new MappedFileReader(file, UTF_8, 0, 8192);
+  }
+
+}
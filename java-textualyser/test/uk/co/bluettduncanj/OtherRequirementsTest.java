@@ -5,6 +5,7 @@
 package uk.co.bluettduncanj;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
 import org.junit.Test;
 
@@ -17,7 +18,7 @@ import uk.co.bluettduncanj.controller.FileAnalyser;
 public class OtherRequirementsTest {
 
   @Test
-  public void testRequirementS1() throws NullPointerException, FileNotFoundException {
+  public void testRequirementS1() throws NullPointerException, FileNotFoundException, IOException {
     
     // Set up output for first file
     FileAnalyser fileAnalyser = new FileAnalyser();
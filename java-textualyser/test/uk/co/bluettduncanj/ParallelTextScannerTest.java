@@ -0,0 +1,127 @@
+/**
+ * ParallelTextScannerTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.ParallelTextScanner;
+import uk.co.bluettduncanj.controller.TextScanner;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class ParallelTextScannerTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private File file;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("parallel", ".txt");
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+    file = null;
+  }
+
+  /**
+   * Writes text to the test file in UTF-8.
+   */
+  private void write(String text) throws IOException {
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(text.getBytes(UTF_8));
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Checks that scanning the test file in chunks of every size from 1 to 32 bytes gives the same statistics as scanning
+   * it with one TextScanner.
+   */
+  private void assertSameAsTextScanner(String text, String... patterns) throws IOException {
+    char[][] patternChars = new char[patterns.length][];
+    for (int i = 0; i < patterns.length; i++) {
+      patternChars[i] = patterns[i].toCharArray();
+    }
+    write(text);
+    Statistics expected = new Statistics();
+    expected.startAvgLens();
+    expected.startFrequencies();
+    TextScanner scanner = new TextScanner(expected, true);
+    scanner.scan(new StringReader(text));
+    expected.calcNoOfTextOCs(scanner.getCharacters(), patternChars);
+
+    for (int chunkSize = 1; chunkSize <= 32; chunkSize++) {
+      Statistics actual = new Statistics();
+      actual.startAvgLens();
+      actual.startFrequencies();
+      actual.startTextOCs(patternChars);
+      ParallelTextScanner parallelScanner = new ParallelTextScanner(true, true, patternChars, chunkSize);
+      parallelScanner.scan(file, UTF_8, actual);
+      assertEquals("Statistics differ with a chunk size of " + chunkSize, withoutDateTime(expected.toString()),
+          withoutDateTime(actual.toString()));
+      assertEquals("Line terminators differ with a chunk size of " + chunkSize, scanner.getNoOfLineTerminators(),
+          parallelScanner.getNoOfLineTerminators());
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.ParallelTextScanner#scan(File, Charset, Statistics)}.
+   */
+  @Test
+  public void testScan() throws IOException {
+    assertSameAsTextScanner("Hello World", "o");
+    assertSameAsTextScanner("  The cat sat.  On the mat.\r\nIt looked, and waited!\rThen it slowly left", "at");
+    assertSameAsTextScanner("\r\r\n\n..  . a.b.c.\r\n\r", "..");
+    assertSameAsTextScanner("Caf\u00e9 na\u00efve r\u00e9sum\u00e9d \u00e9l\u00e9ved.\nSingly", "\u00e9");
+    assertSameAsTextScanner("", "a");
+    assertSameAsTextScanner("she sells sea shells by the sea shore", "she", "he", "sea", "s", "e", "hers");
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.ParallelTextScanner#canSplit(Charset)}.
+   */
+  @Test
+  public void testCanSplit() {
+    assertTrue("UTF-8 cannot be split", ParallelTextScanner.canSplit(UTF_8));
+    assertTrue("ISO-8859-1 cannot be split", ParallelTextScanner.canSplit(Charset.forName("ISO-8859-1")));
+    assertFalse("UTF-16 can be split", ParallelTextScanner.canSplit(Charset.forName("UTF-16")));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.ParallelTextScanner#ParallelTextScanner(boolean, boolean, char[][], int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testParallelTextScannerEmptyPattern() {
+    new ParallelTextScanner(true, true, new char[][] { "a".toCharArray(), new char[0] }, 16);
+  }
+
+}
@@ -0,0 +1,190 @@
+/**
+ * ResultCacheTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.ResultCache;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class ResultCacheTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final boolean[] OPTIONS = new boolean[] { true, true, true };
+
+  private static final String[] PATTERNS = new String[] { "the", "a" };
+
+  /** A last-modified time far enough in the past for the hash of a text file to be remembered */
+  private static final long LAST_MODIFIED = System.currentTimeMillis() / 1000 * 1000 - 60 * 1000;
+
+  private File dir;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    dir = Files.createTempDirectory("cache").toFile();
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    delete(dir);
+  }
+
+  /**
+   * Deletes a file, or a directory and everything beneath it.
+   */
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  /**
+   * Writes a text file with the given contents and last-modified time.
+   */
+  private File write(String name, String text, long lastModified) throws IOException {
+    File file = new File(dir, name);
+    Files.write(file.toPath(), text.getBytes(UTF_8));
+    assertTrue("Could not set the last-modified time", file.setLastModified(lastModified));
+    return file;
+  }
+
+  /**
+   * Analyses a text file with a FileAnalyser that uses the given cache.
+   */
+  private static Statistics analyse(File file, ResultCache cache, String... patterns) throws IOException {
+    FileAnalyser fileAnalyser = new FileAnalyser();
+    fileAnalyser.setAnalysisMode(AnalysisMode.STREAMING_MODE);
+    fileAnalyser.setCharset(UTF_8);
+    fileAnalyser.setOptions(OPTIONS, patterns);
+    fileAnalyser.setResultCache(cache);
+    fileAnalyser.setFilePath(file.getPath());
+    fileAnalyser.process();
+    return fileAnalyser.getStatistics();
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#process()} with a ResultCache, which checks that
+   * a text file whose size and last-modified time are unchanged is not read again.
+   */
+  @Test
+  public void testSizeAndLastModifiedShortcut() throws IOException {
+    ResultCache cache = new ResultCache(ResultCache.DEFAULT_MAX_ENTRIES);
+    File file = write("text.txt", "the cat sat on the mat.", LAST_MODIFIED);
+    Statistics first = analyse(file, cache, PATTERNS);
+    assertEquals("Result not cached", 1, cache.getNoOfEntries());
+
+    // Same size and last-modified time, so the stored statistics are returned without reading the new contents
+    write("text.txt", "a dog ran in a big park", LAST_MODIFIED);
+    Statistics second = analyse(file, cache, PATTERNS);
+    assertEquals("Text file read again", 2, second.getNoOfTextOCs(0));
+    assertEquals("Text file read again", first.getNoOfWords(), second.getNoOfWords());
+
+    // A new last-modified time means the text file is hashed and analysed again
+    write("text.txt", "a dog ran in a big park", LAST_MODIFIED - 1000);
+    Statistics third = analyse(file, cache, PATTERNS);
+    assertEquals("Changed text file not analysed again", 0, third.getNoOfTextOCs(0));
+    assertEquals("Changed text file not analysed again", 4, third.getNoOfTextOCs(1));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.ResultCache#getKey(File, Charset, boolean[], String[])},
+   * which checks that the key depends on the contents, options and patterns, and not on the name of the text file.
+   */
+  @Test
+  public void testGetKey() throws IOException {
+    ResultCache cache = new ResultCache(ResultCache.DEFAULT_MAX_ENTRIES);
+    File file = write("one.txt", "the cat sat on the mat.", LAST_MODIFIED);
+    File copy = write("two.txt", "the cat sat on the mat.", LAST_MODIFIED);
+    File other = write("three.txt", "the cat sat on the rug.", LAST_MODIFIED);
+    String key = cache.getKey(file, UTF_8, OPTIONS, PATTERNS).toString();
+    assertEquals("Copy has a different key", key, cache.getKey(copy, UTF_8, OPTIONS, PATTERNS).toString());
+    assertFalse("Different contents have the same key",
+        key.equals(cache.getKey(other, UTF_8, OPTIONS, PATTERNS).toString()));
+    assertFalse("Different patterns have the same key",
+        key.equals(cache.getKey(file, UTF_8, OPTIONS, new String[] { "the" }).toString()));
+    assertFalse("Different options have the same key",
+        key.equals(cache.getKey(file, UTF_8, new boolean[] { true, false, true }, PATTERNS).toString()));
+    assertFalse("Different charsets have the same key",
+        key.equals(cache.getKey(file, Charset.forName("ISO-8859-1"), OPTIONS, PATTERNS).toString()));
+    assertEquals("Patterns not ignored when not analysed",
+        cache.getKey(file, UTF_8, new boolean[] { true, true, false }, PATTERNS).toString(),
+        cache.getKey(file, UTF_8, new boolean[] { true, true, false }, null).toString());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.ResultCache#get(ResultCache.Key)}, which checks that results
+   * stored on disk are found by a new ResultCache.
+   */
+  @Test
+  public void testDiskTier() throws IOException {
+    File cacheDir = new File(dir, "cache");
+    File file = write("text.txt", "the caf\u00e9 is on the corner. A cat sat there.", LAST_MODIFIED);
+    Statistics expected = analyse(file, new ResultCache(1, cacheDir), PATTERNS);
+
+    ResultCache cache = new ResultCache(1, cacheDir);
+    Statistics cached = cache.get(cache.getKey(file, UTF_8, OPTIONS, PATTERNS));
+    assertNotNull("Result not stored on disk", cached);
+    assertEquals("Incorrect result stored on disk", withoutDateTime(expected.toString()),
+        withoutDateTime(cached.toString()));
+    assertEquals("Result on disk not put into memory", 1, cache.getNoOfEntries());
+
+    cache.clear();
+    assertNull("Result not cleared", new ResultCache(1, cacheDir).get(cache.getKey(file, UTF_8, OPTIONS, PATTERNS)));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.ResultCache#put(ResultCache.Key, Statistics)}, which checks
+   * that the least recently used results are evicted from memory, and that the results of a text file modified just
+   * before it was analysed are not stored.
+   */
+  @Test
+  public void testPut() throws IOException {
+    ResultCache cache = new ResultCache(2);
+    for (int i = 0; i < 3; i++) {
+      analyse(write("text" + i + ".txt", "text number " + i, LAST_MODIFIED), cache, PATTERNS);
+    }
+    assertEquals("Least recently used result not evicted", 2, cache.getNoOfEntries());
+
+    cache = new ResultCache(2);
+    analyse(write("recent.txt", "just written", System.currentTimeMillis()), cache, PATTERNS);
+    assertEquals("Result of a recently modified text file stored", 0, cache.getNoOfEntries());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.ResultCache#ResultCache(int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testResultCacheInvalidMaxEntries() {
+    new ResultCache(0);
+  }
+
+}
@@ -0,0 +1,314 @@
+/**
+ * StatisticsRecordTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.StatisticsFileReader;
+import uk.co.bluettduncanj.controller.StatisticsFileWriter;
+import uk.co.bluettduncanj.model.Statistics;
+import uk.co.bluettduncanj.model.StatisticsRecord;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class StatisticsRecordTest {
+
+  private static final String[] TEXTS = {
+    "The cat sat on the mat. The dog sat on the log!",
+    "A caf\u00e9 is a caf\u00e9; a \ud83d\ude00 is not... Is it?",
+    "Slowly, the cat walked and jumped."
+  };
+
+  private static final char[][] PATTERNS = { "cat".toCharArray(), "\u00e9".toCharArray(), "".toCharArray() };
+
+  private File file;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("statisticsrecord", ".stats");
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+    file = null;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.StatisticsRecord#encode(Statistics)}, which checks that every raw
+   * count can be read back from the record.
+   */
+  @Test
+  public void testEncode() {
+    Statistics stats = analyse(TEXTS[1]);
+    ByteBuffer buffer = StatisticsRecord.encode(stats);
+    assertEquals("Record not a multiple of 8 bytes", 0, buffer.remaining() % 8);
+
+    StatisticsRecord record = new StatisticsRecord(buffer, 0);
+    assertEquals("Incorrect length", buffer.remaining(), record.getLength());
+    assertEquals("Incorrect number of sentences", stats.getNoOfSentences(), record.getNoOfSentences());
+    assertEquals("Incorrect total sentence length", stats.getTotalSentenceLen(), record.getTotalSentenceLen());
+    assertEquals("Incorrect number of words", stats.getNoOfWords(), record.getNoOfWords());
+    assertEquals("Incorrect total word length", stats.getTotalWordLen(), record.getTotalWordLen());
+    assertEquals("Incorrect English alphanumerics", stats.getNoOfEnglishANs(), record.getNoOfEnglishANs());
+    assertEquals("Incorrect non-alphanumerics", stats.getNoOfNonANs(), record.getNoOfNonANs());
+    assertEquals("Incorrect whitespaces", stats.getNoOfWhitespaces(), record.getNoOfWhitespaces());
+    assertEquals("Incorrect international characters", stats.getNoOfIntlChars(), record.getNoOfIntlChars());
+    assertEquals("Incorrect suffixes", stats.getNoOfSuffixes(), record.getNoOfSuffixes());
+
+    int[] codePoints = stats.getCharFreq().getCodePoints();
+    assertEquals("Incorrect number of distinct characters", codePoints.length, record.getNoOfDistinctChars());
+    for (int i = 0; i < codePoints.length; i++) {
+      assertEquals("Incorrect code point", codePoints[i], record.getCodePoint(i));
+      assertEquals("Incorrect count", stats.getCharFreq().getCount(codePoints[i]), record.getCharCount(i));
+      assertEquals("Incorrect count looked up", record.getCharCount(i), record.getCountOf(codePoints[i]));
+    }
+    assertEquals("Incorrect count of a supplementary character", 1, record.getCountOf(0x1F600));
+    assertEquals("Incorrect count of a missing character", 0, record.getCountOf('z'));
+
+    assertEquals("Incorrect number of patterns", 3, record.getNoOfPatterns());
+    assertEquals("Incorrect patterns", Arrays.asList(stats.getPatterns()), Arrays.asList(record.getPatterns()));
+    assertTrue("Patterns not matched", record.hasPatterns(new String[] { "cat", "\u00e9", "" }));
+    assertFalse("Different patterns matched", record.hasPatterns(new String[] { "cat", "e", "" }));
+    for (int i = 0; i < PATTERNS.length; i++) {
+      assertEquals("Incorrect number of occurrences", stats.getNoOfTextOCs(i), record.getNoOfTextOCs(i));
+    }
+    assertEquals("Statistics differ", withoutDateTime(stats.toString()), withoutDateTime(record.toStatistics().toString()));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.StatisticsRecord#encode(Statistics)}, which checks that statistics
+   * that have not been calculated stay that way.
+   */
+  @Test
+  public void testEncodeUncalculated() {
+    Statistics stats = new Statistics();
+    StatisticsRecord record = new StatisticsRecord(StatisticsRecord.encode(stats), 0);
+    assertEquals("Incorrect length", StatisticsRecord.HEADER_LENGTH, record.getLength());
+    assertEquals("Number of words calculated", -1, record.getNoOfWords());
+    assertEquals("Histogram calculated", -1, record.getNoOfDistinctChars());
+    assertNull("Patterns counted", record.getPatterns());
+    assertTrue("Not left uncalculated", record.toStatistics().isReset());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.StatisticsRecord#wrap(ByteBuffer, int)}, which checks that a record
+   * is read in place from part-way through a buffer.
+   */
+  @Test
+  public void testWrap() {
+    ByteBuffer first = StatisticsRecord.encode(analyse(TEXTS[0]));
+    ByteBuffer second = StatisticsRecord.encode(analyse(TEXTS[1]));
+    ByteBuffer buffer = ByteBuffer.allocate(first.remaining() + second.remaining());
+    buffer.put(first).put(second);
+
+    StatisticsRecord record = new StatisticsRecord(buffer, 0);
+    assertEquals("Incorrect first record", analyse(TEXTS[0]).getNoOfWords(), record.getNoOfWords());
+    record.wrap(buffer, record.getLength());
+    assertEquals("Incorrect second record", analyse(TEXTS[1]).getNoOfWords(), record.getNoOfWords());
+    assertEquals("Buffer moved", buffer.capacity(), buffer.position());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.StatisticsRecord#wrap(ByteBuffer, int)}.
+   */
+  @Test
+  public void testWrapCorrupt() {
+    ByteBuffer buffer = StatisticsRecord.encode(analyse(TEXTS[1]));
+    ByteBuffer truncated = ByteBuffer.allocate(buffer.remaining() - 8);
+    truncated.put(buffer.array(), 0, truncated.capacity());
+    try {
+      new StatisticsRecord(truncated, 0);
+      fail("Truncated record accepted");
+    }
+    catch (IllegalArgumentException e) {
+      // Expected
+    }
+    buffer.putShort(4, (short) (StatisticsRecord.VERSION + 1));
+    try {
+      new StatisticsRecord(buffer, 0);
+      fail("Unknown version accepted");
+    }
+    catch (IllegalArgumentException e) {
+      // Expected
+    }
+    buffer.putInt(0, 0);
+    try {
+      new StatisticsRecord(buffer, 0);
+      fail("Bad magic number accepted");
+    }
+    catch (IllegalArgumentException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.StatisticsRecord#wrap(ByteBuffer, int)}, where a count or the end
+   * of a pattern other than the last is corrupt.
+   */
+  @Test
+  public void testWrapCorruptPatternEnd() {
+    Statistics stats = new Statistics();
+    stats.startTextOCs(new char[][] { "ab".toCharArray(), "cd".toCharArray(), "ef".toCharArray() });
+    ByteBuffer buffer = StatisticsRecord.encode(stats);
+    int ends = StatisticsRecord.HEADER_LENGTH + 8 * 3;
+    assertEquals("Incorrect end of the first pattern", 2, buffer.getInt(ends));
+    buffer.putInt(ends, 50);
+    try {
+      new StatisticsRecord(buffer, 0);
+      fail("Pattern ending after the pattern chars accepted");
+    }
+    catch (IllegalArgumentException e) {
+      // Expected
+    }
+    buffer.putInt(ends, 5);
+    try {
+      new StatisticsRecord(buffer, 0);
+      fail("Pattern ending after the next one accepted");
+    }
+    catch (IllegalArgumentException e) {
+      // Expected
+    }
+    buffer.putInt(ends, 2);
+    buffer.putLong(StatisticsRecord.HEADER_LENGTH + 8, -1);
+    try {
+      new StatisticsRecord(buffer, 0);
+      fail("Negative number of occurrences accepted");
+    }
+    catch (IllegalArgumentException e) {
+      // Expected
+    }
+
+    buffer = StatisticsRecord.encode(analyse(TEXTS[1]));
+    buffer.putLong(StatisticsRecord.HEADER_LENGTH, -1);
+    try {
+      new StatisticsRecord(buffer, 0);
+      fail("Negative character count accepted");
+    }
+    catch (IllegalArgumentException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.Statistics#merge(StatisticsRecord)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentPatterns() {
+    Statistics stats = new Statistics();
+    stats.calcNoOfTextOCs(TEXTS[0].toCharArray(), "a".toCharArray());
+    stats.merge(new StatisticsRecord(StatisticsRecord.encode(analyse(TEXTS[0])), 0));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.StatisticsFileReader#aggregate()}, which checks that the
+   * records written by a StatisticsFileWriter add up to the same statistics as combining the Statistics objects, whatever
+   * the window size.
+   */
+  @Test
+  public void testAggregate() throws IOException {
+    Statistics expected = new Statistics();
+    StatisticsFileWriter writer = new StatisticsFileWriter(file, false);
+    try {
+      for (String text : TEXTS) {
+        writer.write(analyse(text));
+        expected.merge(analyse(text));
+      }
+    }
+    finally {
+      writer.close();
+    }
+
+    for (int windowSize : new int[] { 1, 100, 300, 1000, StatisticsFileReader.DEFAULT_WINDOW_SIZE }) {
+      StatisticsFileReader reader = new StatisticsFileReader(file, windowSize);
+      try {
+        Statistics actual = reader.aggregate();
+        assertEquals("Statistics differ with a window size of " + windowSize, withoutDateTime(expected.toString()),
+            withoutDateTime(actual.toString()));
+        assertNull("Records after the end", reader.next());
+      }
+      finally {
+        reader.close();
+      }
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.StatisticsFileReader#next()}, which checks that a record cut
+   * short at the end of the file is reported.
+   */
+  @Test
+  public void testNextCutShort() throws IOException {
+    StatisticsFileWriter writer = new StatisticsFileWriter(file, false);
+    try {
+      writer.write(analyse(TEXTS[0]));
+      writer.write(analyse(TEXTS[1]));
+    }
+    finally {
+      writer.close();
+    }
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      raf.setLength(raf.length() - 8);
+    }
+    finally {
+      raf.close();
+    }
+
+    StatisticsFileReader reader = new StatisticsFileReader(file);
+    try {
+      assertNotNull("First record not read", reader.next());
+      reader.next();
+      fail("Record cut short accepted");
+    }
+    catch (IOException e) {
+      // Expected
+    }
+    finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Calculates the raw counts of a text.
+   */
+  private static Statistics analyse(String text) {
+    char[] characters = text.toCharArray();
+    List<String> words = Arrays.asList(text.split("\\s+"));
+    List<String> sentences = Arrays.asList(text.split("[.!?]+\\s*"));
+    Statistics stats = new Statistics();
+    stats.calcAvgSentenceLen(sentences);
+    stats.calcAvgWordLen(words);
+    stats.calcCharFreq(characters);
+    stats.calcNoOfEnglishANs(characters);
+    stats.calcNoOfNonANs(characters);
+    stats.calcNoOfWhitespaces(characters, 1);
+    stats.calcNoOfIntlChars(characters);
+    stats.calcNoOfSuffixes(words);
+    stats.calcNoOfTextOCs(characters, PATTERNS);
+    return stats;
+  }
+
+}
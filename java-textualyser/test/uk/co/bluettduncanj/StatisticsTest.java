@@ -6,6 +6,8 @@ package uk.co.bluettduncanj;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -253,4 +255,101 @@ public class StatisticsTest {
     fail("Not yet implemented");
   }
 
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.Statistics#calcNoOfTextOCs(char[], char[][])}.
+   */
+  @Test
+  public void testCalcNoOfTextOCsPatterns() {
+    char[] body = "she sells sea shells".toCharArray();
+    stats.calcNoOfTextOCs(body, new char[][] { "s".toCharArray(), "he".toCharArray(), "sea".toCharArray() });
+    assertArrayEquals("Patterns not recorded", new String[] { "s", "he", "sea" }, stats.getPatterns());
+    assertEquals("Incorrect number of occurrences of s", 6, stats.getNoOfTextOCs(0));
+    assertEquals("Incorrect number of occurrences of he", 2, stats.getNoOfTextOCs(1));
+    assertEquals("Incorrect number of occurrences of sea", 1, stats.getNoOfTextOCs(2));
+    assertEquals("Incorrect total number of occurrences", 9, stats.getNoOfTextOCs());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.Statistics#writeTo(Appendable)}, which checks that it writes the
+   * same report as toString(), including characters outside the Basic Multilingual Plane.
+   */
+  @Test
+  public void testWriteTo() throws IOException {
+    StringWriter out = new StringWriter();
+    stats.writeTo(out);
+    assertEquals("Report written before any analysis", "", out.toString());
+
+    Statistics analysed = analyse(2);
+    analysed.calcCharFreq("caf\u00e9 \ud83d\ude00".toCharArray());
+    analysed.writeTo(out);
+    String expected = analysed.toString();
+    String actual = out.toString();
+    assertEquals("Reports differ", expected.substring(expected.indexOf('\n')), actual.substring(actual.indexOf('\n')));
+    assertTrue("Supplementary character missing", actual.contains("\ud83d\ude00: 16.67%"));
+  }
+
+  /**
+   * Private helper method that calculates every statistic for one of the test texts.
+   */
+  private Statistics analyse(int testIndex) {
+    Statistics result = new Statistics();
+    result.calcAvgSentenceLen(testSs.get(testIndex));
+    result.calcAvgWordLen(testWs.get(testIndex));
+    result.calcCharFreq(testCs.get(testIndex));
+    result.calcNoOfEnglishANs(testCs.get(testIndex));
+    result.calcNoOfWhitespaces(testCs.get(testIndex), 1);
+    result.calcNoOfSuffixes(testWs.get(testIndex));
+    result.calcNoOfTextOCs(testCs.get(testIndex), "is".toCharArray());
+    return result;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.Statistics#merge(Statistics)}.
+   */
+  @Test
+  public void testMerge() {
+    Statistics first = analyse(0);
+    Statistics second = analyse(2);
+    first.merge(second);
+    assertEquals("Number of words not merged", 9, first.getNoOfWords());
+    assertEquals("Total word length not merged", 11 + 38, first.getTotalWordLen());
+    assertEquals("Average word length not merged", 49.0 / 9, first.getAvgWordLen(), 0.0);
+    assertEquals("Number of sentences not merged", 4, first.getNoOfSentences());
+    assertEquals("Character counts not merged", 15 + 42, first.getCharFreq().getTotal());
+    assertEquals("Whitespaces not merged", 3 + 1 + 4 + 1, first.getNoOfWhitespaces());
+    assertEquals("Text occurrences not merged", 2 + 1, first.getNoOfTextOCs());
+    assertEquals("Merged object was changed", 5, second.getNoOfWords());
+
+    // Statistics that were only calculated by one object are taken as they are
+    stats.merge(second);
+    assertEquals("Uncalculated statistic not taken as it is", 5, stats.getNoOfWords());
+    assertEquals("Uncalculated statistic not left alone", -1, new Statistics(stats).getNoOfIntlChars());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.Statistics#merge(Statistics)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentPatterns() {
+    Statistics other = new Statistics();
+    other.calcNoOfTextOCs(testCs.get(0), "a".toCharArray());
+    stats.calcNoOfTextOCs(testCs.get(0), "is".toCharArray());
+    stats.merge(other);
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.Statistics#combine(Statistics, Statistics)}.
+   */
+  @Test
+  public void testCombine() {
+    Statistics a = analyse(0);
+    Statistics b = analyse(1);
+    Statistics c = analyse(2);
+    String left = Statistics.combine(Statistics.combine(a, b), c).toString();
+    String right = Statistics.combine(a, Statistics.combine(b, c)).toString();
+    assertEquals("Combining is not associative", left.substring(left.indexOf('\n')), right.substring(right.indexOf('\n')));
+    assertEquals("Combined object was changed", 4, a.getNoOfWords());
+    assertEquals("Combined object was changed", 1, b.getNoOfWords());
+  }
+
 }
@@ -0,0 +1,95 @@
+/**
+ * StreamingStringMatcherTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.randomChars;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AhoCorasickStringMatcher;
+import uk.co.bluettduncanj.controller.StreamingStringMatcher;
+import uk.co.bluettduncanj.controller.TextScanner;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class StreamingStringMatcherTest {
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.StreamingStringMatcher#feed(char[], int, int)}.
+   */
+  @Test
+  public void testFeed() {
+    StreamingStringMatcher matcher = new StreamingStringMatcher(new char[][] { "abc".toCharArray(), "".toCharArray() });
+    matcher.feed("xxa".toCharArray());
+    matcher.feed("-b-".toCharArray(), 1, 1);
+    matcher.feed(CharBuffer.wrap("cab"));
+    matcher.feed('c');
+    assertArrayEquals("Matches across segments not counted", new long[] { 2, 9 }, matcher.getCounts());
+    assertEquals("Incorrect length", 8, matcher.getLength());
+
+    matcher.reset();
+    assertArrayEquals("Matcher not reset", new long[] { 0, 1 }, matcher.getCounts());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.StreamingStringMatcher#feed(CharBuffer)}, which checks that
+   * feeding random texts in random segments gives exactly the same counts as searching each text in one go.
+   */
+  @Test
+  public void testFeedRandom() {
+    Random random = new Random(42);
+    String alphabet = "ab\u00e9\u5927";
+    for (int n = 0; n < 300; n++) {
+      char[] text = randomChars(random, alphabet, random.nextInt(300));
+      char[][] patterns = new char[1 + random.nextInt(6)][];
+      for (int p = 0; p < patterns.length; p++) {
+        patterns[p] = randomChars(random, alphabet, random.nextInt(6));
+      }
+      AhoCorasickStringMatcher ac = new AhoCorasickStringMatcher(patterns);
+      StreamingStringMatcher matcher = new StreamingStringMatcher(ac);
+      int i = 0;
+      while (i < text.length) {
+        int length = Math.min(text.length - i, random.nextInt(8));
+        switch (random.nextInt(3)) {
+          case 0:
+            matcher.feed(text, i, length);
+            break;
+          case 1:
+            matcher.feed(CharBuffer.wrap(text, i, length));
+            break;
+          default:
+            matcher.feed(CharBuffer.wrap(new String(text, i, length)));
+            break;
+        }
+        i += length;
+      }
+      assertArrayEquals("Streamed counts differ from a single search", ac.search(text), matcher.getCounts());
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.TextScanner#TextScanner(Statistics, StreamingStringMatcher)}.
+   */
+  @Test
+  public void testTextScanner() throws IOException {
+    StreamingStringMatcher matcher = new StreamingStringMatcher(new char[][] { "ab".toCharArray(), "b".toCharArray() });
+    TextScanner scanner = new TextScanner(new Statistics(), matcher);
+    scanner.scan(new StringReader("ab a\r\nb ba\nab"));
+    assertNull("Characters were stored", scanner.getCharacters());
+
+    // Line terminators are not fed, so "a\r\nb" is searched as "ab"
+    assertArrayEquals("Incorrect number of matches", new long[] { 3, 4 }, matcher.getCounts());
+  }
+
+}
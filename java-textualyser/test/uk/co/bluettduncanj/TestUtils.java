@@ -0,0 +1,40 @@
+/**
+ * TestUtils.java
+ */
+
+package uk.co.bluettduncanj;
+
+import java.util.Random;
+
+
+/**
+ * TestUtils holds the helper methods that are shared by several of the test classes.
+ *
+ * @author Jonathan Bluett-Duncan
+ */
+public final class TestUtils {
+
+  /** TestUtils only has static methods, so it is never instantiated */
+  private TestUtils() {
+    super();
+  }
+
+  /**
+   * Removes the first line of a statistics String, which holds the date and time it was created.
+   */
+  public static String withoutDateTime(String statistics) {
+    return statistics.substring(statistics.indexOf('\n') + 1);
+  }
+
+  /**
+   * Generates a random array of chars from an alphabet.
+   */
+  public static char[] randomChars(Random random, String alphabet, int length) {
+    char[] result = new char[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+    }
+    return result;
+  }
+
+}
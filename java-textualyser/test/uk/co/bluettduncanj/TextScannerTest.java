@@ -0,0 +1,90 @@
+/**
+ * TextScannerTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.TextScanner;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class TextScannerTest {
+
+  private TextScanner scanner;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    scanner = new TextScanner();
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    scanner = null;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.TextScanner#scan(java.io.Reader)}.
+   * @throws IOException
+   */
+  @Test
+  public void testScanCharacters() throws IOException {
+    scanner.scan(new StringReader("ab\r\ncd\ne\rf"));
+    assertEquals("Line terminators not removed from characters", "abcdef", new String(scanner.getCharacters()));
+    assertEquals("Incorrect number of line terminators", 4, scanner.getNoOfLineTerminators());
+
+    scanner.scan(new StringReader("ab\n"));
+    assertEquals("Incorrect number of line terminators", 1, scanner.getNoOfLineTerminators());
+
+    scanner.scan(new StringReader(""));
+    assertEquals("Characters found in an empty text", 0, scanner.getCharacters().length);
+    assertEquals("Line terminators found in an empty text", 0, scanner.getNoOfLineTerminators());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.TextScanner#scan(java.io.Reader)}.
+   * @throws IOException
+   */
+  @Test
+  public void testScanWords() throws IOException {
+    scanner.scan(new StringReader("This phrase. contains,multiple\r\nwords. "));
+    assertEquals("Words not parsed correctly", Arrays.asList("This", "phrase", "contains", "multiple", "words"),
+        scanner.getWords());
+
+    // The final character of the text is never added onto an unfinished word
+    scanner.scan(new StringReader("Hello World"));
+    assertEquals("Words not parsed correctly", Arrays.asList("Hello", "Worl"), scanner.getWords());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.TextScanner#scan(java.io.Reader)}.
+   * @throws IOException
+   */
+  @Test
+  public void testScanSentences() throws IOException {
+    scanner.scan(new StringReader("This phrase. contains.\r\nmultiple sentences"));
+    assertEquals("Sentences not parsed correctly", Arrays.asList("This phrase.", "contains.", "multiple sentences"),
+        scanner.getSentences());
+
+    scanner.scan(new StringReader("Two\r\rlines.\r"));
+    assertEquals("Sentences not parsed correctly", Arrays.asList("Two  lines."), scanner.getSentences());
+  }
+
+}
@@ -0,0 +1,249 @@
+/**
+ * TopWordsTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.ParallelTextScanner;
+import uk.co.bluettduncanj.controller.TextScanner;
+import uk.co.bluettduncanj.model.Statistics;
+import uk.co.bluettduncanj.model.TopWords;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class TopWordsTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final String TEXT = "The cat sat on the mat. The dog sat on THE log, and the cat ran.\n" +
+      "A caf\u00e9 is a caf\u00e9; a cat is not.";
+
+  private File file;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("topwords", ".txt");
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(TEXT.getBytes(UTF_8));
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+    file = null;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.TopWords#getTop()}, where every distinct word fits into the
+   * capacity, so every count is exact.
+   */
+  @Test
+  public void testGetTopExact() {
+    TopWords topWords = new TopWords(3, TopWords.EXACT);
+    for (String word : "b a The c the a THE b a".split(" ")) {
+      topWords.add(word);
+    }
+    List<TopWords.Entry> top = topWords.getTop();
+    assertTrue("Counts not exact", topWords.isExact());
+    assertEquals("Incorrect total", 9, topWords.getTotal());
+    assertEquals("Incorrect number of words", 3, top.size());
+    assertEntry("a", 3, 0, top.get(0));
+    assertEntry("the", 3, 0, top.get(1));
+    assertEntry("b", 2, 0, top.get(2));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.TopWords#add(CharSequence)}, which checks the guarantees of the
+   * Space-Saving algorithm once there are more distinct words than the capacity: every count is an overestimate by at
+   * most its error, and every word that appears more than (total / capacity) times is counted.
+   */
+  @Test
+  public void testAddApproximate() {
+    Random random = new Random(7);
+    Map<String, Integer> exact = new HashMap<String, Integer>();
+    TopWords topWords = new TopWords(5, 50);
+    for (int i = 0; i < 20000; i++) {
+
+      // A few frequent words among many rare ones
+      String word = (random.nextInt(4) == 0) ? "w" + random.nextInt(5) : "r" + random.nextInt(2000);
+      topWords.add(word);
+      Integer count = exact.get(word);
+      exact.put(word, (count == null) ? 1 : count + 1);
+    }
+    assertFalse("Counts claimed to be exact", topWords.isExact());
+
+    List<TopWords.Entry> top = topWords.getTop();
+    assertEquals("Incorrect number of words", 5, top.size());
+    for (TopWords.Entry entry : top) {
+      long actual = exact.get(entry.getWord());
+      assertTrue("Count underestimated for " + entry.getWord(), entry.getCount() >= actual);
+      assertTrue("Error too small for " + entry.getWord(), entry.getCount() - entry.getError() <= actual);
+      assertTrue("Frequent word missing: " + entry.getWord(), entry.getWord().startsWith("w"));
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.TopWords#merge(TopWords)}, which checks that merging the words of
+   * two halves gives the same counts as adding every word to one TopWords.
+   */
+  @Test
+  public void testMerge() {
+    String[] words = TEXT.toLowerCase().split("[^\\p{L}]+");
+    TopWords whole = new TopWords(4);
+    TopWords first = new TopWords(4);
+    TopWords second = new TopWords(4);
+    for (int i = 0; i < words.length; i++) {
+      whole.add(words[i]);
+      (i < words.length / 2 ? first : second).add(words[i]);
+    }
+    first.merge(second);
+    assertTrue("Counts not exact", first.isExact());
+    assertEquals("Incorrect total", whole.getTotal(), first.getTotal());
+    List<TopWords.Entry> expected = whole.getTop();
+    List<TopWords.Entry> actual = first.getTop();
+    assertEquals("Incorrect number of words", expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEntry(expected.get(i).getWord(), expected.get(i).getCount(), 0, actual.get(i));
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.model.TopWords#TopWords(int, int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTopWordsInvalidCapacity() {
+    new TopWords(10, 9);
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#setTopWords(int, int)}, which checks that every
+   * analysis mode finds the same most frequent words.
+   */
+  @Test
+  public void testFileAnalyserModes() throws Exception {
+    String expected = null;
+    for (AnalysisMode mode : AnalysisMode.values()) {
+      FileAnalyser fileAnalyser = new FileAnalyser();
+      fileAnalyser.setAnalysisMode(mode);
+      fileAnalyser.setCharset(UTF_8);
+      fileAnalyser.setOptions(new boolean[] { false, true, false }, null);
+      fileAnalyser.setTopWords(3);
+      fileAnalyser.setFilePath(file.getPath());
+      fileAnalyser.process();
+      String actual = withoutDateTime(fileAnalyser.toString());
+      assertTrue("Most frequent words missing in " + mode, actual.contains("--- Most frequent words ---"));
+      if (expected == null) {
+        assertTrue("Incorrect most frequent word", actual.contains("the: 5\n") || actual.contains("the: 5\r\n"));
+        expected = actual;
+      }
+      assertEquals("Statistics differ in " + mode, expected, actual);
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#setTopWords(int, int)}, which checks that a text
+   * file with more distinct words than the capacity, and large enough to be split into several chunks, gives the same
+   * approximate most frequent words in parallel mode as in streaming mode.
+   */
+  @Test
+  public void testFileAnalyserModesApproximate() throws Exception {
+    File large = File.createTempFile("topwords", ".txt");
+    try {
+      Random random = new Random(17);
+      StringBuilder text = new StringBuilder();
+      while (text.length() <= 2 * ParallelTextScanner.DEFAULT_CHUNK_SIZE) {
+        text.append('w').append(random.nextInt(4000)).append(' ');
+      }
+      OutputStream out = new FileOutputStream(large);
+      try {
+        out.write(text.toString().getBytes(UTF_8));
+      }
+      finally {
+        out.close();
+      }
+      
+      String expected = null;
+      for (AnalysisMode mode : new AnalysisMode[] { AnalysisMode.STREAMING_MODE, AnalysisMode.PARALLEL_MODE }) {
+        FileAnalyser fileAnalyser = new FileAnalyser();
+        fileAnalyser.setAnalysisMode(mode);
+        fileAnalyser.setCharset(UTF_8);
+        fileAnalyser.setOptions(new boolean[] { false, true, false }, null);
+        fileAnalyser.setTopWords(5, 100);
+        fileAnalyser.setFilePath(large.getPath());
+        fileAnalyser.process();
+        String actual = withoutDateTime(fileAnalyser.toString());
+        assertTrue("Counts not approximate in " + mode, actual.contains("--- Most frequent words (approximate) ---"));
+        if (expected == null) {
+          expected = actual;
+        }
+        assertEquals("Statistics differ in " + mode, expected, actual);
+      }
+    }
+    finally {
+      large.delete();
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.ParallelTextScanner#setTopWords(int, int)}, which checks that
+   * words split across chunks of every size from 1 to 16 bytes are counted whole.
+   */
+  @Test
+  public void testParallelTextScanner() throws IOException {
+    Statistics expected = new Statistics();
+    expected.startTopWords(20, TopWords.EXACT);
+    new TextScanner(expected, false).scan(new StringReader(TEXT));
+    for (int chunkSize = 1; chunkSize <= 16; chunkSize++) {
+      ParallelTextScanner scanner = new ParallelTextScanner(false, false, null, chunkSize);
+      scanner.setTopWords(20, TopWords.EXACT);
+      Statistics actual = new Statistics();
+      actual.startTopWords(20, TopWords.EXACT);
+      scanner.scan(file, UTF_8, actual);
+      assertEquals("Statistics differ with a chunk size of " + chunkSize, withoutDateTime(expected.toString()),
+          withoutDateTime(actual.toString()));
+    }
+  }
+
+  /**
+   * Checks the word, count and error of an entry.
+   */
+  private static void assertEntry(String word, long count, long error, TopWords.Entry entry) {
+    assertEquals("Incorrect word", word, entry.getWord());
+    assertEquals("Incorrect count for " + word, count, entry.getCount());
+    assertEquals("Incorrect error for " + word, error, entry.getError());
+  }
+
+}
@@ -0,0 +1,198 @@
+/**
+ * WordIndexTest.java
+ */
+
+package uk.co.bluettduncanj;
+
+import static org.junit.Assert.*;
+import static uk.co.bluettduncanj.TestUtils.withoutDateTime;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.bluettduncanj.controller.AnalysisMode;
+import uk.co.bluettduncanj.controller.BoyerMooreStringMatcher;
+import uk.co.bluettduncanj.controller.FileAnalyser;
+import uk.co.bluettduncanj.controller.TextScanner;
+import uk.co.bluettduncanj.controller.WordIndex;
+import uk.co.bluettduncanj.model.Statistics;
+
+
+/**
+ * @author Jonathan Bluett-Duncan
+ */
+public class WordIndexTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final String TEXT = "The cat sat on the mat. The dog sat on the log, and the cat ran.\r\n" +
+      "A caf\u00e9 is a caf\u00e9; a cat is not.\nThe  cat sat on the mat.  The end\nless road.";
+
+  private static final String[] PATTERNS = {
+    "cat", "at", "a", "The", "the cat", "cat sat", "sat on the", "The cat sat on the mat", "mat.  The", "mat. The",
+    "caf\u00e9; a", "dog", "endless", "endl", "d\nl", "not.The", "zebra", "the  cat", "on the log, and"
+  };
+
+  private File file;
+
+  private File directory;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("wordindex", ".txt");
+    write(file, TEXT);
+    directory = Files.createTempDirectory("wordindex").toFile();
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    file.delete();
+    file = null;
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        f.delete();
+      }
+    }
+    directory.delete();
+    directory = null;
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.WordIndex#count(String)}, which checks that word and phrase
+   * patterns are counted exactly as often as scanning the characters of the text file finds them.
+   */
+  @Test
+  public void testCount() throws IOException {
+    WordIndex index = WordIndex.build(file, UTF_8);
+    char[] characters = getCharacters(TEXT);
+    for (String pattern : PATTERNS) {
+      assertTrue("Pattern cannot be counted: " + pattern, WordIndex.canCount(pattern));
+      long expected = new BoyerMooreStringMatcher(pattern.toCharArray()).search(characters);
+      assertEquals("Incorrect count of '" + pattern + "'", expected, index.count(pattern));
+    }
+    assertEquals("Incorrect number of terms", 34, index.getNoOfTerms());
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.WordIndex#getPositions(String)}.
+   */
+  @Test
+  public void testGetPositions() throws IOException {
+    WordIndex index = WordIndex.build(file, UTF_8);
+    String characters = new String(getCharacters(TEXT));
+    for (String pattern : PATTERNS) {
+      long[] positions = index.getPositions(pattern);
+      assertEquals("Incorrect number of positions of '" + pattern + "'", index.count(pattern), positions.length);
+      int from = 0;
+      for (long position : positions) {
+        int expected = characters.indexOf(pattern, from);
+        assertEquals("Incorrect position of '" + pattern + "'", expected, position);
+        from = expected + 1;
+      }
+    }
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.WordIndex#canCount(String)}.
+   */
+  @Test
+  public void testCanCount() throws IOException {
+    assertFalse("Empty pattern counted", WordIndex.canCount(""));
+    assertFalse("Pattern starting with a space counted", WordIndex.canCount(" cat"));
+    assertFalse("Pattern ending with punctuation counted", WordIndex.canCount("cat."));
+    assertEquals("Uncountable pattern counted", -1, WordIndex.build(file, UTF_8).count(", "));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.WordIndex#open(File, Charset, File)}, which checks that an
+   * index is saved, and that it is built again once the text file has changed.
+   */
+  @Test
+  public void testOpen() throws IOException {
+    assertTrue(file.setLastModified(System.currentTimeMillis() - 60000));
+    assertEquals("Incorrect count", 4, WordIndex.open(file, UTF_8, directory).count("cat"));
+    assertEquals("Index not saved", 1, directory.listFiles().length);
+    WordIndex loaded = WordIndex.open(file, UTF_8, directory);
+    assertTrue("Index not of the text file", loaded.isFor(file, UTF_8));
+    assertEquals("Incorrect count after loading", 4, loaded.count("cat"));
+    assertEquals("Incorrect phrase count after loading", 2, loaded.count("cat sat on"));
+
+    write(file, "A cat, a cat and a dog.");
+    assertTrue(file.setLastModified(System.currentTimeMillis() - 30000));
+    assertFalse("Index still of the changed text file", loaded.isFor(file, UTF_8));
+    assertEquals("Incorrect count after a change", 2, WordIndex.open(file, UTF_8, directory).count("cat"));
+  }
+
+  /**
+   * Test method for {@link uk.co.bluettduncanj.controller.FileAnalyser#setWordIndexDirectory(File)}, which checks that
+   * every analysis mode gives the same statistics with a word index as without one, for patterns that the word index
+   * can count and for those that must be scanned for.
+   */
+  @Test
+  public void testFileAnalyserModes() throws Exception {
+    String[] patterns = { "cat", " the", "sat on the", "", "mat.", "caf\u00e9" };
+    for (AnalysisMode mode : AnalysisMode.values()) {
+      for (boolean[] options : new boolean[][] { { false, false, true }, { true, true, true } }) {
+        FileAnalyser expected = new FileAnalyser();
+        expected.setAnalysisMode(mode);
+        expected.setCharset(UTF_8);
+        expected.setOptions(options, patterns);
+        expected.setFilePath(file.getPath());
+        expected.process();
+
+        FileAnalyser actual = new FileAnalyser();
+        actual.setAnalysisMode(mode);
+        actual.setCharset(UTF_8);
+        actual.setOptions(options, patterns);
+        actual.setWordIndexDirectory(directory);
+        actual.setFilePath(file.getPath());
+        actual.process();
+        assertEquals("Statistics differ in " + mode, withoutDateTime(expected.toString()),
+            withoutDateTime(actual.toString()));
+
+        Statistics stats = actual.getStatistics();
+        assertEquals("Incorrect count of 'cat' in " + mode, 4, stats.getNoOfTextOCs(0));
+        assertEquals("Incorrect count of ' the' in " + mode, 4, stats.getNoOfTextOCs(1));
+      }
+    }
+  }
+
+  /**
+   * Finds the characters that the 'Text Occurrences' statistic is counted over, i.e. those without line terminators.
+   */
+  private static char[] getCharacters(String text) throws IOException {
+    TextScanner scanner = new TextScanner();
+    scanner.scan(new StringReader(text));
+    return scanner.getCharacters();
+  }
+
+  /**
+   * Writes a text file in UTF-8.
+   */
+  private static void write(File file, String text) throws IOException {
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(text.getBytes(UTF_8));
+    }
+    finally {
+      out.close();
+    }
+  }
+
+}